@@ -0,0 +1,37 @@
+package com.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+    public static final String BOOKS_BY_ISBN = "booksByIsbn";
+    public static final String MEMBERS = "members";
+
+    // Caffeine evicts by W-TinyLFU once maximumSize is reached; see library.cache.spec
+    @Bean
+    public CacheManager cacheManager(@Value("${library.cache.spec:maximumSize=10000,expireAfterWrite=10m}") String spec) {
+        CaffeineCacheManager manager = new CaffeineCacheManager(BOOKS, BOOKS_BY_ISBN, MEMBERS) {
+            // A lookup that raced with an update's eviction must not put the old row back
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new VersionedCache(name, cache, isAllowNullValues());
+            }
+        };
+        manager.setCaffeine(Caffeine.from(spec).recordStats());
+        manager.setAllowNullValues(false);
+        // Puts and evictions inside a transaction wait for its commit, so a
+        // rolled-back change never reaches the cache
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+}
@@ -1,7 +1,6 @@
 package com.library.config;
 
-import com.library.model.User;
-import com.library.repository.UserRepository;
+import com.library.service.UserStatusCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,17 +14,16 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Optional;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final UserStatusCache userStatusCache;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UserRepository userRepository) {
+    public JwtAuthFilter(JwtUtil jwtUtil, UserStatusCache userStatusCache) {
         this.jwtUtil = jwtUtil;
-        this.userRepository = userRepository;
+        this.userStatusCache = userStatusCache;
     }
 
     @Override
@@ -41,25 +39,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         try {
-            final String jwt = authHeader.substring(7);
-            final String username = jwtUtil.extractUsername(jwt);
+            // One verification per token lifetime; subject, role and exp come from the same parse
+            final JwtUtil.VerifiedToken token = jwtUtil.verify(authHeader.substring(7));
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                Optional<User> userOpt = userRepository.findByUsername(username);
+            if (token != null && token.getUsername() != null
+                    && SecurityContextHolder.getContext().getAuthentication() == null
+                    && userStatusCache.exists(token.getUsername())) {
 
-                if (userOpt.isPresent() && jwtUtil.validateToken(jwt, username)) {
-                    User user = userOpt.get();
-                    String role = jwtUtil.extractRole(jwt);
-
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    username,
-                                    null,
-                                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
-                            );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(
+                                token.getUsername(),
+                                null,
+                                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + token.getRole()))
+                        );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: " + e.getMessage());
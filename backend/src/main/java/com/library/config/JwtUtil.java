@@ -1,6 +1,8 @@
 package com.library.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,23 +10,92 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final long expiration;
+    private final int claimsCacheSize;
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    // Built once; the key and the parser are immutable and thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Verified tokens by SHA-256 of the token, each dropped at its exp
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration,
+                   @Value("${jwt.claims-cache-size:10000}") int claimsCacheSize) {
+        this.expiration = expiration;
+        this.claimsCacheSize = claimsCacheSize;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
+    /**
+     * Verify a token once and return its subject, role and expiry, or null if
+     * the signature is bad or the token has expired. Repeat calls for the same
+     * token are answered from memory until the token expires.
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verified.get(key);
+        if (cached != null) {
+            if (cached.getExpiresAt() > now) {
+                return cached;
+            }
+            verified.remove(key, cached);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date exp = claims.getExpiration();
+        VerifiedToken result = new VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+                exp != null ? exp.getTime() : Long.MAX_VALUE);
+        // Tokens without exp are still accepted, but only tokens that expire are cached
+        if (exp != null && claimsCacheSize > 0) {
+            if (verified.size() >= claimsCacheSize) {
+                evict(now);
+            }
+            verified.put(key, result);
+        }
+        return result;
+    }
+
+    // Drop expired entries; if the cache is still full, drop a tenth of it
+    private void evict(long now) {
+        verified.values().removeIf(t -> t.getExpiresAt() <= now);
+        int excess = verified.size() - claimsCacheSize + Math.max(1, claimsCacheSize / 10);
+        Iterator<String> it = verified.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     public String extractUsername(String token) {
@@ -45,11 +116,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private boolean isTokenExpired(String token) {
@@ -68,7 +135,7 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -76,4 +143,20 @@ public class JwtUtil {
         final String extractedUsername = extractUsername(token);
         return (extractedUsername.equals(username) && !isTokenExpired(token));
     }
+
+    public static final class VerifiedToken {
+        private final String username;
+        private final String role;
+        private final long expiresAt;
+
+        public VerifiedToken(String username, String role, long expiresAt) {
+            this.username = username;
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getUsername() { return username; }
+        public String getRole() { return role; }
+        public long getExpiresAt() { return expiresAt; }
+    }
 }
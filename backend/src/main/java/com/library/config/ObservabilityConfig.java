@@ -0,0 +1,68 @@
+package com.library.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics beyond what Actuator binds on its own (JVM, GC, HikariCP, caches,
+ * Hibernate statistics and http.server.requests): a controller tag on
+ * request timings and a count of SQL statements per request.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    // Static, so it is in place before the DataSource bean is created
+    @Bean
+    public static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? StatementCounter.counting(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(
+            StatementCounter statementCounter, MeterRegistry registry,
+            @Value("${library.metrics.n-plus-one-threshold:20}") int nPlusOneThreshold) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(
+                new QueryCountFilter(statementCounter, registry, nPlusOneThreshold));
+        registration.addUrlPatterns("/api/*");
+        // Outermost, so statements run by the security filters are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Adds controller=BookController etc. to http.server.requests
+    @Bean
+    public DefaultServerRequestObservationConvention controllerTagConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+                String controller = handler instanceof HandlerMethod method
+                        ? method.getBeanType().getSimpleName() : "none";
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("controller", controller));
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request ran, per endpoint. A request
+ * over the threshold is counted and logged as a likely N+1: one query for a
+ * list, then one more for each row.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry registry;
+    private final int nPlusOneThreshold;
+
+    public QueryCountFilter(StatementCounter statementCounter, MeterRegistry registry, int nPlusOneThreshold) {
+        this.statementCounter = statementCounter;
+        this.registry = registry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        statementCounter.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = statementCounter.end();
+            // The route pattern, not the raw path, so IDs do not each become a tag value
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("library.db.statements.per.request")
+                    .description("SQL statements run while serving one request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(statements);
+            if (statements >= nPlusOneThreshold) {
+                Counter.builder("library.db.n_plus_one.suspected")
+                        .description("Requests that ran more statements than library.metrics.n-plus-one-threshold")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(registry)
+                        .increment();
+                log.warn("{} {} ran {} SQL statements; likely N+1", request.getMethod(), uri, statements);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.library.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Keeps read-through puts from bringing back a value that was evicted while it
+// was being loaded. A @Cacheable miss records the key's version before the
+// loader runs; every eviction bumps it. The put that follows the miss (after
+// the reader's commit, through TransactionAwareCacheManagerProxy) is dropped
+// if the version moved, e.g. a checkout committed and evicted the book between
+// the reader's SELECT and its put. Still a CaffeineCache, so the cache metrics bind to it.
+public class VersionedCache extends CaffeineCache {
+
+    // Versions are striped: a bump can only cost another key one cache fill
+    private static final int STRIPES = 1024;
+    // Misses never followed by a put (missing rows, failed loaders) are forgotten past this
+    private static final int MAX_PENDING = 64;
+
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final AtomicLong clears = new AtomicLong();
+    private final ThreadLocal<Map<Object, Long>> pending = ThreadLocal.withInitial(HashMap::new);
+
+    public VersionedCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                          boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    // get(key, valueLoader) is not routed here: Caffeine computes under the
+    // key's lock and an eviction waits for it, so it needs no check
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value == null) {
+            missed(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Long seen = pending.get().remove(key);
+        if (seen == null) {
+            // No miss on this thread to date the value by; it may predate an eviction
+            return;
+        }
+        super.put(key, value);
+        // An eviction that bumped the version after this check runs after the put and removes it
+        if (version(key) != seen) {
+            super.evict(key);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        bump(key);
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        bump(key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        clears.incrementAndGet();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        clears.incrementAndGet();
+        return super.invalidate();
+    }
+
+    private void missed(Object key) {
+        Map<Object, Long> keys = pending.get();
+        if (keys.size() >= MAX_PENDING) {
+            keys.clear();
+        }
+        keys.put(key, version(key));
+    }
+
+    private long version(Object key) {
+        return clears.get() + versions.get(stripe(key));
+    }
+
+    private void bump(Object key) {
+        versions.incrementAndGet(stripe(key));
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -40,9 +40,12 @@ public class AuthController {
 
     @PostMapping("/register")
     @Operation(summary = "Register a new user")
-    public ResponseEntity<Object> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<Object> register(@Valid @RequestBody RegisterRequest request,
+                                           Authentication authentication) {
+        boolean admin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
         try {
-            User user = authService.register(request);
+            User user = authService.register(request, admin);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(Map.of(
                             "message", "User registered successfully",
@@ -10,7 +10,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -25,9 +24,16 @@ public class BookController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all books")
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return ResponseEntity.ok(bookService.findAll());
+    @Operation(summary = "List books one page at a time (sort=id or title; pass nextCursor as cursor)")
+    public ResponseEntity<Object> getAllBooks(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int limit,
+                                              @RequestParam(defaultValue = "id") String sort) {
+        try {
+            return ResponseEntity.ok(bookService.findPage(cursor, limit, sort));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
@@ -40,9 +46,16 @@ public class BookController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search books by title, author, or ISBN")
-    public ResponseEntity<List<Book>> searchBooks(@RequestParam String q) {
-        return ResponseEntity.ok(bookService.search(q));
+    @Operation(summary = "Search books by title, author, or ISBN, best matches first")
+    public ResponseEntity<Object> searchBooks(@RequestParam String q,
+                                              @RequestParam(defaultValue = "0") int offset,
+                                              @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(bookService.search(q, offset, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PostMapping
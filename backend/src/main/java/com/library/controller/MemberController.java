@@ -25,9 +25,16 @@ public class MemberController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all members")
-    public ResponseEntity<List<Member>> getAllMembers() {
-        return ResponseEntity.ok(memberService.findAll());
+    @Operation(summary = "List members one page at a time (sort=id or name; pass nextCursor as cursor)")
+    public ResponseEntity<Object> getAllMembers(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "50") int limit,
+                                                @RequestParam(defaultValue = "id") String sort) {
+        try {
+            return ResponseEntity.ok(memberService.findPage(cursor, limit, sort));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
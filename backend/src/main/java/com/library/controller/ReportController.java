@@ -1,16 +1,19 @@
 package com.library.controller;
 
+import com.library.dto.CacheStats;
 import com.library.dto.DashboardStats;
-import com.library.model.Transaction;
 import com.library.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/reports")
@@ -29,9 +32,21 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getDashboardStats());
     }
 
+    @GetMapping("/cache")
+    @Operation(summary = "Hit ratio, size and evictions of each lookup cache")
+    public ResponseEntity<List<CacheStats>> getCacheStats() {
+        return ResponseEntity.ok(reportService.getCacheStats());
+    }
+
     @GetMapping("/overdue")
-    @Operation(summary = "Get all overdue books report")
-    public ResponseEntity<List<Transaction>> getOverdueBooks() {
-        return ResponseEntity.ok(reportService.getOverdueBooks());
+    @Operation(summary = "Overdue books report, one page at a time")
+    public ResponseEntity<Object> getOverdueBooks(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(reportService.getOverdueBooks(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 }
@@ -1,17 +1,26 @@
 package com.library.controller;
 
+import com.library.dto.BulkIssueRequest;
+import com.library.dto.BulkReturnRequest;
 import com.library.dto.IssueBookRequest;
 import com.library.dto.ReturnBookResponse;
+import com.library.dto.TransactionSummary;
 import com.library.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.service.TransactionExportService;
 import com.library.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -20,27 +29,75 @@ import java.util.Map;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final ObjectMapper objectMapper;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionExportService transactionExportService, ObjectMapper objectMapper) {
         this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    @Operation(summary = "Get all transactions")
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        return ResponseEntity.ok(transactionService.findAll());
+    @Operation(summary = "List transactions newest first, one page at a time")
+    public ResponseEntity<Object> getAllTransactions(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(transactionService.findPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream the loan history as NDJSON or CSV, optionally limited to an issue-date range")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        TransactionExportService.Format exportFormat;
+        try {
+            exportFormat = TransactionExportService.Format.of(format);
+            TransactionExportService.checkRange(from, to);
+        } catch (IllegalArgumentException e) {
+            // A streaming handler can only answer with a stream, so the usual error body is written as one
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, Map.of("error", e.getMessage())));
+        }
+        // Runs after this method returns, on the MVC async executor; the export opens its own transaction
+        StreamingResponseBody body = out -> transactionExportService.export(from, to, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/active")
-    @Operation(summary = "Get all active (issued) transactions")
-    public ResponseEntity<List<Transaction>> getActiveTransactions() {
-        return ResponseEntity.ok(transactionService.findActive());
+    @Operation(summary = "List active (issued) transactions newest first, one page at a time")
+    public ResponseEntity<Object> getActiveTransactions(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(transactionService.findActivePage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/overdue")
-    @Operation(summary = "Get all overdue transactions")
-    public ResponseEntity<List<Transaction>> getOverdueTransactions() {
-        return ResponseEntity.ok(transactionService.findOverdue());
+    @Operation(summary = "List overdue transactions newest first, one page at a time")
+    public ResponseEntity<Object> getOverdueTransactions(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(transactionService.findOverduePage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PostMapping("/issue")
@@ -48,7 +105,7 @@ public class TransactionController {
     public ResponseEntity<Object> issueBook(@Valid @RequestBody IssueBookRequest request) {
         try {
             Transaction transaction = transactionService.issueBook(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+            return ResponseEntity.status(HttpStatus.CREATED).body(TransactionSummary.from(transaction));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", e.getMessage()));
@@ -72,4 +129,16 @@ public class TransactionController {
                     .body(Map.of("error", e.getMessage()));
         }
     }
+
+    @PostMapping("/issue/batch")
+    @Operation(summary = "Issue several books at once; each item succeeds or fails on its own")
+    public ResponseEntity<Object> issueBooks(@Valid @RequestBody BulkIssueRequest request) {
+        return ResponseEntity.ok(transactionService.issueBooks(request.getItems()));
+    }
+
+    @PostMapping("/return/batch")
+    @Operation(summary = "Return several books at once; each item succeeds or fails on its own")
+    public ResponseEntity<Object> returnBooks(@Valid @RequestBody BulkReturnRequest request) {
+        return ResponseEntity.ok(transactionService.returnBooks(request.getTransactionIds()));
+    }
 }
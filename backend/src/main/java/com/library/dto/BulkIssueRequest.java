@@ -0,0 +1,22 @@
+package com.library.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkIssueRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = BulkResult.MAX_ITEMS, message = "At most " + BulkResult.MAX_ITEMS + " items per batch")
+    private List<@Valid IssueBookRequest> items;
+
+    public BulkIssueRequest() {}
+
+    public BulkIssueRequest(List<IssueBookRequest> items) {
+        this.items = items;
+    }
+
+    public List<IssueBookRequest> getItems() { return items; }
+    public void setItems(List<IssueBookRequest> items) { this.items = items; }
+}
@@ -0,0 +1,45 @@
+package com.library.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a batch, one item per request item and in the same order
+public class BulkResult<T> {
+    public static final int MAX_ITEMS = 100;
+
+    private final List<Item<T>> items;
+
+    public BulkResult(int size) {
+        this.items = new ArrayList<>(Collections.nCopies(size, null));
+    }
+
+    public void succeeded(int index, T result) {
+        items.set(index, new Item<>(index, result, null));
+    }
+
+    public void failed(int index, String error) {
+        items.set(index, new Item<>(index, null, error));
+    }
+
+    public List<Item<T>> getItems() { return items; }
+    public int getSucceeded() { return (int) items.stream().filter(Item::isOk).count(); }
+    public int getFailed() { return items.size() - getSucceeded(); }
+
+    public static class Item<T> {
+        private final int index;
+        private final T result;
+        private final String error;
+
+        public Item(int index, T result, String error) {
+            this.index = index;
+            this.result = result;
+            this.error = error;
+        }
+
+        public int getIndex() { return index; }
+        public boolean isOk() { return error == null; }
+        public T getResult() { return result; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,22 @@
+package com.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkReturnRequest {
+    @NotEmpty(message = "At least one transaction ID is required")
+    @Size(max = BulkResult.MAX_ITEMS, message = "At most " + BulkResult.MAX_ITEMS + " items per batch")
+    private List<@NotNull(message = "Transaction ID is required") Long> transactionIds;
+
+    public BulkReturnRequest() {}
+
+    public BulkReturnRequest(List<Long> transactionIds) {
+        this.transactionIds = transactionIds;
+    }
+
+    public List<Long> getTransactionIds() { return transactionIds; }
+    public void setTransactionIds(List<Long> transactionIds) { this.transactionIds = transactionIds; }
+}
@@ -0,0 +1,26 @@
+package com.library.dto;
+
+public class CacheStats {
+    private final String name;
+    private final long size;
+    private final long hits;
+    private final long misses;
+    private final double hitRatio;
+    private final long evictions;
+
+    public CacheStats(String name, long size, long hits, long misses, double hitRatio, long evictions) {
+        this.name = name;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.hitRatio = hitRatio;
+        this.evictions = evictions;
+    }
+
+    public String getName() { return name; }
+    public long getSize() { return size; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public double getHitRatio() { return hitRatio; }
+    public long getEvictions() { return evictions; }
+}
@@ -0,0 +1,70 @@
+package com.library.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key values of the last row of a page,
+ * tagged with the list they belong to so a cursor cannot be replayed
+ * against a different endpoint or sort order.
+ */
+public final class PageCursor {
+    private static final char SEPARATOR = '\u001f';
+
+    private final String kind;
+    private final String[] values;
+
+    private PageCursor(String kind, String[] values) {
+        this.kind = kind;
+        this.values = values;
+    }
+
+    public static String encode(String kind, Object... values) {
+        StringBuilder raw = new StringBuilder(kind);
+        for (Object value : values) {
+            raw.append(SEPARATOR).append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another list
+     */
+    public static PageCursor decode(String cursor, String expectedKind, int expectedValues) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != expectedValues + 1 || !parts[0].equals(expectedKind)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new PageCursor(parts[0], Arrays.copyOfRange(parts, 1, parts.length));
+    }
+
+    public String getKind() { return kind; }
+
+    public String getString(int index) { return values[index]; }
+
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(values[index]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public long getLong(int index) {
+        try {
+            return Long.parseLong(values[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
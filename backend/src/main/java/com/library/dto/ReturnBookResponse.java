@@ -1,23 +1,22 @@
 package com.library.dto;
 
-import com.library.model.Transaction;
 import java.math.BigDecimal;
 
 public class ReturnBookResponse {
-    private Transaction transaction;
+    private TransactionSummary transaction;
     private BigDecimal fineAmount;
     private long overdueDays;
 
     public ReturnBookResponse() {}
 
-    public ReturnBookResponse(Transaction transaction, BigDecimal fineAmount, long overdueDays) {
+    public ReturnBookResponse(TransactionSummary transaction, BigDecimal fineAmount, long overdueDays) {
         this.transaction = transaction;
         this.fineAmount = fineAmount;
         this.overdueDays = overdueDays;
     }
 
-    public Transaction getTransaction() { return transaction; }
-    public void setTransaction(Transaction transaction) { this.transaction = transaction; }
+    public TransactionSummary getTransaction() { return transaction; }
+    public void setTransaction(TransactionSummary transaction) { this.transaction = transaction; }
     public BigDecimal getFineAmount() { return fineAmount; }
     public void setFineAmount(BigDecimal fineAmount) { this.fineAmount = fineAmount; }
     public long getOverdueDays() { return overdueDays; }
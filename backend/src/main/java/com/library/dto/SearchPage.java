@@ -0,0 +1,55 @@
+package com.library.dto;
+
+import java.util.List;
+
+// One page of ranked search results. Ranked lists have no stable sort key, so
+// they page by offset; MAX_WINDOW caps how deep into the ranking a client can go.
+public class SearchPage<T> {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    public static final int MAX_WINDOW = 1000;
+
+    private final List<T> items;
+    private final int offset;
+    private final int limit;
+    private final boolean hasMore;
+
+    public SearchPage(List<T> items, int offset, int limit, boolean hasMore) {
+        this.items = items;
+        this.offset = offset;
+        this.limit = limit;
+        this.hasMore = hasMore;
+    }
+
+    public static <T> SearchPage<T> empty(int offset, int limit) {
+        return new SearchPage<>(List.of(), offset, limit, false);
+    }
+
+    // Page out of the first offset + limit + 1 rows of a ranking
+    public static <T> SearchPage<T> ofWindow(List<T> window, int offset, int limit) {
+        int from = Math.min(offset, window.size());
+        int to = Math.min(offset + limit, window.size());
+        return new SearchPage<>(window.subList(from, to), offset, limit, window.size() > offset + limit);
+    }
+
+    public static int clampLimit(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public static void checkWindow(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (offset + limit > MAX_WINDOW) {
+            throw new IllegalArgumentException("Only the top " + MAX_WINDOW + " results can be paged; refine the query");
+        }
+    }
+
+    public List<T> getItems() { return items; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+    public boolean isHasMore() { return hasMore; }
+}
@@ -0,0 +1,67 @@
+package com.library.dto;
+
+import com.library.model.Transaction;
+import com.library.model.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One row of a loan table: the columns the UI shows, read straight from a
+// JPQL constructor expression instead of hydrating Transaction, Book and Member
+public class TransactionSummary {
+    private final Long transactionId;
+    private final Long bookId;
+    private final String bookTitle;
+    private final String isbn;
+    private final Long memberId;
+    private final String memberName;
+    private final LocalDate issueDate;
+    private final LocalDate dueDate;
+    private final LocalDate returnDate;
+    private final BigDecimal fineAmount;
+    private final TransactionStatus status;
+    private final LocalDateTime createdAt;
+
+    public TransactionSummary(Long transactionId, Long bookId, String bookTitle, String isbn,
+                              Long memberId, String memberName, LocalDate issueDate, LocalDate dueDate,
+                              LocalDate returnDate, BigDecimal fineAmount, TransactionStatus status,
+                              LocalDateTime createdAt) {
+        this.transactionId = transactionId;
+        this.bookId = bookId;
+        this.bookTitle = bookTitle;
+        this.isbn = isbn;
+        this.memberId = memberId;
+        this.memberName = memberName;
+        this.issueDate = issueDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.fineAmount = fineAmount;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    public static TransactionSummary from(Transaction t) {
+        return new TransactionSummary(t.getTransactionId(), t.getBook().getBookId(), t.getBook().getTitle(),
+                t.getBook().getIsbn(), t.getMember().getMemberId(), t.getMember().getName(),
+                t.getIssueDate(), t.getDueDate(), t.getReturnDate(), t.getFineAmount(), t.getStatus(),
+                t.getCreatedAt());
+    }
+
+    public Long getTransactionId() { return transactionId; }
+    public Long getBookId() { return bookId; }
+    public String getBookTitle() { return bookTitle; }
+    public String getIsbn() { return isbn; }
+    public Long getMemberId() { return memberId; }
+    public String getMemberName() { return memberName; }
+    public LocalDate getIssueDate() { return issueDate; }
+    public LocalDate getDueDate() { return dueDate; }
+    public LocalDate getReturnDate() { return returnDate; }
+    public BigDecimal getFineAmount() { return fineAmount; }
+    public TransactionStatus getStatus() { return status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public boolean isOverdue() {
+        return status != TransactionStatus.RETURNED && LocalDate.now().isAfter(dueDate);
+    }
+}
@@ -0,0 +1,10 @@
+package com.library.repository;
+
+import java.util.Map;
+
+// JDBC batch statements for BookRepository
+public interface BookBatchUpdates {
+
+    // Adds each delta to its book's available count, capped at quantity, in one batch
+    void addAvailable(Map<Long, Integer> deltas);
+}
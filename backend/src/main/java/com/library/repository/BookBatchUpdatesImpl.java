@@ -0,0 +1,29 @@
+package com.library.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class BookBatchUpdatesImpl implements BookBatchUpdates {
+
+    // The cap matches incrementAvailable; callers check decreases against locked rows
+    private static final String ADD_AVAILABLE =
+            "UPDATE books SET available = LEAST(quantity, available + ?) WHERE book_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookBatchUpdatesImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addAvailable(Map<Long, Integer> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, Integer> delta : deltas.entrySet()) {
+            rows.add(new Object[]{delta.getValue(), delta.getKey()});
+        }
+        jdbcTemplate.batchUpdate(ADD_AVAILABLE, rows);
+    }
+}
@@ -1,15 +1,20 @@
 package com.library.repository;
 
 import com.library.model.Book;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookBatchUpdates {
     Optional<Book> findByIsbn(String isbn);
     List<Book> findByTitleContainingIgnoreCase(String title);
     List<Book> findByAuthorContainingIgnoreCase(String author);
@@ -17,16 +22,45 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :q, '%')) " +
            "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :q, '%')) " +
            "OR LOWER(b.isbn) LIKE LOWER(CONCAT('%', :q, '%'))")
-    List<Book> search(@Param("q") String query);
+    List<Book> search(@Param("q") String query, Pageable page);
+
+    // Needs the ft_books_search index from V4 (MySQL only); q is a boolean-mode query
+    @Query(value = "SELECT * FROM books WHERE MATCH(title, author, isbn) AGAINST (:q IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(title, author, isbn) AGAINST (:q IN BOOLEAN MODE) DESC, book_id " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Book> fullTextSearch(@Param("q") String booleanQuery, @Param("limit") int limit, @Param("offset") int offset);
 
     List<Book> findByAvailableGreaterThan(int available);
 
-    @Query("SELECT COUNT(b) FROM Book b")
-    long countAllBooks();
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.bookId = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
+    // In ID order, so two callers locking overlapping sets cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.bookId IN :ids ORDER BY b.bookId")
+    List<Book> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Atomic check-and-take of one copy; 0 rows means none was left
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.available = b.available - 1 WHERE b.bookId = :id AND b.available > 0")
+    int decrementAvailable(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.available = b.available + 1 WHERE b.bookId = :id AND b.available < b.quantity")
+    int incrementAvailable(@Param("id") Long id);
+
+    @Query("SELECT b FROM Book b ORDER BY b.bookId")
+    List<Book> findFirstPageById(Pageable page);
+
+    @Query("SELECT b FROM Book b WHERE b.bookId > :afterId ORDER BY b.bookId")
+    List<Book> findPageAfterId(@Param("afterId") Long afterId, Pageable page);
 
-    @Query("SELECT SUM(b.quantity) FROM Book b")
-    Long totalCopies();
+    @Query("SELECT b FROM Book b ORDER BY b.title, b.bookId")
+    List<Book> findFirstPageByTitle(Pageable page);
 
-    @Query("SELECT SUM(b.available) FROM Book b")
-    Long totalAvailable();
+    @Query("SELECT b FROM Book b WHERE b.title > :title OR (b.title = :title AND b.bookId > :afterId) " +
+           "ORDER BY b.title, b.bookId")
+    List<Book> findPageAfterTitle(@Param("title") String title, @Param("afterId") Long afterId, Pageable page);
 }
@@ -0,0 +1,11 @@
+package com.library.repository;
+
+// Row of TransactionRepository.dashboardTotals(); sums are null on empty tables
+public interface DashboardTotals {
+    long getTotalBooks();
+    long getTotalMembers();
+    long getActiveLoans();
+    long getOverdueLoans();
+    Long getTotalCopies();
+    Long getAvailableCopies();
+}
@@ -0,0 +1,7 @@
+package com.library.repository;
+
+// Row of TransactionRepository.countActiveByMembers()
+public interface MemberLoanCount {
+    Long getMemberId();
+    long getActiveLoans();
+}
@@ -2,11 +2,16 @@ package com.library.repository;
 
 import com.library.model.Member;
 import com.library.model.MemberType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
@@ -16,4 +21,27 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     @Query("SELECT m FROM Member m WHERE LOWER(m.name) LIKE LOWER(CONCAT('%', :q, '%')) " +
            "OR LOWER(m.email) LIKE LOWER(CONCAT('%', :q, '%'))")
     List<Member> search(@Param("q") String query);
+
+    // Serializes a member's checkouts so the loan-limit count cannot race
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Member m WHERE m.memberId = :id")
+    Optional<Member> findByIdForUpdate(@Param("id") Long id);
+
+    // In ID order, so two callers locking overlapping sets cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Member m WHERE m.memberId IN :ids ORDER BY m.memberId")
+    List<Member> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT m FROM Member m ORDER BY m.memberId")
+    List<Member> findFirstPageById(Pageable page);
+
+    @Query("SELECT m FROM Member m WHERE m.memberId > :afterId ORDER BY m.memberId")
+    List<Member> findPageAfterId(@Param("afterId") Long afterId, Pageable page);
+
+    @Query("SELECT m FROM Member m ORDER BY m.name, m.memberId")
+    List<Member> findFirstPageByName(Pageable page);
+
+    @Query("SELECT m FROM Member m WHERE m.name > :name OR (m.name = :name AND m.memberId > :afterId) " +
+           "ORDER BY m.name, m.memberId")
+    List<Member> findPageAfterName(@Param("name") String name, @Param("afterId") Long afterId, Pageable page);
 }
@@ -0,0 +1,13 @@
+package com.library.repository;
+
+import com.library.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// JDBC batch statements for TransactionRepository
+public interface TransactionBatchInserts {
+
+    // Inserts new loans in one batch and returns their generated IDs, in order
+    List<Long> insertAll(List<Transaction> loans, LocalDateTime createdAt);
+}
@@ -0,0 +1,65 @@
+package com.library.repository;
+
+import com.library.model.Transaction;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transaction IDs come from AUTO_INCREMENT, and Hibernate never batches
+ * inserts for IDENTITY entities. This inserts through JDBC instead; with
+ * rewriteBatchedStatements=true, MySQL receives one multi-row INSERT.
+ */
+public class TransactionBatchInsertsImpl implements TransactionBatchInserts {
+
+    private static final String INSERT = "INSERT INTO transactions "
+            + "(book_id, member_id, issue_date, due_date, fine_amount, status, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionBatchInsertsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> insertAll(List<Transaction> loans, LocalDateTime createdAt) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT, new String[]{"transaction_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Transaction loan = loans.get(i);
+                        ps.setLong(1, loan.getBook().getBookId());
+                        ps.setLong(2, loan.getMember().getMemberId());
+                        ps.setObject(3, loan.getIssueDate());
+                        ps.setObject(4, loan.getDueDate());
+                        ps.setBigDecimal(5, loan.getFineAmount());
+                        ps.setString(6, loan.getStatus().name());
+                        ps.setObject(7, createdAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return loans.size();
+                    }
+                },
+                keys);
+
+        List<Long> ids = new ArrayList<>(loans.size());
+        // MySQL names the key GENERATED_KEY, H2 TRANSACTION_ID; each row holds just the one
+        for (Map<String, Object> row : keys.getKeyList()) {
+            ids.add(((Number) row.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+}
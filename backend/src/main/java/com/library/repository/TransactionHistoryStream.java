@@ -0,0 +1,13 @@
+package com.library.repository;
+
+import com.library.dto.TransactionSummary;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+// Cursor read of the loan history for TransactionRepository
+public interface TransactionHistoryStream {
+
+    // Passes each loan issued in [from, to] to the action, oldest first; either bound may be null
+    void streamHistory(LocalDate from, LocalDate to, Consumer<TransactionSummary> action);
+}
@@ -0,0 +1,59 @@
+package com.library.repository;
+
+import com.library.dto.TransactionSummary;
+import com.library.model.TransactionStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the loan history row by row without building entities, so neither the
+ * persistence context nor the result list grows with the history. The driver
+ * fetches library.export.fetch-size rows at a time; MySQL streams only with
+ * Integer.MIN_VALUE, which the main properties set.
+ */
+public class TransactionHistoryStreamImpl implements TransactionHistoryStream {
+
+    private static final String SELECT = "SELECT t.transaction_id, t.book_id, b.title, b.isbn, "
+            + "t.member_id, m.name, t.issue_date, t.due_date, t.return_date, t.fine_amount, t.status, t.created_at "
+            + "FROM transactions t "
+            + "JOIN books b ON b.book_id = t.book_id "
+            + "JOIN members m ON m.member_id = t.member_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionHistoryStreamImpl(DataSource dataSource,
+                                        @Value("${library.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public void streamHistory(LocalDate from, LocalDate to, Consumer<TransactionSummary> action) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" WHERE t.issue_date >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(args.isEmpty() ? " WHERE" : " AND").append(" t.issue_date <= ?");
+            args.add(to);
+        }
+        // Matches idx_transactions_issued, so MySQL reads rows in index order instead of sorting them first
+        sql.append(" ORDER BY t.issue_date, t.transaction_id");
+
+        jdbcTemplate.query(sql.toString(), rs -> {
+            action.accept(new TransactionSummary(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                    rs.getLong(5), rs.getString(6), rs.getObject(7, LocalDate.class),
+                    rs.getObject(8, LocalDate.class), rs.getObject(9, LocalDate.class), rs.getBigDecimal(10),
+                    TransactionStatus.valueOf(rs.getString(11)), rs.getObject(12, LocalDateTime.class)));
+        }, args.toArray());
+    }
+}
@@ -1,18 +1,36 @@
 package com.library.repository;
 
+import com.library.dto.TransactionSummary;
 import com.library.model.Transaction;
 import com.library.model.TransactionStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionBatchInserts,
+        TransactionHistoryStream {
     List<Transaction> findByStatus(TransactionStatus status);
 
+    // A loan can be returned once; concurrent returns wait for the first
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.transactionId = :id")
+    Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
+    // In ID order, so two callers locking overlapping sets cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.transactionId IN :ids ORDER BY t.transactionId")
+    List<Transaction> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT t FROM Transaction t JOIN FETCH t.book JOIN FETCH t.member WHERE t.status = :status")
     List<Transaction> findByStatusWithDetails(@Param("status") TransactionStatus status);
 
@@ -28,6 +46,49 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.member.memberId = :memberId AND t.status = 'ISSUED'")
     long countActiveByMember(@Param("memberId") Long memberId);
 
-    @Query("SELECT t FROM Transaction t JOIN FETCH t.book JOIN FETCH t.member ORDER BY t.createdAt DESC")
-    List<Transaction> findAllWithDetails();
+    @Query("SELECT t.member.memberId AS memberId, COUNT(t) AS activeLoans FROM Transaction t " +
+           "WHERE t.member.memberId IN :memberIds AND t.status = 'ISSUED' GROUP BY t.member.memberId")
+    List<MemberLoanCount> countActiveByMembers(@Param("memberIds") Collection<Long> memberIds);
+
+    // Every dashboard figure in one round trip; each subquery is an index or table count
+    @Query(value = "SELECT (SELECT COUNT(*) FROM books) AS totalBooks, " +
+                   "(SELECT COUNT(*) FROM members) AS totalMembers, " +
+                   "(SELECT COUNT(*) FROM transactions WHERE status = 'ISSUED') AS activeLoans, " +
+                   "(SELECT COUNT(*) FROM transactions WHERE status = 'ISSUED' AND due_date < :today) AS overdueLoans, " +
+                   "(SELECT SUM(quantity) FROM books) AS totalCopies, " +
+                   "(SELECT SUM(available) FROM books) AS availableCopies",
+           nativeQuery = true)
+    DashboardTotals dashboardTotals(@Param("today") LocalDate today);
+
+    // Keyset pages, newest first: (createdAt, transactionId) is unique and indexed.
+    // Rows are projected to TransactionSummary, so only the listed columns are read.
+
+    String SUMMARY = "SELECT new com.library.dto.TransactionSummary(t.transactionId, b.bookId, b.title, b.isbn, " +
+                     "m.memberId, m.name, t.issueDate, t.dueDate, t.returnDate, t.fineAmount, t.status, t.createdAt) " +
+                     "FROM Transaction t JOIN t.book b JOIN t.member m ";
+    String NEWEST_FIRST = " ORDER BY t.createdAt DESC, t.transactionId DESC";
+    String BEFORE_CURSOR = "(t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.transactionId < :beforeId))";
+
+    @Query(SUMMARY + NEWEST_FIRST)
+    List<TransactionSummary> findFirstPage(Pageable page);
+
+    @Query(SUMMARY + "WHERE " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<TransactionSummary> findPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                            @Param("beforeId") Long beforeId, Pageable page);
+
+    @Query(SUMMARY + "WHERE t.status = :status" + NEWEST_FIRST)
+    List<TransactionSummary> findFirstPageByStatus(@Param("status") TransactionStatus status, Pageable page);
+
+    @Query(SUMMARY + "WHERE t.status = :status AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<TransactionSummary> findPageByStatusBefore(@Param("status") TransactionStatus status,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("beforeId") Long beforeId, Pageable page);
+
+    @Query(SUMMARY + "WHERE t.status = 'ISSUED' AND t.dueDate < :date" + NEWEST_FIRST)
+    List<TransactionSummary> findFirstOverduePage(@Param("date") LocalDate date, Pageable page);
+
+    @Query(SUMMARY + "WHERE t.status = 'ISSUED' AND t.dueDate < :date AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<TransactionSummary> findOverduePageBefore(@Param("date") LocalDate date,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("beforeId") Long beforeId, Pageable page);
 }
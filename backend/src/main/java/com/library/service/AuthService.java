@@ -17,13 +17,16 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final UserStatusCache userStatusCache;
 
     public AuthService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
-                       JwtUtil jwtUtil) {
+                       JwtUtil jwtUtil,
+                       UserStatusCache userStatusCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.userStatusCache = userStatusCache;
     }
 
     public LoginResponse login(LoginRequest request) {
@@ -38,7 +41,9 @@ public class AuthService {
         return new LoginResponse(token, user.getUsername(), user.getRole());
     }
 
-    public User register(RegisterRequest request) {
+    // Registration is open to anyone, so a requested role is only honoured
+    // when an admin makes the call; everyone else becomes a librarian
+    public User register(RegisterRequest request, boolean callerIsAdmin) {
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new IllegalArgumentException("Username '" + request.getUsername() + "' is already taken");
         }
@@ -46,8 +51,10 @@ public class AuthService {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setRole(request.getRole() != null ? request.getRole() : "LIBRARIAN");
-        return userRepository.save(user);
+        user.setRole(callerIsAdmin && request.getRole() != null ? request.getRole() : "LIBRARIAN");
+        User saved = userRepository.save(user);
+        userStatusCache.invalidate(saved.getUsername());
+        return saved;
     }
 
     public User findByUsername(String username) {
@@ -0,0 +1,47 @@
+package com.library.service;
+
+import com.library.dto.SearchPage;
+import com.library.model.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Catalog search behind BookService.search. The implementation is picked by
+ * library.search.engine: "memory" (default) keeps an inverted index in the
+ * application, "fulltext" uses the MySQL FULLTEXT index from V4.
+ */
+public interface BookSearchEngine {
+
+    /**
+     * Books matching every word of the query, best first. Each word also
+     * matches as a prefix, so "prag prog" finds "The Pragmatic Programmer".
+     */
+    SearchPage<Book> search(String query, int offset, int limit);
+
+    // Called by BookService; engines that read the database directly ignore them
+    default void bookSaved(Book book) {}
+
+    default void bookDeleted(Long bookId) {}
+
+    // Lower-case runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,12 +1,26 @@
 package com.library.service;
 
+import com.library.config.CacheConfig;
 import com.library.dto.BookDto;
+import com.library.dto.CursorPage;
+import com.library.dto.PageCursor;
+import com.library.dto.SearchPage;
 import com.library.model.Book;
 import com.library.repository.BookRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -14,28 +28,65 @@ import java.util.Optional;
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final DashboardCounters dashboardCounters;
+    private final BookSearchEngine bookSearchEngine;
+    private final CacheManager cacheManager;
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, DashboardCounters dashboardCounters,
+                       BookSearchEngine bookSearchEngine, CacheManager cacheManager) {
         this.bookRepository = bookRepository;
+        this.dashboardCounters = dashboardCounters;
+        this.bookSearchEngine = bookSearchEngine;
+        this.cacheManager = cacheManager;
     }
 
     public List<Book> findAll() {
         return bookRepository.findAll();
     }
 
+    public CursorPage<Book> findPage(String cursor, int limit, String sort) {
+        int size = CursorPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        boolean first = cursor == null || cursor.isBlank();
+
+        if ("title".equals(sort)) {
+            List<Book> rows;
+            if (first) {
+                rows = bookRepository.findFirstPageByTitle(page);
+            } else {
+                PageCursor c = PageCursor.decode(cursor, "books:title", 2);
+                rows = bookRepository.findPageAfterTitle(c.getString(0), c.getLong(1), page);
+            }
+            return CursorPage.of(rows, size, b -> PageCursor.encode("books:title", b.getTitle(), b.getBookId()));
+        }
+        if (sort == null || "id".equals(sort)) {
+            List<Book> rows = first
+                    ? bookRepository.findFirstPageById(page)
+                    : bookRepository.findPageAfterId(PageCursor.decode(cursor, "books:id", 1).getLong(0), page);
+            return CursorPage.of(rows, size, b -> PageCursor.encode("books:id", b.getBookId()));
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + sort + " (use id or title)");
+    }
+
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id", unless = "#result == null")
     public Optional<Book> findById(Long id) {
         return bookRepository.findById(id);
     }
 
+    @Cacheable(cacheNames = CacheConfig.BOOKS_BY_ISBN, key = "#isbn", unless = "#result == null")
     public Optional<Book> findByIsbn(String isbn) {
         return bookRepository.findByIsbn(isbn);
     }
 
-    public List<Book> search(String query) {
+    public SearchPage<Book> search(String query, int offset, int limit) {
+        int size = SearchPage.clampLimit(limit);
+        SearchPage.checkWindow(offset, size);
         if (query == null || query.trim().isEmpty()) {
-            return bookRepository.findAll();
+            // No query: the catalog in ID order
+            return SearchPage.ofWindow(bookRepository.findFirstPageById(PageRequest.of(0, offset + size + 1)),
+                    offset, size);
         }
-        return bookRepository.search(query.trim());
+        return bookSearchEngine.search(query.trim(), offset, size);
     }
 
     public List<Book> findAvailable() {
@@ -55,11 +106,20 @@ public class BookService {
         book.setPublisher(dto.getPublisher());
         book.setQuantity(dto.getQuantity());
         book.setAvailable(dto.getQuantity());
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        dashboardCounters.bookAdded(saved.getQuantity(), saved.getAvailable());
+        bookSearchEngine.bookSaved(saved);
+        return saved;
     }
 
+    // The old ISBN is not known up front, so the whole ISBN cache goes
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.BOOKS_BY_ISBN, allEntries = true)
+    })
     public Book updateBook(Long id, BookDto dto) {
-        Book book = bookRepository.findById(id)
+        // Locked so a checkout cannot change available between the read and the save
+        Book book = bookRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Book not found with ID: " + id));
 
         Optional<Book> existingWithIsbn = bookRepository.findByIsbn(dto.getIsbn());
@@ -79,12 +139,20 @@ public class BookService {
         book.setAuthor(dto.getAuthor());
         book.setPublisher(dto.getPublisher());
         book.setQuantity(dto.getQuantity());
+        int availableDiff = newAvailable - book.getAvailable();
         book.setAvailable(newAvailable);
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        dashboardCounters.bookChanged(quantityDiff, availableDiff);
+        bookSearchEngine.bookSaved(saved);
+        return saved;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.BOOKS_BY_ISBN, allEntries = true)
+    })
     public void deleteBook(Long id) {
-        Book book = bookRepository.findById(id)
+        Book book = bookRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Book not found with ID: " + id));
 
         if (book.getAvailable() < book.getQuantity()) {
@@ -92,18 +160,55 @@ public class BookService {
         }
 
         bookRepository.delete(book);
+        dashboardCounters.bookRemoved(book.getQuantity(), book.getAvailable());
+        bookSearchEngine.bookDeleted(book.getBookId());
     }
 
+    // The copy counts change in the database, never by saving the entity, so
+    // two checkouts reading the same available value cannot both take the last copy.
+    // The book passed in may be a cached copy; its counts are left as they were.
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#book.bookId"),
+            @CacheEvict(cacheNames = CacheConfig.BOOKS_BY_ISBN, key = "#book.isbn")
+    })
     public void decrementAvailable(Book book) {
-        if (book.getAvailable() <= 0) {
-            throw new IllegalStateException("No available copies of: " + book.getTitle());
+        if (bookRepository.decrementAvailable(book.getBookId()) == 0) {
+            throw new IllegalStateException("Book '" + book.getTitle() + "' is not available for lending");
         }
-        book.setAvailable(book.getAvailable() - 1);
-        bookRepository.save(book);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#book.bookId"),
+            @CacheEvict(cacheNames = CacheConfig.BOOKS_BY_ISBN, key = "#book.isbn")
+    })
     public void incrementAvailable(Book book) {
-        book.setAvailable(book.getAvailable() + 1);
-        bookRepository.save(book);
+        bookRepository.incrementAvailable(book.getBookId());
+    }
+
+    public List<Book> findAllForUpdate(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return bookRepository.findAllByIdForUpdate(ids);
+    }
+
+    // Several copy-count changes in one statement batch. The caller holds the
+    // row locks (findAllForUpdate) and has checked no count goes below zero.
+    public void adjustAvailable(Map<Book, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> byId = new HashMap<>();
+        for (Map.Entry<Book, Integer> delta : deltas.entrySet()) {
+            byId.merge(delta.getKey().getBookId(), delta.getValue(), Integer::sum);
+        }
+        bookRepository.addAvailable(byId);
+
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        Cache booksByIsbn = cacheManager.getCache(CacheConfig.BOOKS_BY_ISBN);
+        for (Book book : deltas.keySet()) {
+            books.evict(book.getBookId());
+            booksByIsbn.evict(book.getIsbn());
+        }
     }
 }
@@ -0,0 +1,178 @@
+package com.library.service;
+
+import com.library.dto.DashboardStats;
+import com.library.repository.DashboardTotals;
+import com.library.repository.TransactionRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory dashboard figures. Loaded from one aggregate query, then kept
+ * current by the services that change books, members and loans. Changes are
+ * applied after their transaction commits, so a rollback never skews them.
+ * A periodic reconcile (and the first read of each day, when yesterday's
+ * loans may have become overdue) reloads them from the database.
+ *
+ * Guarded by a ReentrantLock rather than synchronized: the lock sits on the
+ * checkout path, and a virtual thread waiting on a monitor pins its carrier.
+ */
+@Service
+public class DashboardCounters {
+
+    // Retries when a change lands while the reconcile query runs
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final TransactionRepository transactionRepository;
+
+    private final Lock lock = new ReentrantLock();
+
+    // Guarded by lock; asOf is null until the first load
+    private LocalDate asOf;
+    private long changes;
+    private long totalBooks;
+    private long totalMembers;
+    private long activeLoans;
+    private long overdueLoans;
+    private long totalCopies;
+    private long availableCopies;
+
+    public DashboardCounters(TransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    public DashboardStats snapshot() {
+        lock.lock();
+        try {
+            if (LocalDate.now().equals(asOf)) {
+                return toStats();
+            }
+        } finally {
+            lock.unlock();
+        }
+        reconcile();
+        lock.lock();
+        try {
+            return toStats();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${library.dashboard.reconcile-interval-ms:300000}",
+               fixedDelayString = "${library.dashboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        for (int attempt = 1; ; attempt++) {
+            long seen;
+            lock.lock();
+            try {
+                seen = changes;
+            } finally {
+                lock.unlock();
+            }
+            LocalDate today = LocalDate.now();
+            DashboardTotals totals = transactionRepository.dashboardTotals(today);
+            lock.lock();
+            try {
+                // A change applied meanwhile may or may not be in the totals; try again
+                if (changes != seen && attempt < RECONCILE_ATTEMPTS) {
+                    continue;
+                }
+                asOf = today;
+                totalBooks = totals.getTotalBooks();
+                totalMembers = totals.getTotalMembers();
+                activeLoans = totals.getActiveLoans();
+                overdueLoans = totals.getOverdueLoans();
+                totalCopies = totals.getTotalCopies() != null ? totals.getTotalCopies() : 0;
+                availableCopies = totals.getAvailableCopies() != null ? totals.getAvailableCopies() : 0;
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public void bookAdded(int quantity, int available) {
+        afterCommit(() -> {
+            totalBooks++;
+            totalCopies += quantity;
+            availableCopies += available;
+        });
+    }
+
+    public void bookChanged(int quantityDelta, int availableDelta) {
+        afterCommit(() -> {
+            totalCopies += quantityDelta;
+            availableCopies += availableDelta;
+        });
+    }
+
+    public void bookRemoved(int quantity, int available) {
+        afterCommit(() -> {
+            totalBooks--;
+            totalCopies -= quantity;
+            availableCopies -= available;
+        });
+    }
+
+    public void memberAdded() {
+        afterCommit(() -> totalMembers++);
+    }
+
+    public void memberRemoved() {
+        afterCommit(() -> totalMembers--);
+    }
+
+    public void loanIssued() {
+        afterCommit(() -> {
+            activeLoans++;
+            availableCopies--;
+        });
+    }
+
+    public void loanReturned(LocalDate dueDate) {
+        afterCommit(() -> {
+            activeLoans--;
+            availableCopies++;
+            if (dueDate.isBefore(asOf)) {
+                overdueLoans--;
+            }
+        });
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.lock();
+        try {
+            // Nothing to adjust before the first load; it will read the committed state
+            if (asOf != null) {
+                change.run();
+            }
+            changes++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private DashboardStats toStats() {
+        return new DashboardStats(totalBooks, totalMembers, activeLoans, overdueLoans,
+                totalCopies, availableCopies);
+    }
+}
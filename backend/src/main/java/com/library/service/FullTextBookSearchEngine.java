@@ -0,0 +1,61 @@
+package com.library.service;
+
+import com.library.dto.SearchPage;
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Search through the MySQL FULLTEXT index on (title, author, isbn) added by
+ * V4, ranked by MATCH ... AGAINST relevance. MySQL keeps the index current,
+ * so catalog changes need no hooks.
+ */
+@Service
+@ConditionalOnProperty(name = "library.search.engine", havingValue = "fulltext")
+public class FullTextBookSearchEngine implements BookSearchEngine {
+
+    // innodb_ft_min_token_size: shorter words are not in the index
+    static final int MIN_TOKEN_SIZE = 3;
+
+    private final BookRepository bookRepository;
+
+    public FullTextBookSearchEngine(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @Override
+    public SearchPage<Book> search(String query, int offset, int limit) {
+        String booleanQuery = toBooleanQuery(query);
+        if (booleanQuery != null) {
+            List<Book> rows = bookRepository.fullTextSearch(booleanQuery, limit + 1, offset);
+            boolean hasMore = rows.size() > limit;
+            return new SearchPage<>(hasMore ? rows.subList(0, limit) : rows, offset, limit, hasMore);
+        }
+        if (query == null || query.isBlank()) {
+            return SearchPage.empty(offset, limit);
+        }
+        // Only words too short for the index; fall back to a substring scan, still bounded
+        return SearchPage.ofWindow(bookRepository.search(query.trim(), PageRequest.of(0, offset + limit + 1)),
+                offset, limit);
+    }
+
+    // "prag prog" -> "+prag* +prog*": every word required, each as a prefix.
+    // Tokenizing first drops the boolean-mode operators a user might type.
+    static String toBooleanQuery(String query) {
+        StringBuilder sb = new StringBuilder();
+        for (String token : BookSearchEngine.tokenize(query)) {
+            if (token.length() < MIN_TOKEN_SIZE) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append('+').append(token).append('*');
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+}
@@ -0,0 +1,316 @@
+package com.library.service;
+
+import com.library.dto.SearchPage;
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over title, author and ISBN, ranked with BM25. Terms are kept
+ * sorted, so a query word expands to every indexed term it is a prefix of.
+ * The index holds book IDs only; a page of results is loaded from the
+ * database by ID, so copy counts are always current.
+ *
+ * BookService reports catalog changes after they commit. A periodic rebuild
+ * picks up changes made outside the application.
+ */
+@Service
+@ConditionalOnProperty(name = "library.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryBookSearchEngine implements BookSearchEngine {
+
+    // Field weights: a title match counts for more than an author or ISBN match
+    static final float TITLE_WEIGHT = 3f;
+    static final float AUTHOR_WEIGHT = 2f;
+    static final float ISBN_WEIGHT = 1f;
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // A word that only prefixes a term scores a little below an exact match
+    private static final double PREFIX_FACTOR = 0.8;
+
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private Index index;
+    private long changes;
+
+    public InMemoryBookSearchEngine(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @Override
+    public SearchPage<Book> search(String query, int offset, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(BookSearchEngine.tokenize(query)));
+        if (words.isEmpty()) {
+            return SearchPage.empty(offset, limit);
+        }
+        ensureLoaded();
+
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            ids = index.topIds(words, offset + limit + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        boolean hasMore = ids.size() > offset + limit;
+        List<Long> pageIds = ids.subList(Math.min(offset, ids.size()), Math.min(offset + limit, ids.size()));
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : bookRepository.findAllById(pageIds)) {
+            books.put(book.getBookId(), book);
+        }
+        List<Book> items = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Book book = books.get(id);
+            // Missing when deleted since the index was read
+            if (book != null) {
+                items.add(book);
+            }
+        }
+        return new SearchPage<>(items, offset, limit, hasMore);
+    }
+
+    @Override
+    public void bookSaved(Book book) {
+        Long id = book.getBookId();
+        Map<String, Float> terms = terms(book);
+        afterCommit(() -> {
+            if (index != null) {
+                index.put(id, terms);
+            }
+        });
+    }
+
+    @Override
+    public void bookDeleted(Long bookId) {
+        afterCommit(() -> {
+            if (index != null) {
+                index.remove(bookId);
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${library.search.rebuild-interval-ms:600000}",
+               fixedDelayString = "${library.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        for (int attempt = 1; ; attempt++) {
+            long seen;
+            lock.readLock().lock();
+            try {
+                seen = changes;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Index fresh = new Index();
+            for (Book book : bookRepository.findAll()) {
+                fresh.put(book.getBookId(), terms(book));
+            }
+
+            lock.writeLock().lock();
+            try {
+                // A change applied meanwhile may be missing from the fresh index; try again
+                if (changes != seen && attempt < REBUILD_ATTEMPTS) {
+                    continue;
+                }
+                index = fresh;
+                return;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public int getIndexedBooks() {
+        lock.readLock().lock();
+        try {
+            return index == null ? 0 : index.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (index != null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        rebuild();
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            // Before the first load there is nothing to update; the load reads the committed rows
+            change.run();
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Weighted term frequencies of one book
+    static Map<String, Float> terms(Book book) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, book.getTitle(), TITLE_WEIGHT);
+        addField(terms, book.getAuthor(), AUTHOR_WEIGHT);
+        addField(terms, book.getIsbn(), ISBN_WEIGHT);
+        if (book.getIsbn() != null) {
+            // ISBNs are typed with and without hyphens
+            String digits = book.getIsbn().replaceAll("[^0-9Xx]", "").toLowerCase(Locale.ROOT);
+            if (!digits.isEmpty()) {
+                terms.merge(digits, ISBN_WEIGHT, Float::sum);
+            }
+        }
+        return terms;
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : BookSearchEngine.tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Postings by term plus per-document lengths. Not thread-safe; the
+     * engine's lock guards it.
+     */
+    static final class Index {
+        final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        final Map<Long, Document> documents = new HashMap<>();
+        double totalLength;
+
+        void put(Long id, Map<String, Float> terms) {
+            remove(id);
+            float length = 0;
+            for (Map.Entry<String, Float> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(id, term.getValue());
+                length += term.getValue();
+            }
+            documents.put(id, new Document(terms.keySet().toArray(new String[0]), length));
+            totalLength += length;
+        }
+
+        void remove(Long id) {
+            Document old = documents.remove(id);
+            if (old == null) {
+                return;
+            }
+            for (String term : old.terms) {
+                Map<Long, Float> docs = postings.get(term);
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= old.length;
+        }
+
+        // IDs of the k best documents matching every word, best first
+        List<Long> topIds(List<String> words, int k) {
+            int n = documents.size();
+            if (n == 0) {
+                return List.of();
+            }
+            double averageLength = totalLength / n;
+
+            Map<Long, Double> scores = null;
+            for (String word : words) {
+                Map<Long, Double> wordScores = new HashMap<>();
+                for (Map.Entry<String, Map<Long, Float>> term
+                        : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                    Map<Long, Float> docs = term.getValue();
+                    double idf = Math.log(1 + (n - docs.size() + 0.5) / (docs.size() + 0.5));
+                    double factor = term.getKey().equals(word) ? 1.0 : PREFIX_FACTOR;
+                    for (Map.Entry<Long, Float> posting : docs.entrySet()) {
+                        if (scores != null && !scores.containsKey(posting.getKey())) {
+                            continue;
+                        }
+                        double tf = posting.getValue();
+                        double norm = K1 * (1 - B + B * documents.get(posting.getKey()).length / averageLength);
+                        double score = factor * idf * tf * (K1 + 1) / (tf + norm);
+                        // Several terms may share the prefix; the best one counts
+                        wordScores.merge(posting.getKey(), score, Math::max);
+                    }
+                }
+                if (scores != null) {
+                    for (Map.Entry<Long, Double> entry : wordScores.entrySet()) {
+                        entry.setValue(entry.getValue() + scores.get(entry.getKey()));
+                    }
+                }
+                scores = wordScores;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            // Bounded min-heap: the weakest of the current top k is dropped first
+            Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+            PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Math.min(k, scores.size()) + 1, ranking);
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                top.add(entry);
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+            List<Long> ids = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ids.add(top.poll().getKey());
+            }
+            Collections.reverse(ids);
+            return ids;
+        }
+    }
+
+    static final class Document {
+        final String[] terms;
+        final float length;
+
+        Document(String[] terms, float length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.library.service;
 
+import com.library.config.CacheConfig;
+import com.library.dto.CursorPage;
 import com.library.dto.MemberDto;
+import com.library.dto.PageCursor;
 import com.library.model.Member;
 import com.library.repository.MemberRepository;
 import com.library.repository.TransactionRepository;
 import com.library.model.TransactionStatus;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,16 +24,44 @@ public class MemberService {
 
     private final MemberRepository memberRepository;
     private final TransactionRepository transactionRepository;
+    private final DashboardCounters dashboardCounters;
 
-    public MemberService(MemberRepository memberRepository, TransactionRepository transactionRepository) {
+    public MemberService(MemberRepository memberRepository, TransactionRepository transactionRepository,
+                         DashboardCounters dashboardCounters) {
         this.memberRepository = memberRepository;
         this.transactionRepository = transactionRepository;
+        this.dashboardCounters = dashboardCounters;
     }
 
     public List<Member> findAll() {
         return memberRepository.findAll();
     }
 
+    public CursorPage<Member> findPage(String cursor, int limit, String sort) {
+        int size = CursorPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        boolean first = cursor == null || cursor.isBlank();
+
+        if ("name".equals(sort)) {
+            List<Member> rows;
+            if (first) {
+                rows = memberRepository.findFirstPageByName(page);
+            } else {
+                PageCursor c = PageCursor.decode(cursor, "members:name", 2);
+                rows = memberRepository.findPageAfterName(c.getString(0), c.getLong(1), page);
+            }
+            return CursorPage.of(rows, size, m -> PageCursor.encode("members:name", m.getName(), m.getMemberId()));
+        }
+        if (sort == null || "id".equals(sort)) {
+            List<Member> rows = first
+                    ? memberRepository.findFirstPageById(page)
+                    : memberRepository.findPageAfterId(PageCursor.decode(cursor, "members:id", 1).getLong(0), page);
+            return CursorPage.of(rows, size, m -> PageCursor.encode("members:id", m.getMemberId()));
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + sort + " (use id or name)");
+    }
+
+    @Cacheable(cacheNames = CacheConfig.MEMBERS, key = "#id", unless = "#result == null")
     public Optional<Member> findById(Long id) {
         return memberRepository.findById(id);
     }
@@ -44,9 +79,12 @@ public class MemberService {
         member.setEmail(dto.getEmail());
         member.setPhone(dto.getPhone());
         member.setMemberType(dto.getMemberType());
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        dashboardCounters.memberAdded();
+        return saved;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, key = "#id")
     public Member updateMember(Long id, MemberDto dto) {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Member not found with ID: " + id));
@@ -58,6 +96,7 @@ public class MemberService {
         return memberRepository.save(member);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, key = "#id")
     public void deleteMember(Long id) {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Member not found with ID: " + id));
@@ -68,5 +107,6 @@ public class MemberService {
         }
 
         memberRepository.delete(member);
+        dashboardCounters.memberRemoved();
     }
 }
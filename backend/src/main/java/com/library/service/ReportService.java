@@ -1,59 +1,53 @@
 package com.library.service;
 
+import com.library.dto.CacheStats;
+import com.library.dto.CursorPage;
 import com.library.dto.DashboardStats;
-import com.library.model.Transaction;
-import com.library.model.TransactionStatus;
-import com.library.repository.BookRepository;
-import com.library.repository.MemberRepository;
-import com.library.repository.TransactionRepository;
+import com.library.dto.TransactionSummary;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
 
 @Service
 @Transactional(readOnly = true)
 public class ReportService {
 
-    private final BookRepository bookRepository;
-    private final MemberRepository memberRepository;
-    private final TransactionRepository transactionRepository;
+    private final DashboardCounters dashboardCounters;
+    private final TransactionService transactionService;
+    private final CacheManager cacheManager;
 
-    public ReportService(BookRepository bookRepository,
-                         MemberRepository memberRepository,
-                         TransactionRepository transactionRepository) {
-        this.bookRepository = bookRepository;
-        this.memberRepository = memberRepository;
-        this.transactionRepository = transactionRepository;
+    public ReportService(DashboardCounters dashboardCounters,
+                         TransactionService transactionService,
+                         CacheManager cacheManager) {
+        this.dashboardCounters = dashboardCounters;
+        this.transactionService = transactionService;
+        this.cacheManager = cacheManager;
     }
 
     public DashboardStats getDashboardStats() {
-        long totalBooks = bookRepository.countAllBooks();
-        long totalMembers = memberRepository.count();
-
-        List<Transaction> activeTransactions =
-                transactionRepository.findByStatus(TransactionStatus.ISSUED);
-        long activeCount = activeTransactions.size();
-
-        List<Transaction> overdueTransactions =
-                transactionRepository.findOverdueTransactions(LocalDate.now());
-        long overdueCount = overdueTransactions.size();
-
-        Long totalCopies = bookRepository.totalCopies();
-        Long availableCopies = bookRepository.totalAvailable();
-
-        return new DashboardStats(
-                totalBooks,
-                totalMembers,
-                activeCount,
-                overdueCount,
-                totalCopies != null ? totalCopies : 0,
-                availableCopies != null ? availableCopies : 0
-        );
+        return dashboardCounters.snapshot();
     }
 
-    public List<Transaction> getOverdueBooks() {
-        return transactionRepository.findOverdueTransactions(LocalDate.now());
+    public CursorPage<TransactionSummary> getOverdueBooks(String cursor, int limit) {
+        return transactionService.findOverduePage(cursor, limit);
+    }
+
+    // Counted since startup
+    public List<CacheStats> getCacheStats() {
+        List<CacheStats> result = new ArrayList<>();
+        for (String name : new TreeSet<>(cacheManager.getCacheNames())) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                com.github.benmanes.caffeine.cache.stats.CacheStats stats = caffeine.stats();
+                result.add(new CacheStats(name, caffeine.estimatedSize(), stats.hitCount(), stats.missCount(),
+                        stats.hitRate(), stats.evictionCount()));
+            }
+        }
+        return result;
     }
 }
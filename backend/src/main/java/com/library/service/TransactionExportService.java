@@ -0,0 +1,159 @@
+package com.library.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.dto.TransactionSummary;
+import com.library.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Writes the loan history to a stream one row at a time, as NDJSON (one JSON
+ * object per line) or CSV. Memory use stays flat however many loans match.
+ */
+@Service
+public class TransactionExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return name().toLowerCase(Locale.ROOT); }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + name + " (use ndjson or csv)");
+        }
+    }
+
+    private static final String CSV_HEADER = "transactionId,bookId,bookTitle,isbn,memberId,memberName,"
+            + "issueDate,dueDate,returnDate,fineAmount,status,createdAt";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectWriter jsonWriter;
+
+    public TransactionExportService(TransactionRepository transactionRepository, ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        // Left to the servlet buffer, which flushes whenever it fills
+        this.jsonWriter = objectMapper.writerFor(TransactionSummary.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public static void checkRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+
+    /**
+     * Writes every loan issued between from and to (inclusive; either may be
+     * null) to out, oldest first, and returns how many were written. The
+     * transaction keeps the database cursor open until the last row is out.
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        checkRange(from, to);
+        long[] rows = new long[1];
+        try {
+            if (format == Format.NDJSON) {
+                try (JsonGenerator generator = jsonWriter.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    stream(from, to, rows, loan -> {
+                        jsonWriter.writeValue(generator, loan);
+                        generator.writeRaw('\n');
+                    });
+                }
+            } else {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write(CSV_HEADER);
+                writer.write("\r\n");
+                stream(from, to, rows, loan -> writeCsv(writer, loan));
+                writer.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private void stream(LocalDate from, LocalDate to, long[] rows, RowWriter rowWriter) {
+        Consumer<TransactionSummary> action = loan -> {
+            try {
+                rowWriter.write(loan);
+                rows[0]++;
+            } catch (IOException e) {
+                // Typically the client went away; stops the cursor
+                throw new UncheckedIOException(e);
+            }
+        };
+        transactionRepository.streamHistory(from, to, action);
+    }
+
+    private static void writeCsv(Writer writer, TransactionSummary loan) throws IOException {
+        writer.write(String.valueOf(loan.getTransactionId()));
+        writer.write(',');
+        writer.write(String.valueOf(loan.getBookId()));
+        writer.write(',');
+        writer.write(csv(loan.getBookTitle()));
+        writer.write(',');
+        writer.write(csv(loan.getIsbn()));
+        writer.write(',');
+        writer.write(String.valueOf(loan.getMemberId()));
+        writer.write(',');
+        writer.write(csv(loan.getMemberName()));
+        writer.write(',');
+        writer.write(csv(loan.getIssueDate()));
+        writer.write(',');
+        writer.write(csv(loan.getDueDate()));
+        writer.write(',');
+        writer.write(csv(loan.getReturnDate()));
+        writer.write(',');
+        writer.write(loan.getFineAmount() != null ? loan.getFineAmount().toPlainString() : "");
+        writer.write(',');
+        writer.write(csv(loan.getStatus()));
+        writer.write(',');
+        writer.write(csv(loan.getCreatedAt()));
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields holding a comma, quote or line break, doubling inner quotes
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(TransactionSummary loan) throws IOException;
+    }
+}
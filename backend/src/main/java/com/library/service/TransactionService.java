@@ -1,40 +1,95 @@
 package com.library.service;
 
+import com.library.dto.BulkResult;
+import com.library.dto.CursorPage;
 import com.library.dto.IssueBookRequest;
+import com.library.dto.PageCursor;
 import com.library.dto.ReturnBookResponse;
+import com.library.dto.TransactionSummary;
 import com.library.model.*;
-import com.library.repository.BookRepository;
+import com.library.repository.MemberLoanCount;
 import com.library.repository.MemberRepository;
 import com.library.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 @Transactional
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
-    private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
     private final BookService bookService;
+    private final DashboardCounters dashboardCounters;
 
     public TransactionService(TransactionRepository transactionRepository,
-                              BookRepository bookRepository,
                               MemberRepository memberRepository,
-                              BookService bookService) {
+                              BookService bookService,
+                              DashboardCounters dashboardCounters) {
         this.transactionRepository = transactionRepository;
-        this.bookRepository = bookRepository;
         this.memberRepository = memberRepository;
         this.bookService = bookService;
+        this.dashboardCounters = dashboardCounters;
     }
 
-    public List<Transaction> findAll() {
-        return transactionRepository.findAllWithDetails();
+    public CursorPage<TransactionSummary> findPage(String cursor, int limit) {
+        int size = CursorPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        List<TransactionSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstPage(page);
+        } else {
+            PageCursor c = PageCursor.decode(cursor, "transactions", 2);
+            rows = transactionRepository.findPageBefore(c.getDateTime(0), c.getLong(1), page);
+        }
+        return CursorPage.of(rows, size, t -> cursorOf("transactions", t));
+    }
+
+    public CursorPage<TransactionSummary> findActivePage(String cursor, int limit) {
+        int size = CursorPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        List<TransactionSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstPageByStatus(TransactionStatus.ISSUED, page);
+        } else {
+            PageCursor c = PageCursor.decode(cursor, "transactions:active", 2);
+            rows = transactionRepository.findPageByStatusBefore(
+                    TransactionStatus.ISSUED, c.getDateTime(0), c.getLong(1), page);
+        }
+        return CursorPage.of(rows, size, t -> cursorOf("transactions:active", t));
+    }
+
+    public CursorPage<TransactionSummary> findOverduePage(String cursor, int limit) {
+        int size = CursorPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        LocalDate today = LocalDate.now();
+        List<TransactionSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstOverduePage(today, page);
+        } else {
+            PageCursor c = PageCursor.decode(cursor, "transactions:overdue", 2);
+            rows = transactionRepository.findOverduePageBefore(today, c.getDateTime(0), c.getLong(1), page);
+        }
+        return CursorPage.of(rows, size, t -> cursorOf("transactions:overdue", t));
+    }
+
+    private static String cursorOf(String kind, TransactionSummary t) {
+        return PageCursor.encode(kind, t.getCreatedAt(), t.getTransactionId());
     }
 
     public List<Transaction> findActive() {
@@ -45,49 +100,199 @@ public class TransactionService {
         return transactionRepository.findOverdueTransactions(LocalDate.now());
     }
 
+    @Timed(value = "library.loans.issue", description = "Time to issue a book", histogram = true)
     public Transaction issueBook(IssueBookRequest request) {
-        Book book = bookRepository.findById(request.getBookId())
+        // Usually served from the cache; availability is decided by decrementAvailable, not this copy
+        Book book = bookService.findById(request.getBookId())
                 .orElseThrow(() -> new IllegalArgumentException("Book not found with ID: " + request.getBookId()));
 
-        Member member = memberRepository.findById(request.getMemberId())
+        // Held until commit: the member's other checkouts wait here, so the count below stays true
+        Member member = memberRepository.findByIdForUpdate(request.getMemberId())
                 .orElseThrow(() -> new IllegalArgumentException("Member not found with ID: " + request.getMemberId()));
 
-        if (!book.isAvailable()) {
-            throw new IllegalStateException("Book '" + book.getTitle() + "' is not available for lending");
-        }
-
         long activeLoans = transactionRepository.countActiveByMember(member.getMemberId());
         if (activeLoans >= member.getMaxBooks()) {
-            throw new IllegalStateException(
-                    "Member has reached the maximum number of borrowed books (" +
-                    member.getMaxBooks() + " for " + member.getMemberType().name().toLowerCase() + ")");
+            throw new IllegalStateException(limitReached(member));
         }
 
-        LocalDate issueDate = LocalDate.now();
-        LocalDate dueDate = issueDate.plusDays(member.getLoanPeriodDays());
-
-        Transaction transaction = new Transaction();
-        transaction.setBook(book);
-        transaction.setMember(member);
-        transaction.setIssueDate(issueDate);
-        transaction.setDueDate(dueDate);
-        transaction.setStatus(TransactionStatus.ISSUED);
-        transaction.setFineAmount(BigDecimal.ZERO);
+        Transaction transaction = newLoan(book, member, LocalDate.now());
 
         bookService.decrementAvailable(book);
 
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        dashboardCounters.loanIssued();
+        return saved;
     }
 
+    /**
+     * Issue several books in one transaction. Members, then books, are locked
+     * in ID order - the order a single checkout takes them in - and each
+     * member's loan count is read once. Items that fail a check are reported
+     * and skipped; the rest are issued.
+     */
+    @Timed(value = "library.loans.issue.batch", description = "Time to issue a batch of books", histogram = true)
+    public BulkResult<TransactionSummary> issueBooks(List<IssueBookRequest> requests) {
+        BulkResult<TransactionSummary> result = new BulkResult<>(requests.size());
+        Set<Long> memberIds = new TreeSet<>();
+        Set<Long> bookIds = new TreeSet<>();
+        for (IssueBookRequest request : requests) {
+            if (request.getMemberId() != null) {
+                memberIds.add(request.getMemberId());
+            }
+            if (request.getBookId() != null) {
+                bookIds.add(request.getBookId());
+            }
+        }
+
+        Map<Long, Member> members = new HashMap<>();
+        Map<Long, Long> loansHeld = new HashMap<>();
+        if (!memberIds.isEmpty()) {
+            for (Member member : memberRepository.findAllByIdForUpdate(memberIds)) {
+                members.put(member.getMemberId(), member);
+            }
+            for (MemberLoanCount count : transactionRepository.countActiveByMembers(memberIds)) {
+                loansHeld.put(count.getMemberId(), count.getActiveLoans());
+            }
+        }
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : bookService.findAllForUpdate(bookIds)) {
+            books.put(book.getBookId(), book);
+        }
+
+        LocalDate issueDate = LocalDate.now();
+        Map<Book, Integer> taken = new HashMap<>();
+        List<Transaction> loans = new ArrayList<>();
+        List<Integer> loanIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            IssueBookRequest request = requests.get(i);
+            Book book = books.get(request.getBookId());
+            Member member = members.get(request.getMemberId());
+            if (book == null) {
+                result.failed(i, "Book not found with ID: " + request.getBookId());
+            } else if (member == null) {
+                result.failed(i, "Member not found with ID: " + request.getMemberId());
+            } else if (loansHeld.getOrDefault(member.getMemberId(), 0L) >= member.getMaxBooks()) {
+                result.failed(i, limitReached(member));
+            } else if (book.getAvailable() - taken.getOrDefault(book, 0) <= 0) {
+                result.failed(i, "Book '" + book.getTitle() + "' is not available for lending");
+            } else {
+                loansHeld.merge(member.getMemberId(), 1L, Long::sum);
+                taken.merge(book, 1, Integer::sum);
+                loans.add(newLoan(book, member, issueDate));
+                loanIndexes.add(i);
+            }
+        }
+        if (loans.isEmpty()) {
+            return result;
+        }
+
+        Map<Book, Integer> deltas = new HashMap<>();
+        taken.forEach((book, copies) -> deltas.put(book, -copies));
+        bookService.adjustAvailable(deltas);
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<Long> ids = transactionRepository.insertAll(loans, createdAt);
+        for (int j = 0; j < loans.size(); j++) {
+            Transaction loan = loans.get(j);
+            result.succeeded(loanIndexes.get(j), new TransactionSummary(ids.get(j),
+                    loan.getBook().getBookId(), loan.getBook().getTitle(), loan.getBook().getIsbn(),
+                    loan.getMember().getMemberId(), loan.getMember().getName(), loan.getIssueDate(),
+                    loan.getDueDate(), null, loan.getFineAmount(), loan.getStatus(), createdAt));
+            dashboardCounters.loanIssued();
+        }
+        return result;
+    }
+
+    @Timed(value = "library.loans.return", description = "Time to return a book", histogram = true)
     public ReturnBookResponse returnBook(Long transactionId) {
-        Transaction transaction = transactionRepository.findById(transactionId)
+        Transaction transaction = transactionRepository.findByIdForUpdate(transactionId)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found with ID: " + transactionId));
 
         if (transaction.getStatus() == TransactionStatus.RETURNED) {
             throw new IllegalStateException("This book has already been returned");
         }
 
+        long overdueDays = settle(transaction, LocalDate.now());
+
+        bookService.incrementAvailable(transaction.getBook());
+
+        Transaction saved = transactionRepository.save(transaction);
+        dashboardCounters.loanReturned(saved.getDueDate());
+
+        return new ReturnBookResponse(TransactionSummary.from(saved), saved.getFineAmount(), overdueDays);
+    }
+
+    /**
+     * Return several loans in one transaction: the loans, then their books,
+     * are locked in ID order, copy counts go back in one statement batch and
+     * the loan updates are flushed as one JDBC batch. Unknown or already
+     * returned loans are reported and skipped.
+     */
+    @Timed(value = "library.loans.return.batch", description = "Time to return a batch of books", histogram = true)
+    public BulkResult<ReturnBookResponse> returnBooks(List<Long> transactionIds) {
+        BulkResult<ReturnBookResponse> result = new BulkResult<>(transactionIds.size());
+        Set<Long> ids = new TreeSet<>();
+        for (Long id : transactionIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+
+        Map<Long, Transaction> loans = new HashMap<>();
+        Set<Long> bookIds = new TreeSet<>();
+        Set<Long> memberIds = new HashSet<>();
+        if (!ids.isEmpty()) {
+            for (Transaction loan : transactionRepository.findAllByIdForUpdate(ids)) {
+                loans.put(loan.getTransactionId(), loan);
+                bookIds.add(loan.getBook().getBookId());
+                memberIds.add(loan.getMember().getMemberId());
+            }
+        }
+        // Loaded up front so the summaries below do not fetch them one loan at a time
+        bookService.findAllForUpdate(bookIds);
+        if (!memberIds.isEmpty()) {
+            memberRepository.findAllById(memberIds);
+        }
+
         LocalDate returnDate = LocalDate.now();
+        Map<Book, Integer> returned = new HashMap<>();
+        for (int i = 0; i < transactionIds.size(); i++) {
+            Long id = transactionIds.get(i);
+            Transaction loan = loans.get(id);
+            if (loan == null) {
+                result.failed(i, "Transaction not found with ID: " + id);
+            } else if (loan.getStatus() == TransactionStatus.RETURNED) {
+                result.failed(i, "This book has already been returned");
+            } else {
+                long overdueDays = settle(loan, returnDate);
+                returned.merge(loan.getBook(), 1, Integer::sum);
+                result.succeeded(i, new ReturnBookResponse(TransactionSummary.from(loan),
+                        loan.getFineAmount(), overdueDays));
+                dashboardCounters.loanReturned(loan.getDueDate());
+            }
+        }
+        bookService.adjustAvailable(returned);
+        return result;
+    }
+
+    private static Transaction newLoan(Book book, Member member, LocalDate issueDate) {
+        Transaction transaction = new Transaction();
+        transaction.setBook(book);
+        transaction.setMember(member);
+        transaction.setIssueDate(issueDate);
+        transaction.setDueDate(issueDate.plusDays(member.getLoanPeriodDays()));
+        transaction.setStatus(TransactionStatus.ISSUED);
+        transaction.setFineAmount(BigDecimal.ZERO);
+        return transaction;
+    }
+
+    private static String limitReached(Member member) {
+        return "Member has reached the maximum number of borrowed books (" +
+                member.getMaxBooks() + " for " + member.getMemberType().name().toLowerCase() + ")";
+    }
+
+    // Marks the loan returned, sets its fine and returns the days overdue
+    private static long settle(Transaction transaction, LocalDate returnDate) {
         transaction.setReturnDate(returnDate);
         transaction.setStatus(TransactionStatus.RETURNED);
 
@@ -100,12 +305,7 @@ public class TransactionService {
         }
 
         transaction.setFineAmount(fineAmount);
-
-        bookService.incrementAvailable(transaction.getBook());
-
-        Transaction saved = transactionRepository.save(transaction);
-
-        return new ReturnBookResponse(saved, fineAmount, overdueDays);
+        return overdueDays;
     }
 
     public List<Transaction> findByMember(Long memberId, TransactionStatus status) {
@@ -0,0 +1,70 @@
+package com.library.service;
+
+import com.library.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether a username belongs to an existing account, answered from memory so
+ * authenticating a request does not query the users table. Entries are
+ * invalidated when an account changes through AuthService and otherwise
+ * reloaded after a TTL, which bounds how long an out-of-band change (a row
+ * edited directly in the database) can go unnoticed.
+ */
+@Service
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${library.auth.user-cache-ttl-ms:600000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean exists(String username) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry == null || entry.loadedAt + ttlMillis <= now) {
+            entry = new Entry(userRepository.existsByUsername(username), now);
+            entries.put(username, entry);
+        }
+        return entry.exists;
+    }
+
+    // Drop the entry now and again after commit, so a request racing the
+    // transaction cannot cache the state it is about to replace
+    public void invalidate(String username) {
+        entries.remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.remove(username);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+        final boolean exists;
+        final long loadedAt;
+
+        Entry(boolean exists, long loadedAt) {
+            this.exists = exists;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Indexes backing the keyset (cursor) pagination of transaction lists.
+-- Lists are ordered newest first by (created_at, transaction_id), so a page
+-- is a range scan from the cursor instead of an OFFSET over earlier rows.
+CREATE INDEX idx_transactions_created ON transactions(created_at, transaction_id);
+CREATE INDEX idx_transactions_status_created ON transactions(status, created_at, transaction_id);
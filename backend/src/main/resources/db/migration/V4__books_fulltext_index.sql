@@ -0,0 +1,3 @@
+-- FULLTEXT index for library.search.engine=fulltext (BookRepository.fullTextSearch).
+-- Replaces the LIKE '%q%' scan, which could not use any index.
+ALTER TABLE books ADD FULLTEXT INDEX ft_books_search (title, author, isbn);
@@ -0,0 +1,4 @@
+-- Backs the history export (TransactionRepository.streamHistory): an issue-date
+-- range is read in (issue_date, transaction_id) order straight from the index,
+-- so MySQL can stream rows instead of sorting the whole range first.
+CREATE INDEX idx_transactions_issued ON transactions(issue_date, transaction_id);
@@ -0,0 +1,105 @@
+package com.library.benchmark;
+
+import com.library.config.JwtAuthFilter;
+import com.library.config.JwtUtil;
+import com.library.repository.UserRepository;
+import com.library.service.UserStatusCache;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication, for one bearer token sent over and
+ * over as a logged-in client does:
+ * <ul>
+ *   <li>legacy - the old filter: key rebuilt and token parsed four times</li>
+ *   <li>singleParse - cached key, one parse per request, claims cache off</li>
+ *   <li>cached - verified claims and user status served from memory</li>
+ * </ul>
+ * None of them touch a database; the old filter's per-request users query
+ * comes on top of its figure.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.library.benchmark.JwtAuthFilterBenchmark JwtAuthFilter
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "library-management-system-secret-key-for-jwt-token-generation-2024";
+
+    private OncePerRequestFilter legacy;
+    private OncePerRequestFilter singleParse;
+    private OncePerRequestFilter cached;
+    private String header;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserRepository users = Mockito.mock(UserRepository.class);
+        Mockito.when(users.existsByUsername("librarian")).thenReturn(true);
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000, 10_000);
+        header = "Bearer " + jwtUtil.generateToken("librarian", "LIBRARIAN");
+
+        legacy = new LegacyJwtAuthFilter(SECRET, username -> true);
+        singleParse = new JwtAuthFilter(new JwtUtil(SECRET, 3_600_000, 0), new UserStatusCache(users, 600_000));
+        cached = new JwtAuthFilter(jwtUtil, new UserStatusCache(users, 600_000));
+    }
+
+    @Benchmark
+    public Authentication legacy() throws Exception {
+        return authenticate(legacy);
+    }
+
+    @Benchmark
+    public Authentication singleParse() throws Exception {
+        return authenticate(singleParse);
+    }
+
+    @Benchmark
+    public Authentication cached() throws Exception {
+        return authenticate(cached);
+    }
+
+    private Authentication authenticate(OncePerRequestFilter filter) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader("Authorization", header);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            throw new IllegalStateException("Request was not authenticated");
+        }
+        return auth;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new CommandLineOptions(args)).run();
+    }
+}
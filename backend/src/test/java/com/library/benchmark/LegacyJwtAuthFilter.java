@@ -0,0 +1,84 @@
+package com.library.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.function.Predicate;
+
+/**
+ * The filter as it was before verified tokens were cached: the key is rebuilt
+ * and the token parsed four times per request. The user lookup is a
+ * predicate, so the benchmark measures the JWT work without a database.
+ */
+public class LegacyJwtAuthFilter extends OncePerRequestFilter {
+
+    private final String secret;
+    private final Predicate<String> userExists;
+
+    public LegacyJwtAuthFilter(String secret, Predicate<String> userExists) {
+        this.secret = secret;
+        this.userExists = userExists;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        final String authHeader = request.getHeader("Authorization");
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            final String jwt = authHeader.substring(7);
+            final String username = claims(jwt).getSubject();
+
+            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                if (userExists.test(username) && validateToken(jwt, username)) {
+                    String role = claims(jwt).get("role", String.class);
+
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(
+                                    username,
+                                    null,
+                                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                            );
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Cannot set user authentication: " + e.getMessage());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean validateToken(String token, String username) {
+        return claims(token).getSubject().equals(username)
+                && !claims(token).getExpiration().before(new Date());
+    }
+
+    private Claims claims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,274 @@
+package com.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.LibraryApplication;
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.MemberType;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load on the application in one thread mode:
+ * <ul>
+ *   <li>platform - Tomcat's pool of 200 platform threads (the default)</li>
+ *   <li>virtual - the virtual profile: one virtual thread per request</li>
+ * </ul>
+ * Half of the clients check a book out and back in (POST /transactions/issue,
+ * then /return); the other half search the catalog (GET /books/search). Each
+ * client sends its next request as soon as the last one answers. The first
+ * quarter of the run is warm-up; throughput and p50/p99 are reported for the
+ * rest. Clients and server share the JVM, so compare modes on the same machine.
+ *
+ * Runs on the in-memory H2 database of the test profile unless a datasource is
+ * passed. H2 answers in microseconds, so threads never wait on it long; point
+ * it at MySQL to see the waits the virtual profile is meant for.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.library.benchmark.ThreadModeLoadBenchmark platform
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.library.benchmark.ThreadModeLoadBenchmark virtual
+ * </pre>
+ * Optional arguments after the mode: clients (default 400) and seconds
+ * (default 40). Anything starting with -- goes to Spring, for example
+ * --spring.datasource.url=jdbc:mysql://localhost:3306/library_db
+ */
+public class ThreadModeLoadBenchmark {
+
+    private static final int BOOKS = 500;
+    private static final String[] QUERIES = {"load", "title 42", "author 7", "test title", "auth", "9780"};
+
+    private final String baseUrl;
+    private final String token;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Long> bookIds;
+
+    private volatile long measureFrom;
+    private volatile boolean running = true;
+
+    private ThreadModeLoadBenchmark(String baseUrl, String token, List<Long> bookIds) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.bookIds = bookIds;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        if (!mode.equals("platform") && !mode.equals("virtual")) {
+            throw new IllegalArgumentException("Mode must be platform or virtual");
+        }
+        List<Integer> numbers = new ArrayList<>();
+        List<String> springArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                springArgs.add(args[i]);
+            } else {
+                numbers.add(Integer.parseInt(args[i]));
+            }
+        }
+        int clients = numbers.size() > 0 ? numbers.get(0) : 400;
+        int seconds = numbers.size() > 1 ? numbers.get(1) : 40;
+        if (mode.equals("virtual")) {
+            springArgs.add("--spring.profiles.active=virtual");
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(LibraryApplication.class,
+                springArgs.toArray(new String[0]));
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<Long> bookIds = seedBooks(context.getBean(BookRepository.class));
+            List<Long> memberIds = seedMembers(context.getBean(MemberRepository.class), clients / 2);
+            String token = login(baseUrl);
+
+            System.out.printf("%nmode=%s clients=%d seconds=%d java=%s%n",
+                    mode, clients, seconds, Runtime.version());
+            new ThreadModeLoadBenchmark(baseUrl, token, bookIds).run(clients, seconds, memberIds);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void run(int clients, int seconds, List<Long> memberIds) throws Exception {
+        List<Recorder> issues = new ArrayList<>();
+        List<Recorder> searches = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        measureFrom = start + TimeUnit.SECONDS.toNanos(seconds) / 4;
+        for (int i = 0; i < clients; i++) {
+            Recorder recorder = new Recorder();
+            if (i % 2 == 0 && i / 2 < memberIds.size()) {
+                issues.add(recorder);
+                Long memberId = memberIds.get(i / 2);
+                executor.execute(() -> checkoutLoop(memberId, recorder));
+            } else {
+                searches.add(recorder);
+                executor.execute(() -> searchLoop(recorder));
+            }
+        }
+        TimeUnit.SECONDS.sleep(seconds);
+        running = false;
+        long end = System.nanoTime();
+        executor.shutdown();
+        executor.awaitTermination(60, TimeUnit.SECONDS);
+
+        double measured = (end - measureFrom) / 1e9;
+        report("issue", issues, measured);
+        report("search", searches, measured);
+    }
+
+    private void checkoutLoop(Long memberId, Recorder recorder) {
+        while (running) {
+            Long bookId = bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+            long t0 = System.nanoTime();
+            HttpResponse<String> issued = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/transactions/issue"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"bookId\":" + bookId + ",\"memberId\":" + memberId + "}")));
+            recorder.record(t0, issued != null && issued.statusCode() == 201, measureFrom);
+            if (issued == null || issued.statusCode() != 201) {
+                continue;
+            }
+            // Return it again so the member stays under the loan limit; not timed
+            try {
+                long loanId = mapper.readTree(issued.body()).get("transactionId").asLong();
+                send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/transactions/" + loanId + "/return"))
+                        .POST(HttpRequest.BodyPublishers.noBody()));
+            } catch (Exception e) {
+                recorder.errors++;
+            }
+        }
+    }
+
+    private void searchLoop(Recorder recorder) {
+        int n = ThreadLocalRandom.current().nextInt(QUERIES.length);
+        while (running) {
+            String q = URLEncoder.encode(QUERIES[n++ % QUERIES.length], StandardCharsets.UTF_8);
+            long t0 = System.nanoTime();
+            HttpResponse<String> response = send(HttpRequest.newBuilder(
+                    URI.create(baseUrl + "/api/v1/books/search?q=" + q)).GET());
+            recorder.record(t0, response != null && response.statusCode() == 200, measureFrom);
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) {
+        try {
+            return http.send(request.header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void report(String name, List<Recorder> recorders, double seconds) {
+        int count = 0;
+        long errors = 0;
+        for (Recorder r : recorders) {
+            count += r.count;
+            errors += r.errors;
+        }
+        long[] all = new long[count];
+        int i = 0;
+        for (Recorder r : recorders) {
+            System.arraycopy(r.nanos, 0, all, i, r.count);
+            i += r.count;
+        }
+        Arrays.sort(all);
+        System.out.printf(Locale.ROOT, "%-7s %8d requests %9.0f req/s   p50 %8.2f ms   p99 %8.2f ms   errors %d%n",
+                name, count, count / seconds, percentile(all, 0.50), percentile(all, 0.99), errors);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static List<Long> seedBooks(BookRepository bookRepository) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book(String.format("978%010d", i), "Load Test Title " + i,
+                    "Author " + (i % 50), "Load Publishing", 100_000);
+            book.setAvailable(100_000);
+            books.add(book);
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Book book : bookRepository.saveAll(books)) {
+            ids.add(book.getBookId());
+        }
+        return ids;
+    }
+
+    private static List<Long> seedMembers(MemberRepository memberRepository, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(memberRepository.save(new Member("Load Member " + i, "load" + i + "@example.edu",
+                    "555-" + i, MemberType.FACULTY)).getMemberId());
+        }
+        return ids;
+    }
+
+    private static String login(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String credentials = "{\"username\":\"loadtest\",\"password\":\"loadtest-password\"}";
+        client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials)).build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials)).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + response.statusCode() + " " + response.body());
+        }
+        return new ObjectMapper().readTree(response.body()).get("token").asText();
+    }
+
+    // Latencies of one client thread; read only after the executor has stopped
+    private static final class Recorder {
+        long[] nanos = new long[1024];
+        int count;
+        long errors;
+
+        void record(long startNanos, boolean ok, long measureFrom) {
+            if (startNanos < measureFrom) {
+                return;
+            }
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = System.nanoTime() - startNanos;
+        }
+    }
+}
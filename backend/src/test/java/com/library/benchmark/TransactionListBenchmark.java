@@ -0,0 +1,152 @@
+package com.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.LibraryApplication;
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.MemberType;
+import com.library.model.Transaction;
+import com.library.model.TransactionStatus;
+import com.library.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of active loans as the API returns it: query plus JSON.
+ * <ul>
+ *   <li>entities - the old shape: Transaction with Book and Member fetched and serialized whole</li>
+ *   <li>summaries - the TransactionSummary projection</li>
+ * </ul>
+ * SampleTime mode reports p50/p99; the JSON size of each page is printed at setup.
+ * Runs the application on the in-memory H2 database of the test profile.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.library.benchmark.TransactionListBenchmark TransactionList
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionListBenchmark {
+
+    // The old query behind GET /api/transactions/active, kept here for comparison
+    private static final String ENTITY_PAGE = "SELECT t FROM Transaction t JOIN FETCH t.book JOIN FETCH t.member "
+            + "WHERE t.status = :status ORDER BY t.createdAt DESC, t.transactionId DESC";
+
+    @Param({"50"})
+    public int pageSize;
+
+    @Param({"5000"})
+    public int loans;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate tx;
+    private ObjectMapper mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = SpringApplication.run(LibraryApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        transactionRepository = context.getBean(TransactionRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        tx = context.getBean(TransactionTemplate.class);
+        mapper = context.getBean(ObjectMapper.class);
+        seed();
+
+        System.out.printf("%nJSON per page of %d: entities %d bytes, summaries %d bytes%n",
+                pageSize, mapper.writeValueAsBytes(queryEntities()).length,
+                mapper.writeValueAsBytes(querySummaries()).length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entities() throws Exception {
+        return mapper.writeValueAsBytes(queryEntities());
+    }
+
+    @Benchmark
+    public byte[] summaries() throws Exception {
+        return mapper.writeValueAsBytes(querySummaries());
+    }
+
+    private List<?> queryEntities() {
+        return tx.execute(status -> entityManager.createQuery(ENTITY_PAGE, Transaction.class)
+                .setParameter("status", TransactionStatus.ISSUED)
+                .setMaxResults(pageSize + 1)
+                .getResultList());
+    }
+
+    private List<?> querySummaries() {
+        return tx.execute(status -> transactionRepository.findFirstPageByStatus(
+                TransactionStatus.ISSUED, PageRequest.of(0, pageSize + 1)));
+    }
+
+    private void seed() {
+        tx.executeWithoutResult(status -> {
+            Book[] books = new Book[500];
+            for (int i = 0; i < books.length; i++) {
+                books[i] = new Book("BENCH-" + i, "Benchmark Title Number " + i, "Author " + i,
+                        "Benchmark Publishing House", 20);
+                entityManager.persist(books[i]);
+            }
+            Member[] members = new Member[1000];
+            for (int i = 0; i < members.length; i++) {
+                members[i] = new Member("Benchmark Member " + i, "member" + i + "@example.edu",
+                        "555-01" + i, i % 10 == 0 ? MemberType.FACULTY : MemberType.STUDENT);
+                entityManager.persist(members[i]);
+            }
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < loans; i++) {
+                Transaction t = new Transaction();
+                t.setBook(books[i % books.length]);
+                t.setMember(members[i % members.length]);
+                t.setIssueDate(today.minusDays(i % 30));
+                t.setDueDate(today.minusDays(i % 30).plusDays(14));
+                t.setStatus(TransactionStatus.ISSUED);
+                t.setFineAmount(BigDecimal.ZERO);
+                entityManager.persist(t);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new CommandLineOptions(args)).run();
+    }
+}
@@ -0,0 +1,112 @@
+package com.library.config;
+
+import com.library.repository.UserRepository;
+import com.library.service.UserStatusCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthFilterTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-token-generation";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private JwtUtil jwtUtil;
+    private UserStatusCache userStatusCache;
+    private JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+        userStatusCache = new UserStatusCache(userRepository, 60_000);
+        filter = new JwtAuthFilter(jwtUtil, userStatusCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filter_shouldAuthenticateWithRoleFromToken() throws Exception {
+        when(userRepository.existsByUsername("admin")).thenReturn(true);
+
+        Authentication auth = authenticate(jwtUtil.generateToken("admin", "ADMIN"));
+
+        assertNotNull(auth);
+        assertEquals("admin", auth.getName());
+        assertEquals("ROLE_ADMIN", auth.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void filter_shouldVerifyTokenAndLookUpUserOnlyOnce() throws Exception {
+        when(userRepository.existsByUsername("admin")).thenReturn(true);
+        String token = jwtUtil.generateToken("admin", "ADMIN");
+
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token);
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(authenticate(token));
+        }
+
+        assertSame(first, jwtUtil.verify(token));
+        verify(userRepository, times(1)).existsByUsername("admin");
+    }
+
+    @Test
+    void filter_shouldRejectTamperedAndExpiredTokens() throws Exception {
+        String token = jwtUtil.generateToken("admin", "ADMIN");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String expired = Jwts.builder()
+                .subject("admin")
+                .claim("role", "ADMIN")
+                .expiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertNull(authenticate(tampered));
+        assertNull(authenticate(expired));
+        assertNull(jwtUtil.verify("not-a-token"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void filter_shouldSeeNewUserAfterInvalidation() throws Exception {
+        when(userRepository.existsByUsername("newbie")).thenReturn(false, true);
+        String token = jwtUtil.generateToken("newbie", "LIBRARIAN");
+
+        assertNull(authenticate(token));
+        assertNull(authenticate(token));
+
+        userStatusCache.invalidate("newbie");
+
+        assertNotNull(authenticate(token));
+        verify(userRepository, times(2)).existsByUsername("newbie");
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
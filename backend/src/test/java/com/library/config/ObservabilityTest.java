@@ -0,0 +1,102 @@
+package com.library.config;
+
+import com.library.dto.IssueBookRequest;
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.MemberType;
+import com.library.model.User;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.UserRepository;
+import com.library.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:observability",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "management.endpoints.web.exposure.include=health,prometheus",
+        "management.observations.annotations.enabled=true",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true",
+        "management.metrics.tags.application=Library Management System"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class ObservabilityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        if (!userRepository.existsByUsername("admin")) {
+            userRepository.save(new User("admin", "not-used", "ADMIN"));
+            userRepository.save(new User("librarian", "not-used", "LIBRARIAN"));
+        }
+    }
+
+    @Test
+    void health_shouldBePublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void prometheus_shouldRequireAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", bearer("librarian", "LIBRARIAN")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void prometheus_shouldExposeRequestQueryPoolAndJvmMetrics() throws Exception {
+        Book book = bookRepository.save(new Book("OBS-1", "Observed", "Author", "Publisher", 2));
+        Member member = memberRepository.save(new Member("Observer", "obs@example.com", "555-0000", MemberType.STUDENT));
+        transactionService.issueBook(new IssueBookRequest(book.getBookId(), member.getMemberId()));
+        String admin = bearer("admin", "ADMIN");
+        mockMvc.perform(get("/api/v1/books/{id}", book.getBookId()).header("Authorization", admin))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", admin))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "http_server_requests_seconds_bucket{application=\"Library Management System\",controller=\"BookController\"")))
+                .andExpect(content().string(containsString(
+                        "library_db_statements_per_request_count{application=\"Library Management System\",method=\"GET\",uri=\"/api/v1/books/{id}\"")))
+                .andExpect(content().string(containsString("library_loans_issue_seconds_bucket")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("jvm_gc_")))
+                .andExpect(content().string(containsString("cache_gets_total{application=\"Library Management System\",cache=\"books\"")));
+    }
+
+    private String bearer(String username, String role) {
+        return "Bearer " + jwtUtil.generateToken(username, role);
+    }
+}
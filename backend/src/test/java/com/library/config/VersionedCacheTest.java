@@ -0,0 +1,70 @@
+package com.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedCacheTest {
+
+    private VersionedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VersionedCache("test", Caffeine.newBuilder().build(), false);
+    }
+
+    @Test
+    void putAfterMiss_shouldBeCached() {
+        assertNull(cache.get(1L));
+        cache.put(1L, "fresh");
+
+        assertEquals("fresh", cache.get(1L, String.class));
+    }
+
+    @Test
+    void putRacingAnEviction_shouldBeDropped() {
+        assertNull(cache.get(1L));
+        // Another transaction commits a change and evicts while this one is loading
+        cache.evict(1L);
+        cache.put(1L, "stale");
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void putRacingAClear_shouldBeDropped() {
+        assertNull(cache.get(1L));
+        cache.clear();
+        cache.put(1L, "stale");
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void putWithoutMiss_shouldBeIgnored() {
+        cache.put(1L, "unchecked");
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void evictionOfOtherKey_shouldNotAffectPut() {
+        assertNull(cache.get(1L));
+        cache.evict(2L);
+        cache.put(1L, "fresh");
+
+        assertEquals("fresh", cache.get(1L, String.class));
+    }
+
+    @Test
+    void missRecordedOnce_shouldAllowOnePut() {
+        assertNull(cache.get(1L));
+        cache.put(1L, "first");
+        cache.evict(1L);
+        cache.put(1L, "second");
+
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,78 @@
+package com.library.controller;
+
+import com.library.config.JwtUtil;
+import com.library.model.User;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:auth")
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (!userRepository.existsByUsername("admin")) {
+            userRepository.save(new User("admin", "not-used", "ADMIN"));
+            userRepository.save(new User("librarian", "not-used", "LIBRARIAN"));
+        }
+    }
+
+    @Test
+    void register_anonymousAskingForAdmin_shouldBecomeLibrarian() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials("intruder", "ADMIN")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.role").value("LIBRARIAN"));
+
+        assertEquals("LIBRARIAN", userRepository.findByUsername("intruder").orElseThrow().getRole());
+    }
+
+    @Test
+    void register_librarianAskingForAdmin_shouldBecomeLibrarian() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/register")
+                        .header("Authorization", bearer("librarian", "LIBRARIAN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials("promoted", "ADMIN")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.role").value("LIBRARIAN"));
+    }
+
+    @Test
+    void register_adminGrantingAdmin_shouldKeepRole() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/register")
+                        .header("Authorization", bearer("admin", "ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials("second-admin", "ADMIN")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.role").value("ADMIN"));
+    }
+
+    private static String credentials(String username, String role) {
+        return "{\"username\":\"" + username + "\",\"password\":\"secret-password\",\"role\":\"" + role + "\"}";
+    }
+
+    private String bearer(String username, String role) {
+        return "Bearer " + jwtUtil.generateToken(username, role);
+    }
+}
@@ -1,6 +1,9 @@
 package com.library.service;
 
 import com.library.dto.BookDto;
+import com.library.dto.CursorPage;
+import com.library.dto.PageCursor;
+import com.library.dto.SearchPage;
 import com.library.model.Book;
 import com.library.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,7 +19,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +30,12 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private DashboardCounters dashboardCounters;
+
+    @Mock
+    private BookSearchEngine bookSearchEngine;
+
     @InjectMocks
     private BookService bookService;
 
@@ -53,6 +64,38 @@ class BookServiceTest {
         verify(bookRepository).findAll();
     }
 
+    @Test
+    void findPage_shouldReturnCursorForNextPage() {
+        Book book2 = new Book("978-0-13-235088-4", "Clean Code", "Robert C. Martin",
+                "Prentice Hall", 2);
+        book2.setBookId(2L);
+        Book book3 = new Book("978-0-20-163361-0", "Design Patterns", "Erich Gamma",
+                "Addison-Wesley", 1);
+        book3.setBookId(3L);
+        when(bookRepository.findFirstPageById(any())).thenReturn(Arrays.asList(sampleBook, book2, book3));
+
+        CursorPage<Book> page = bookService.findPage(null, 2, "id");
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertNotNull(page.getNextCursor());
+
+        when(bookRepository.findPageAfterId(eq(2L), any())).thenReturn(List.of(book3));
+        CursorPage<Book> next = bookService.findPage(page.getNextCursor(), 2, "id");
+
+        assertEquals(List.of(book3), next.getItems());
+        assertFalse(next.isHasMore());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void findPage_shouldRejectCursorFromAnotherSort() {
+        String titleCursor = PageCursor.encode("books:title", "Clean Code", 2L);
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.findPage(titleCursor, 10, "id"));
+        assertThrows(IllegalArgumentException.class, () -> bookService.findPage(null, 10, "author"));
+    }
+
     @Test
     void findById_shouldReturnBook_whenExists() {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
@@ -73,24 +116,45 @@ class BookServiceTest {
     }
 
     @Test
-    void search_shouldReturnMatchingBooks() {
-        when(bookRepository.search("pragmatic")).thenReturn(List.of(sampleBook));
+    void search_shouldDelegateToSearchEngine() {
+        SearchPage<Book> page = new SearchPage<>(List.of(sampleBook), 0, 20, false);
+        when(bookSearchEngine.search("pragmatic", 0, 20)).thenReturn(page);
 
-        List<Book> results = bookService.search("pragmatic");
+        SearchPage<Book> results = bookService.search("  pragmatic ", 0, 20);
 
-        assertEquals(1, results.size());
-        assertEquals("The Pragmatic Programmer", results.get(0).getTitle());
+        assertEquals(1, results.getItems().size());
+        assertEquals("The Pragmatic Programmer", results.getItems().get(0).getTitle());
     }
 
     @Test
-    void search_shouldReturnAll_whenQueryIsEmpty() {
-        when(bookRepository.findAll()).thenReturn(List.of(sampleBook));
+    void search_shouldClampLimit() {
+        when(bookSearchEngine.search("code", 0, SearchPage.MAX_LIMIT))
+                .thenReturn(SearchPage.empty(0, SearchPage.MAX_LIMIT));
 
-        List<Book> results = bookService.search("");
+        bookService.search("code", 0, 5000);
 
-        assertEquals(1, results.size());
-        verify(bookRepository).findAll();
-        verify(bookRepository, never()).search(anyString());
+        verify(bookSearchEngine).search("code", 0, SearchPage.MAX_LIMIT);
+    }
+
+    @Test
+    void search_shouldPageCatalogById_whenQueryIsEmpty() {
+        Book book2 = new Book("978-0-13-235088-4", "Clean Code", "Robert C. Martin",
+                "Prentice Hall", 2);
+        book2.setBookId(2L);
+        when(bookRepository.findFirstPageById(any())).thenReturn(List.of(sampleBook, book2));
+
+        SearchPage<Book> results = bookService.search("", 0, 1);
+
+        assertEquals(List.of(sampleBook), results.getItems());
+        assertTrue(results.isHasMore());
+        verify(bookSearchEngine, never()).search(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void search_shouldRejectOffsetBeyondWindow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookService.search("code", SearchPage.MAX_WINDOW, 20));
+        verifyNoInteractions(bookSearchEngine);
     }
 
     @Test
@@ -127,7 +191,7 @@ class BookServiceTest {
     void updateBook_shouldUpdateAndReturnBook() {
         BookDto updateDto = new BookDto("978-0-13-468599-1", "Updated Title",
                 "Updated Author", "Updated Publisher", 5);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(sampleBook));
         when(bookRepository.findByIsbn(updateDto.getIsbn())).thenReturn(Optional.of(sampleBook));
         when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -140,7 +204,7 @@ class BookServiceTest {
 
     @Test
     void updateBook_shouldThrow_whenBookNotFound() {
-        when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+        when(bookRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class,
                 () -> bookService.updateBook(99L, sampleDto));
@@ -153,7 +217,7 @@ class BookServiceTest {
         BookDto updateDto = new BookDto("978-0-13-468599-1", "The Pragmatic Programmer",
                 "David Thomas", "Addison-Wesley", 5);
 
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(sampleBook));
         when(bookRepository.findByIsbn(updateDto.getIsbn())).thenReturn(Optional.of(sampleBook));
         when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -167,7 +231,7 @@ class BookServiceTest {
     void deleteBook_shouldDelete_whenNoActiveLoans() {
         sampleBook.setQuantity(3);
         sampleBook.setAvailable(3);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(sampleBook));
 
         bookService.deleteBook(1L);
 
@@ -178,7 +242,7 @@ class BookServiceTest {
     void deleteBook_shouldThrow_whenActiveLoansExist() {
         sampleBook.setQuantity(3);
         sampleBook.setAvailable(1);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(sampleBook));
 
         assertThrows(IllegalStateException.class,
                 () -> bookService.deleteBook(1L));
@@ -186,32 +250,36 @@ class BookServiceTest {
     }
 
     @Test
-    void decrementAvailable_shouldDecrement_whenAvailable() {
-        sampleBook.setAvailable(2);
-        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    void decrementAvailable_shouldTakeCopyInDatabase() {
+        when(bookRepository.decrementAvailable(1L)).thenReturn(1);
 
         bookService.decrementAvailable(sampleBook);
 
-        assertEquals(1, sampleBook.getAvailable());
-        verify(bookRepository).save(sampleBook);
+        verify(bookRepository).decrementAvailable(1L);
+        // The instance may be a shared cached copy, so it is not touched
+        assertEquals(3, sampleBook.getAvailable());
+        verify(bookRepository, never()).save(any(Book.class));
     }
 
     @Test
-    void decrementAvailable_shouldThrow_whenNoneAvailable() {
-        sampleBook.setAvailable(0);
+    void decrementAvailable_shouldThrow_whenNoCopyLeft() {
+        // The entity may be stale; the conditional update decides
+        sampleBook.setAvailable(1);
+        when(bookRepository.decrementAvailable(1L)).thenReturn(0);
 
-        assertThrows(IllegalStateException.class,
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
                 () -> bookService.decrementAvailable(sampleBook));
+        assertTrue(exception.getMessage().contains("not available"));
     }
 
     @Test
-    void incrementAvailable_shouldIncrement() {
-        sampleBook.setAvailable(1);
-        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    void incrementAvailable_shouldReturnCopyInDatabase() {
+        when(bookRepository.incrementAvailable(1L)).thenReturn(1);
 
         bookService.incrementAvailable(sampleBook);
 
-        assertEquals(2, sampleBook.getAvailable());
-        verify(bookRepository).save(sampleBook);
+        verify(bookRepository).incrementAvailable(1L);
+        assertEquals(3, sampleBook.getAvailable());
+        verify(bookRepository, never()).save(any(Book.class));
     }
 }
@@ -0,0 +1,169 @@
+package com.library.service;
+
+import com.library.config.StatementCounter;
+import com.library.dto.BulkResult;
+import com.library.dto.IssueBookRequest;
+import com.library.dto.ReturnBookResponse;
+import com.library.dto.TransactionSummary;
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.MemberType;
+import com.library.model.TransactionStatus;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Real transactions on H2: loans are inserted and copy counts adjusted in JDBC batches
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+class BulkCirculationTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void issueBooks_shouldIssueAvailableCopies_andReportTheRest() {
+        Book scarce = newBook(1);
+        Book plenty = newBook(5);
+        Member student = newMember(MemberType.STUDENT);
+        Member faculty = newMember(MemberType.FACULTY);
+
+        BulkResult<TransactionSummary> result = transactionService.issueBooks(List.of(
+                new IssueBookRequest(scarce.getBookId(), student.getMemberId()),
+                new IssueBookRequest(scarce.getBookId(), faculty.getMemberId()),
+                new IssueBookRequest(plenty.getBookId(), student.getMemberId()),
+                new IssueBookRequest(plenty.getBookId(), faculty.getMemberId()),
+                new IssueBookRequest(-1L, faculty.getMemberId())));
+
+        assertEquals(3, result.getSucceeded());
+        assertTrue(result.getItems().get(1).getError().contains("not available"));
+        assertTrue(result.getItems().get(4).getError().contains("Book not found"));
+        TransactionSummary loan = result.getItems().get(2).getResult();
+        assertEquals(TransactionStatus.ISSUED,
+                transactionRepository.findById(loan.getTransactionId()).orElseThrow().getStatus());
+        assertEquals(0, available(scarce));
+        assertEquals(3, available(plenty));
+        assertEquals(2, transactionRepository.countActiveByMember(student.getMemberId()));
+    }
+
+    @Test
+    void issueBooks_shouldStopAtMemberLimit() {
+        Book book = newBook(10);
+        Member student = newMember(MemberType.STUDENT);
+        List<IssueBookRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            requests.add(new IssueBookRequest(book.getBookId(), student.getMemberId()));
+        }
+
+        BulkResult<TransactionSummary> result = transactionService.issueBooks(requests);
+
+        assertEquals(MemberType.STUDENT.getMaxBooks(), result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(10 - MemberType.STUDENT.getMaxBooks(), available(book));
+    }
+
+    @Test
+    void returnBooks_shouldRestoreCopies_andReturnEachLoanOnce() {
+        Book book = newBook(3);
+        Member member = newMember(MemberType.FACULTY);
+        List<Long> loanIds = issue(book, member, 3);
+
+        BulkResult<ReturnBookResponse> result = transactionService.returnBooks(
+                List.of(loanIds.get(0), loanIds.get(1), loanIds.get(0), -1L));
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals("This book has already been returned", result.getItems().get(2).getError());
+        assertTrue(result.getItems().get(3).getError().contains("Transaction not found"));
+        assertEquals(2, available(book));
+        assertEquals(TransactionStatus.RETURNED,
+                transactionRepository.findById(loanIds.get(1)).orElseThrow().getStatus());
+        assertEquals(1, transactionRepository.countActiveByMember(member.getMemberId()));
+    }
+
+    @Test
+    void returnBooks_shouldNotQueryPerLoan() {
+        Member member = newMember(MemberType.FACULTY);
+        List<Long> single = issue(newBook(1), member, 1);
+        List<Long> several = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            several.addAll(issue(newBook(2), member, 2));
+        }
+
+        statementCounter.begin();
+        transactionService.returnBooks(single);
+        int forOne = statementCounter.end();
+        statementCounter.begin();
+        transactionService.returnBooks(several);
+        int forSix = statementCounter.end();
+
+        assertEquals(forOne, forSix);
+    }
+
+    @Test
+    void jdbcBatch_shouldCountAsOneStatement() {
+        Book first = newBook(2);
+        Book second = newBook(2);
+
+        statementCounter.begin();
+        bookRepository.addAvailable(Map.of(first.getBookId(), -1, second.getBookId(), -1));
+        int statements = statementCounter.end();
+
+        assertEquals(1, statements);
+        assertEquals(1, available(first));
+    }
+
+    private List<Long> issue(Book book, Member member, int copies) {
+        List<IssueBookRequest> requests = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            requests.add(new IssueBookRequest(book.getBookId(), member.getMemberId()));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (BulkResult.Item<TransactionSummary> item : transactionService.issueBooks(requests).getItems()) {
+            ids.add(item.getResult().getTransactionId());
+        }
+        return ids;
+    }
+
+    private int available(Book book) {
+        return bookRepository.findById(book.getBookId()).orElseThrow().getAvailable();
+    }
+
+    private Book newBook(int copies) {
+        int n = SEQUENCE.incrementAndGet();
+        Book book = new Book("BULK-" + n, "Bulk " + n, "Author", "Publisher", copies);
+        book.setAvailable(copies);
+        return bookRepository.save(book);
+    }
+
+    private Member newMember(MemberType type) {
+        int n = SEQUENCE.incrementAndGet();
+        return memberRepository.save(new Member("Member " + n, "bulk" + n + "@example.com", "555-" + n, type));
+    }
+}
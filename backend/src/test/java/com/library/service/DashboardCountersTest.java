@@ -0,0 +1,100 @@
+package com.library.service;
+
+import com.library.dto.DashboardStats;
+import com.library.repository.DashboardTotals;
+import com.library.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCountersTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private DashboardTotals totals;
+
+    @InjectMocks
+    private DashboardCounters dashboardCounters;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(totals.getTotalBooks()).thenReturn(10L);
+        lenient().when(totals.getTotalMembers()).thenReturn(4L);
+        lenient().when(totals.getActiveLoans()).thenReturn(3L);
+        lenient().when(totals.getOverdueLoans()).thenReturn(1L);
+        lenient().when(totals.getTotalCopies()).thenReturn(25L);
+        lenient().when(totals.getAvailableCopies()).thenReturn(22L);
+        lenient().when(transactionRepository.dashboardTotals(any())).thenReturn(totals);
+    }
+
+    @Test
+    void snapshot_shouldLoadOnceAndThenServeFromMemory() {
+        DashboardStats first = dashboardCounters.snapshot();
+        DashboardStats second = dashboardCounters.snapshot();
+
+        assertEquals(10, first.getTotalBooks());
+        assertEquals(4, first.getTotalMembers());
+        assertEquals(3, first.getActiveTransactions());
+        assertEquals(1, first.getOverdueBooks());
+        assertEquals(25, first.getTotalCopies());
+        assertEquals(22, second.getAvailableCopies());
+        verify(transactionRepository, times(1)).dashboardTotals(LocalDate.now());
+    }
+
+    @Test
+    void changes_shouldAdjustLoadedCounters() {
+        dashboardCounters.snapshot();
+
+        dashboardCounters.bookAdded(5, 5);
+        dashboardCounters.bookChanged(-1, -1);
+        dashboardCounters.memberAdded();
+        dashboardCounters.loanIssued();
+        dashboardCounters.loanReturned(LocalDate.now().minusDays(2));
+        dashboardCounters.loanReturned(LocalDate.now().plusDays(7));
+
+        DashboardStats stats = dashboardCounters.snapshot();
+        assertEquals(11, stats.getTotalBooks());
+        assertEquals(5, stats.getTotalMembers());
+        assertEquals(2, stats.getActiveTransactions());
+        assertEquals(0, stats.getOverdueBooks());
+        assertEquals(29, stats.getTotalCopies());
+        assertEquals(27, stats.getAvailableCopies());
+        verify(transactionRepository, times(1)).dashboardTotals(any());
+    }
+
+    @Test
+    void changes_beforeFirstLoad_shouldBeLeftToTheQuery() {
+        dashboardCounters.bookAdded(5, 5);
+        dashboardCounters.loanIssued();
+
+        DashboardStats stats = dashboardCounters.snapshot();
+
+        assertEquals(10, stats.getTotalBooks());
+        assertEquals(3, stats.getActiveTransactions());
+    }
+
+    @Test
+    void reconcile_shouldReplaceDriftedCounters() {
+        when(totals.getAvailableCopies()).thenReturn(null);
+        dashboardCounters.snapshot();
+        dashboardCounters.memberRemoved();
+
+        dashboardCounters.reconcile();
+
+        DashboardStats stats = dashboardCounters.snapshot();
+        assertEquals(4, stats.getTotalMembers());
+        assertEquals(0, stats.getAvailableCopies());
+        verify(transactionRepository, times(2)).dashboardTotals(any());
+    }
+}
@@ -0,0 +1,136 @@
+package com.library.service;
+
+import com.library.dto.SearchPage;
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryBookSearchEngineTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private InMemoryBookSearchEngine engine;
+    private final Map<Long, Book> catalog = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        add(1L, "978-0-13-468599-1", "The Pragmatic Programmer", "David Thomas");
+        add(2L, "978-0-13-235088-4", "Clean Code", "Robert C. Martin");
+        add(3L, "978-0-201-63361-0", "Design Patterns", "Erich Gamma");
+        add(4L, "978-1-4919-5038-9", "Programming Rust", "Jim Blandy");
+        add(5L, "978-0-00-000000-2", "Essays", "Martin Code");
+
+        lenient().when(bookRepository.findAll()).thenAnswer(inv -> new ArrayList<>(catalog.values()));
+        lenient().when(bookRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<Book> found = new ArrayList<>();
+            for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+                if (catalog.containsKey(id)) {
+                    found.add(catalog.get(id));
+                }
+            }
+            return found;
+        });
+        engine = new InMemoryBookSearchEngine(bookRepository);
+    }
+
+    @Test
+    void search_shouldRankTitleMatchAboveAuthorMatch() {
+        assertEquals(List.of(2L, 5L), ids(engine.search("code", 0, 20)));
+    }
+
+    @Test
+    void search_shouldMatchWordPrefixes() {
+        assertEquals(Set.of(1L, 4L), Set.copyOf(ids(engine.search("program", 0, 20))));
+    }
+
+    @Test
+    void search_shouldRequireEveryWord() {
+        assertEquals(List.of(2L), ids(engine.search("clean martin", 0, 20)));
+        assertTrue(engine.search("clean gamma", 0, 20).getItems().isEmpty());
+    }
+
+    @Test
+    void search_shouldMatchIsbnWithOrWithoutHyphens() {
+        assertEquals(List.of(3L), ids(engine.search("9780201633610", 0, 20)));
+        assertEquals(List.of(3L), ids(engine.search("978-0-201-63361-0", 0, 20)));
+    }
+
+    @Test
+    void search_shouldPageThroughRanking() {
+        SearchPage<Book> first = engine.search("978", 0, 2);
+        SearchPage<Book> last = engine.search("978", 4, 2);
+
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.isHasMore());
+        assertEquals(1, last.getItems().size());
+        assertFalse(last.isHasMore());
+    }
+
+    @Test
+    void search_shouldLoadIndexOnce() {
+        engine.search("code", 0, 20);
+        engine.search("rust", 0, 20);
+
+        verify(bookRepository, times(1)).findAll();
+        assertEquals(5, engine.getIndexedBooks());
+    }
+
+    @Test
+    void bookSaved_shouldUpdateIndex() {
+        engine.search("code", 0, 20);
+
+        Book added = add(6L, "978-0-596-00712-6", "Head First Design Patterns", "Eric Freeman");
+        engine.bookSaved(added);
+        Book renamed = catalog.get(2L);
+        renamed.setTitle("Clean Architecture");
+        engine.bookSaved(renamed);
+
+        assertEquals(Set.of(3L, 6L), Set.copyOf(ids(engine.search("patterns", 0, 20))));
+        assertEquals(List.of(5L), ids(engine.search("code", 0, 20)));
+        assertEquals(List.of(2L), ids(engine.search("architecture", 0, 20)));
+    }
+
+    @Test
+    void bookDeleted_shouldRemoveFromIndex() {
+        engine.search("rust", 0, 20);
+
+        catalog.remove(4L);
+        engine.bookDeleted(4L);
+
+        assertTrue(engine.search("rust", 0, 20).getItems().isEmpty());
+        assertEquals(4, engine.getIndexedBooks());
+    }
+
+    @Test
+    void search_shouldReturnEmpty_whenQueryHasNoWords() {
+        assertTrue(engine.search(" -- ", 0, 20).getItems().isEmpty());
+        verifyNoInteractions(bookRepository);
+    }
+
+    private Book add(Long id, String isbn, String title, String author) {
+        Book book = new Book(isbn, title, author, "Publisher", 1);
+        book.setBookId(id);
+        catalog.put(id, book);
+        return book;
+    }
+
+    private static List<Long> ids(SearchPage<Book> page) {
+        return page.getItems().stream().map(Book::getBookId).toList();
+    }
+}
@@ -0,0 +1,154 @@
+package com.library.service;
+
+import com.library.config.CacheConfig;
+import com.library.dto.BookDto;
+import com.library.dto.IssueBookRequest;
+import com.library.dto.MemberDto;
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.MemberType;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Real proxies and transactions: cache entries change only once a transaction commits
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cache")
+class LookupCacheTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Test
+    void findById_shouldServeRepeatLookupsFromCache() {
+        Book book = newBook(2);
+
+        Book first = bookService.findById(book.getBookId()).orElseThrow();
+        Book second = bookService.findById(book.getBookId()).orElseThrow();
+
+        assertSame(first, second);
+        assertNotNull(cache(CacheConfig.BOOKS).get(book.getBookId()));
+    }
+
+    @Test
+    void findById_shouldNotCacheMissingBooks() {
+        assertTrue(bookService.findById(-1L).isEmpty());
+        assertNull(cache(CacheConfig.BOOKS).get(-1L));
+    }
+
+    @Test
+    void issueAndReturn_shouldEvictBook() {
+        Book book = newBook(2);
+        Member member = newMember();
+        bookService.findById(book.getBookId());
+
+        Long loanId = transactionService.issueBook(
+                new IssueBookRequest(book.getBookId(), member.getMemberId())).getTransactionId();
+
+        assertNull(cache(CacheConfig.BOOKS).get(book.getBookId()));
+        assertEquals(1, bookService.findById(book.getBookId()).orElseThrow().getAvailable());
+
+        transactionService.returnBook(loanId);
+
+        assertNull(cache(CacheConfig.BOOKS).get(book.getBookId()));
+        assertEquals(2, bookService.findById(book.getBookId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    void lookupRacingCheckout_shouldNotCacheOldCount() throws Exception {
+        Book book = newBook(2);
+        Member member = newMember();
+
+        tx.executeWithoutResult(status -> {
+            // Misses and loads available = 2; the put waits for this commit
+            assertEquals(2, bookService.findById(book.getBookId()).orElseThrow().getAvailable());
+
+            // A checkout commits and evicts before this transaction does
+            Thread checkout = new Thread(() -> transactionService.issueBook(
+                    new IssueBookRequest(book.getBookId(), member.getMemberId())));
+            checkout.start();
+            try {
+                checkout.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertNull(cache(CacheConfig.BOOKS).get(book.getBookId()));
+        assertEquals(1, bookService.findById(book.getBookId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    void updateBook_shouldEvictBookAndIsbnLookups() {
+        Book book = newBook(1);
+        bookService.findById(book.getBookId());
+        bookService.findByIsbn(book.getIsbn());
+
+        bookService.updateBook(book.getBookId(),
+                new BookDto("NEW-" + book.getIsbn(), "Renamed", "Author", "Publisher", 1));
+
+        assertEquals("Renamed", bookService.findById(book.getBookId()).orElseThrow().getTitle());
+        assertTrue(bookService.findByIsbn(book.getIsbn()).isEmpty());
+    }
+
+    @Test
+    void evictions_shouldWaitForCommit() {
+        Member member = newMember();
+        memberService.findById(member.getMemberId());
+
+        tx.executeWithoutResult(status -> {
+            memberService.updateMember(member.getMemberId(),
+                    new MemberDto("Renamed", member.getEmail(), member.getPhone(), MemberType.STUDENT));
+            assertNotNull(cache(CacheConfig.MEMBERS).get(member.getMemberId()));
+            status.setRollbackOnly();
+        });
+
+        // Rolled back: the cached member still matches the database
+        assertEquals(member.getName(), memberService.findById(member.getMemberId()).orElseThrow().getName());
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private Book newBook(int copies) {
+        int n = SEQUENCE.incrementAndGet();
+        Book book = new Book("CACHE-" + n, "Cached " + n, "Author", "Publisher", copies);
+        book.setAvailable(copies);
+        return bookRepository.save(book);
+    }
+
+    private Member newMember() {
+        int n = SEQUENCE.incrementAndGet();
+        return memberRepository.save(new Member("Member " + n, "cache" + n + "@example.com", "555-" + n,
+                MemberType.STUDENT));
+    }
+}
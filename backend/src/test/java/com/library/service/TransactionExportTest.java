@@ -0,0 +1,190 @@
+package com.library.service;
+
+import com.library.config.JwtUtil;
+import com.library.dto.IssueBookRequest;
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.MemberType;
+import com.library.model.Transaction;
+import com.library.model.TransactionStatus;
+import com.library.model.User;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:export")
+@AutoConfigureMockMvc
+class TransactionExportTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (!userRepository.existsByUsername("auditor")) {
+            userRepository.save(new User("auditor", "not-used", "ADMIN"));
+        }
+    }
+
+    @Test
+    void export_shouldStreamNdjsonForDateRange() throws Exception {
+        Member member = newMember();
+        Transaction early = issuedOn(LocalDate.of(2020, 3, 1), newBook("Early"), member);
+        Transaction inRange = issuedOn(LocalDate.of(2020, 6, 15), newBook("In Range"), member);
+        issuedOn(LocalDate.of(2020, 9, 1), newBook("Late"), member);
+
+        MvcResult started = mockMvc.perform(get("/api/v1/transactions/export")
+                        .param("from", "2020-06-01").param("to", "2020-06-30")
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken("auditor", "ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", containsString("transactions.ndjson")))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].startsWith("{\"transactionId\":" + inRange.getTransactionId() + ","));
+        assertTrue(lines[0].contains("\"issueDate\":\"2020-06-15\""));
+        assertFalse(body.contains("\"transactionId\":" + early.getTransactionId() + ","));
+    }
+
+    @Test
+    void export_shouldRejectUnknownFormatAndReversedRange() throws Exception {
+        String token = "Bearer " + jwtUtil.generateToken("auditor", "ADMIN");
+
+        MvcResult badFormat = mockMvc.perform(get("/api/v1/transactions/export")
+                        .param("format", "xml").header("Authorization", token))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(badFormat))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("Unsupported export format")));
+
+        MvcResult reversed = mockMvc.perform(get("/api/v1/transactions/export")
+                        .param("from", "2021-01-02").param("to", "2021-01-01").header("Authorization", token))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(reversed))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("from must not be after to"));
+    }
+
+    @Test
+    void export_shouldQuoteCsvFields() throws Exception {
+        LocalDate day = LocalDate.of(2019, 1, 10);
+        Transaction loan = issuedOn(day, newBook("Eats, Shoots \"and\" Leaves"), newMember());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(day, day, TransactionExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1, rows);
+        assertTrue(lines[0].startsWith("transactionId,bookId,bookTitle,"));
+        assertTrue(lines[1].startsWith(loan.getTransactionId() + "," + loan.getBook().getBookId()
+                + ",\"Eats, Shoots \"\"and\"\" Leaves\","));
+        assertTrue(lines[1].contains(",2019-01-10,2019-01-24,,0.00,ISSUED,"));
+    }
+
+    @Test
+    void export_shouldWriteEveryRowOfALargeHistory() throws Exception {
+        LocalDate day = LocalDate.of(2018, 5, 5);
+        Book book = newBook("Bulk History");
+        book.setQuantity(2000);
+        book.setAvailable(2000);
+        bookRepository.save(book);
+        Member member = newMember();
+        for (int i = 0; i < 2000; i++) {
+            Transaction loan = new Transaction();
+            loan.setBook(book);
+            loan.setMember(member);
+            loan.setIssueDate(day);
+            loan.setDueDate(day.plusDays(14));
+            loan.setStatus(TransactionStatus.ISSUED);
+            loan.setFineAmount(BigDecimal.ZERO);
+            transactionRepository.save(loan);
+        }
+        long[] bytes = new long[1];
+        OutputStream counting = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes[0] += len;
+            }
+        };
+
+        assertEquals(2000, exportService.export(day, day, TransactionExportService.Format.NDJSON, counting));
+        assertTrue(bytes[0] > 2000 * 100);
+    }
+
+    private Transaction issuedOn(LocalDate day, Book book, Member member) {
+        Transaction loan = transactionService.issueBook(new IssueBookRequest(book.getBookId(), member.getMemberId()));
+        loan.setIssueDate(day);
+        loan.setDueDate(day.plusDays(member.getLoanPeriodDays()));
+        return transactionRepository.save(loan);
+    }
+
+    private Book newBook(String title) {
+        int n = SEQUENCE.incrementAndGet();
+        Book book = new Book("EXPORT-" + n, title, "Author", "Publisher", 1);
+        book.setAvailable(1);
+        return bookRepository.save(book);
+    }
+
+    private Member newMember() {
+        int n = SEQUENCE.incrementAndGet();
+        return memberRepository.save(new Member("Member " + n, "export" + n + "@example.com", "555-" + n,
+                MemberType.STUDENT));
+    }
+}
@@ -0,0 +1,166 @@
+package com.library.service;
+
+import com.library.dto.IssueBookRequest;
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.MemberType;
+import com.library.model.Transaction;
+import com.library.model.TransactionStatus;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Real transactions on H2: each task below commits on its own, as concurrent requests would
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrency;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+class TransactionServiceConcurrencyTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @ParameterizedTest(name = "{0} threads")
+    @ValueSource(ints = {1, 8, 64})
+    void issueBook_shouldNeverOversell(int threads) throws Exception {
+        int copies = 120;
+        int attempts = 160;
+        Book book = newBook(copies);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            members.add(newMember(MemberType.FACULTY));
+        }
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Member member : members) {
+            tasks.add(() -> issue(book, member));
+        }
+        long start = System.nanoTime();
+        int issued = runConcurrently(threads, tasks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("issueBook: %d threads, %d issued in %.3f s, %.0f issues/sec%n",
+                threads, issued, seconds, issued / seconds);
+        assertEquals(copies, issued, "every copy issued exactly once");
+        assertEquals(0, bookRepository.findById(book.getBookId()).orElseThrow().getAvailable());
+        assertEquals(copies, activeLoans(book));
+    }
+
+    @Test
+    void issueBook_shouldEnforceMemberLimit_underConcurrency() throws Exception {
+        Member member = newMember(MemberType.STUDENT);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Book book = newBook(1);
+            tasks.add(() -> issue(book, member));
+        }
+
+        int issued = runConcurrently(12, tasks);
+
+        assertEquals(MemberType.STUDENT.getMaxBooks(), issued);
+        assertEquals(MemberType.STUDENT.getMaxBooks(),
+                transactionRepository.countActiveByMember(member.getMemberId()));
+    }
+
+    @Test
+    void returnBook_shouldReturnOnce_underConcurrency() throws Exception {
+        Book book = newBook(2);
+        Transaction loan = transactionService.issueBook(
+                new IssueBookRequest(book.getBookId(), newMember(MemberType.STUDENT).getMemberId()));
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(() -> {
+                try {
+                    transactionService.returnBook(loan.getTransactionId());
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            });
+        }
+
+        assertEquals(1, runConcurrently(8, tasks));
+        assertEquals(2, bookRepository.findById(book.getBookId()).orElseThrow().getAvailable());
+    }
+
+    private boolean issue(Book book, Member member) {
+        try {
+            transactionService.issueBook(new IssueBookRequest(book.getBookId(), member.getMemberId()));
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    // Starts all tasks together and returns how many succeeded; any other failure fails the test
+    private int runConcurrently(int threads, List<Callable<Boolean>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Callable<Boolean> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(60, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long activeLoans(Book book) {
+        return transactionRepository.findByStatus(TransactionStatus.ISSUED).stream()
+                .filter(t -> t.getBook().getBookId().equals(book.getBookId()))
+                .count();
+    }
+
+    private Book newBook(int copies) {
+        int n = SEQUENCE.incrementAndGet();
+        Book book = new Book("CONC-" + n, "Concurrency " + n, "Author", "Publisher", copies);
+        book.setAvailable(copies);
+        return bookRepository.save(book);
+    }
+
+    private Member newMember(MemberType type) {
+        int n = SEQUENCE.incrementAndGet();
+        return memberRepository.save(new Member("Member " + n, "member" + n + "@example.com", "555-" + n, type));
+    }
+}
@@ -1,9 +1,12 @@
 package com.library.service;
 
+import com.library.dto.BulkResult;
+import com.library.dto.CursorPage;
 import com.library.dto.IssueBookRequest;
 import com.library.dto.ReturnBookResponse;
+import com.library.dto.TransactionSummary;
 import com.library.model.*;
-import com.library.repository.BookRepository;
+import com.library.repository.MemberLoanCount;
 import com.library.repository.MemberRepository;
 import com.library.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,11 +18,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,15 +34,15 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
-    @Mock
-    private BookRepository bookRepository;
-
     @Mock
     private MemberRepository memberRepository;
 
     @Mock
     private BookService bookService;
 
+    @Mock
+    private DashboardCounters dashboardCounters;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -63,8 +69,8 @@ class TransactionServiceTest {
     @Test
     void issueBook_shouldCreateTransaction_forStudent() {
         IssueBookRequest request = new IssueBookRequest(1L, 1L);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
-        when(memberRepository.findById(1L)).thenReturn(Optional.of(studentMember));
+        when(bookService.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(memberRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(studentMember));
         when(transactionRepository.countActiveByMember(1L)).thenReturn(0L);
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> {
@@ -82,13 +88,14 @@ class TransactionServiceTest {
         assertEquals(LocalDate.now().plusDays(14), result.getDueDate());
         assertEquals(TransactionStatus.ISSUED, result.getStatus());
         verify(bookService).decrementAvailable(sampleBook);
+        verify(dashboardCounters).loanIssued();
     }
 
     @Test
     void issueBook_shouldCreateTransaction_forFaculty() {
         IssueBookRequest request = new IssueBookRequest(1L, 2L);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
-        when(memberRepository.findById(2L)).thenReturn(Optional.of(facultyMember));
+        when(bookService.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(memberRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(facultyMember));
         when(transactionRepository.countActiveByMember(2L)).thenReturn(0L);
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> {
@@ -104,23 +111,25 @@ class TransactionServiceTest {
 
     @Test
     void issueBook_shouldThrow_whenBookNotAvailable() {
-        sampleBook.setAvailable(0);
         IssueBookRequest request = new IssueBookRequest(1L, 1L);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
-        when(memberRepository.findById(1L)).thenReturn(Optional.of(studentMember));
+        when(bookService.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(memberRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(studentMember));
+        doThrow(new IllegalStateException("Book 'The Pragmatic Programmer' is not available for lending"))
+                .when(bookService).decrementAvailable(sampleBook);
 
         IllegalStateException exception = assertThrows(IllegalStateException.class,
                 () -> transactionService.issueBook(request));
 
         assertTrue(exception.getMessage().contains("not available"));
-        verify(bookService, never()).decrementAvailable(any());
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(dashboardCounters);
     }
 
     @Test
     void issueBook_shouldThrow_whenStudentExceedsMaxBooks() {
         IssueBookRequest request = new IssueBookRequest(1L, 1L);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
-        when(memberRepository.findById(1L)).thenReturn(Optional.of(studentMember));
+        when(bookService.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(memberRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(studentMember));
         when(transactionRepository.countActiveByMember(1L)).thenReturn(5L);
 
         IllegalStateException exception = assertThrows(IllegalStateException.class,
@@ -133,8 +142,8 @@ class TransactionServiceTest {
     @Test
     void issueBook_shouldThrow_whenFacultyExceedsMaxBooks() {
         IssueBookRequest request = new IssueBookRequest(1L, 2L);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
-        when(memberRepository.findById(2L)).thenReturn(Optional.of(facultyMember));
+        when(bookService.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(memberRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(facultyMember));
         when(transactionRepository.countActiveByMember(2L)).thenReturn(10L);
 
         IllegalStateException exception = assertThrows(IllegalStateException.class,
@@ -147,7 +156,7 @@ class TransactionServiceTest {
     @Test
     void issueBook_shouldThrow_whenBookNotFound() {
         IssueBookRequest request = new IssueBookRequest(99L, 1L);
-        when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+        when(bookService.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class,
                 () -> transactionService.issueBook(request));
@@ -156,8 +165,8 @@ class TransactionServiceTest {
     @Test
     void issueBook_shouldThrow_whenMemberNotFound() {
         IssueBookRequest request = new IssueBookRequest(1L, 99L);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(sampleBook));
-        when(memberRepository.findById(99L)).thenReturn(Optional.empty());
+        when(bookService.findById(1L)).thenReturn(Optional.of(sampleBook));
+        when(memberRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class,
                 () -> transactionService.issueBook(request));
@@ -173,7 +182,7 @@ class TransactionServiceTest {
         transaction.setDueDate(LocalDate.now().plusDays(9));
         transaction.setStatus(TransactionStatus.ISSUED);
 
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -195,7 +204,7 @@ class TransactionServiceTest {
         transaction.setDueDate(LocalDate.now().minusDays(3));
         transaction.setStatus(TransactionStatus.ISSUED);
 
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -204,6 +213,7 @@ class TransactionServiceTest {
         assertEquals(TransactionStatus.RETURNED, response.getTransaction().getStatus());
         assertEquals(new BigDecimal("1.50"), response.getFineAmount());
         assertEquals(3, response.getOverdueDays());
+        verify(dashboardCounters).loanReturned(LocalDate.now().minusDays(3));
     }
 
     @Test
@@ -216,7 +226,7 @@ class TransactionServiceTest {
         transaction.setDueDate(LocalDate.now().minusDays(10));
         transaction.setStatus(TransactionStatus.ISSUED);
 
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -236,7 +246,7 @@ class TransactionServiceTest {
         transaction.setDueDate(LocalDate.now().minusDays(7));
         transaction.setStatus(TransactionStatus.ISSUED);
 
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -253,7 +263,7 @@ class TransactionServiceTest {
         transaction.setTransactionId(1L);
         transaction.setStatus(TransactionStatus.RETURNED);
 
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
 
         IllegalStateException exception = assertThrows(IllegalStateException.class,
                 () -> transactionService.returnBook(1L));
@@ -263,12 +273,106 @@ class TransactionServiceTest {
 
     @Test
     void returnBook_shouldThrow_whenTransactionNotFound() {
-        when(transactionRepository.findById(99L)).thenReturn(Optional.empty());
+        when(transactionRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class,
                 () -> transactionService.returnBook(99L));
     }
 
+    @Test
+    void issueBooks_shouldIssueWhatItCan_andReportTheRest() {
+        sampleBook.setAvailable(1);
+        when(memberRepository.findAllByIdForUpdate(any())).thenReturn(List.of(studentMember));
+        when(transactionRepository.countActiveByMembers(any())).thenReturn(List.of(loanCount(1L, 3)));
+        when(bookService.findAllForUpdate(any())).thenReturn(List.of(sampleBook));
+        when(transactionRepository.insertAll(any(), any())).thenReturn(List.of(10L));
+
+        BulkResult<TransactionSummary> result = transactionService.issueBooks(List.of(
+                new IssueBookRequest(1L, 1L),
+                new IssueBookRequest(1L, 1L),
+                new IssueBookRequest(99L, 1L),
+                new IssueBookRequest(1L, 99L)));
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+        assertEquals(10L, result.getItems().get(0).getResult().getTransactionId());
+        assertEquals(LocalDate.now().plusDays(14), result.getItems().get(0).getResult().getDueDate());
+        assertTrue(result.getItems().get(1).getError().contains("not available"));
+        assertEquals("Book not found with ID: 99", result.getItems().get(2).getError());
+        assertEquals("Member not found with ID: 99", result.getItems().get(3).getError());
+        verify(bookService).adjustAvailable(Map.of(sampleBook, -1));
+        verify(dashboardCounters, times(1)).loanIssued();
+    }
+
+    @Test
+    void issueBooks_shouldCountLoansGrantedEarlierInTheBatch() {
+        when(memberRepository.findAllByIdForUpdate(any())).thenReturn(List.of(studentMember));
+        when(transactionRepository.countActiveByMembers(any())).thenReturn(List.of(loanCount(1L, 4)));
+        when(bookService.findAllForUpdate(any())).thenReturn(List.of(sampleBook));
+        when(transactionRepository.insertAll(any(), any())).thenReturn(List.of(10L));
+
+        BulkResult<TransactionSummary> result = transactionService.issueBooks(List.of(
+                new IssueBookRequest(1L, 1L),
+                new IssueBookRequest(1L, 1L)));
+
+        assertTrue(result.getItems().get(0).isOk());
+        assertTrue(result.getItems().get(1).getError().contains("maximum number of borrowed books (5 for student)"));
+    }
+
+    @Test
+    void issueBooks_shouldWriteNothing_whenEveryItemFails() {
+        when(memberRepository.findAllByIdForUpdate(any())).thenReturn(List.of());
+        when(transactionRepository.countActiveByMembers(any())).thenReturn(List.of());
+        when(bookService.findAllForUpdate(any())).thenReturn(List.of());
+
+        BulkResult<TransactionSummary> result = transactionService.issueBooks(List.of(new IssueBookRequest(1L, 1L)));
+
+        assertEquals(1, result.getFailed());
+        verify(transactionRepository, never()).insertAll(any(), any());
+        verify(bookService, never()).adjustAvailable(any());
+    }
+
+    @Test
+    void returnBooks_shouldSettleEachLoan_andSkipDuplicatesAndUnknownIds() {
+        Transaction overdue = new Transaction();
+        overdue.setTransactionId(1L);
+        overdue.setBook(sampleBook);
+        overdue.setMember(studentMember);
+        overdue.setIssueDate(LocalDate.now().minusDays(17));
+        overdue.setDueDate(LocalDate.now().minusDays(3));
+        overdue.setStatus(TransactionStatus.ISSUED);
+        when(transactionRepository.findAllByIdForUpdate(any())).thenReturn(List.of(overdue));
+
+        BulkResult<ReturnBookResponse> result = transactionService.returnBooks(List.of(1L, 1L, 99L));
+
+        assertEquals(new BigDecimal("1.50"), result.getItems().get(0).getResult().getFineAmount());
+        assertEquals(3, result.getItems().get(0).getResult().getOverdueDays());
+        assertEquals("This book has already been returned", result.getItems().get(1).getError());
+        assertEquals("Transaction not found with ID: 99", result.getItems().get(2).getError());
+        verify(bookService).adjustAvailable(Map.of(sampleBook, 1));
+        verify(dashboardCounters).loanReturned(LocalDate.now().minusDays(3));
+    }
+
+    @Test
+    void findActivePage_shouldReturnSummariesWithCursor() {
+        TransactionSummary newer = new TransactionSummary(2L, 1L, "The Pragmatic Programmer", "978-0-13-468599-1",
+                1L, "Alice Johnson", LocalDate.now(), LocalDate.now().plusDays(14), null, BigDecimal.ZERO,
+                TransactionStatus.ISSUED, LocalDateTime.now());
+        TransactionSummary older = new TransactionSummary(1L, 1L, "The Pragmatic Programmer", "978-0-13-468599-1",
+                2L, "Dr. Brown", LocalDate.now().minusDays(1), LocalDate.now().plusDays(29), null, BigDecimal.ZERO,
+                TransactionStatus.ISSUED, LocalDateTime.now().minusDays(1));
+        when(transactionRepository.findFirstPageByStatus(eq(TransactionStatus.ISSUED), any()))
+                .thenReturn(List.of(newer, older));
+
+        CursorPage<TransactionSummary> page = transactionService.findActivePage(null, 1);
+
+        assertEquals(List.of(newer), page.getItems());
+        assertEquals("Alice Johnson", page.getItems().get(0).getMemberName());
+        assertTrue(page.isHasMore());
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.findOverduePage(page.getNextCursor(), 1));
+    }
+
     @Test
     void findOverdue_shouldReturnOverdueTransactions() {
         Transaction overdueTransaction = new Transaction();
@@ -308,4 +412,18 @@ class TransactionServiceTest {
     void facultyMaxBooks_shouldBe10() {
         assertEquals(10, MemberType.FACULTY.getMaxBooks());
     }
+
+    private static MemberLoanCount loanCount(Long memberId, long activeLoans) {
+        return new MemberLoanCount() {
+            @Override
+            public Long getMemberId() {
+                return memberId;
+            }
+
+            @Override
+            public long getActiveLoans() {
+                return activeLoans;
+            }
+        };
+    }
 }
@@ -0,0 +1,78 @@
+package com.library.benchmark;
+
+import com.library.util.DBConnection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the library tables in the embedded benchmark database.
+ * Runs the DDL from sql/schema.sql (packaged on the classpath) and skips
+ * the sample INSERTs; rows come from {@link DataGenerator} instead.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public final class BenchmarkDatabase {
+
+    private static final String SCHEMA_RESOURCE = "sql/schema.sql";
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Drop everything and recreate the schema
+     *
+     * @throws SQLException if a statement fails
+     * @throws IOException  if the schema cannot be read
+     */
+    public static void reset() throws SQLException, IOException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+            for (String sql : schemaStatements()) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Split the schema into DDL statements the embedded database accepts
+     */
+    static String[] schemaStatements() throws IOException {
+        String script = readResource(SCHEMA_RESOURCE);
+        StringBuilder kept = new StringBuilder();
+        for (String statement : script.split(";")) {
+            String sql = statement.replaceAll("(?m)^\\s*--.*$", "").trim();
+            if (sql.isEmpty()
+                    || sql.startsWith("CREATE DATABASE")
+                    || sql.startsWith("USE ")
+                    || sql.startsWith("INSERT ")) {
+                continue;
+            }
+            kept.append(sql).append(';');
+        }
+        return kept.toString().split(";");
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream in = BenchmarkDatabase.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException(name + " not found in classpath");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.benchmark;
+
+import com.library.dao.BookDAO;
+import com.library.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks BookDAO.search() with and without the trigram index.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchBenchmark {
+
+    // Common title word, rare author, single ISBN, no match
+    @Param({"Algorithms", "Feynman", "978-0000000042", "zzzz"})
+    public String keyword;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private BookDAO bookDAO;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        bookDAO = new BookDAO();
+        if (indexed) {
+            bookDAO.buildSearchIndex();
+        } else {
+            BookDAO.dropSearchIndex();
+        }
+    }
+
+    @Benchmark
+    public List<Book> search() {
+        return bookDAO.search(keyword);
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.benchmark;
+
+import com.library.dao.BookDAO;
+import com.library.dao.MemberDAO;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state holding a freshly generated catalog.
+ * Sizes are JMH parameters, so they can be changed from the command line,
+ * e.g. {@code -p books=100000 -p members=5000}.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    @Param({"10000"})
+    public int books;
+
+    @Param({"2000"})
+    public int members;
+
+    @Param({"1000"})
+    public int activeLoans;
+
+    @Param({"20"})
+    public int overduePercent;
+
+    @Param({"42"})
+    public long seed;
+
+    @Setup(Level.Trial)
+    public void createCatalog() throws Exception {
+        BenchmarkDatabase.reset();
+        new DataGenerator(books, members, activeLoans, overduePercent, seed).populate();
+        BookDAO.getCache().clear();
+        MemberDAO.getCache().clear();
+        BookDAO.dropSearchIndex();
+    }
+}
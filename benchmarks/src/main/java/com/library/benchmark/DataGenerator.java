@@ -0,0 +1,160 @@
+package com.library.benchmark;
+
+import com.library.util.DBConnection;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Random;
+
+/**
+ * Fills the benchmark database with synthetic books, members and loans.
+ * Titles and authors are built from small word lists so that searches hit
+ * a realistic spread of result sizes. The same seed always produces the
+ * same data.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class DataGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    static final String[] TITLE_WORDS = {
+            "Introduction", "Advanced", "Principles", "Modern", "Practical", "Algorithms",
+            "Systems", "Databases", "Networks", "Compilers", "Physics", "Chemistry",
+            "Biology", "History", "Economics", "Statistics", "Calculus", "Geometry",
+            "Philosophy", "Psychology", "Engineering", "Design", "Analysis", "Theory"
+    };
+
+    static final String[] AUTHOR_NAMES = {
+            "Knuth", "Cormen", "Tanenbaum", "Stallings", "Silberschatz", "Feynman",
+            "Hawking", "Sagan", "Dawkins", "Keynes", "Smith", "Johnson", "Williams",
+            "Brown", "Garcia", "Miller", "Davis", "Martinez", "Lopez", "Wilson"
+    };
+
+    private final int books;
+    private final int members;
+    private final int activeLoans;
+    private final int overduePercent;
+    private final Random random;
+
+    /**
+     * Create a generator
+     *
+     * @param books          number of book titles
+     * @param members        number of members
+     * @param activeLoans    number of open loans
+     * @param overduePercent share of open loans that are past their due date
+     * @param seed           random seed
+     */
+    public DataGenerator(int books, int members, int activeLoans, int overduePercent, long seed) {
+        this.books = books;
+        this.members = members;
+        this.activeLoans = activeLoans;
+        this.overduePercent = overduePercent;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Insert all rows
+     *
+     * @throws SQLException if an insert fails
+     */
+    public void populate() throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            insertBooks(conn);
+            insertMembers(conn);
+            insertLoans(conn);
+            conn.commit();
+        }
+    }
+
+    private void insertBooks(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO books (isbn, title, author, publisher, quantity, available) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= books; i++) {
+                int quantity = 1 + random.nextInt(10);
+                pstmt.setString(1, String.format("978-%010d", i));
+                pstmt.setString(2, title());
+                pstmt.setString(3, pick(AUTHOR_NAMES) + ", " + pick(AUTHOR_NAMES).charAt(0) + ".");
+                pstmt.setString(4, "Publisher " + (i % 50));
+                pstmt.setInt(5, quantity);
+                pstmt.setInt(6, quantity);
+                pstmt.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void insertMembers(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO members (name, email, phone, member_type) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= members; i++) {
+                pstmt.setString(1, pick(AUTHOR_NAMES) + " Member " + i);
+                pstmt.setString(2, "member" + i + "@bench.test");
+                pstmt.setString(3, String.format("555-%04d", i % 10000));
+                pstmt.setString(4, i % 5 == 0 ? "faculty" : "student");
+                pstmt.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void insertLoans(Connection conn) throws SQLException {
+        if (books == 0 || members == 0) {
+            return;
+        }
+        long today = System.currentTimeMillis();
+        try (PreparedStatement loan = conn.prepareStatement(
+                "INSERT INTO transactions (book_id, member_id, issue_date, due_date, status) VALUES (?, ?, ?, ?, 'issued')");
+             PreparedStatement claim = conn.prepareStatement(
+                     "UPDATE books SET available = available - 1 WHERE book_id = ? AND available > 0")) {
+            int created = 0;
+            for (int i = 0; i < activeLoans * 2 && created < activeLoans; i++) {
+                int bookId = 1 + random.nextInt(books);
+                claim.setInt(1, bookId);
+                if (claim.executeUpdate() == 0) {
+                    continue;
+                }
+                boolean overdue = random.nextInt(100) < overduePercent;
+                long issued = today - (overdue ? 20 + random.nextInt(60) : random.nextInt(10)) * DAY_MILLIS;
+                loan.setInt(1, bookId);
+                loan.setInt(2, 1 + random.nextInt(members));
+                loan.setDate(3, new Date(issued));
+                loan.setDate(4, new Date(issued + 14 * DAY_MILLIS));
+                loan.addBatch();
+                if (++created % BATCH_SIZE == 0) {
+                    loan.executeBatch();
+                }
+            }
+            loan.executeBatch();
+        }
+    }
+
+    private String title() {
+        int words = 2 + random.nextInt(3);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(w == 1 ? " of " : " ");
+            }
+            sb.append(pick(TITLE_WORDS));
+        }
+        return sb.toString();
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
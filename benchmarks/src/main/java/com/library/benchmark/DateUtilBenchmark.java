@@ -0,0 +1,79 @@
+package com.library.benchmark;
+
+import com.library.util.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the DateUtil fine calculation and formatting helpers.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilBenchmark {
+
+    private static final int SAMPLES = 1024;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private Date[] dueDates;
+    private Date[] returnDates;
+    private long[] overdueDays;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long today = System.currentTimeMillis();
+        dueDates = new Date[SAMPLES];
+        returnDates = new Date[SAMPLES];
+        overdueDays = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long due = today - random.nextInt(60) * DAY_MILLIS;
+            dueDates[i] = new Date(due);
+            returnDates[i] = new Date(due + (random.nextInt(40) - 10) * DAY_MILLIS);
+            overdueDays[i] = random.nextInt(40) - 10;
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SAMPLES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public BigDecimal calculateFineFromDates() {
+        int i = nextIndex();
+        return DateUtil.calculateFine(dueDates[i], returnDates[i]);
+    }
+
+    @Benchmark
+    public BigDecimal calculateFineFromDays() {
+        return DateUtil.calculateFine(overdueDays[nextIndex()]);
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return DateUtil.formatDate(dueDates[nextIndex()]);
+    }
+}
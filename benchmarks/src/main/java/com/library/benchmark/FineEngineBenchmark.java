@@ -0,0 +1,94 @@
+package com.library.benchmark;
+
+import com.library.util.FineEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares FineEngine with the old Calendar / SimpleDateFormat code on an
+ * overdue-report sized loop: fine and formatted due date for every row.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FineEngineBenchmark {
+
+    // Rows in one rendered overdue report
+    private static final int ROWS = 5000;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private Date[] dueDates;
+    private Date[] returnDates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long today = FineEngine.today();
+        dueDates = new Date[ROWS];
+        returnDates = new Date[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            long due = today - random.nextInt(60);
+            dueDates[i] = FineEngine.toSqlDate(due);
+            returnDates[i] = new Date(dueDates[i].getTime() + random.nextInt(40) * DAY_MILLIS);
+        }
+    }
+
+    @Benchmark
+    public void legacyReport(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(LegacyDateUtil.calculateFine(dueDates[i], returnDates[i]));
+            bh.consume(LegacyDateUtil.formatDate(dueDates[i]));
+        }
+    }
+
+    @Benchmark
+    public void engineReport(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(FineEngine.toAmount(FineEngine.fineCents(dueDates[i], returnDates[i])));
+            bh.consume(FineEngine.format(dueDates[i]));
+        }
+    }
+
+    /**
+     * Sum fines in cents and convert once, as a report total would
+     */
+    @Benchmark
+    public BigDecimal engineTotalInCents() {
+        long cents = 0;
+        for (int i = 0; i < ROWS; i++) {
+            cents += FineEngine.fineCents(dueDates[i], returnDates[i]);
+        }
+        return FineEngine.toAmount(cents);
+    }
+
+    @Benchmark
+    public BigDecimal legacyTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ROWS; i++) {
+            total = total.add(LegacyDateUtil.calculateFine(dueDates[i], returnDates[i]));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,131 @@
+package com.library.benchmark;
+
+import com.library.dao.BookDAO;
+import com.library.dao.MemberDAO;
+import com.library.dao.TransactionDAO;
+import com.library.model.Transaction;
+import com.library.util.DBConnection;
+import com.library.util.QueryMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the TransactionDAO list methods, which hydrate books and
+ * members in batches: findActive(), findOverdue(), and findByMember(),
+ * findActiveByMember() and findByBook() for the member and book with the
+ * most loans. After each trial it prints the JDBC statements one call ran,
+ * with the entity caches cleared first so every lookup reaches the database.
+ * Compare catalog sizes with {@code -p activeLoans=100,1000,4000}: the time
+ * grows with the rows, while the statements only grow by one per 500
+ * distinct IDs (the IN (...) chunk size) - 3 for 100 loans, 5 for 1,000.
+ * Before batching, each row cost two more statements.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HydrationBenchmark {
+
+    @State(Scope.Thread)
+    public static class Daos {
+        final TransactionDAO transactionDAO = new TransactionDAO();
+        int busiestMemberId;
+        int busiestBookId;
+
+        @Setup(Level.Trial)
+        public void findBusiest(CatalogState catalog) throws SQLException {
+            busiestMemberId = mostLoans("member_id");
+            busiestBookId = mostLoans("book_id");
+        }
+
+        private static int mostLoans(String column) throws SQLException {
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT " + column
+                         + " FROM transactions GROUP BY " + column + " ORDER BY COUNT(*) DESC LIMIT 1");
+                 ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Counts the statements and rows of each call; printed once per trial
+     */
+    @State(Scope.Thread)
+    public static class Statements {
+        long calls;
+        long statements;
+        long rows;
+
+        @Setup(Level.Invocation)
+        public void coldCaches() {
+            BookDAO.getCache().clear();
+            MemberDAO.getCache().clear();
+        }
+
+        @TearDown(Level.Trial)
+        public void report(BenchmarkParams params) {
+            if (calls > 0) {
+                String method = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+                System.out.printf("%n%s: %d rows, %.1f statements per call%n",
+                        method, rows / calls, (double) statements / calls);
+            }
+        }
+
+        List<Transaction> count(long before, List<Transaction> loans) {
+            statements += QueryMetrics.getExecutions() - before;
+            rows += loans.size();
+            calls++;
+            return loans;
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> findActive(CatalogState catalog, Daos daos, Statements counter) {
+        return counter.count(QueryMetrics.getExecutions(), daos.transactionDAO.findActive());
+    }
+
+    @Benchmark
+    public List<Transaction> findOverdue(CatalogState catalog, Daos daos, Statements counter) {
+        return counter.count(QueryMetrics.getExecutions(), daos.transactionDAO.findOverdue());
+    }
+
+    @Benchmark
+    public List<Transaction> findByMember(CatalogState catalog, Daos daos, Statements counter) {
+        return counter.count(QueryMetrics.getExecutions(), daos.transactionDAO.findByMember(daos.busiestMemberId));
+    }
+
+    @Benchmark
+    public List<Transaction> findActiveByMember(CatalogState catalog, Daos daos, Statements counter) {
+        return counter.count(QueryMetrics.getExecutions(),
+                daos.transactionDAO.findActiveByMember(daos.busiestMemberId));
+    }
+
+    @Benchmark
+    public List<Transaction> findByBook(CatalogState catalog, Daos daos, Statements counter) {
+        return counter.count(QueryMetrics.getExecutions(), daos.transactionDAO.findByBook(daos.busiestBookId));
+    }
+}
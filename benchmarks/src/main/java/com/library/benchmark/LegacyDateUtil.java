@@ -0,0 +1,51 @@
+package com.library.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.text.SimpleDateFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DateUtil fine and formatting code as it was before FineEngine,
+ * kept only as a baseline for {@link FineEngineBenchmark}.
+ * The shared SimpleDateFormat is not thread-safe, so only benchmark it
+ * with a single thread.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+final class LegacyDateUtil {
+
+    private static final BigDecimal FINE_PER_DAY = new BigDecimal("0.50");
+
+    private static final SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd");
+
+    private LegacyDateUtil() {
+    }
+
+    static long daysBetween(Date startDate, Date endDate) {
+        long diffInMillies = endDate.getTime() - startDate.getTime();
+        return TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
+    }
+
+    static BigDecimal calculateFine(long overdueDays) {
+        if (overdueDays <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return FINE_PER_DAY.multiply(new BigDecimal(overdueDays));
+    }
+
+    static BigDecimal calculateFine(Date dueDate, Date returnDate) {
+        Date compareDate = returnDate != null ? returnDate : new Date(System.currentTimeMillis());
+        long days = daysBetween(dueDate, compareDate);
+        return calculateFine(days > 0 ? days : 0);
+    }
+
+    static String formatDate(Date date) {
+        if (date == null) {
+            return "";
+        }
+        return dateFormatter.format(date);
+    }
+}
@@ -0,0 +1,81 @@
+package com.library.benchmark;
+
+import com.library.dao.BookDAO;
+import com.library.dao.MemberDAO;
+import com.library.dao.TransactionDAO;
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the TransactionDAO issue/return path and the active loans report.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanBenchmark {
+
+    /**
+     * A book and a member of its own for each benchmark thread, so that
+     * threads do not compete for copies or hit the loan limit
+     */
+    @State(Scope.Thread)
+    public static class Borrower {
+        int bookId;
+        int memberId;
+
+        @Setup(Level.Trial)
+        public void setUp(CatalogState catalog) {
+            String suffix = Long.toString(System.nanoTime() % 1000000000L);
+            Book book = new Book("BENCH-" + suffix, "Benchmark Copy", "Benchmark", "Benchmark", 1000);
+            new BookDAO().insert(book);
+            Member member = new Member("Benchmark Borrower", "bench" + suffix + "@bench.test", "555-0000", "faculty");
+            new MemberDAO().insert(member);
+            bookId = book.getBookId();
+            memberId = member.getMemberId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Daos {
+        final TransactionDAO transactionDAO = new TransactionDAO();
+    }
+
+    /**
+     * Issue a book, look up the new loan and return it
+     */
+    @Benchmark
+    public BigDecimal issueThenReturn(Daos daos, Borrower borrower) {
+        if (!daos.transactionDAO.issueBook(borrower.bookId, borrower.memberId)) {
+            throw new IllegalStateException("Issue failed");
+        }
+        List<Transaction> loans = daos.transactionDAO.findActiveByMember(borrower.memberId);
+        return daos.transactionDAO.returnBook(loans.get(0).getTransactionId());
+    }
+
+    @Benchmark
+    public List<Transaction> findActiveWithDetails(CatalogState catalog, Daos daos) {
+        return daos.transactionDAO.findActiveWithDetails();
+    }
+}
@@ -1,8 +1,8 @@
 import apiClient from './client'
-import type { Book, BookFormData } from '@/types'
+import type { Book, BookFormData, CursorPage, PageParams, SearchPage } from '@/types'
 
-export async function getBooks(): Promise<Book[]> {
-  const response = await apiClient.get<Book[]>('/api/v1/books')
+export async function getBooks(params: PageParams = {}): Promise<CursorPage<Book>> {
+  const response = await apiClient.get<CursorPage<Book>>('/api/v1/books', { params })
   return response.data
 }
 
@@ -25,9 +25,9 @@ export async function deleteBook(id: number): Promise<void> {
   await apiClient.delete(`/api/v1/books/${id}`)
 }
 
-export async function searchBooks(query: string): Promise<Book[]> {
-  const response = await apiClient.get<Book[]>('/api/v1/books/search', {
-    params: { query },
+export async function searchBooks(query: string, offset = 0, limit = 20): Promise<SearchPage<Book>> {
+  const response = await apiClient.get<SearchPage<Book>>('/api/v1/books/search', {
+    params: { q: query, offset, limit },
   })
   return response.data
 }
@@ -1,8 +1,8 @@
 import apiClient from './client'
-import type { Member, MemberFormData } from '@/types'
+import type { Member, MemberFormData, CursorPage, PageParams } from '@/types'
 
-export async function getMembers(): Promise<Member[]> {
-  const response = await apiClient.get<Member[]>('/api/v1/members')
+export async function getMembers(params: PageParams = {}): Promise<CursorPage<Member>> {
+  const response = await apiClient.get<CursorPage<Member>>('/api/v1/members', { params })
   return response.data
 }
 
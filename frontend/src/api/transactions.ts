@@ -1,22 +1,22 @@
 import apiClient from './client'
-import type { Transaction, IssueBookRequest } from '@/types'
+import type { TransactionSummary, ReturnBookResponse, IssueBookRequest, CursorPage, PageParams } from '@/types'
 
-export async function issueBook(data: IssueBookRequest): Promise<Transaction> {
-  const response = await apiClient.post<Transaction>('/api/v1/transactions/issue', data)
+export async function issueBook(data: IssueBookRequest): Promise<TransactionSummary> {
+  const response = await apiClient.post<TransactionSummary>('/api/v1/transactions/issue', data)
   return response.data
 }
 
-export async function returnBook(id: number): Promise<Transaction> {
-  const response = await apiClient.post<Transaction>(`/api/v1/transactions/return/${id}`)
+export async function returnBook(id: number): Promise<ReturnBookResponse> {
+  const response = await apiClient.post<ReturnBookResponse>(`/api/v1/transactions/${id}/return`)
   return response.data
 }
 
-export async function getActiveTransactions(): Promise<Transaction[]> {
-  const response = await apiClient.get<Transaction[]>('/api/v1/transactions/active')
+export async function getActiveTransactions(params: PageParams = {}): Promise<CursorPage<TransactionSummary>> {
+  const response = await apiClient.get<CursorPage<TransactionSummary>>('/api/v1/transactions/active', { params })
   return response.data
 }
 
-export async function getOverdueTransactions(): Promise<Transaction[]> {
-  const response = await apiClient.get<Transaction[]>('/api/v1/transactions/overdue')
+export async function getOverdueTransactions(params: PageParams = {}): Promise<CursorPage<TransactionSummary>> {
+  const response = await apiClient.get<CursorPage<TransactionSummary>>('/api/v1/transactions/overdue', { params })
   return response.data
 }
@@ -9,10 +9,10 @@ import {
 } from '@/components/ui/table'
 import { Badge } from '@/components/ui/badge'
 import { formatDate } from '@/lib/utils'
-import type { Transaction } from '@/types'
+import type { TransactionSummary } from '@/types'
 
 interface ReturnBookFormProps {
-  transactions: Transaction[];
+  transactions: TransactionSummary[];
   onReturn: (transactionId: number) => void;
   isLoading?: boolean;
   returningId?: number | null;
@@ -41,7 +41,7 @@ export function ReturnBookForm({ transactions, onReturn, isLoading, returningId
           </TableRow>
         ) : (
           transactions.map((t) => (
-            <TableRow key={t.id}>
+            <TableRow key={t.transactionId}>
               <TableCell className="font-medium">{t.bookTitle}</TableCell>
               <TableCell className="hidden sm:table-cell">{t.memberName}</TableCell>
               <TableCell className="hidden md:table-cell text-xs">
@@ -49,22 +49,22 @@ export function ReturnBookForm({ transactions, onReturn, isLoading, returningId
               </TableCell>
               <TableCell className="text-xs">{formatDate(t.dueDate)}</TableCell>
               <TableCell>
-                {t.status === 'OVERDUE' ? (
+                {t.overdue ? (
                   <Badge variant="destructive">Overdue</Badge>
                 ) : (
                   <Badge variant="default">Issued</Badge>
                 )}
               </TableCell>
               <TableCell className="hidden sm:table-cell">
-                {t.fine > 0 ? `$${t.fine.toFixed(2)}` : '-'}
+                {t.fineAmount ? `$${t.fineAmount.toFixed(2)}` : '-'}
               </TableCell>
               <TableCell className="text-right">
                 <Button
                   size="sm"
-                  onClick={() => onReturn(t.id)}
-                  disabled={isLoading && returningId === t.id}
+                  onClick={() => onReturn(t.transactionId)}
+                  disabled={isLoading && returningId === t.transactionId}
                 >
-                  {isLoading && returningId === t.id ? 'Returning...' : 'Return'}
+                  {isLoading && returningId === t.transactionId ? 'Returning...' : 'Return'}
                 </Button>
               </TableCell>
             </TableRow>
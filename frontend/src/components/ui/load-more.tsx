@@ -0,0 +1,20 @@
+import { Button } from "@/components/ui/button"
+
+interface LoadMoreProps {
+  hasMore: boolean;
+  isLoading?: boolean;
+  onLoadMore: () => void;
+  label?: string;
+}
+
+export function LoadMore({ hasMore, isLoading, onLoadMore, label = "Load more" }: LoadMoreProps) {
+  if (!hasMore) return null
+
+  return (
+    <div className="flex justify-center pt-4">
+      <Button variant="outline" onClick={onLoadMore} disabled={isLoading}>
+        {isLoading ? "Loading..." : label}
+      </Button>
+    </div>
+  )
+}
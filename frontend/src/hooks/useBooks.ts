@@ -1,11 +1,15 @@
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/react-query'
 import { getBooks, getBook, createBook, updateBook, deleteBook, searchBooks } from '@/api/books'
 import type { BookFormData } from '@/types'
 
+// Pages are fetched on demand with fetchNextPage(); data is the books loaded so far
 export function useBooks() {
-  return useQuery({
+  return useInfiniteQuery({
     queryKey: ['books'],
-    queryFn: getBooks,
+    queryFn: ({ pageParam }) => getBooks({ cursor: pageParam }),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
+    select: (data) => data.pages.flatMap((page) => page.items),
   })
 }
 
@@ -17,10 +21,14 @@ export function useBook(id: number) {
   })
 }
 
+// Best matches first; data is the results loaded so far
 export function useSearchBooks(query: string) {
-  return useQuery({
+  return useInfiniteQuery({
     queryKey: ['books', 'search', query],
-    queryFn: () => searchBooks(query),
+    queryFn: ({ pageParam }) => searchBooks(query, pageParam),
+    initialPageParam: 0,
+    getNextPageParam: (lastPage) => (lastPage.hasMore ? lastPage.offset + lastPage.limit : undefined),
+    select: (data) => data.pages.flatMap((page) => page.items),
     enabled: query.length > 0,
   })
 }
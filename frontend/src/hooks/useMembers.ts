@@ -1,11 +1,15 @@
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/react-query'
 import { getMembers, getMember, createMember, updateMember, deleteMember } from '@/api/members'
 import type { MemberFormData } from '@/types'
 
+// Pages are fetched on demand with fetchNextPage(); data is the members loaded so far
 export function useMembers() {
-  return useQuery({
+  return useInfiniteQuery({
     queryKey: ['members'],
-    queryFn: getMembers,
+    queryFn: ({ pageParam }) => getMembers({ cursor: pageParam }),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
+    select: (data) => data.pages.flatMap((page) => page.items),
   })
 }
 
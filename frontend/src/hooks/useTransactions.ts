@@ -1,18 +1,25 @@
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
+import { useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/react-query'
 import { issueBook, returnBook, getActiveTransactions, getOverdueTransactions } from '@/api/transactions'
 import type { IssueBookRequest } from '@/types'
 
+// Pages are fetched on demand with fetchNextPage(); data is the loans loaded so far
 export function useActiveTransactions() {
-  return useQuery({
+  return useInfiniteQuery({
     queryKey: ['transactions', 'active'],
-    queryFn: getActiveTransactions,
+    queryFn: ({ pageParam }) => getActiveTransactions({ cursor: pageParam }),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
+    select: (data) => data.pages.flatMap((page) => page.items),
   })
 }
 
 export function useOverdueTransactions() {
-  return useQuery({
+  return useInfiniteQuery({
     queryKey: ['transactions', 'overdue'],
-    queryFn: getOverdueTransactions,
+    queryFn: ({ pageParam }) => getOverdueTransactions({ cursor: pageParam }),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
+    select: (data) => data.pages.flatMap((page) => page.items),
   })
 }
 
@@ -1,4 +1,4 @@
-import type { Book, Member, Transaction } from '@/types'
+import type { Book, Member, TransactionSummary } from '@/types'
 
 export const mockBooks: Book[] = [
   {
@@ -176,22 +176,26 @@ export const mockMembers: Member[] = [
   },
 ]
 
-export const mockTransactions: Transaction[] = [
+export const mockTransactions: TransactionSummary[] = [
   {
-    id: 1,
+    transactionId: 1,
     bookId: 1,
+    isbn: "978-0-06-112008-4",
     memberId: 1,
     bookTitle: "To Kill a Mockingbird",
     memberName: "Alice Johnson",
     issueDate: "2024-11-01T10:00:00Z",
     dueDate: "2024-11-15T10:00:00Z",
     returnDate: null,
-    status: "OVERDUE",
-    fine: 5.0,
+    status: "ISSUED",
+    fineAmount: 5.0,
+    createdAt: "2024-11-01T10:00:00Z",
+    overdue: true,
   },
   {
-    id: 2,
+    transactionId: 2,
     bookId: 2,
+    isbn: "978-0-451-52493-5",
     memberId: 2,
     bookTitle: "1984",
     memberName: "Dr. Robert Smith",
@@ -199,23 +203,29 @@ export const mockTransactions: Transaction[] = [
     dueDate: "2024-12-20T10:00:00Z",
     returnDate: null,
     status: "ISSUED",
-    fine: 0,
+    fineAmount: 0,
+    createdAt: "2024-11-20T10:00:00Z",
+    overdue: false,
   },
   {
-    id: 3,
+    transactionId: 3,
     bookId: 3,
+    isbn: "978-0-13-235088-4",
     memberId: 3,
     bookTitle: "Clean Code",
     memberName: "Emily Davis",
     issueDate: "2024-11-25T10:00:00Z",
     dueDate: "2024-12-09T10:00:00Z",
     returnDate: null,
-    status: "OVERDUE",
-    fine: 3.5,
+    status: "ISSUED",
+    fineAmount: 3.5,
+    createdAt: "2024-11-25T10:00:00Z",
+    overdue: true,
   },
   {
-    id: 4,
+    transactionId: 4,
     bookId: 2,
+    isbn: "978-0-451-52493-5",
     memberId: 4,
     bookTitle: "1984",
     memberName: "Prof. James Wilson",
@@ -223,23 +233,29 @@ export const mockTransactions: Transaction[] = [
     dueDate: "2025-01-01T10:00:00Z",
     returnDate: null,
     status: "ISSUED",
-    fine: 0,
+    fineAmount: 0,
+    createdAt: "2024-12-01T10:00:00Z",
+    overdue: false,
   },
   {
-    id: 5,
+    transactionId: 5,
     bookId: 1,
+    isbn: "978-0-06-112008-4",
     memberId: 5,
     bookTitle: "To Kill a Mockingbird",
     memberName: "Sarah Miller",
     issueDate: "2024-12-05T10:00:00Z",
     dueDate: "2024-12-19T10:00:00Z",
     returnDate: null,
-    status: "OVERDUE",
-    fine: 2.0,
+    status: "ISSUED",
+    fineAmount: 2.0,
+    createdAt: "2024-12-05T10:00:00Z",
+    overdue: true,
   },
   {
-    id: 6,
+    transactionId: 6,
     bookId: 7,
+    isbn: "978-0-262-03384-8",
     memberId: 2,
     bookTitle: "Introduction to Algorithms",
     memberName: "Dr. Robert Smith",
@@ -247,11 +263,14 @@ export const mockTransactions: Transaction[] = [
     dueDate: "2025-01-10T10:00:00Z",
     returnDate: null,
     status: "ISSUED",
-    fine: 0,
+    fineAmount: 0,
+    createdAt: "2024-12-10T10:00:00Z",
+    overdue: false,
   },
   {
-    id: 7,
+    transactionId: 7,
     bookId: 2,
+    isbn: "978-0-451-52493-5",
     memberId: 1,
     bookTitle: "1984",
     memberName: "Alice Johnson",
@@ -259,11 +278,14 @@ export const mockTransactions: Transaction[] = [
     dueDate: "2024-12-26T10:00:00Z",
     returnDate: null,
     status: "ISSUED",
-    fine: 0,
+    fineAmount: 0,
+    createdAt: "2024-12-12T10:00:00Z",
+    overdue: false,
   },
   {
-    id: 8,
+    transactionId: 8,
     bookId: 7,
+    isbn: "978-0-262-03384-8",
     memberId: 3,
     bookTitle: "Introduction to Algorithms",
     memberName: "Emily Davis",
@@ -271,6 +293,8 @@ export const mockTransactions: Transaction[] = [
     dueDate: "2024-12-29T10:00:00Z",
     returnDate: null,
     status: "ISSUED",
-    fine: 0,
+    fineAmount: 0,
+    createdAt: "2024-12-15T10:00:00Z",
+    overdue: false,
   },
 ]
@@ -1,14 +1,25 @@
 import { http, HttpResponse, delay } from 'msw'
 import { mockBooks, mockMembers, mockTransactions } from './data'
-import type { Book, Member, Transaction, BookFormData, MemberFormData } from '@/types'
+import type { Book, Member, TransactionSummary, BookFormData, MemberFormData, CursorPage, SearchPage } from '@/types'
 
 let books: Book[] = [...mockBooks]
 let members: Member[] = [...mockMembers]
-let transactions: Transaction[] = [...mockTransactions]
+let transactions: TransactionSummary[] = [...mockTransactions]
 let nextBookId = 9
 let nextMemberId = 7
 let nextTransactionId = 9
 
+// Keyset page over items ordered by ID, shaped like the backend's CursorPage
+function cursorPage<T>(items: T[], request: Request, idOf: (item: T) => number): CursorPage<T> {
+  const url = new URL(request.url)
+  const limit = Math.min(Math.max(Number(url.searchParams.get('limit')) || 50, 1), 200)
+  const after = Number(url.searchParams.get('cursor')) || 0
+  const rest = items.filter((item) => idOf(item) > after).sort((a, b) => idOf(a) - idOf(b))
+  const page = rest.slice(0, limit)
+  const nextCursor = rest.length > limit ? String(idOf(page[page.length - 1])) : null
+  return { items: page, nextCursor, hasMore: nextCursor !== null, limit }
+}
+
 export const handlers = [
   // Auth
   http.post('*/api/v1/auth/login', async ({ request }) => {
@@ -43,7 +54,9 @@ export const handlers = [
   http.get('*/api/v1/books/search', async ({ request }) => {
     await delay(200)
     const url = new URL(request.url)
-    const query = url.searchParams.get('query')?.toLowerCase() || ''
+    const query = url.searchParams.get('q')?.toLowerCase() || ''
+    const offset = Math.max(Number(url.searchParams.get('offset')) || 0, 0)
+    const limit = Math.min(Math.max(Number(url.searchParams.get('limit')) || 20, 1), 100)
     const filtered = books.filter(
       (b) =>
         b.title.toLowerCase().includes(query) ||
@@ -51,7 +64,13 @@ export const handlers = [
         b.isbn.includes(query) ||
         b.genre.toLowerCase().includes(query)
     )
-    return HttpResponse.json(filtered)
+    const page: SearchPage<Book> = {
+      items: filtered.slice(offset, offset + limit),
+      offset,
+      limit,
+      hasMore: filtered.length > offset + limit,
+    }
+    return HttpResponse.json(page)
   }),
 
   http.get('*/api/v1/books/:id', async ({ params }) => {
@@ -64,9 +83,9 @@ export const handlers = [
     return HttpResponse.json(book)
   }),
 
-  http.get('*/api/v1/books', async () => {
+  http.get('*/api/v1/books', async ({ request }) => {
     await delay(300)
-    return HttpResponse.json(books)
+    return HttpResponse.json(cursorPage(books, request, (b) => b.id))
   }),
 
   http.post('*/api/v1/books', async ({ request }) => {
@@ -116,9 +135,9 @@ export const handlers = [
     return HttpResponse.json(member)
   }),
 
-  http.get('*/api/v1/members', async () => {
+  http.get('*/api/v1/members', async ({ request }) => {
     await delay(300)
-    return HttpResponse.json(members)
+    return HttpResponse.json(cursorPage(members, request, (m) => m.id))
   }),
 
   http.post('*/api/v1/members', async ({ request }) => {
@@ -175,55 +194,61 @@ export const handlers = [
     const now = new Date()
     const dueDate = new Date(now)
     dueDate.setDate(dueDate.getDate() + 14)
-    const transaction: Transaction = {
-      id: nextTransactionId++,
+    const transaction: TransactionSummary = {
+      transactionId: nextTransactionId++,
       bookId: body.bookId,
-      memberId: body.memberId,
       bookTitle: book.title,
+      isbn: book.isbn,
+      memberId: body.memberId,
       memberName: member.name,
       issueDate: now.toISOString(),
       dueDate: dueDate.toISOString(),
       returnDate: null,
+      fineAmount: 0,
       status: 'ISSUED',
-      fine: 0,
+      createdAt: now.toISOString(),
+      overdue: false,
     }
     transactions.push(transaction)
     return HttpResponse.json(transaction, { status: 201 })
   }),
 
-  http.post('*/api/v1/transactions/return/:id', async ({ params }) => {
+  http.post('*/api/v1/transactions/:id/return', async ({ params }) => {
     await delay(400)
     const id = Number(params.id)
-    const transaction = transactions.find((t) => t.id === id)
+    const transaction = transactions.find((t) => t.transactionId === id)
     if (!transaction) {
       return HttpResponse.json({ message: 'Transaction not found' }, { status: 404 })
     }
-    transaction.returnDate = new Date().toISOString()
+    const now = new Date()
+    const overdueDays = Math.max(0, Math.floor((now.getTime() - new Date(transaction.dueDate).getTime()) / 86400000))
+    transaction.returnDate = now.toISOString()
     transaction.status = 'RETURNED'
+    transaction.overdue = false
     const book = books.find((b) => b.id === transaction.bookId)
     if (book) {
       book.availableCopies += 1
     }
-    return HttpResponse.json(transaction)
+    return HttpResponse.json({ transaction, fineAmount: transaction.fineAmount ?? 0, overdueDays })
   }),
 
-  http.get('*/api/v1/transactions/active', async () => {
+  http.get('*/api/v1/transactions/active', async ({ request }) => {
     await delay(300)
     const active = transactions.filter((t) => t.status !== 'RETURNED')
-    return HttpResponse.json(active)
+    return HttpResponse.json(cursorPage(active, request, (t) => t.transactionId))
   }),
 
-  http.get('*/api/v1/transactions/overdue', async () => {
+  http.get('*/api/v1/transactions/overdue', async ({ request }) => {
     await delay(300)
-    const overdue = transactions.filter((t) => t.status === 'OVERDUE')
-    return HttpResponse.json(overdue)
+    const overdue = transactions.filter((t) => t.overdue)
+    return HttpResponse.json(cursorPage(overdue, request, (t) => t.transactionId))
   }),
 
   // Reports
   http.get('*/api/v1/reports/dashboard', async () => {
     await delay(300)
     const activeIssues = transactions.filter((t) => t.status !== 'RETURNED').length
-    const overdueBooks = transactions.filter((t) => t.status === 'OVERDUE').length
+    const overdueBooks = transactions.filter((t) => t.overdue).length
     const totalCopies = books.reduce((sum, b) => sum + b.totalCopies, 0)
     const availableCopies = books.reduce((sum, b) => sum + b.availableCopies, 0)
     return HttpResponse.json({
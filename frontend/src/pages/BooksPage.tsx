@@ -6,6 +6,7 @@ import { BookSearch } from '@/components/books/BookSearch'
 import { Button } from '@/components/ui/button'
 import { Card, CardContent, CardHeader, CardTitle } from '@/components/ui/card'
 import { Spinner } from '@/components/ui/spinner'
+import { LoadMore } from '@/components/ui/load-more'
 import {
   Dialog,
   DialogContent,
@@ -18,7 +19,7 @@ import { Plus } from 'lucide-react'
 import type { Book, BookFormData } from '@/types'
 
 export function BooksPage() {
-  const { data: books, isLoading } = useBooks()
+  const { data: books, isLoading, hasNextPage, fetchNextPage, isFetchingNextPage } = useBooks()
   const createBook = useCreateBook()
   const updateBook = useUpdateBook()
   const deleteBook = useDeleteBook()
@@ -131,6 +132,11 @@ export function BooksPage() {
             onEdit={handleEdit}
             onDelete={handleDelete}
           />
+          <LoadMore
+            hasMore={hasNextPage}
+            isLoading={isFetchingNextPage}
+            onLoadMore={() => fetchNextPage()}
+          />
         </CardContent>
       </Card>
 
@@ -3,12 +3,25 @@ import { useMembers } from '@/hooks/useMembers'
 import { useIssueBook } from '@/hooks/useTransactions'
 import { IssueBookForm } from '@/components/transactions/IssueBookForm'
 import { Spinner } from '@/components/ui/spinner'
+import { LoadMore } from '@/components/ui/load-more'
 import { useToast } from '@/components/ui/toast'
 import { BookReturnAnim3D } from '@/components/three/BookReturnAnim3D'
 
 export function IssueBookPage() {
-  const { data: books, isLoading: booksLoading } = useBooks()
-  const { data: members, isLoading: membersLoading } = useMembers()
+  const {
+    data: books,
+    isLoading: booksLoading,
+    hasNextPage: moreBooks,
+    fetchNextPage: fetchMoreBooks,
+    isFetchingNextPage: fetchingMoreBooks,
+  } = useBooks()
+  const {
+    data: members,
+    isLoading: membersLoading,
+    hasNextPage: moreMembers,
+    fetchNextPage: fetchMoreMembers,
+    isFetchingNextPage: fetchingMoreMembers,
+  } = useMembers()
   const issueBook = useIssueBook()
   const { addToast } = useToast()
 
@@ -47,6 +60,21 @@ export function IssueBookPage() {
         onSubmit={handleSubmit}
         isLoading={issueBook.isPending}
       />
+
+      <div className="flex gap-4">
+        <LoadMore
+          hasMore={moreBooks}
+          isLoading={fetchingMoreBooks}
+          onLoadMore={() => fetchMoreBooks()}
+          label="Load more books"
+        />
+        <LoadMore
+          hasMore={moreMembers}
+          isLoading={fetchingMoreMembers}
+          onLoadMore={() => fetchMoreMembers()}
+          label="Load more members"
+        />
+      </div>
     </div>
   )
 }
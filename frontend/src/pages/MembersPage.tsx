@@ -6,6 +6,7 @@ import { BookSearch } from '@/components/books/BookSearch'
 import { Button } from '@/components/ui/button'
 import { Card, CardContent, CardHeader, CardTitle } from '@/components/ui/card'
 import { Spinner } from '@/components/ui/spinner'
+import { LoadMore } from '@/components/ui/load-more'
 import {
   Dialog,
   DialogContent,
@@ -19,7 +20,7 @@ import type { Member, MemberFormData } from '@/types'
 import { MemberNetwork3D } from '@/components/three/MemberNetwork3D'
 
 export function MembersPage() {
-  const { data: members, isLoading } = useMembers()
+  const { data: members, isLoading, hasNextPage, fetchNextPage, isFetchingNextPage } = useMembers()
   const createMember = useCreateMember()
   const updateMember = useUpdateMember()
   const deleteMember = useDeleteMember()
@@ -137,6 +138,11 @@ export function MembersPage() {
             onEdit={handleEdit}
             onDelete={handleDelete}
           />
+          <LoadMore
+            hasMore={hasNextPage}
+            isLoading={isFetchingNextPage}
+            onLoadMore={() => fetchNextPage()}
+          />
         </CardContent>
       </Card>
 
@@ -3,6 +3,7 @@ import { useOverdueTransactions } from '@/hooks/useTransactions'
 import { Card, CardContent, CardHeader, CardTitle, CardDescription } from '@/components/ui/card'
 import { Badge } from '@/components/ui/badge'
 import { Spinner } from '@/components/ui/spinner'
+import { LoadMore } from '@/components/ui/load-more'
 import {
   Table,
   TableBody,
@@ -17,7 +18,13 @@ import { ReportChart3D } from '@/components/three/ReportChart3D'
 
 export function ReportsPage() {
   const { data: stats, isLoading: statsLoading } = useDashboardStats()
-  const { data: overdueTransactions, isLoading: overdueLoading } = useOverdueTransactions()
+  const {
+    data: overdueTransactions,
+    isLoading: overdueLoading,
+    hasNextPage: moreOverdue,
+    fetchNextPage: fetchMoreOverdue,
+    isFetchingNextPage: fetchingMoreOverdue,
+  } = useOverdueTransactions()
 
   return (
     <div className="space-y-6">
@@ -119,7 +126,7 @@ export function ReportsPage() {
                   </TableRow>
                 ) : (
                   overdueTransactions.map((t) => (
-                    <TableRow key={t.id}>
+                    <TableRow key={t.transactionId}>
                       <TableCell className="font-medium">{t.bookTitle}</TableCell>
                       <TableCell className="hidden sm:table-cell">{t.memberName}</TableCell>
                       <TableCell className="hidden md:table-cell text-xs">
@@ -130,7 +137,7 @@ export function ReportsPage() {
                         <Badge variant="destructive">Overdue</Badge>
                       </TableCell>
                       <TableCell className="hidden sm:table-cell">
-                        {t.fine > 0 ? `$${t.fine.toFixed(2)}` : '-'}
+                        {t.fineAmount ? `$${t.fineAmount.toFixed(2)}` : '-'}
                       </TableCell>
                     </TableRow>
                   ))
@@ -138,6 +145,11 @@ export function ReportsPage() {
               </TableBody>
             </Table>
           )}
+          <LoadMore
+            hasMore={moreOverdue}
+            isLoading={fetchingMoreOverdue}
+            onLoadMore={() => fetchMoreOverdue()}
+          />
         </CardContent>
       </Card>
     </div>
@@ -3,12 +3,13 @@ import { useActiveTransactions, useReturnBook } from '@/hooks/useTransactions'
 import { ReturnBookForm } from '@/components/transactions/ReturnBookForm'
 import { Card, CardContent, CardHeader, CardTitle, CardDescription } from '@/components/ui/card'
 import { Spinner } from '@/components/ui/spinner'
+import { LoadMore } from '@/components/ui/load-more'
 import { useToast } from '@/components/ui/toast'
 import { Undo2 } from 'lucide-react'
 import { BookReturnAnim3D } from '@/components/three/BookReturnAnim3D'
 
 export function ReturnBookPage() {
-  const { data: transactions, isLoading } = useActiveTransactions()
+  const { data: transactions, isLoading, hasNextPage, fetchNextPage, isFetchingNextPage } = useActiveTransactions()
   const returnBook = useReturnBook()
   const { addToast } = useToast()
   const [returningId, setReturningId] = useState<number | null>(null)
@@ -16,8 +17,13 @@ export function ReturnBookPage() {
   const handleReturn = (transactionId: number) => {
     setReturningId(transactionId)
     returnBook.mutate(transactionId, {
-      onSuccess: () => {
-        addToast('Book returned successfully', 'success')
+      onSuccess: (result) => {
+        addToast(
+          result.fineAmount > 0
+            ? `Book returned ${result.overdueDays} day(s) late. Fine due: $${result.fineAmount.toFixed(2)}`
+            : 'Book returned successfully',
+          'success'
+        )
         setReturningId(null)
       },
       onError: () => {
@@ -52,12 +58,19 @@ export function ReturnBookPage() {
           {isLoading ? (
             <Spinner className="py-12" />
           ) : (
-            <ReturnBookForm
-              transactions={transactions ?? []}
-              onReturn={handleReturn}
-              isLoading={returnBook.isPending}
-              returningId={returningId}
-            />
+            <>
+              <ReturnBookForm
+                transactions={transactions ?? []}
+                onReturn={handleReturn}
+                isLoading={returnBook.isPending}
+                returningId={returningId}
+              />
+              <LoadMore
+                hasMore={hasNextPage}
+                isLoading={isFetchingNextPage}
+                onLoadMore={() => fetchNextPage()}
+              />
+            </>
           )}
         </CardContent>
       </Card>
@@ -42,17 +42,27 @@ export interface MemberFormData {
   memberType: 'STUDENT' | 'FACULTY' | 'STAFF';
 }
 
-export interface Transaction {
-  id: number;
+// One loan as the API returns it (the backend's TransactionSummary)
+export interface TransactionSummary {
+  transactionId: number;
   bookId: number;
-  memberId: number;
   bookTitle: string;
+  isbn: string;
+  memberId: number;
   memberName: string;
   issueDate: string;
   dueDate: string;
   returnDate: string | null;
-  status: 'ISSUED' | 'RETURNED' | 'OVERDUE';
-  fine: number;
+  fineAmount: number | null;
+  status: 'ISSUED' | 'RETURNED';
+  createdAt: string;
+  overdue: boolean;
+}
+
+export interface ReturnBookResponse {
+  transaction: TransactionSummary;
+  fineAmount: number;
+  overdueDays: number;
 }
 
 export interface IssueBookRequest {
@@ -91,12 +101,26 @@ export interface ApiError {
   status: number;
 }
 
-export interface PaginatedResponse<T> {
-  content: T[];
-  totalPages: number;
-  totalElements: number;
-  size: number;
-  number: number;
+// One page of a keyset-paginated list; pass nextCursor back as cursor for the next page
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+  limit: number;
+}
+
+// One page of ranked search results; ranked lists page by offset
+export interface SearchPage<T> {
+  items: T[];
+  offset: number;
+  limit: number;
+  hasMore: boolean;
+}
+
+export interface PageParams {
+  cursor?: string;
+  limit?: number;
+  sort?: string;
 }
 
 export interface Toast {
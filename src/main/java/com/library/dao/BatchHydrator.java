@@ -0,0 +1,164 @@
+package com.library.dao;
+
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.Transaction;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the books and members referenced by a list of transactions
+ * with one chunked IN (...) query per entity type, instead of one
+ * findById() call per row.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+class BatchHydrator {
+
+    // Maximum number of IDs bound into a single IN (...) clause
+    static final int ID_CHUNK_SIZE = 500;
+
+    // IN (...) lists are padded up to one of these sizes, so the pooled
+    // statement cache sees five SQL texts instead of one per list length
+    static final int[] IN_LIST_SIZES = {1, 10, 50, 100, ID_CHUNK_SIZE};
+
+    private final BookDAO bookDAO;
+    private final MemberDAO memberDAO;
+
+    BatchHydrator(BookDAO bookDAO, MemberDAO memberDAO) {
+        this.bookDAO = bookDAO;
+        this.memberDAO = memberDAO;
+    }
+
+    /**
+     * Attach Book objects to the given transactions
+     *
+     * @param conn         connection to run the lookups on
+     * @param transactions transactions to hydrate
+     * @throws SQLException if a lookup fails
+     */
+    void attachBooks(Connection conn, List<Transaction> transactions) throws SQLException {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Transaction t : transactions) {
+            ids.add(t.getBookId());
+        }
+        Map<Integer, Book> books = bookDAO.findByIds(conn, ids);
+        for (Transaction t : transactions) {
+            t.setBook(books.get(t.getBookId()));
+        }
+    }
+
+    /**
+     * Attach Member objects to the given transactions
+     *
+     * @param conn         connection to run the lookups on
+     * @param transactions transactions to hydrate
+     * @throws SQLException if a lookup fails
+     */
+    void attachMembers(Connection conn, List<Transaction> transactions) throws SQLException {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Transaction t : transactions) {
+            ids.add(t.getMemberId());
+        }
+        Map<Integer, Member> members = memberDAO.findByIds(conn, ids);
+        for (Transaction t : transactions) {
+            t.setMember(members.get(t.getMemberId()));
+        }
+    }
+
+    /**
+     * Split IDs into chunks of at most ID_CHUNK_SIZE
+     *
+     * @param ids the IDs
+     * @return list of chunks
+     */
+    static List<List<Integer>> chunk(Collection<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> current = new ArrayList<>(Math.min(ids.size(), ID_CHUNK_SIZE));
+        for (Integer id : ids) {
+            current.add(id);
+            if (current.size() == ID_CHUNK_SIZE) {
+                chunks.add(current);
+                current = new ArrayList<>(ID_CHUNK_SIZE);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    /**
+     * Round an IN (...) list length up to the next of IN_LIST_SIZES
+     *
+     * @param count number of IDs, at most ID_CHUNK_SIZE
+     * @return number of placeholders to use
+     */
+    static int paddedSize(int count) {
+        for (int size : IN_LIST_SIZES) {
+            if (count <= size) {
+                return size;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Prepare "prefix (?, ?, ...)" for a chunk of IDs, padded to a fixed size.
+     * The spare placeholders repeat the last ID, which IN (...) ignores.
+     *
+     * @param conn   connection to prepare on
+     * @param prefix SQL up to and including "IN "
+     * @param chunk  the IDs, at most ID_CHUNK_SIZE
+     * @return statement with every placeholder bound
+     * @throws SQLException if the statement cannot be prepared
+     */
+    static PreparedStatement prepareIn(Connection conn, String prefix, List<Integer> chunk) throws SQLException {
+        int slots = paddedSize(chunk.size());
+        PreparedStatement pstmt = conn.prepareStatement(inClause(prefix, slots));
+        try {
+            for (int i = 0; i < slots; i++) {
+                pstmt.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+            }
+        } catch (SQLException e) {
+            pstmt.close();
+            throw e;
+        }
+        return pstmt;
+    }
+
+    /**
+     * Build "prefix (?, ?, ...)" with the given number of placeholders
+     *
+     * @param prefix SQL up to and including "IN "
+     * @param count  number of placeholders
+     * @return SQL text
+     */
+    static String inClause(String prefix, int count) {
+        StringBuilder sql = new StringBuilder(prefix.length() + count * 3 + 2);
+        sql.append(prefix).append('(');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append('?');
+        }
+        return sql.append(')').toString();
+    }
+}
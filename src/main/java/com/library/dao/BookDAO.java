@@ -2,10 +2,20 @@ package com.library.dao;
 
 import com.library.model.Book;
 import com.library.util.DBConnection;
+import com.library.util.EntityCache;
+import com.library.util.QueryMetrics;
+import com.library.util.TrigramIndex;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Data Access Object for Book entity.
@@ -17,6 +27,35 @@ import java.util.List;
  */
 public class BookDAO {
 
+    // Read-through cache for findById(), shared by all BookDAO instances
+    private static final EntityCache<Integer, Book> cache =
+            new EntityCache<>("books", 10000, 60000);
+
+    // In-memory trigram index for search(); null until buildSearchIndex() runs
+    private static volatile TrigramIndex searchIndex;
+
+    // Bumped on every indexed write so a rebuild can tell it raced with one
+    private static final AtomicLong searchIndexWrites = new AtomicLong();
+
+    // Rebuild attempts before giving up on a quiet snapshot
+    private static final int SEARCH_INDEX_BUILD_ATTEMPTS = 3;
+
+    // Rows fetched per round trip when streaming
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    // Most books search() returns; candidates past this are never loaded
+    public static final int MAX_SEARCH_RESULTS = 200;
+
+    // Striped locks so a write and its search index update for one book
+    // are applied in the same order as other writes to that book
+    private static final Object[] WRITE_LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < WRITE_LOCKS.length; i++) {
+            WRITE_LOCKS[i] = new Object();
+        }
+    }
+
     // SQL Queries
     private static final String INSERT_BOOK =
             "INSERT INTO books (isbn, title, author, publisher, quantity, available) VALUES (?, ?, ?, ?, ?, ?)";
@@ -30,14 +69,26 @@ public class BookDAO {
     private static final String SELECT_BY_ID =
             "SELECT * FROM books WHERE book_id=?";
 
+    private static final String SELECT_INDEXED_FIELDS =
+            "SELECT title, author, isbn FROM books WHERE book_id=?";
+
+    private static final String SELECT_BY_IDS_PREFIX =
+            "SELECT * FROM books WHERE book_id IN ";
+
     private static final String SELECT_BY_ISBN =
             "SELECT * FROM books WHERE isbn=?";
 
     private static final String SELECT_ALL =
             "SELECT * FROM books ORDER BY title";
 
+    private static final String SELECT_PAGE_AFTER_ID =
+            "SELECT * FROM books WHERE book_id > ? ORDER BY book_id LIMIT ?";
+
+    private static final String SELECT_ALL_BY_ID =
+            "SELECT * FROM books ORDER BY book_id";
+
     private static final String SEARCH_BOOKS =
-            "SELECT * FROM books WHERE title LIKE ? OR author LIKE ? OR isbn LIKE ? ORDER BY title";
+            "SELECT * FROM books WHERE title LIKE ? OR author LIKE ? OR isbn LIKE ? ORDER BY title LIMIT ?";
 
     private static final String SELECT_AVAILABLE =
             "SELECT * FROM books WHERE available > 0 ORDER BY title";
@@ -60,6 +111,11 @@ public class BookDAO {
     private static final String COUNT_ISSUED =
             "SELECT SUM(quantity - available) FROM books";
 
+    // Report statements under their constant names in QueryMetrics
+    static {
+        QueryMetrics.registerConstants(BookDAO.class);
+    }
+
     /**
      * Insert a new book into the database
      *
@@ -83,6 +139,8 @@ public class BookDAO {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         book.setBookId(generatedKeys.getInt(1));
+                        cache.invalidate(book.getBookId());
+                        reindex(book.getBookId(), null, book);
                     }
                 }
                 return true;
@@ -112,7 +170,15 @@ public class BookDAO {
             pstmt.setInt(6, book.getAvailable());
             pstmt.setInt(7, book.getBookId());
 
-            return pstmt.executeUpdate() > 0;
+            synchronized (writeLock(book.getBookId())) {
+                String[] previous = indexedFields(conn, book.getBookId());
+                boolean updated = pstmt.executeUpdate() > 0;
+                cache.invalidate(book.getBookId());
+                if (updated) {
+                    reindex(book.getBookId(), previous, book);
+                }
+                return updated;
+            }
         } catch (SQLException e) {
             System.err.println("Error updating book: " + e.getMessage());
             e.printStackTrace();
@@ -131,7 +197,15 @@ public class BookDAO {
              PreparedStatement pstmt = conn.prepareStatement(DELETE_BOOK)) {
 
             pstmt.setInt(1, bookId);
-            return pstmt.executeUpdate() > 0;
+            synchronized (writeLock(bookId)) {
+                String[] previous = indexedFields(conn, bookId);
+                boolean deleted = pstmt.executeUpdate() > 0;
+                cache.invalidate(bookId);
+                if (deleted) {
+                    reindex(bookId, previous, null);
+                }
+                return deleted;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting book: " + e.getMessage());
             e.printStackTrace();
@@ -146,6 +220,12 @@ public class BookDAO {
      * @return Book object or null if not found
      */
     public Book findById(int bookId) {
+        Book cached = cache.get(bookId);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        long stamp = cache.stamp();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
 
@@ -153,7 +233,9 @@ public class BookDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapRowToBook(rs);
+                    Book book = mapRowToBook(rs);
+                    cache.putIfUnchanged(bookId, copyOf(book), stamp);
+                    return book;
                 }
             }
         } catch (SQLException e) {
@@ -163,6 +245,60 @@ public class BookDAO {
         return null;
     }
 
+    /**
+     * Find several books by ID using chunked IN (...) queries
+     *
+     * @param ids the book IDs
+     * @return map of book ID to Book (missing IDs are absent)
+     */
+    public Map<Integer, Book> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            return findByIds(conn, ids);
+        } catch (SQLException e) {
+            System.err.println("Error finding books by IDs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * Find several books by ID on an existing connection
+     *
+     * @param conn the connection to use
+     * @param ids  the book IDs
+     * @return map of book ID to Book
+     * @throws SQLException if the query fails
+     */
+    Map<Integer, Book> findByIds(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Book> books = new HashMap<>(ids.size() * 2);
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Book cached = cache.get(id);
+            if (cached != null) {
+                books.put(id, copyOf(cached));
+            } else {
+                missing.add(id);
+            }
+        }
+
+        long stamp = cache.stamp();
+        for (List<Integer> chunk : BatchHydrator.chunk(missing)) {
+            try (PreparedStatement pstmt = BatchHydrator.prepareIn(conn, SELECT_BY_IDS_PREFIX, chunk)) {
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Book book = mapRowToBook(rs);
+                        books.put(book.getBookId(), book);
+                        cache.putIfUnchanged(book.getBookId(), copyOf(book), stamp);
+                    }
+                }
+            }
+        }
+        return books;
+    }
+
     /**
      * Find a book by ISBN
      *
@@ -209,12 +345,153 @@ public class BookDAO {
     }
 
     /**
-     * Search books by title, author, or ISBN
+     * Get one page of books in book_id order (keyset pagination)
+     *
+     * @param afterBookId return books with an ID greater than this (0 for the first page)
+     * @param limit       maximum number of books to return
+     * @return list of books
+     */
+    public List<Book> findPage(int afterBookId, int limit) {
+        List<Book> books = new ArrayList<>(limit);
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_PAGE_AFTER_ID)) {
+
+            pstmt.setInt(1, afterBookId);
+            pstmt.setInt(2, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapRowToBook(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding page of books: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return books;
+    }
+
+    /**
+     * Stream every book in book_id order to a handler without building a list.
+     * Rows are read from a forward-only result set with a fetch size, so memory
+     * use does not grow with the size of the catalog.
+     *
+     * @param handler receives each book
+     * @throws SQLException if the query fails
+     * @throws IOException  if the handler fails
+     */
+    public void streamAll(RowHandler<Book> handler) throws SQLException, IOException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_BY_ID,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(mapRowToBook(rs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Search books by title, author, or ISBN.
+     * Uses the in-memory trigram index when it is built and the keyword is
+     * long enough; otherwise falls back to a LIKE query.
      *
      * @param keyword the search keyword
-     * @return list of matching books
+     * @return up to MAX_SEARCH_RESULTS matching books, best matches first
      */
     public List<Book> search(String keyword) {
+        TrigramIndex index = searchIndex;
+        String query = TrigramIndex.normalize(keyword);
+        if (index != null && query.length() >= TrigramIndex.MIN_QUERY_LENGTH) {
+            return searchIndexed(index, query);
+        }
+        return searchDatabase(keyword);
+    }
+
+    /**
+     * Search using the trigram index. The index ranks candidates without
+     * their text (title before author before ISBN, whole-field and prefix
+     * matches first), and they are loaded by ID through the findById()
+     * cache a chunk at a time until MAX_SEARCH_RESULTS of them really
+     * contain the query, so a common trigram does not load half the catalog.
+     */
+    private List<Book> searchIndexed(TrigramIndex index, String query) {
+        int[] ranked = index.rank(query, Integer.MAX_VALUE);
+        List<Book> books = new ArrayList<>();
+        for (int from = 0; from < ranked.length && books.size() < MAX_SEARCH_RESULTS; from += MAX_SEARCH_RESULTS) {
+            List<Integer> ids = new ArrayList<>(MAX_SEARCH_RESULTS);
+            for (int i = from; i < Math.min(from + MAX_SEARCH_RESULTS, ranked.length); i++) {
+                ids.add(ranked[i]);
+            }
+            Map<Integer, Book> loaded = findByIds(ids);
+            for (Integer id : ids) {
+                Book book = loaded.get(id);
+                // Trigrams can match without the text matching, and the row may have changed
+                if (book != null && matchRank(book, query) >= 0 && books.size() < MAX_SEARCH_RESULTS) {
+                    books.add(book);
+                }
+            }
+        }
+        Collections.sort(books, new Comparator<Book>() {
+            @Override
+            public int compare(Book a, Book b) {
+                int byRank = Integer.compare(matchRank(a, query), matchRank(b, query));
+                if (byRank != 0) {
+                    return byRank;
+                }
+                int byTitle = TrigramIndex.normalize(a.getTitle()).compareTo(TrigramIndex.normalize(b.getTitle()));
+                return byTitle != 0 ? byTitle : Integer.compare(a.getBookId(), b.getBookId());
+            }
+        });
+        return books;
+    }
+
+    /**
+     * Rank how well a book matches a normalized query (lower is better)
+     *
+     * @return rank, or -1 if the book does not contain the query
+     */
+    private static int matchRank(Book book, String query) {
+        return matchRank(TrigramIndex.normalize(book.getTitle()), TrigramIndex.normalize(book.getAuthor()),
+                TrigramIndex.normalize(book.getIsbn()), query);
+    }
+
+    /**
+     * Rank normalized title, author and ISBN against a normalized query
+     */
+    private static int matchRank(String title, String author, String isbn, String query) {
+        if (title.equals(query)) {
+            return 0;
+        }
+        if (title.startsWith(query)) {
+            return 1;
+        }
+        if (title.contains(query)) {
+            return 2;
+        }
+        if (author.startsWith(query)) {
+            return 3;
+        }
+        if (author.contains(query)) {
+            return 4;
+        }
+        if (isbn.contains(query)) {
+            return 5;
+        }
+        return -1;
+    }
+
+    /**
+     * Search with a LIKE query on title, author and ISBN
+     *
+     * @param keyword the search keyword
+     * @return up to MAX_SEARCH_RESULTS matching books ordered by title
+     */
+    private List<Book> searchDatabase(String keyword) {
         List<Book> books = new ArrayList<>();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(SEARCH_BOOKS)) {
@@ -223,6 +500,7 @@ public class BookDAO {
             pstmt.setString(1, searchPattern);
             pstmt.setString(2, searchPattern);
             pstmt.setString(3, searchPattern);
+            pstmt.setInt(4, MAX_SEARCH_RESULTS);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -236,6 +514,101 @@ public class BookDAO {
         return books;
     }
 
+    /**
+     * Build the search index from a streaming scan of the books table and
+     * start using it. If a write lands while the scan is running the scan is
+     * repeated, since the row may already have been passed.
+     *
+     * @return true if the index was built
+     */
+    public boolean buildSearchIndex() {
+        for (int attempt = 0; attempt < SEARCH_INDEX_BUILD_ATTEMPTS; attempt++) {
+            long writesBefore = searchIndexWrites.get();
+            final TrigramIndex index = new TrigramIndex(3);
+            try {
+                streamAll(new RowHandler<Book>() {
+                    @Override
+                    public void handle(Book book) {
+                        index.add(book.getBookId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+                    }
+                });
+            } catch (SQLException | IOException e) {
+                System.err.println("Error building search index: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+            index.trimToSize();
+            if (searchIndexWrites.get() == writesBefore) {
+                searchIndex = index;
+                return true;
+            }
+        }
+        System.err.println("Search index not built: books kept changing during the scan");
+        return false;
+    }
+
+    /**
+     * Stop using the search index (search() goes back to SQL)
+     */
+    public static void dropSearchIndex() {
+        searchIndex = null;
+    }
+
+    /**
+     * Get the search index, for statistics
+     *
+     * @return the index, or null if it has not been built
+     */
+    public static TrigramIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Apply a write to the search index. The index keeps no text, so the
+     * fields the book had before the write are passed to take its old
+     * trigrams out.
+     *
+     * @param bookId   the book ID
+     * @param previous title, author and ISBN before the write (null for an insert)
+     * @param current  the book as written (null for a delete)
+     */
+    private static void reindex(int bookId, String[] previous, Book current) {
+        searchIndexWrites.incrementAndGet();
+        TrigramIndex index = searchIndex;
+        if (index == null) {
+            return;
+        }
+        if (current == null) {
+            if (previous != null) {
+                index.remove(bookId, previous);
+            }
+        } else if (previous != null) {
+            index.replace(bookId, previous, current.getTitle(), current.getAuthor(), current.getIsbn());
+        } else if (!index.isIndexed(bookId)) {
+            index.add(bookId, current.getTitle(), current.getAuthor(), current.getIsbn());
+        }
+    }
+
+    /**
+     * Read the indexed fields of a book on the writer's connection, before
+     * the write. Read even while there is no index, since one may be
+     * published before the write reaches reindex().
+     *
+     * @return title, author and ISBN, or null if there is no such book
+     */
+    private static String[] indexedFields(Connection conn, int bookId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_INDEXED_FIELDS)) {
+            pstmt.setInt(1, bookId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new String[]{rs.getString(1), rs.getString(2), rs.getString(3)} : null;
+            }
+        }
+    }
+
+    private static Object writeLock(int bookId) {
+        return WRITE_LOCKS[(bookId & 0x7fffffff) % WRITE_LOCKS.length];
+    }
+
     /**
      * Get all available books (with at least one copy available)
      *
@@ -268,7 +641,9 @@ public class BookDAO {
              PreparedStatement pstmt = conn.prepareStatement(DECREMENT_AVAILABLE)) {
 
             pstmt.setInt(1, bookId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            cache.invalidate(bookId);
+            return updated;
         } catch (SQLException e) {
             System.err.println("Error decrementing available: " + e.getMessage());
             e.printStackTrace();
@@ -287,7 +662,9 @@ public class BookDAO {
              PreparedStatement pstmt = conn.prepareStatement(INCREMENT_AVAILABLE)) {
 
             pstmt.setInt(1, bookId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            cache.invalidate(bookId);
+            return updated;
         } catch (SQLException e) {
             System.err.println("Error incrementing available: " + e.getMessage());
             e.printStackTrace();
@@ -355,6 +732,41 @@ public class BookDAO {
         return 0;
     }
 
+    /**
+     * Drop a book from the cache after it was changed outside this DAO
+     *
+     * @param bookId the book ID
+     */
+    static void invalidate(int bookId) {
+        cache.invalidate(bookId);
+    }
+
+    /**
+     * Forget cached books after a bulk change, and make a search index
+     * build that is already running start over
+     */
+    static void bulkChanged() {
+        searchIndexWrites.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * Get the findById() cache, for statistics
+     *
+     * @return the book cache
+     */
+    public static EntityCache<Integer, Book> getCache() {
+        return cache;
+    }
+
+    /**
+     * Copy a book so callers never share the cached instance
+     */
+    private static Book copyOf(Book book) {
+        return new Book(book.getBookId(), book.getIsbn(), book.getTitle(), book.getAuthor(),
+                book.getPublisher(), book.getQuantity(), book.getAvailable(), book.getCreatedAt());
+    }
+
     /**
      * Map a ResultSet row to a Book object
      *
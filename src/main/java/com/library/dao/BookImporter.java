@@ -0,0 +1,465 @@
+package com.library.dao;
+
+import com.library.util.CsvReader;
+import com.library.util.DBConnection;
+import com.library.util.QueryMetrics;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bulk loader for catalog exports in CSV format.
+ * Rows are upserted on ISBN: a new ISBN inserts a book, a known ISBN
+ * updates its title, author, publisher and quantity (available copies move
+ * by the same amount as the quantity). Rows are sent as multi-row INSERT
+ * statements, queued with addBatch() and committed one batch at a time,
+ * so a large file costs a few hundred round trips instead of one
+ * connection and one commit per book.
+ *
+ * The first record is a header naming the columns. "isbn" and "title" are
+ * required; "author", "publisher" and "quantity" are optional, and other
+ * columns (such as those in the inventory export) are ignored. A row
+ * without an ISBN is skipped and reported: the ISBN is the only key the
+ * upsert can match on, so such a row would add a new book on every
+ * re-import.
+ *
+ * Large files should be loaded with {@link #main(String[])} rather than
+ * through the web upload, which runs one import at a time in the background.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class BookImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_ROWS_PER_STATEMENT = 100;
+
+    // Error messages kept in the result; later ones are only counted
+    private static final int MAX_ERRORS = 20;
+
+    // Column sizes from the books table
+    private static final int MAX_ISBN_LENGTH = 20;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    // The statement holds one row and more are appended as ",(?,?,?,?,?,?)".
+    // available is assigned before quantity so it still sees the old quantity.
+    private static final String UPSERT_BOOKS_PREFIX =
+            "INSERT INTO books (isbn, title, author, publisher, quantity, available) VALUES (?,?,?,?,?,?)";
+
+    private static final String UPSERT_BOOKS_ROW = ",(?,?,?,?,?,?)";
+
+    private static final String UPSERT_BOOKS_SUFFIX =
+            " ON DUPLICATE KEY UPDATE title=VALUES(title), author=VALUES(author), publisher=VALUES(publisher),"
+                    + " available=GREATEST(0, available + VALUES(quantity) - quantity), quantity=VALUES(quantity)";
+
+    static {
+        QueryMetrics.registerConstants(BookImporter.class);
+    }
+
+    /**
+     * Receives progress after every committed batch
+     */
+    public interface ProgressListener {
+        void progress(ImportResult progress);
+    }
+
+    private final int batchSize;
+    private final int rowsPerStatement;
+
+    /**
+     * Create an importer with the default batch sizes
+     */
+    public BookImporter() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_ROWS_PER_STATEMENT);
+    }
+
+    /**
+     * Create an importer
+     *
+     * @param batchSize        rows per executeBatch() and commit
+     * @param rowsPerStatement rows per multi-row INSERT statement
+     */
+    public BookImporter(int batchSize, int rowsPerStatement) {
+        if (batchSize < 1 || rowsPerStatement < 1) {
+            throw new IllegalArgumentException("Batch sizes must be positive");
+        }
+        this.batchSize = batchSize;
+        this.rowsPerStatement = Math.min(rowsPerStatement, batchSize);
+    }
+
+    /**
+     * Import books from UTF-8 CSV
+     *
+     * @param in       the CSV data; closed when the import ends
+     * @param listener progress callback, or null
+     * @return counts for the import
+     * @throws IOException  if the file cannot be read or has no title column
+     * @throws SQLException if no connection can be obtained
+     */
+    public ImportResult importCsv(InputStream in, ProgressListener listener) throws IOException, SQLException {
+        ImportResult result = new ImportResult();
+        try (CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            Columns columns = new Columns(header);
+
+            Connection conn = DBConnection.getConnection();
+            try {
+                conn.setAutoCommit(false);
+                try (PreparedStatement full = conn.prepareStatement(upsertSql(rowsPerStatement))) {
+                    List<Object[]> rows = new ArrayList<>(batchSize);
+                    int firstLine = 0;
+                    List<String> record;
+                    while ((record = csv.readRecord()) != null) {
+                        result.rowsRead++;
+                        Object[] row = columns.toRow(record, csv.getRecordLine(), result);
+                        if (row == null) {
+                            result.rowsSkipped++;
+                            continue;
+                        }
+                        if (rows.isEmpty()) {
+                            firstLine = csv.getRecordLine();
+                        }
+                        rows.add(row);
+                        if (rows.size() == batchSize) {
+                            writeBatch(conn, full, rows, firstLine, csv.getRecordLine(), result);
+                            rows.clear();
+                            notify(listener, result);
+                        }
+                    }
+                    if (!rows.isEmpty()) {
+                        writeBatch(conn, full, rows, firstLine, csv.getRecordLine(), result);
+                        notify(listener, result);
+                    }
+                }
+            } finally {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+                conn.close();
+            }
+        } finally {
+            result.elapsedNanos = System.nanoTime() - result.startNanos;
+            if (result.rowsImported > 0) {
+                catalogChanged();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Send one batch of rows and commit it. A failed batch is rolled back
+     * and reported; the import carries on with the next one.
+     */
+    private void writeBatch(Connection conn, PreparedStatement full, List<Object[]> rows,
+                            int firstLine, int lastLine, ImportResult result) throws SQLException {
+        try {
+            int wholeStatements = rows.size() / rowsPerStatement;
+            for (int s = 0; s < wholeStatements; s++) {
+                bind(full, rows, s * rowsPerStatement, rowsPerStatement);
+                full.addBatch();
+            }
+            if (wholeStatements > 0) {
+                full.executeBatch();
+            }
+            // Leftover rows go through the one-row statement rather than a
+            // statement sized to the remainder, so the pooled statement cache
+            // only ever sees two SQL texts from an import
+            int remainder = rows.size() - wholeStatements * rowsPerStatement;
+            if (remainder > 0) {
+                try (PreparedStatement tail = conn.prepareStatement(upsertSql(1))) {
+                    for (int i = wholeStatements * rowsPerStatement; i < rows.size(); i++) {
+                        bind(tail, rows, i, 1);
+                        tail.addBatch();
+                    }
+                    tail.executeBatch();
+                }
+            }
+            conn.commit();
+            result.rowsImported += rows.size();
+        } catch (SQLException e) {
+            System.err.println("Error importing books: " + e.getMessage());
+            e.printStackTrace();
+            conn.rollback();
+            full.clearBatch();
+            result.rowsFailed += rows.size();
+            result.addError("Lines " + firstLine + "-" + lastLine + " not imported: " + e.getMessage());
+        }
+        result.batches++;
+    }
+
+    private static void bind(PreparedStatement pstmt, List<Object[]> rows, int from, int count) throws SQLException {
+        int index = 1;
+        for (int i = from; i < from + count; i++) {
+            Object[] row = rows.get(i);
+            pstmt.setString(index++, (String) row[0]);
+            pstmt.setString(index++, (String) row[1]);
+            pstmt.setString(index++, (String) row[2]);
+            pstmt.setString(index++, (String) row[3]);
+            pstmt.setInt(index++, (Integer) row[4]);
+            pstmt.setInt(index++, (Integer) row[4]);
+        }
+    }
+
+    private static String upsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(UPSERT_BOOKS_PREFIX.length()
+                + rows * UPSERT_BOOKS_ROW.length() + UPSERT_BOOKS_SUFFIX.length());
+        sql.append(UPSERT_BOOKS_PREFIX);
+        for (int i = 1; i < rows; i++) {
+            sql.append(UPSERT_BOOKS_ROW);
+        }
+        return sql.append(UPSERT_BOOKS_SUFFIX).toString();
+    }
+
+    private static void notify(ProgressListener listener, ImportResult result) {
+        if (listener != null) {
+            result.elapsedNanos = System.nanoTime() - result.startNanos;
+            listener.progress(result);
+        }
+    }
+
+    /**
+     * Books changed behind BookDAO's back: drop cached rows and rebuild the
+     * search index if one is in use
+     */
+    private static void catalogChanged() {
+        BookDAO.bulkChanged();
+        if (BookDAO.getSearchIndex() != null) {
+            new BookDAO().buildSearchIndex();
+        }
+    }
+
+    /**
+     * Maps header names to positions and validates data records
+     */
+    private static class Columns {
+        private int isbn = -1;
+        private int title = -1;
+        private int author = -1;
+        private int publisher = -1;
+        private int quantity = -1;
+
+        Columns(List<String> header) throws IOException {
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+                switch (name) {
+                    case "isbn":
+                        isbn = i;
+                        break;
+                    case "title":
+                        title = i;
+                        break;
+                    case "author":
+                        author = i;
+                        break;
+                    case "publisher":
+                        publisher = i;
+                        break;
+                    case "quantity":
+                        quantity = i;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (title < 0) {
+                throw new IOException("The header has no title column");
+            }
+            if (isbn < 0) {
+                throw new IOException("The header has no isbn column");
+            }
+        }
+
+        /**
+         * @return isbn, title, author, publisher, quantity; or null if the record is invalid
+         */
+        Object[] toRow(List<String> record, int line, ImportResult result) {
+            String isbnValue = value(record, isbn);
+            String titleValue = value(record, title);
+            String authorValue = value(record, author);
+            String publisherValue = value(record, publisher);
+
+            if (titleValue == null) {
+                result.addError("Line " + line + ": title is missing");
+                return null;
+            }
+            if (isbnValue == null) {
+                result.addError("Line " + line + ": ISBN is missing");
+                return null;
+            }
+            if (isbnValue.length() > MAX_ISBN_LENGTH) {
+                result.addError("Line " + line + ": ISBN is longer than " + MAX_ISBN_LENGTH + " characters");
+                return null;
+            }
+            if (titleValue.length() > MAX_TEXT_LENGTH
+                    || (authorValue != null && authorValue.length() > MAX_TEXT_LENGTH)
+                    || (publisherValue != null && publisherValue.length() > MAX_TEXT_LENGTH)) {
+                result.addError("Line " + line + ": text is longer than " + MAX_TEXT_LENGTH + " characters");
+                return null;
+            }
+
+            int copies = 1;
+            String quantityValue = value(record, quantity);
+            if (quantityValue != null) {
+                try {
+                    copies = Integer.parseInt(quantityValue);
+                } catch (NumberFormatException e) {
+                    copies = -1;
+                }
+                if (copies < 0) {
+                    result.addError("Line " + line + ": quantity is not a whole number of copies");
+                    return null;
+                }
+            }
+            return new Object[]{isbnValue, titleValue, authorValue, publisherValue, copies};
+        }
+
+        private static String value(List<String> record, int column) {
+            if (column < 0 || column >= record.size()) {
+                return null;
+            }
+            String value = record.get(column).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    /**
+     * Counts for a running or finished import
+     */
+    public static class ImportResult {
+        private final long startNanos = System.nanoTime();
+        private volatile long elapsedNanos;
+        private int rowsRead;
+        private int rowsImported;
+        private int rowsSkipped;
+        private int rowsFailed;
+        private int batches;
+        private int errorCount;
+        private final List<String> errors = new ArrayList<>();
+
+        private void addError(String message) {
+            errorCount++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        /** Data records read, not counting the header */
+        public int getRowsRead() {
+            return rowsRead;
+        }
+
+        /** Rows inserted or updated */
+        public int getRowsImported() {
+            return rowsImported;
+        }
+
+        /** Records rejected by validation */
+        public int getRowsSkipped() {
+            return rowsSkipped;
+        }
+
+        /** Rows in batches the database rejected */
+        public int getRowsFailed() {
+            return rowsFailed;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        /** The first error messages, with line numbers */
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1000000L;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos > 0 ? rowsImported * 1e9 / elapsedNanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d rows read, %d imported, %d skipped, %d failed in %.1f s (%.0f rows/s)",
+                    rowsRead, rowsImported, rowsSkipped, rowsFailed, elapsedNanos / 1e9, getRowsPerSecond());
+        }
+    }
+
+    /**
+     * Command-line entry point. The database settings come from
+     * db.properties on the classpath.
+     *
+     * Usage: BookImporter [--batch-size N] [--rows-per-statement N] file.csv
+     */
+    public static void main(String[] args) {
+        int batchSize = DEFAULT_BATCH_SIZE;
+        int rowsPerStatement = DEFAULT_ROWS_PER_STATEMENT;
+        String file = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("--batch-size".equals(args[i]) && i + 1 < args.length) {
+                    batchSize = Integer.parseInt(args[++i]);
+                } else if ("--rows-per-statement".equals(args[i]) && i + 1 < args.length) {
+                    rowsPerStatement = Integer.parseInt(args[++i]);
+                } else if (file == null && !args[i].startsWith("--")) {
+                    file = args[i];
+                } else {
+                    file = null;
+                    break;
+                }
+            }
+        } catch (NumberFormatException e) {
+            file = null;
+        }
+        if (file == null) {
+            System.err.println("Usage: java " + BookImporter.class.getName()
+                    + " [--batch-size N] [--rows-per-statement N] file.csv");
+            System.exit(2);
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            BookImporter importer = new BookImporter(batchSize, rowsPerStatement);
+            ImportResult result = importer.importCsv(in, new ProgressListener() {
+                @Override
+                public void progress(ImportResult progress) {
+                    System.out.println(progress);
+                }
+            });
+            for (String error : result.getErrors()) {
+                System.err.println(error);
+            }
+            if (result.getErrorCount() > result.getErrors().size()) {
+                System.err.println("... " + (result.getErrorCount() - result.getErrors().size()) + " more errors");
+            }
+            System.out.println("Done: " + result);
+            DBConnection.shutdown();
+            System.exit(result.getRowsFailed() > 0 ? 1 : 0);
+        } catch (IOException | SQLException | IllegalArgumentException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -2,10 +2,17 @@ package com.library.dao;
 
 import com.library.model.Member;
 import com.library.util.DBConnection;
+import com.library.util.EntityCache;
+import com.library.util.PrefixIndex;
+import com.library.util.QueryMetrics;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Data Access Object for Member entity.
@@ -17,6 +24,29 @@ import java.util.List;
  */
 public class MemberDAO {
 
+    // Read-through cache for findById(), shared by all MemberDAO instances
+    private static final EntityCache<Integer, Member> cache =
+            new EntityCache<>("members", 10000, 60000);
+
+    // In-memory prefix index for searchPrefix(); null until buildPrefixIndex() runs
+    private static volatile PrefixIndex<Member> prefixIndex;
+
+    // Bumped on every indexed write so a rebuild can tell it raced with one
+    private static final AtomicLong prefixIndexWrites = new AtomicLong();
+
+    // Rebuild attempts before giving up on a quiet snapshot
+    private static final int PREFIX_INDEX_BUILD_ATTEMPTS = 3;
+
+    // Striped locks so a write and its prefix index update for one member
+    // are applied in the same order as other writes to that member
+    private static final Object[] WRITE_LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < WRITE_LOCKS.length; i++) {
+            WRITE_LOCKS[i] = new Object();
+        }
+    }
+
     // SQL Queries
     private static final String INSERT_MEMBER =
             "INSERT INTO members (name, email, phone, member_type) VALUES (?, ?, ?, ?)";
@@ -30,6 +60,9 @@ public class MemberDAO {
     private static final String SELECT_BY_ID =
             "SELECT * FROM members WHERE member_id=?";
 
+    private static final String SELECT_BY_IDS_PREFIX =
+            "SELECT * FROM members WHERE member_id IN ";
+
     private static final String SELECT_BY_EMAIL =
             "SELECT * FROM members WHERE email=?";
 
@@ -39,6 +72,13 @@ public class MemberDAO {
     private static final String SEARCH_MEMBERS =
             "SELECT * FROM members WHERE name LIKE ? OR email LIKE ? OR phone LIKE ? ORDER BY name";
 
+    private static final String SEARCH_MEMBERS_PREFIX =
+            "SELECT * FROM members WHERE name LIKE ? OR email LIKE ? OR phone LIKE ? "
+                    + "ORDER BY name, member_id LIMIT ? OFFSET ?";
+
+    private static final String SELECT_ALL_BY_ID =
+            "SELECT * FROM members ORDER BY member_id";
+
     private static final String SELECT_BY_TYPE =
             "SELECT * FROM members WHERE member_type=? ORDER BY name";
 
@@ -48,6 +88,11 @@ public class MemberDAO {
     private static final String COUNT_BY_TYPE =
             "SELECT COUNT(*) FROM members WHERE member_type=?";
 
+    // Report statements under their constant names in QueryMetrics
+    static {
+        QueryMetrics.registerConstants(MemberDAO.class);
+    }
+
     /**
      * Insert a new member into the database
      *
@@ -69,6 +114,8 @@ public class MemberDAO {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         member.setMemberId(generatedKeys.getInt(1));
+                        cache.invalidate(member.getMemberId());
+                        reindex(member);
                     }
                 }
                 return true;
@@ -96,7 +143,14 @@ public class MemberDAO {
             pstmt.setString(4, member.getMemberType());
             pstmt.setInt(5, member.getMemberId());
 
-            return pstmt.executeUpdate() > 0;
+            synchronized (writeLock(member.getMemberId())) {
+                boolean updated = pstmt.executeUpdate() > 0;
+                cache.invalidate(member.getMemberId());
+                if (updated) {
+                    reindex(member);
+                }
+                return updated;
+            }
         } catch (SQLException e) {
             System.err.println("Error updating member: " + e.getMessage());
             e.printStackTrace();
@@ -115,7 +169,14 @@ public class MemberDAO {
              PreparedStatement pstmt = conn.prepareStatement(DELETE_MEMBER)) {
 
             pstmt.setInt(1, memberId);
-            return pstmt.executeUpdate() > 0;
+            synchronized (writeLock(memberId)) {
+                boolean deleted = pstmt.executeUpdate() > 0;
+                cache.invalidate(memberId);
+                if (deleted) {
+                    unindex(memberId);
+                }
+                return deleted;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting member: " + e.getMessage());
             e.printStackTrace();
@@ -130,6 +191,12 @@ public class MemberDAO {
      * @return Member object or null if not found
      */
     public Member findById(int memberId) {
+        Member cached = cache.get(memberId);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        long stamp = cache.stamp();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
 
@@ -137,7 +204,9 @@ public class MemberDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapRowToMember(rs);
+                    Member member = mapRowToMember(rs);
+                    cache.putIfUnchanged(memberId, copyOf(member), stamp);
+                    return member;
                 }
             }
         } catch (SQLException e) {
@@ -147,6 +216,60 @@ public class MemberDAO {
         return null;
     }
 
+    /**
+     * Find several members by ID using chunked IN (...) queries
+     *
+     * @param ids the member IDs
+     * @return map of member ID to Member (missing IDs are absent)
+     */
+    public Map<Integer, Member> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            return findByIds(conn, ids);
+        } catch (SQLException e) {
+            System.err.println("Error finding members by IDs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * Find several members by ID on an existing connection
+     *
+     * @param conn the connection to use
+     * @param ids  the member IDs
+     * @return map of member ID to Member
+     * @throws SQLException if the query fails
+     */
+    Map<Integer, Member> findByIds(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Member> members = new HashMap<>(ids.size() * 2);
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Member cached = cache.get(id);
+            if (cached != null) {
+                members.put(id, copyOf(cached));
+            } else {
+                missing.add(id);
+            }
+        }
+
+        long stamp = cache.stamp();
+        for (List<Integer> chunk : BatchHydrator.chunk(missing)) {
+            try (PreparedStatement pstmt = BatchHydrator.prepareIn(conn, SELECT_BY_IDS_PREFIX, chunk)) {
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Member member = mapRowToMember(rs);
+                        members.put(member.getMemberId(), member);
+                        cache.putIfUnchanged(member.getMemberId(), copyOf(member), stamp);
+                    }
+                }
+            }
+        }
+        return members;
+    }
+
     /**
      * Find a member by email
      *
@@ -220,6 +343,186 @@ public class MemberDAO {
         return members;
     }
 
+    /**
+     * Find members whose name, any word of the name, email or phone starts
+     * with the prefix. Phone numbers match on their digits, so "555 01"
+     * finds "555-0101". Uses the prefix index when it has been built and a
+     * single LIMIT query otherwise.
+     *
+     * @param prefix the typed prefix
+     * @param offset matches to skip
+     * @param limit  most matches to return
+     * @return matching members, ordered by the key they matched on
+     */
+    public List<Member> searchPrefix(String prefix, int offset, int limit) {
+        String normalized = PrefixIndex.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        PrefixIndex<Member> index = prefixIndex;
+        if (index != null) {
+            List<Member> members = new ArrayList<>(limit);
+            String[] prefixes = {normalized, phoneQuery(normalized)};
+            for (Member member : index.search(prefixes, offset, limit)) {
+                members.add(copyOf(member));
+            }
+            return members;
+        }
+        // Case is left to the column collation
+        return searchPrefixDatabase(prefix.trim().replaceAll("\\s+", " "), offset, limit);
+    }
+
+    /**
+     * Prefix search in SQL, used until the index is built. Word prefixes
+     * inside the name are not matched here, and phone numbers are matched
+     * as stored, punctuation included.
+     */
+    private List<Member> searchPrefixDatabase(String prefix, int offset, int limit) {
+        List<Member> members = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_MEMBERS_PREFIX)) {
+
+            String pattern = escapeLike(prefix) + "%";
+            pstmt.setString(1, pattern);
+            pstmt.setString(2, pattern);
+            pstmt.setString(3, pattern);
+            pstmt.setInt(4, limit);
+            pstmt.setInt(5, Math.max(0, offset));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(mapRowToMember(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error searching members by prefix: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return members;
+    }
+
+    /**
+     * Build the prefix index from a scan of the members table and start
+     * using it. If a write lands while the scan is running the scan is
+     * repeated, since the row may already have been passed.
+     *
+     * @return true if the index was built
+     */
+    public boolean buildPrefixIndex() {
+        for (int attempt = 0; attempt < PREFIX_INDEX_BUILD_ATTEMPTS; attempt++) {
+            long writesBefore = prefixIndexWrites.get();
+            PrefixIndex.Builder<Member> builder = new PrefixIndex.Builder<>();
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_BY_ID);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    Member member = mapRowToMember(rs);
+                    builder.add(member.getMemberId(), member, indexKeys(member));
+                }
+            } catch (SQLException e) {
+                System.err.println("Error building member prefix index: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+            PrefixIndex<Member> index = builder.build();
+            if (prefixIndexWrites.get() == writesBefore) {
+                prefixIndex = index;
+                return true;
+            }
+        }
+        System.err.println("Member prefix index not built: members kept changing during the scan");
+        return false;
+    }
+
+    /**
+     * Stop using the prefix index (searchPrefix() goes back to SQL)
+     */
+    public static void dropPrefixIndex() {
+        prefixIndex = null;
+    }
+
+    /**
+     * Get the prefix index, for statistics
+     *
+     * @return the index, or null if it has not been built
+     */
+    public static PrefixIndex<Member> getPrefixIndex() {
+        return prefixIndex;
+    }
+
+    /**
+     * Apply a write to the prefix index from the member as written, so no
+     * second connection is needed to read the row back
+     */
+    private static void reindex(Member member) {
+        prefixIndexWrites.incrementAndGet();
+        PrefixIndex<Member> index = prefixIndex;
+        if (index != null) {
+            index.put(member.getMemberId(), copyOf(member), indexKeys(member));
+        }
+    }
+
+    private static void unindex(int memberId) {
+        prefixIndexWrites.incrementAndGet();
+        PrefixIndex<Member> index = prefixIndex;
+        if (index != null) {
+            index.remove(memberId);
+        }
+    }
+
+    private static Object writeLock(int memberId) {
+        return WRITE_LOCKS[(memberId & 0x7fffffff) % WRITE_LOCKS.length];
+    }
+
+    /**
+     * Keys a member can be found by: the full name, the name from each
+     * later word on ("smith" for "John Smith"), the email and the phone digits
+     */
+    private static String[] indexKeys(Member member) {
+        String name = PrefixIndex.normalize(member.getName());
+        List<String> keys = new ArrayList<>();
+        keys.add(name);
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            keys.add(name.substring(i + 1));
+        }
+        keys.add(member.getEmail());
+        keys.add(digitsOf(member.getPhone()));
+        return keys.toArray(new String[0]);
+    }
+
+    /**
+     * The digits of a query that looks like a phone number, or null
+     */
+    private static String phoneQuery(String query) {
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (!(c >= '0' && c <= '9') && " -+().".indexOf(c) < 0) {
+                return null;
+            }
+        }
+        String digits = digitsOf(query);
+        return digits.isEmpty() ? null : digits;
+    }
+
+    private static String digitsOf(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     /**
      * Find members by type (student or faculty)
      *
@@ -289,6 +592,23 @@ public class MemberDAO {
         return 0;
     }
 
+    /**
+     * Get the findById() cache, for statistics
+     *
+     * @return the member cache
+     */
+    public static EntityCache<Integer, Member> getCache() {
+        return cache;
+    }
+
+    /**
+     * Copy a member so callers never share the cached instance
+     */
+    private static Member copyOf(Member member) {
+        return new Member(member.getMemberId(), member.getName(), member.getEmail(), member.getPhone(),
+                member.getMemberType(), member.getCreatedAt());
+    }
+
     /**
      * Map a ResultSet row to a Member object
      *
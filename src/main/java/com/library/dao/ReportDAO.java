@@ -0,0 +1,145 @@
+package com.library.dao;
+
+import com.library.model.InventoryTotals;
+import com.library.model.OverviewStats;
+import com.library.util.DBConnection;
+import com.library.util.QueryMetrics;
+
+import java.sql.*;
+
+/**
+ * Data Access Object for report queries.
+ * Computes the overview statistics in a single round trip and keeps a
+ * short-lived snapshot so that many dashboards refreshing at once share
+ * one query.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class ReportDAO {
+
+    // SQL Queries
+    private static final String SELECT_OVERVIEW =
+            "SELECT b.total_books, b.total_available, b.total_issued, " +
+                    "m.total_members, m.total_students, m.total_faculty, " +
+                    "t.active_issues, t.overdue_count " +
+                    "FROM (SELECT COUNT(*) AS total_books, " +
+                    "COALESCE(SUM(available), 0) AS total_available, " +
+                    "COALESCE(SUM(quantity - available), 0) AS total_issued FROM books) b " +
+                    "CROSS JOIN (SELECT COUNT(*) AS total_members, " +
+                    "COALESCE(SUM(CASE WHEN member_type='student' THEN 1 ELSE 0 END), 0) AS total_students, " +
+                    "COALESCE(SUM(CASE WHEN member_type='faculty' THEN 1 ELSE 0 END), 0) AS total_faculty " +
+                    "FROM members) m " +
+                    "CROSS JOIN (SELECT COUNT(*) AS active_issues, " +
+                    "COALESCE(SUM(CASE WHEN due_date < CURDATE() THEN 1 ELSE 0 END), 0) AS overdue_count " +
+                    "FROM transactions WHERE status='issued') t";
+
+    private static final String SELECT_INVENTORY_TOTALS =
+            "SELECT COALESCE(SUM(quantity), 0), COALESCE(SUM(available), 0), " +
+                    "COALESCE(SUM(quantity - available), 0) FROM books";
+
+    // Report statements under their constant names in QueryMetrics
+    static {
+        QueryMetrics.registerConstants(ReportDAO.class);
+    }
+
+    // How long an overview snapshot is served before it is recomputed
+    public static final long DEFAULT_SNAPSHOT_TTL_MILLIS = 5000;
+
+    // Snapshot shared by all ReportDAO instances
+    private static final Object snapshotLock = new Object();
+    private static volatile OverviewStats snapshot;
+    private static volatile long snapshotTakenAt;
+
+    private final long snapshotTtlMillis;
+
+    public ReportDAO() {
+        this(DEFAULT_SNAPSHOT_TTL_MILLIS);
+    }
+
+    public ReportDAO(long snapshotTtlMillis) {
+        this.snapshotTtlMillis = snapshotTtlMillis;
+    }
+
+    /**
+     * Get the overview statistics, served from the snapshot while it is fresh.
+     * When the snapshot expires only one thread recomputes it; the others wait
+     * for that result instead of issuing their own query.
+     *
+     * @return overview statistics
+     */
+    public OverviewStats getOverview() {
+        OverviewStats current = snapshot;
+        if (current != null && isFresh()) {
+            return current;
+        }
+        synchronized (snapshotLock) {
+            current = snapshot;
+            if (current != null && isFresh()) {
+                return current;
+            }
+            OverviewStats loaded = loadOverview();
+            if (loaded != null) {
+                snapshot = loaded;
+                snapshotTakenAt = System.currentTimeMillis();
+                return loaded;
+            }
+            // Fall back to the stale snapshot (or zeros) if the query failed
+            return current != null ? current : new OverviewStats();
+        }
+    }
+
+    private boolean isFresh() {
+        return System.currentTimeMillis() - snapshotTakenAt < snapshotTtlMillis;
+    }
+
+    /**
+     * Compute the overview statistics with one query
+     *
+     * @return statistics, or null if the query failed
+     */
+    public OverviewStats loadOverview() {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_OVERVIEW);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                OverviewStats stats = new OverviewStats();
+                stats.setTotalBooks(rs.getInt("total_books"));
+                stats.setTotalAvailable(rs.getInt("total_available"));
+                stats.setTotalIssued(rs.getInt("total_issued"));
+                stats.setTotalMembers(rs.getInt("total_members"));
+                stats.setTotalStudents(rs.getInt("total_students"));
+                stats.setTotalFaculty(rs.getInt("total_faculty"));
+                stats.setActiveIssues(rs.getInt("active_issues"));
+                stats.setOverdueCount(rs.getInt("overdue_count"));
+                return stats;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading overview statistics: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Get copy totals across the whole catalog
+     *
+     * @return inventory totals
+     */
+    public InventoryTotals getInventoryTotals() {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_INVENTORY_TOTALS);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                return new InventoryTotals(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading inventory totals: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new InventoryTotals();
+    }
+}
@@ -0,0 +1,22 @@
+package com.library.dao;
+
+import java.io.IOException;
+
+/**
+ * Callback that receives rows one at a time from a streaming query.
+ *
+ * @param <T> row type
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public interface RowHandler<T> {
+
+    /**
+     * Handle one row
+     *
+     * @param row the mapped row
+     * @throws IOException if writing the row fails
+     */
+    void handle(T row) throws IOException;
+}
@@ -5,6 +5,7 @@ import com.library.model.Member;
 import com.library.model.Transaction;
 import com.library.util.DBConnection;
 import com.library.util.DateUtil;
+import com.library.util.QueryMetrics;
 
 import java.math.BigDecimal;
 import java.sql.*;
@@ -25,12 +26,28 @@ public class TransactionDAO {
     private static final String INSERT_TRANSACTION =
             "INSERT INTO transactions (book_id, member_id, issue_date, due_date, status) VALUES (?, ?, ?, ?, 'issued')";
 
+    private static final String SELECT_MEMBER_FOR_UPDATE =
+            "SELECT member_type FROM members WHERE member_id=? FOR UPDATE";
+
+    private static final String CLAIM_COPY =
+            "UPDATE books SET available = available - 1 WHERE book_id=? AND available > 0";
+
+    private static final String RELEASE_COPY =
+            "UPDATE books SET available = available + 1 WHERE book_id=? AND available < quantity";
+
+    private static final String SELECT_BOOK_EXISTS =
+            "SELECT 1 FROM books WHERE book_id=?";
+
     private static final String UPDATE_RETURN =
-            "UPDATE transactions SET return_date=?, fine_amount=?, status='returned' WHERE transaction_id=?";
+            "UPDATE transactions SET return_date=?, fine_amount=?, status='returned' " +
+                    "WHERE transaction_id=? AND status='issued'";
 
     private static final String SELECT_BY_ID =
             "SELECT * FROM transactions WHERE transaction_id=?";
 
+    private static final String SELECT_BY_ID_FOR_UPDATE =
+            "SELECT * FROM transactions WHERE transaction_id=? FOR UPDATE";
+
     private static final String SELECT_ALL =
             "SELECT * FROM transactions ORDER BY issue_date DESC";
 
@@ -75,8 +92,26 @@ public class TransactionDAO {
                     "JOIN members m ON t.member_id = m.member_id " +
                     "WHERE t.status='issued' AND t.due_date < CURDATE() ORDER BY t.due_date";
 
+    // Report statements under their constant names in QueryMetrics
+    static {
+        QueryMetrics.registerConstants(TransactionDAO.class);
+    }
+
     private BookDAO bookDAO = new BookDAO();
     private MemberDAO memberDAO = new MemberDAO();
+    private BatchHydrator hydrator = new BatchHydrator(bookDAO, memberDAO);
+
+    /**
+     * Outcome of an issue attempt
+     */
+    public enum IssueResult {
+        SUCCESS,
+        BOOK_NOT_FOUND,
+        NOT_AVAILABLE,
+        MEMBER_NOT_FOUND,
+        LIMIT_REACHED,
+        ERROR
+    }
 
     /**
      * Issue a book to a member
@@ -86,21 +121,57 @@ public class TransactionDAO {
      * @return true if successful
      */
     public boolean issueBook(int bookId, int memberId) {
+        return issue(bookId, memberId) == IssueResult.SUCCESS;
+    }
+
+    /**
+     * Issue a book to a member in a single transaction on one connection.
+     * The member row is locked so concurrent issues to the same member see
+     * each other's loans, and the available count is claimed with a
+     * conditional UPDATE whose row count decides whether a copy was free.
+     *
+     * @param bookId   the book ID
+     * @param memberId the member ID
+     * @return the outcome
+     */
+    public IssueResult issue(int bookId, int memberId) {
         Connection conn = null;
         try {
             conn = DBConnection.getConnection();
             conn.setAutoCommit(false);
 
-            // Check if book is available
-            Book book = bookDAO.findById(bookId);
-            if (book == null || book.getAvailable() <= 0) {
-                return false;
+            // Lock the member and check the loan limit
+            Member member = new Member();
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_MEMBER_FOR_UPDATE)) {
+                pstmt.setInt(1, memberId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return IssueResult.MEMBER_NOT_FOUND;
+                    }
+                    member.setMemberId(memberId);
+                    member.setMemberType(rs.getString("member_type"));
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(COUNT_ACTIVE_BY_MEMBER)) {
+                pstmt.setInt(1, memberId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) >= member.getMaxBooks()) {
+                        conn.rollback();
+                        return IssueResult.LIMIT_REACHED;
+                    }
+                }
             }
 
-            // Get member for loan period calculation
-            Member member = memberDAO.findById(memberId);
-            if (member == null) {
-                return false;
+            // Claim a copy; zero rows means no copy left (or no such book)
+            try (PreparedStatement pstmt = conn.prepareStatement(CLAIM_COPY)) {
+                pstmt.setInt(1, bookId);
+                if (pstmt.executeUpdate() == 0) {
+                    IssueResult result = bookExists(conn, bookId)
+                            ? IssueResult.NOT_AVAILABLE : IssueResult.BOOK_NOT_FOUND;
+                    conn.rollback();
+                    return result;
+                }
             }
 
             // Calculate dates
@@ -110,29 +181,21 @@ public class TransactionDAO {
             java.sql.Date dueDate = DateUtil.calculateDueDate(issueDate, loanPeriod);
 
             // Insert transaction
-            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TRANSACTION, Statement.RETURN_GENERATED_KEYS)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TRANSACTION)) {
                 pstmt.setInt(1, bookId);
                 pstmt.setInt(2, memberId);
                 pstmt.setDate(3, issueDate);
                 pstmt.setDate(4, dueDate);
 
-                int affectedRows = pstmt.executeUpdate();
-
-                if (affectedRows > 0) {
-                    // Decrement available count
-                    try (PreparedStatement updateStmt = conn.prepareStatement(
-                            "UPDATE books SET available = available - 1 WHERE book_id=? AND available > 0")) {
-                        updateStmt.setInt(1, bookId);
-                        updateStmt.executeUpdate();
-                    }
-
+                if (pstmt.executeUpdate() > 0) {
                     conn.commit();
-                    return true;
+                    BookDAO.invalidate(bookId);
+                    return IssueResult.SUCCESS;
                 }
             }
 
             conn.rollback();
-            return false;
+            return IssueResult.ERROR;
 
         } catch (SQLException e) {
             System.err.println("Error issuing book: " + e.getMessage());
@@ -144,7 +207,7 @@ public class TransactionDAO {
                     ex.printStackTrace();
                 }
             }
-            return false;
+            return IssueResult.ERROR;
         } finally {
             if (conn != null) {
                 try {
@@ -157,6 +220,15 @@ public class TransactionDAO {
         }
     }
 
+    private boolean bookExists(Connection conn, int bookId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BOOK_EXISTS)) {
+            pstmt.setInt(1, bookId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
     /**
      * Return a book
      *
@@ -169,9 +241,18 @@ public class TransactionDAO {
             conn = DBConnection.getConnection();
             conn.setAutoCommit(false);
 
-            // Get the transaction
-            Transaction transaction = findById(transactionId);
+            // Lock the transaction on this connection; findById() would borrow a second one
+            Transaction transaction = null;
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID_FOR_UPDATE)) {
+                pstmt.setInt(1, transactionId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        transaction = mapRowToTransaction(rs);
+                    }
+                }
+            }
             if (transaction == null || transaction.isReturned()) {
+                conn.rollback();
                 return BigDecimal.valueOf(-1); // Invalid transaction
             }
 
@@ -185,17 +266,18 @@ public class TransactionDAO {
                 pstmt.setBigDecimal(2, fine);
                 pstmt.setInt(3, transactionId);
 
+                // Zero rows means a concurrent return got there first
                 int affectedRows = pstmt.executeUpdate();
 
-                if (affectedRows > 0) {
+                if (affectedRows == 1) {
                     // Increment available count
-                    try (PreparedStatement updateStmt = conn.prepareStatement(
-                            "UPDATE books SET available = available + 1 WHERE book_id=? AND available < quantity")) {
+                    try (PreparedStatement updateStmt = conn.prepareStatement(RELEASE_COPY)) {
                         updateStmt.setInt(1, transaction.getBookId());
                         updateStmt.executeUpdate();
                     }
 
                     conn.commit();
+                    BookDAO.invalidate(transaction.getBookId());
                     return fine;
                 }
             }
@@ -278,17 +360,18 @@ public class TransactionDAO {
      */
     public List<Transaction> findActive() {
         List<Transaction> transactions = new ArrayList<>();
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SELECT_ACTIVE);
-             ResultSet rs = pstmt.executeQuery()) {
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_ACTIVE);
+                 ResultSet rs = pstmt.executeQuery()) {
 
-            while (rs.next()) {
-                Transaction t = mapRowToTransaction(rs);
-                // Load associated book and member
-                t.setBook(bookDAO.findById(t.getBookId()));
-                t.setMember(memberDAO.findById(t.getMemberId()));
-                transactions.add(t);
+                while (rs.next()) {
+                    transactions.add(mapRowToTransaction(rs));
+                }
             }
+
+            // Load associated books and members in batches
+            hydrator.attachBooks(conn, transactions);
+            hydrator.attachMembers(conn, transactions);
         } catch (SQLException e) {
             System.err.println("Error finding active transactions: " + e.getMessage());
             e.printStackTrace();
@@ -303,17 +386,18 @@ public class TransactionDAO {
      */
     public List<Transaction> findOverdue() {
         List<Transaction> transactions = new ArrayList<>();
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SELECT_OVERDUE);
-             ResultSet rs = pstmt.executeQuery()) {
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_OVERDUE);
+                 ResultSet rs = pstmt.executeQuery()) {
 
-            while (rs.next()) {
-                Transaction t = mapRowToTransaction(rs);
-                // Load associated book and member
-                t.setBook(bookDAO.findById(t.getBookId()));
-                t.setMember(memberDAO.findById(t.getMemberId()));
-                transactions.add(t);
+                while (rs.next()) {
+                    transactions.add(mapRowToTransaction(rs));
+                }
             }
+
+            // Load associated books and members in batches
+            hydrator.attachBooks(conn, transactions);
+            hydrator.attachMembers(conn, transactions);
         } catch (SQLException e) {
             System.err.println("Error finding overdue transactions: " + e.getMessage());
             e.printStackTrace();
@@ -329,18 +413,19 @@ public class TransactionDAO {
      */
     public List<Transaction> findByMember(int memberId) {
         List<Transaction> transactions = new ArrayList<>();
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_MEMBER)) {
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_MEMBER)) {
 
-            pstmt.setInt(1, memberId);
+                pstmt.setInt(1, memberId);
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Transaction t = mapRowToTransaction(rs);
-                    t.setBook(bookDAO.findById(t.getBookId()));
-                    transactions.add(t);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(mapRowToTransaction(rs));
+                    }
                 }
             }
+
+            hydrator.attachBooks(conn, transactions);
         } catch (SQLException e) {
             System.err.println("Error finding transactions by member: " + e.getMessage());
             e.printStackTrace();
@@ -356,18 +441,19 @@ public class TransactionDAO {
      */
     public List<Transaction> findActiveByMember(int memberId) {
         List<Transaction> transactions = new ArrayList<>();
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SELECT_ACTIVE_BY_MEMBER)) {
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_ACTIVE_BY_MEMBER)) {
 
-            pstmt.setInt(1, memberId);
+                pstmt.setInt(1, memberId);
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Transaction t = mapRowToTransaction(rs);
-                    t.setBook(bookDAO.findById(t.getBookId()));
-                    transactions.add(t);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(mapRowToTransaction(rs));
+                    }
                 }
             }
+
+            hydrator.attachBooks(conn, transactions);
         } catch (SQLException e) {
             System.err.println("Error finding active transactions by member: " + e.getMessage());
             e.printStackTrace();
@@ -383,18 +469,19 @@ public class TransactionDAO {
      */
     public List<Transaction> findByBook(int bookId) {
         List<Transaction> transactions = new ArrayList<>();
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_BOOK)) {
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_BOOK)) {
 
-            pstmt.setInt(1, bookId);
+                pstmt.setInt(1, bookId);
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Transaction t = mapRowToTransaction(rs);
-                    t.setMember(memberDAO.findById(t.getMemberId()));
-                    transactions.add(t);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        transactions.add(mapRowToTransaction(rs));
+                    }
                 }
             }
+
+            hydrator.attachMembers(conn, transactions);
         } catch (SQLException e) {
             System.err.println("Error finding transactions by book: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,64 @@
+package com.library.model;
+
+import java.io.Serializable;
+
+/**
+ * Copy totals across the whole catalog, shown on the inventory report.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class InventoryTotals implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int totalQuantity;
+    private int totalAvailable;
+    private int totalIssued;
+
+    // Default constructor
+    public InventoryTotals() {
+    }
+
+    // Full constructor
+    public InventoryTotals(int totalQuantity, int totalAvailable, int totalIssued) {
+        this.totalQuantity = totalQuantity;
+        this.totalAvailable = totalAvailable;
+        this.totalIssued = totalIssued;
+    }
+
+    // Getters and Setters
+    public int getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(int totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    public int getTotalAvailable() {
+        return totalAvailable;
+    }
+
+    public void setTotalAvailable(int totalAvailable) {
+        this.totalAvailable = totalAvailable;
+    }
+
+    public int getTotalIssued() {
+        return totalIssued;
+    }
+
+    public void setTotalIssued(int totalIssued) {
+        this.totalIssued = totalIssued;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryTotals{" +
+                "totalQuantity=" + totalQuantity +
+                ", totalAvailable=" + totalAvailable +
+                ", totalIssued=" + totalIssued +
+                '}';
+    }
+}
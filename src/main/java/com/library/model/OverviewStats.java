@@ -0,0 +1,107 @@
+package com.library.model;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the library-wide statistics shown on the reports overview.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class OverviewStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int totalBooks;
+    private int totalAvailable;
+    private int totalIssued;
+    private int totalMembers;
+    private int totalStudents;
+    private int totalFaculty;
+    private int activeIssues;
+    private int overdueCount;
+
+    // Default constructor
+    public OverviewStats() {
+    }
+
+    // Getters and Setters
+    public int getTotalBooks() {
+        return totalBooks;
+    }
+
+    public void setTotalBooks(int totalBooks) {
+        this.totalBooks = totalBooks;
+    }
+
+    public int getTotalAvailable() {
+        return totalAvailable;
+    }
+
+    public void setTotalAvailable(int totalAvailable) {
+        this.totalAvailable = totalAvailable;
+    }
+
+    public int getTotalIssued() {
+        return totalIssued;
+    }
+
+    public void setTotalIssued(int totalIssued) {
+        this.totalIssued = totalIssued;
+    }
+
+    public int getTotalMembers() {
+        return totalMembers;
+    }
+
+    public void setTotalMembers(int totalMembers) {
+        this.totalMembers = totalMembers;
+    }
+
+    public int getTotalStudents() {
+        return totalStudents;
+    }
+
+    public void setTotalStudents(int totalStudents) {
+        this.totalStudents = totalStudents;
+    }
+
+    public int getTotalFaculty() {
+        return totalFaculty;
+    }
+
+    public void setTotalFaculty(int totalFaculty) {
+        this.totalFaculty = totalFaculty;
+    }
+
+    public int getActiveIssues() {
+        return activeIssues;
+    }
+
+    public void setActiveIssues(int activeIssues) {
+        this.activeIssues = activeIssues;
+    }
+
+    public int getOverdueCount() {
+        return overdueCount;
+    }
+
+    public void setOverdueCount(int overdueCount) {
+        this.overdueCount = overdueCount;
+    }
+
+    @Override
+    public String toString() {
+        return "OverviewStats{" +
+                "totalBooks=" + totalBooks +
+                ", totalAvailable=" + totalAvailable +
+                ", totalIssued=" + totalIssued +
+                ", totalMembers=" + totalMembers +
+                ", totalStudents=" + totalStudents +
+                ", totalFaculty=" + totalFaculty +
+                ", activeIssues=" + activeIssues +
+                ", overdueCount=" + overdueCount +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package com.library.model;
 
+import com.library.util.FineEngine;
+
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.sql.Date;
@@ -159,11 +161,7 @@ public class Transaction implements Serializable {
      * @return true if due date has passed and book is not returned
      */
     public boolean isOverdue() {
-        if (isReturned()) {
-            return false;
-        }
-        Date today = new Date(System.currentTimeMillis());
-        return dueDate != null && today.after(dueDate);
+        return getOverdueDays() > 0;
     }
 
     /**
@@ -171,12 +169,18 @@ public class Transaction implements Serializable {
      * @return number of days overdue (0 if not overdue)
      */
     public long getOverdueDays() {
-        if (!isOverdue()) {
+        if (isReturned() || dueDate == null) {
             return 0;
         }
-        Date today = new Date(System.currentTimeMillis());
-        long diffInMillies = today.getTime() - dueDate.getTime();
-        return diffInMillies / (1000 * 60 * 60 * 24);
+        return FineEngine.overdueDays(FineEngine.toEpochDay(dueDate), FineEngine.today());
+    }
+
+    /**
+     * Get the fine that would be charged if the book were returned today
+     * @return estimated fine (0 if not overdue)
+     */
+    public BigDecimal getEstimatedFine() {
+        return FineEngine.toAmount(FineEngine.fineCents(getOverdueDays()));
     }
 
     @Override
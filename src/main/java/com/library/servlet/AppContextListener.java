@@ -0,0 +1,43 @@
+package com.library.servlet;
+
+import com.library.util.DBConnection;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Application lifecycle listener.
+ * Creates the executors used for async page rendering and releases shared
+ * resources such as pooled database connections on undeploy.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+@WebListener
+public class AppContextListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        // DBConnection initializes itself on first use
+        ServletContext context = sce.getServletContext();
+        context.setAttribute(AsyncPageExecutor.REPORTS,
+                AsyncPageExecutor.fromContext(context, "reportExecutor", 4, 20, 30000));
+        context.setAttribute(AsyncPageExecutor.DESK,
+                AsyncPageExecutor.fromContext(context, "deskExecutor", 8, 50, 10000));
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        ServletContext context = sce.getServletContext();
+        for (String name : new String[]{AsyncPageExecutor.REPORTS, AsyncPageExecutor.DESK}) {
+            Object executor = context.getAttribute(name);
+            if (executor instanceof AsyncPageExecutor) {
+                ((AsyncPageExecutor) executor).shutdown();
+            }
+        }
+        DBConnection.shutdown();
+    }
+}
@@ -0,0 +1,681 @@
+package com.library.servlet;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletRequestWrapper;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs slow page preparation (report queries) off the container's request
+ * threads using Servlet 3.1 async processing.
+ * Work goes to a fixed-size pool with a bounded queue. When the queue is
+ * full the request is answered with 503 straight away, so report traffic
+ * cannot hold on to the worker threads that checkouts need. A page that is
+ * not ready within the timeout also gets a 503.
+ * Tasks see the request and response through guarded wrappers: once the
+ * timeout has answered the request, everything the task still does to them
+ * is dropped (writes fail, so {@link PrintWriter#checkError()} turns true),
+ * and a long task can poll {@link #isCancelled(ServletRequest)} to stop early.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class AsyncPageExecutor {
+
+    // Servlet context attribute names
+    public static final String REPORTS = "com.library.reportExecutor";
+    public static final String DESK = "com.library.deskExecutor";
+
+    // Seconds suggested to clients in Retry-After when work is rejected
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    /**
+     * Loads the data for a page into request attributes
+     */
+    public interface PageTask {
+        /**
+         * @return the view to dispatch to, or null if the task wrote the response itself
+         */
+        String prepare(HttpServletRequest request, HttpServletResponse response) throws Exception;
+    }
+
+    private final String name;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Create an executor
+     *
+     * @param name          name used for threads and statistics
+     * @param threads       worker threads
+     * @param queueCapacity requests allowed to wait for a worker
+     * @param timeoutMillis time allowed from submission to a finished page
+     */
+    public AsyncPageExecutor(final String name, int threads, int queueCapacity, long timeoutMillis) {
+        this.name = name;
+        this.timeoutMillis = timeoutMillis;
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, name + "-page-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Build an executor from context init parameters such as
+     * {@code <prefix>.threads}, {@code <prefix>.queueCapacity} and
+     * {@code <prefix>.timeoutMillis}
+     */
+    static AsyncPageExecutor fromContext(ServletContext context, String prefix,
+                                         int threads, int queueCapacity, long timeoutMillis) {
+        return new AsyncPageExecutor(prefix,
+                intParameter(context, prefix + ".threads", threads),
+                intParameter(context, prefix + ".queueCapacity", queueCapacity),
+                intParameter(context, prefix + ".timeoutMillis", (int) timeoutMillis));
+    }
+
+    private static int intParameter(ServletContext context, String key, int defaultValue) {
+        String value = context.getInitParameter(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Prepare a page on this executor, or on the calling thread if the
+     * request cannot go async
+     *
+     * @param request  the request
+     * @param response the response
+     * @param task     loads the page data and names the view
+     */
+    public void render(HttpServletRequest request, HttpServletResponse response, PageTask task)
+            throws ServletException, IOException {
+        submit(request, response, task, timeoutMillis);
+    }
+
+    /**
+     * Write a long response (an export) on this executor. Like
+     * {@link #render}, a full queue is answered with 503, but there is no
+     * page timeout: the task runs for as long as the client keeps reading,
+     * and should stop once {@link PrintWriter#checkError()} turns true.
+     * Each stream holds one of the executor's threads until it ends.
+     *
+     * @param request  the request
+     * @param response the response
+     * @param task     writes the response
+     */
+    public void stream(HttpServletRequest request, HttpServletResponse response, PageTask task)
+            throws ServletException, IOException {
+        submit(request, response, task, 0);
+    }
+
+    private void submit(HttpServletRequest request, HttpServletResponse response, PageTask task,
+                        long timeout) throws ServletException, IOException {
+        if (!request.isAsyncSupported() || executor.isShutdown()) {
+            renderNow(request, response, task);
+            return;
+        }
+
+        final AsyncContext async = request.startAsync(request, response);
+        // Zero turns the container's async timeout off
+        async.setTimeout(timeout);
+        final Guard guard = new Guard();
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (guard.finish()) {
+                    timedOut.incrementAndGet();
+                    sendUnavailable(async, "Report took too long, please try again");
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                if (guard.finish()) {
+                    async.complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        try {
+            executor.execute(() -> run(async, guard, task));
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            if (guard.finish()) {
+                sendUnavailable(async, "Server is busy generating reports, please try again shortly");
+            }
+        }
+    }
+
+    private void run(AsyncContext async, Guard guard, PageTask task) {
+        if (guard.isFinished()) {
+            // Timed out while waiting in the queue
+            return;
+        }
+        HttpServletRequest request = (HttpServletRequest) async.getRequest();
+        HttpServletResponse response = (HttpServletResponse) async.getResponse();
+        String view;
+        try {
+            view = task.prepare(new GuardedRequest(request, guard), new GuardedResponse(response, guard));
+        } catch (Exception e) {
+            if (guard.isFinished()) {
+                // Timed out; the task failed on the dropped response
+                return;
+            }
+            failed.incrementAndGet();
+            System.err.println("Error preparing " + name + " page: " + e.getMessage());
+            e.printStackTrace();
+            if (guard.finish()) {
+                try {
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException | IllegalStateException ignored) {
+                    // Response already committed
+                }
+                async.complete();
+            }
+            return;
+        }
+        if (guard.finish()) {
+            if (view != null) {
+                async.dispatch(view);
+            } else {
+                async.complete();
+            }
+        }
+    }
+
+    /**
+     * Check whether the page a task is preparing has already been answered
+     * (timed out or failed), so the task can stop early
+     *
+     * @param request the request the task was given
+     * @return true if nothing the task does will reach the client
+     */
+    public static boolean isCancelled(ServletRequest request) {
+        while (request instanceof ServletRequestWrapper) {
+            if (request instanceof GuardedRequest) {
+                return ((GuardedRequest) request).guard.isFinished();
+            }
+            request = ((ServletRequestWrapper) request).getRequest();
+        }
+        return false;
+    }
+
+    private static void renderNow(HttpServletRequest request, HttpServletResponse response, PageTask task)
+            throws ServletException, IOException {
+        String view;
+        try {
+            view = task.prepare(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+        if (view != null) {
+            request.getRequestDispatcher(view).forward(request, response);
+        }
+    }
+
+    private static void sendUnavailable(AsyncContext async, String message) {
+        HttpServletResponse response = (HttpServletResponse) async.getResponse();
+        try {
+            response.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, message);
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Could not send 503: " + e.getMessage());
+        }
+        async.complete();
+    }
+
+    /**
+     * Stop accepting work and let queued pages finish
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Statistics
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncPageExecutor{" +
+                "name='" + name + '\'' +
+                ", active=" + getActiveCount() +
+                ", queued=" + getQueued() +
+                ", submitted=" + getSubmitted() +
+                ", rejected=" + getRejected() +
+                ", timedOut=" + getTimedOut() +
+                ", failed=" + getFailed() +
+                '}';
+    }
+
+    /**
+     * Marks the single moment a request is answered. Guarded wrappers hold
+     * the same lock while they touch the real request or response, so the
+     * timeout cannot complete it in the middle of a task's write.
+     */
+    private static final class Guard {
+        private boolean finished;
+
+        synchronized boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            return true;
+        }
+
+        synchronized boolean isFinished() {
+            return finished;
+        }
+    }
+
+    private interface IOAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * Request view for tasks; attributes and parameters are dropped once the
+     * request has been answered
+     */
+    private static final class GuardedRequest extends HttpServletRequestWrapper {
+        private final Guard guard;
+
+        GuardedRequest(HttpServletRequest request, Guard guard) {
+            super(request);
+            this.guard = guard;
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            synchronized (guard) {
+                return guard.finished ? null : super.getAttribute(name);
+            }
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            synchronized (guard) {
+                if (!guard.finished) {
+                    super.setAttribute(name, value);
+                }
+            }
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            synchronized (guard) {
+                if (!guard.finished) {
+                    super.removeAttribute(name);
+                }
+            }
+        }
+
+        @Override
+        public String getParameter(String name) {
+            synchronized (guard) {
+                return guard.finished ? null : super.getParameter(name);
+            }
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            synchronized (guard) {
+                return guard.finished ? null : super.getParameterValues(name);
+            }
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            synchronized (guard) {
+                return guard.finished ? Collections.<String, String[]>emptyMap() : super.getParameterMap();
+            }
+        }
+    }
+
+    /**
+     * Response view for tasks; once the request has been answered headers
+     * and status changes are ignored and body writes fail
+     */
+    private static final class GuardedResponse extends HttpServletResponseWrapper {
+        private final Guard guard;
+        private PrintWriter writer;
+        private ServletOutputStream stream;
+
+        GuardedResponse(HttpServletResponse response, Guard guard) {
+            super(response);
+            this.guard = guard;
+        }
+
+        private void whileOpen(Runnable action) {
+            synchronized (guard) {
+                if (!guard.finished) {
+                    action.run();
+                }
+            }
+        }
+
+        private void whileOpenIO(IOAction action) throws IOException {
+            synchronized (guard) {
+                if (!guard.finished) {
+                    action.run();
+                }
+            }
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            synchronized (guard) {
+                if (writer == null) {
+                    writer = new GuardedPrintWriter(guard.finished ? null : super.getWriter(), guard);
+                }
+                return writer;
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            synchronized (guard) {
+                if (stream == null) {
+                    stream = new GuardedOutputStream(guard.finished ? null : super.getOutputStream(), guard);
+                }
+                return stream;
+            }
+        }
+
+        @Override
+        public boolean isCommitted() {
+            synchronized (guard) {
+                return guard.finished || super.isCommitted();
+            }
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            whileOpenIO(() -> super.sendError(sc, msg));
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            whileOpenIO(() -> super.sendError(sc));
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            whileOpenIO(() -> super.sendRedirect(location));
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            whileOpenIO(super::flushBuffer);
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            whileOpen(() -> super.setStatus(sc));
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            whileOpen(() -> super.setHeader(name, value));
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            whileOpen(() -> super.addHeader(name, value));
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            whileOpen(() -> super.setIntHeader(name, value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            whileOpen(() -> super.addIntHeader(name, value));
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+            whileOpen(() -> super.setDateHeader(name, date));
+        }
+
+        @Override
+        public void addDateHeader(String name, long date) {
+            whileOpen(() -> super.addDateHeader(name, date));
+        }
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            whileOpen(() -> super.addCookie(cookie));
+        }
+
+        @Override
+        public void setContentType(String type) {
+            whileOpen(() -> super.setContentType(type));
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+            whileOpen(() -> super.setCharacterEncoding(charset));
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            whileOpen(() -> super.setContentLength(len));
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            whileOpen(() -> super.setContentLengthLong(len));
+        }
+
+        @Override
+        public void setLocale(Locale locale) {
+            whileOpen(() -> super.setLocale(locale));
+        }
+
+        @Override
+        public void setBufferSize(int size) {
+            whileOpen(() -> super.setBufferSize(size));
+        }
+
+        @Override
+        public void resetBuffer() {
+            whileOpen(super::resetBuffer);
+        }
+
+        @Override
+        public void reset() {
+            whileOpen(super::reset);
+        }
+    }
+
+    /**
+     * Writer that fails once the request has been answered. Wrapped in a
+     * PrintWriter, the failure shows up as checkError() returning true.
+     */
+    private static final class GuardedPrintWriter extends PrintWriter {
+        private final PrintWriter target;
+
+        GuardedPrintWriter(final PrintWriter target, final Guard guard) {
+            super(new Writer() {
+                @Override
+                public void write(char[] cbuf, int off, int len) throws IOException {
+                    synchronized (guard) {
+                        checkOpen(guard, target);
+                        target.write(cbuf, off, len);
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    synchronized (guard) {
+                        checkOpen(guard, target);
+                        target.flush();
+                    }
+                }
+
+                @Override
+                public void close() {
+                    synchronized (guard) {
+                        if (!guard.finished && target != null) {
+                            target.close();
+                        }
+                    }
+                }
+            });
+            this.target = target;
+        }
+
+        @Override
+        public boolean checkError() {
+            // The container's writer swallows client disconnects the same way
+            return super.checkError() || (target != null && target.checkError());
+        }
+    }
+
+    /**
+     * Output stream that fails once the request has been answered
+     */
+    private static final class GuardedOutputStream extends ServletOutputStream {
+        private final ServletOutputStream target;
+        private final Guard guard;
+
+        GuardedOutputStream(ServletOutputStream target, Guard guard) {
+            this.target = target;
+            this.guard = guard;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            synchronized (guard) {
+                checkOpen(guard, target);
+                target.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            synchronized (guard) {
+                checkOpen(guard, target);
+                target.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (guard) {
+                checkOpen(guard, target);
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (guard) {
+                if (!guard.finished && target != null) {
+                    target.close();
+                }
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            synchronized (guard) {
+                return !guard.finished && target != null && target.isReady();
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            synchronized (guard) {
+                if (!guard.finished && target != null) {
+                    target.setWriteListener(writeListener);
+                }
+            }
+        }
+    }
+
+    private static void checkOpen(Guard guard, Object target) throws IOException {
+        if (guard.finished || target == null) {
+            throw new IOException("Response already sent: the page timed out or failed");
+        }
+    }
+}
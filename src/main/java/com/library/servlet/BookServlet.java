@@ -1,34 +1,72 @@
 package com.library.servlet;
 
 import com.library.dao.BookDAO;
+import com.library.dao.BookImporter;
 import com.library.model.Book;
 
 import javax.servlet.ServletException;
+import javax.servlet.annotation.MultipartConfig;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.Part;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Servlet for handling book management operations.
- * Supports add, edit, delete, search, and list operations.
+ * Supports add, edit, delete, search, and list operations, and bulk
+ * import of a CSV catalog file (see {@link BookImporter}). Uploaded files
+ * are imported one at a time on a background thread; the book list shows
+ * the progress and result of the latest import. Very large catalogs are
+ * better loaded with the BookImporter command line.
  *
  * @author Library Management System
  * @version 1.0
  * @since 2017
  */
 @WebServlet(name = "BookServlet", urlPatterns = {"/books"})
+@MultipartConfig(fileSizeThreshold = 1024 * 1024, maxFileSize = 200L * 1024 * 1024,
+        maxRequestSize = 201L * 1024 * 1024)
 public class BookServlet extends HttpServlet {
 
     private static final long serialVersionUID = 1L;
+
+    // Minimum time between progress lines in the server log
+    private static final long IMPORT_LOG_INTERVAL_NANOS = 5000000000L;
     private BookDAO bookDAO;
 
+    // Runs uploaded imports off the request thread, one at a time
+    private ExecutorService importExecutor;
+    private ImportJob lastImport;
+
     @Override
     public void init() throws ServletException {
         super.init();
         bookDAO = new BookDAO();
+        if (BookDAO.getSearchIndex() == null) {
+            bookDAO.buildSearchIndex();
+        }
+        importExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "book-import");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        importExecutor.shutdown();
+        super.destroy();
     }
 
     @Override
@@ -83,6 +121,9 @@ public class BookServlet extends HttpServlet {
                 case "update":
                     updateBook(request, response);
                     break;
+                case "import":
+                    importBooks(request, response);
+                    break;
                 default:
                     listBooks(request, response);
                     break;
@@ -100,6 +141,7 @@ public class BookServlet extends HttpServlet {
             throws ServletException, IOException {
         List<Book> books = bookDAO.findAll();
         request.setAttribute("books", books);
+        request.setAttribute("importJob", getLastImport());
         request.getRequestDispatcher("/books.jsp").forward(request, response);
     }
 
@@ -204,6 +246,163 @@ public class BookServlet extends HttpServlet {
         listBooks(request, response);
     }
 
+    /**
+     * Start importing an uploaded CSV file in the background
+     */
+    private void importBooks(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        Part file = request.getPart("file");
+        if (file == null || file.getSize() == 0) {
+            request.setAttribute("error", "Please choose a CSV file to import.");
+            listBooks(request, response);
+            return;
+        }
+
+        final ImportJob job = new ImportJob(file.getSubmittedFileName());
+        boolean busy;
+        synchronized (this) {
+            busy = lastImport != null && !lastImport.isFinished();
+            if (!busy) {
+                lastImport = job;
+            }
+        }
+        if (busy) {
+            file.delete();
+            request.setAttribute("error", "Another import is still running. Please wait for it to finish.");
+            listBooks(request, response);
+            return;
+        }
+
+        // The upload is removed when this request ends, so the import reads a copy
+        final Path copy;
+        try (InputStream in = file.getInputStream()) {
+            copy = Files.createTempFile("book-import-", ".csv");
+            try {
+                Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Files.deleteIfExists(copy);
+                throw e;
+            }
+        } catch (IOException e) {
+            job.fail("could not read the upload: " + e.getMessage());
+            throw e;
+        } finally {
+            file.delete();
+        }
+
+        try {
+            importExecutor.execute(() -> runImport(job, copy));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(copy);
+            job.fail("the server is shutting down");
+        }
+
+        request.setAttribute("success", "Import started. Its progress is shown below; refresh the page to update it.");
+        listBooks(request, response);
+    }
+
+    private synchronized ImportJob getLastImport() {
+        return lastImport;
+    }
+
+    /**
+     * Run one import on the import thread
+     */
+    private void runImport(final ImportJob job, Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            BookImporter.ImportResult result = new BookImporter().importCsv(in, new BookImporter.ProgressListener() {
+                private long lastLogged = System.nanoTime();
+
+                @Override
+                public void progress(BookImporter.ImportResult progress) {
+                    job.progress = progress.toString();
+                    long now = System.nanoTime();
+                    if (now - lastLogged >= IMPORT_LOG_INTERVAL_NANOS) {
+                        lastLogged = now;
+                        log("Importing " + job.getFileName() + ": " + progress);
+                    }
+                }
+            });
+            log("Imported " + job.getFileName() + ": " + result);
+            job.finish(result);
+        } catch (IOException | SQLException | RuntimeException e) {
+            System.err.println("Error importing books: " + e.getMessage());
+            e.printStackTrace();
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log("Could not delete " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Progress and outcome of a background import, shown on the book list
+     */
+    public static class ImportJob {
+        private final String fileName;
+        private volatile boolean finished;
+        private volatile String progress = "waiting to start";
+        private volatile String message;
+        private volatile String errorMessage;
+
+        ImportJob(String fileName) {
+            this.fileName = fileName;
+        }
+
+        void finish(BookImporter.ImportResult result) {
+            progress = result.toString();
+            if (result.getRowsImported() > 0) {
+                message = "Import finished: " + result;
+            }
+            if (result.getErrorCount() > 0) {
+                StringBuilder errors = new StringBuilder();
+                if (result.getRowsImported() == 0) {
+                    errors.append("Nothing imported: ").append(result).append(". ");
+                }
+                errors.append(String.join("; ", result.getErrors()));
+                if (result.getErrorCount() > result.getErrors().size()) {
+                    errors.append("; ... ").append(result.getErrorCount() - result.getErrors().size())
+                            .append(" more");
+                }
+                errorMessage = errors.toString();
+            } else if (result.getRowsImported() == 0) {
+                errorMessage = "The file has no books to import.";
+            }
+            finished = true;
+        }
+
+        void fail(String reason) {
+            errorMessage = "Import failed: " + reason;
+            finished = true;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        /** Counts so far, updated after every committed batch */
+        public String getProgress() {
+            return progress;
+        }
+
+        /** Summary of a finished import that loaded books, or null */
+        public String getMessage() {
+            return message;
+        }
+
+        /** Errors of a finished import, or null */
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
     /**
      * Delete a book
      */
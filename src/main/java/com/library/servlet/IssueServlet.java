@@ -18,18 +18,21 @@ import java.util.List;
 
 /**
  * Servlet for handling book issue and return operations.
+ * The issue and return pages are prepared on the bounded desk executor
+ * (see {@link AsyncPageExecutor}); issuing and returning stay synchronous.
  *
  * @author Library Management System
  * @version 1.0
  * @since 2017
  */
-@WebServlet(name = "IssueServlet", urlPatterns = {"/issue", "/return"})
+@WebServlet(name = "IssueServlet", urlPatterns = {"/issue", "/return"}, asyncSupported = true)
 public class IssueServlet extends HttpServlet {
 
     private static final long serialVersionUID = 1L;
     private BookDAO bookDAO;
     private MemberDAO memberDAO;
     private TransactionDAO transactionDAO;
+    private AsyncPageExecutor executor;
 
     @Override
     public void init() throws ServletException {
@@ -37,6 +40,7 @@ public class IssueServlet extends HttpServlet {
         bookDAO = new BookDAO();
         memberDAO = new MemberDAO();
         transactionDAO = new TransactionDAO();
+        executor = (AsyncPageExecutor) getServletContext().getAttribute(AsyncPageExecutor.DESK);
     }
 
     @Override
@@ -46,9 +50,17 @@ public class IssueServlet extends HttpServlet {
         String servletPath = request.getServletPath();
 
         if ("/issue".equals(servletPath)) {
-            showIssuePage(request, response);
+            if (executor != null) {
+                executor.render(request, response, (req, resp) -> prepareIssuePage(req));
+            } else {
+                showIssuePage(request, response);
+            }
         } else if ("/return".equals(servletPath)) {
-            showReturnPage(request, response);
+            if (executor != null) {
+                executor.render(request, response, (req, resp) -> prepareReturnPage(req));
+            } else {
+                showReturnPage(request, response);
+            }
         }
     }
 
@@ -82,15 +94,23 @@ public class IssueServlet extends HttpServlet {
      */
     private void showIssuePage(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
+        request.getRequestDispatcher(prepareIssuePage(request)).forward(request, response);
+    }
+
+    /**
+     * Load the data for the issue book page
+     *
+     * @return the view
+     */
+    private String prepareIssuePage(HttpServletRequest request) {
         // Get available books
         List<Book> availableBooks = bookDAO.findAvailable();
         request.setAttribute("availableBooks", availableBooks);
 
-        // Get all members
-        List<Member> members = memberDAO.findAll();
-        request.setAttribute("members", members);
+        // Members are picked through the typeahead (MemberServlet action=suggest)
+        request.setAttribute("memberCount", memberDAO.getTotalMembers());
 
-        request.getRequestDispatcher("/issue.jsp").forward(request, response);
+        return "/issue.jsp";
     }
 
     /**
@@ -98,11 +118,20 @@ public class IssueServlet extends HttpServlet {
      */
     private void showReturnPage(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
+        request.getRequestDispatcher(prepareReturnPage(request)).forward(request, response);
+    }
+
+    /**
+     * Load the data for the return book page
+     *
+     * @return the view
+     */
+    private String prepareReturnPage(HttpServletRequest request) {
         // Get active transactions
         List<Transaction> activeTransactions = transactionDAO.findActiveWithDetails();
         request.setAttribute("activeTransactions", activeTransactions);
 
-        request.getRequestDispatcher("/return.jsp").forward(request, response);
+        return "/return.jsp";
     }
 
     /**
@@ -113,41 +142,33 @@ public class IssueServlet extends HttpServlet {
         int bookId = Integer.parseInt(request.getParameter("bookId"));
         int memberId = Integer.parseInt(request.getParameter("memberId"));
 
-        // Validate book availability
-        Book book = bookDAO.findById(bookId);
-        if (book == null) {
-            request.setAttribute("error", "Book not found!");
-            showIssuePage(request, response);
-            return;
-        }
-
-        if (book.getAvailable() <= 0) {
-            request.setAttribute("error", "No copies of this book are available!");
-            showIssuePage(request, response);
-            return;
-        }
-
-        // Validate member
-        Member member = memberDAO.findById(memberId);
-        if (member == null) {
-            request.setAttribute("error", "Member not found!");
-            showIssuePage(request, response);
-            return;
-        }
-
-        // Check member's book limit
-        int currentIssued = transactionDAO.countActiveByMember(memberId);
-        if (currentIssued >= member.getMaxBooks()) {
-            request.setAttribute("error", "Member has reached maximum book limit (" + member.getMaxBooks() + " books)!");
-            showIssuePage(request, response);
-            return;
-        }
-
-        // Issue the book
-        if (transactionDAO.issueBook(bookId, memberId)) {
-            request.setAttribute("success", "Book '" + book.getTitle() + "' issued successfully to " + member.getName() + "!");
-        } else {
-            request.setAttribute("error", "Failed to issue book. Please try again.");
+        // Availability and the member's book limit are checked inside the issue transaction
+        TransactionDAO.IssueResult result = transactionDAO.issue(bookId, memberId);
+
+        switch (result) {
+            case SUCCESS:
+                Book book = bookDAO.findById(bookId);
+                Member member = memberDAO.findById(memberId);
+                request.setAttribute("success", "Book '" + (book != null ? book.getTitle() : "Unknown")
+                        + "' issued successfully to " + (member != null ? member.getName() : "Unknown") + "!");
+                break;
+            case BOOK_NOT_FOUND:
+                request.setAttribute("error", "Book not found!");
+                break;
+            case NOT_AVAILABLE:
+                request.setAttribute("error", "No copies of this book are available!");
+                break;
+            case MEMBER_NOT_FOUND:
+                request.setAttribute("error", "Member not found!");
+                break;
+            case LIMIT_REACHED:
+                Member limited = memberDAO.findById(memberId);
+                int maxBooks = limited != null ? limited.getMaxBooks() : 0;
+                request.setAttribute("error", "Member has reached maximum book limit (" + maxBooks + " books)!");
+                break;
+            default:
+                request.setAttribute("error", "Failed to issue book. Please try again.");
+                break;
         }
 
         showIssuePage(request, response);
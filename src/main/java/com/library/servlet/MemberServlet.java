@@ -4,6 +4,7 @@ import com.library.dao.MemberDAO;
 import com.library.dao.TransactionDAO;
 import com.library.model.Member;
 import com.library.model.Transaction;
+import com.library.util.JsonUtil;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -11,11 +12,14 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Servlet for handling member management operations.
- * Supports register, update, delete, search, and list operations.
+ * Supports register, update, delete, search, and list operations, and a
+ * JSON typeahead (action=suggest) used by the issue form.
  *
  * @author Library Management System
  * @version 1.0
@@ -25,6 +29,11 @@ import java.util.List;
 public class MemberServlet extends HttpServlet {
 
     private static final long serialVersionUID = 1L;
+
+    // Typeahead result sizes
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private MemberDAO memberDAO;
     private TransactionDAO transactionDAO;
 
@@ -33,6 +42,9 @@ public class MemberServlet extends HttpServlet {
         super.init();
         memberDAO = new MemberDAO();
         transactionDAO = new TransactionDAO();
+        if (MemberDAO.getPrefixIndex() == null) {
+            memberDAO.buildPrefixIndex();
+        }
     }
 
     @Override
@@ -61,6 +73,9 @@ public class MemberServlet extends HttpServlet {
                 case "view":
                     viewMember(request, response);
                     break;
+                case "suggest":
+                    suggestMembers(request, response);
+                    break;
                 case "list":
                 default:
                     listMembers(request, response);
@@ -248,4 +263,49 @@ public class MemberServlet extends HttpServlet {
         request.setAttribute("members", members);
         request.getRequestDispatcher("/members.jsp").forward(request, response);
     }
+
+    /**
+     * Typeahead: members whose name, email or phone starts with q, as JSON
+     */
+    private void suggestMembers(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String query = request.getParameter("q");
+        int limit = Math.min(Math.max(parseIntParameter(request, "limit", DEFAULT_SUGGESTIONS), 1), MAX_SUGGESTIONS);
+        int offset = Math.max(parseIntParameter(request, "offset", 0), 0);
+
+        List<Member> members = query != null
+                ? memberDAO.searchPrefix(query, offset, limit) : new ArrayList<Member>();
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        PrintWriter out = response.getWriter();
+        out.print('[');
+        for (int i = 0; i < members.size(); i++) {
+            Member member = members.get(i);
+            if (i > 0) {
+                out.print(',');
+            }
+            out.print("{\"memberId\":" + member.getMemberId()
+                    + ",\"name\":" + JsonUtil.quote(member.getName())
+                    + ",\"email\":" + JsonUtil.quote(member.getEmail())
+                    + ",\"phone\":" + JsonUtil.quote(member.getPhone())
+                    + ",\"memberType\":" + JsonUtil.quote(member.getMemberType())
+                    + ",\"maxBooks\":" + member.getMaxBooks() + "}");
+        }
+        out.print(']');
+        out.flush();
+    }
+
+    private static int parseIntParameter(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 }
@@ -0,0 +1,270 @@
+package com.library.servlet;
+
+import com.library.util.ConnectionPool;
+import com.library.util.DBConnection;
+import com.library.util.JsonUtil;
+import com.library.util.LatencyHistogram;
+import com.library.util.QueryMetrics;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Admin servlet exposing the JDBC statement metrics.
+ * GET /admin/metrics returns JSON; GET /admin/metrics/prometheus returns
+ * the Prometheus text exposition format. POST with action=reset clears
+ * the counters. web.xml restricts /admin/* to the container's "admin"
+ * role; the reset checks the role again in case the servlet is mapped
+ * some other way.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+@WebServlet(name = "MetricsServlet", urlPatterns = {"/admin/metrics", "/admin/metrics/prometheus"})
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    // Container role allowed to reset the metrics
+    private static final String ADMIN_ROLE = "admin";
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        if (request.getServletPath().endsWith("/prometheus") || "prometheus".equals(request.getParameter("format"))) {
+            response.setContentType("text/plain; version=0.0.4");
+            writePrometheus(response.getWriter());
+        } else {
+            response.setContentType("application/json");
+            writeJson(response.getWriter());
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (!request.isUserInRole(ADMIN_ROLE)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Admin role required");
+            return;
+        }
+        if ("reset".equals(request.getParameter("action"))) {
+            QueryMetrics.reset();
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        } else {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown action");
+        }
+    }
+
+    // JSON
+
+    private void writeJson(PrintWriter out) {
+        out.print("{\"enabled\":" + QueryMetrics.isEnabled());
+        out.print(",\"since\":" + QueryMetrics.getStartedAt());
+        out.print(",\"slowQueryMillis\":" + QueryMetrics.getSlowQueryMillis());
+
+        out.print(",\"connectionAcquisition\":");
+        writeHistogramJson(out, QueryMetrics.getAcquisition());
+        out.print(",\"connectionFailures\":" + QueryMetrics.getAcquisitionFailures());
+
+        ConnectionPool pool = DBConnection.getPool();
+        if (pool != null) {
+            out.print(",\"pool\":{\"active\":" + pool.getActiveCount()
+                    + ",\"idle\":" + pool.getIdleCount()
+                    + ",\"maxActive\":" + pool.getMaxActive()
+                    + ",\"waiting\":" + pool.getWaitingThreads()
+                    + ",\"timeouts\":" + pool.getTimeouts()
+                    + ",\"statementCacheHitRatio\":" + number(pool.getStatementCacheHitRatio()) + "}");
+        }
+
+        out.print(",\"executors\":[");
+        List<AsyncPageExecutor> executors = executors();
+        for (int i = 0; i < executors.size(); i++) {
+            AsyncPageExecutor executor = executors.get(i);
+            if (i > 0) {
+                out.print(',');
+            }
+            out.print("{\"name\":" + JsonUtil.quote(executor.getName())
+                    + ",\"active\":" + executor.getActiveCount()
+                    + ",\"queued\":" + executor.getQueued()
+                    + ",\"submitted\":" + executor.getSubmitted()
+                    + ",\"rejected\":" + executor.getRejected()
+                    + ",\"timedOut\":" + executor.getTimedOut()
+                    + ",\"failed\":" + executor.getFailed() + "}");
+        }
+        out.print(']');
+
+        out.print(",\"statements\":[");
+        boolean first = true;
+        for (QueryMetrics.StatementStats stats : QueryMetrics.getStatements()) {
+            if (!first) {
+                out.print(',');
+            }
+            first = false;
+            out.print("{\"name\":" + JsonUtil.quote(stats.getName()));
+            out.print(",\"errors\":" + stats.getErrors());
+            out.print(",\"rowsReturned\":" + stats.getRowsReturned());
+            out.print(",\"maxRowsReturned\":" + stats.getMaxRowsReturned());
+            out.print(",\"rowsUpdated\":" + stats.getRowsUpdated());
+            out.print(",\"latency\":");
+            writeHistogramJson(out, stats.getLatency());
+            out.print('}');
+        }
+        out.print(']');
+
+        out.print(",\"slowQueries\":[");
+        List<QueryMetrics.SlowQuery> slow = QueryMetrics.getSlowQueries();
+        for (int i = 0; i < slow.size(); i++) {
+            QueryMetrics.SlowQuery sample = slow.get(i);
+            if (i > 0) {
+                out.print(',');
+            }
+            out.print("{\"name\":" + JsonUtil.quote(sample.getName())
+                    + ",\"millis\":" + number(sample.getMillis())
+                    + ",\"thread\":" + JsonUtil.quote(sample.getThread())
+                    + ",\"timestamp\":" + sample.getTimestamp()
+                    + ",\"sql\":" + JsonUtil.quote(sample.getSql()) + "}");
+        }
+        out.print("]}");
+    }
+
+    private void writeHistogramJson(PrintWriter out, LatencyHistogram h) {
+        out.print("{\"count\":" + h.getCount()
+                + ",\"totalMillis\":" + number(h.getTotalMillis())
+                + ",\"meanMillis\":" + number(h.getMeanMillis())
+                + ",\"p50Millis\":" + number(h.getPercentileMillis(0.50))
+                + ",\"p95Millis\":" + number(h.getPercentileMillis(0.95))
+                + ",\"p99Millis\":" + number(h.getPercentileMillis(0.99))
+                + ",\"maxMillis\":" + number(h.getMaxMillis())
+                + ",\"buckets\":[");
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            if (i > 0) {
+                out.print(',');
+            }
+            out.print(h.getBucketCount(i));
+        }
+        out.print("]}");
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    // Prometheus text format
+
+    private void writePrometheus(PrintWriter out) {
+        out.println("# HELP library_db_statement_seconds Prepared statement execution time");
+        out.println("# TYPE library_db_statement_seconds histogram");
+        List<QueryMetrics.StatementStats> statements = QueryMetrics.getStatements();
+        for (QueryMetrics.StatementStats stats : statements) {
+            writeHistogramPrometheus(out, "library_db_statement_seconds",
+                    "statement=\"" + label(stats.getName()) + "\"", stats.getLatency());
+        }
+
+        out.println("# HELP library_db_statement_errors_total Statements that threw an SQLException");
+        out.println("# TYPE library_db_statement_errors_total counter");
+        for (QueryMetrics.StatementStats stats : statements) {
+            out.println("library_db_statement_errors_total{statement=\"" + label(stats.getName()) + "\"} "
+                    + stats.getErrors());
+        }
+
+        out.println("# HELP library_db_statement_rows_returned_total Rows read from result sets");
+        out.println("# TYPE library_db_statement_rows_returned_total counter");
+        for (QueryMetrics.StatementStats stats : statements) {
+            out.println("library_db_statement_rows_returned_total{statement=\"" + label(stats.getName()) + "\"} "
+                    + stats.getRowsReturned());
+        }
+
+        out.println("# HELP library_db_statement_rows_updated_total Rows changed by updates");
+        out.println("# TYPE library_db_statement_rows_updated_total counter");
+        for (QueryMetrics.StatementStats stats : statements) {
+            out.println("library_db_statement_rows_updated_total{statement=\"" + label(stats.getName()) + "\"} "
+                    + stats.getRowsUpdated());
+        }
+
+        out.println("# HELP library_db_connection_acquire_seconds Time to obtain a connection");
+        out.println("# TYPE library_db_connection_acquire_seconds histogram");
+        writeHistogramPrometheus(out, "library_db_connection_acquire_seconds", null, QueryMetrics.getAcquisition());
+
+        out.println("# HELP library_db_connection_failures_total Connection requests that failed");
+        out.println("# TYPE library_db_connection_failures_total counter");
+        out.println("library_db_connection_failures_total " + QueryMetrics.getAcquisitionFailures());
+
+        ConnectionPool pool = DBConnection.getPool();
+        if (pool != null) {
+            gauge(out, "library_db_pool_active_connections", "Connections currently borrowed", pool.getActiveCount());
+            gauge(out, "library_db_pool_idle_connections", "Connections idle in the pool", pool.getIdleCount());
+            gauge(out, "library_db_pool_max_connections", "Pool size limit", pool.getMaxActive());
+            gauge(out, "library_db_pool_waiting_threads", "Threads waiting for a connection", pool.getWaitingThreads());
+        }
+
+        List<AsyncPageExecutor> executors = executors();
+        if (!executors.isEmpty()) {
+            out.println("# HELP library_page_executor_rejected_total Page requests answered with 503 because the queue was full");
+            out.println("# TYPE library_page_executor_rejected_total counter");
+            for (AsyncPageExecutor executor : executors) {
+                out.println("library_page_executor_rejected_total{executor=\"" + label(executor.getName()) + "\"} "
+                        + executor.getRejected());
+            }
+            out.println("# HELP library_page_executor_timeouts_total Page requests answered with 503 after the timeout");
+            out.println("# TYPE library_page_executor_timeouts_total counter");
+            for (AsyncPageExecutor executor : executors) {
+                out.println("library_page_executor_timeouts_total{executor=\"" + label(executor.getName()) + "\"} "
+                        + executor.getTimedOut());
+            }
+            out.println("# HELP library_page_executor_queued Page requests waiting for a worker");
+            out.println("# TYPE library_page_executor_queued gauge");
+            for (AsyncPageExecutor executor : executors) {
+                out.println("library_page_executor_queued{executor=\"" + label(executor.getName()) + "\"} "
+                        + executor.getQueued());
+            }
+        }
+    }
+
+    private List<AsyncPageExecutor> executors() {
+        List<AsyncPageExecutor> executors = new ArrayList<>();
+        for (String name : new String[]{AsyncPageExecutor.REPORTS, AsyncPageExecutor.DESK}) {
+            Object executor = getServletContext().getAttribute(name);
+            if (executor instanceof AsyncPageExecutor) {
+                executors.add((AsyncPageExecutor) executor);
+            }
+        }
+        return executors;
+    }
+
+    private void writeHistogramPrometheus(PrintWriter out, String metric, String labels, LatencyHistogram h) {
+        String prefix = labels == null ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            cumulative += h.getBucketCount(i);
+            double bound = LatencyHistogram.upperBoundSeconds(i);
+            String le = Double.isInfinite(bound) ? "+Inf" : String.format(Locale.ROOT, "%.6f", bound);
+            out.println(metric + "_bucket{" + prefix + "le=\"" + le + "\"} " + cumulative);
+        }
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        out.println(metric + "_sum" + suffix + " " + String.format(Locale.ROOT, "%.6f", h.getTotalMillis() / 1000.0));
+        out.println(metric + "_count" + suffix + " " + cumulative);
+    }
+
+    private void gauge(PrintWriter out, String metric, String help, long value) {
+        out.println("# HELP " + metric + " " + help);
+        out.println("# TYPE " + metric + " gauge");
+        out.println(metric + " " + value);
+    }
+
+    private static String label(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -2,8 +2,12 @@ package com.library.servlet;
 
 import com.library.dao.BookDAO;
 import com.library.dao.MemberDAO;
+import com.library.dao.ReportDAO;
+import com.library.dao.RowHandler;
 import com.library.dao.TransactionDAO;
 import com.library.model.Book;
+import com.library.model.InventoryTotals;
+import com.library.model.OverviewStats;
 import com.library.model.Transaction;
 
 import javax.servlet.ServletException;
@@ -12,36 +16,77 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
  * Servlet for generating reports.
  * Provides overdue books report and inventory status report.
+ * Reports are prepared on the bounded report executor (see
+ * {@link AsyncPageExecutor}) so slow queries do not hold container threads.
+ * The CSV export streams for as long as the client keeps reading, so it
+ * goes to the same executor without a page timeout; exports share the
+ * report threads and queue, and are turned away with 503 when both are full.
  *
  * @author Library Management System
  * @version 1.0
  * @since 2017
  */
-@WebServlet(name = "ReportServlet", urlPatterns = {"/reports"})
+@WebServlet(name = "ReportServlet", urlPatterns = {"/reports"}, asyncSupported = true)
 public class ReportServlet extends HttpServlet {
 
     private static final long serialVersionUID = 1L;
+
+    // Inventory report page sizes
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final String VIEW = "/reports.jsp";
+
     private BookDAO bookDAO;
-    private MemberDAO memberDAO;
     private TransactionDAO transactionDAO;
+    private ReportDAO reportDAO;
+    private AsyncPageExecutor executor;
 
     @Override
     public void init() throws ServletException {
         super.init();
         bookDAO = new BookDAO();
-        memberDAO = new MemberDAO();
         transactionDAO = new TransactionDAO();
+        reportDAO = new ReportDAO();
+        executor = (AsyncPageExecutor) getServletContext().getAttribute(AsyncPageExecutor.REPORTS);
     }
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
+        if ("inventory".equals(request.getParameter("type")) && "csv".equals(request.getParameter("format"))) {
+            if (executor != null) {
+                executor.stream(request, response, this::exportInventoryCsv);
+            } else {
+                exportInventoryCsv(request, response);
+            }
+            return;
+        }
+
+        if (executor != null) {
+            executor.render(request, response, this::prepareReport);
+        } else {
+            String view = prepareReport(request, response);
+            if (view != null) {
+                request.getRequestDispatcher(view).forward(request, response);
+            }
+        }
+    }
+
+    /**
+     * Load the requested report into request attributes
+     *
+     * @return the view to render, or null if the response was written directly
+     */
+    private String prepareReport(HttpServletRequest request, HttpServletResponse response) {
         String reportType = request.getParameter("type");
         if (reportType == null) {
             reportType = "overview";
@@ -50,101 +95,170 @@ public class ReportServlet extends HttpServlet {
         try {
             switch (reportType) {
                 case "overdue":
-                    showOverdueReport(request, response);
-                    break;
+                    return prepareOverdueReport(request);
                 case "inventory":
-                    showInventoryReport(request, response);
-                    break;
+                    return prepareInventoryReport(request);
                 case "issued":
-                    showIssuedBooksReport(request, response);
-                    break;
+                    return prepareIssuedBooksReport(request);
                 case "overview":
                 default:
-                    showOverview(request, response);
-                    break;
+                    return prepareOverview(request);
+            }
+        } catch (RuntimeException e) {
+            if (response.isCommitted() || AsyncPageExecutor.isCancelled(request)) {
+                // Too late for an error page
+                System.err.println("Error generating report after response was sent: " + e.getMessage());
+                return null;
             }
-        } catch (Exception e) {
             request.setAttribute("error", "Error generating report: " + e.getMessage());
-            showOverview(request, response);
+            return prepareOverview(request);
         }
     }
 
     /**
-     * Show overview dashboard with statistics
+     * Overview dashboard with statistics
      */
-    private void showOverview(HttpServletRequest request, HttpServletResponse response)
-            throws ServletException, IOException {
-        // Get statistics
-        int totalBooks = bookDAO.getTotalBooks();
-        int totalAvailable = bookDAO.getTotalAvailable();
-        int totalIssued = bookDAO.getTotalIssued();
-        int totalMembers = memberDAO.getTotalMembers();
-        int totalStudents = memberDAO.getCountByType("student");
-        int totalFaculty = memberDAO.getCountByType("faculty");
-        int activeIssues = transactionDAO.countActive();
-        int overdueCount = transactionDAO.countOverdue();
-
-        request.setAttribute("totalBooks", totalBooks);
-        request.setAttribute("totalAvailable", totalAvailable);
-        request.setAttribute("totalIssued", totalIssued);
-        request.setAttribute("totalMembers", totalMembers);
-        request.setAttribute("totalStudents", totalStudents);
-        request.setAttribute("totalFaculty", totalFaculty);
-        request.setAttribute("activeIssues", activeIssues);
-        request.setAttribute("overdueCount", overdueCount);
-        request.setAttribute("reportType", "overview");
+    private String prepareOverview(HttpServletRequest request) {
+        // Get statistics (one query, shared snapshot)
+        OverviewStats stats = reportDAO.getOverview();
 
-        request.getRequestDispatcher("/reports.jsp").forward(request, response);
+        request.setAttribute("totalBooks", stats.getTotalBooks());
+        request.setAttribute("totalAvailable", stats.getTotalAvailable());
+        request.setAttribute("totalIssued", stats.getTotalIssued());
+        request.setAttribute("totalMembers", stats.getTotalMembers());
+        request.setAttribute("totalStudents", stats.getTotalStudents());
+        request.setAttribute("totalFaculty", stats.getTotalFaculty());
+        request.setAttribute("activeIssues", stats.getActiveIssues());
+        request.setAttribute("overdueCount", stats.getOverdueCount());
+        request.setAttribute("bookCache", BookDAO.getCache());
+        request.setAttribute("memberCache", MemberDAO.getCache());
+        request.setAttribute("reportType", "overview");
+        return VIEW;
     }
 
     /**
-     * Show overdue books report
+     * Overdue books report
      */
-    private void showOverdueReport(HttpServletRequest request, HttpServletResponse response)
-            throws ServletException, IOException {
+    private String prepareOverdueReport(HttpServletRequest request) {
         List<Transaction> overdueTransactions = transactionDAO.findOverdueWithDetails();
         request.setAttribute("overdueTransactions", overdueTransactions);
         request.setAttribute("reportType", "overdue");
-
-        request.getRequestDispatcher("/reports.jsp").forward(request, response);
+        return VIEW;
     }
 
     /**
-     * Show inventory status report
+     * Inventory status report, one page at a time
      */
-    private void showInventoryReport(HttpServletRequest request, HttpServletResponse response)
-            throws ServletException, IOException {
-        List<Book> allBooks = bookDAO.findAll();
-        request.setAttribute("allBooks", allBooks);
+    private String prepareInventoryReport(HttpServletRequest request) {
+        int after = parseIntParameter(request, "after", 0);
+        int pageSize = parseIntParameter(request, "size", DEFAULT_PAGE_SIZE);
+        pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether there is a next page
+        List<Book> books = bookDAO.findPage(after, pageSize + 1);
+        boolean hasNext = books.size() > pageSize;
+        if (hasNext) {
+            books = books.subList(0, pageSize);
+            request.setAttribute("nextAfter", books.get(pageSize - 1).getBookId());
+        }
+
+        request.setAttribute("allBooks", books);
+        request.setAttribute("pageSize", pageSize);
+        request.setAttribute("firstPage", after == 0);
         request.setAttribute("reportType", "inventory");
 
-        // Calculate totals
-        int totalQuantity = 0;
-        int totalAvailable = 0;
-        int totalIssued = 0;
+        // Totals are computed by the database over the whole catalog
+        InventoryTotals totals = reportDAO.getInventoryTotals();
+        request.setAttribute("totalQuantity", totals.getTotalQuantity());
+        request.setAttribute("totalAvailable", totals.getTotalAvailable());
+        request.setAttribute("totalIssued", totals.getTotalIssued());
+        return VIEW;
+    }
+
+    /**
+     * Export the full inventory as CSV, streamed row by row.
+     * Stops as soon as the client goes away instead of reading the rest of
+     * the table into a dead connection.
+     *
+     * @return null, the response is written here
+     */
+    private String exportInventoryCsv(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"inventory.csv\"");
 
-        for (Book book : allBooks) {
-            totalQuantity += book.getQuantity();
-            totalAvailable += book.getAvailable();
-            totalIssued += (book.getQuantity() - book.getAvailable());
+        final PrintWriter out = response.getWriter();
+        out.println("book_id,isbn,title,author,publisher,quantity,available,issued");
+        try {
+            bookDAO.streamAll(new RowHandler<Book>() {
+                @Override
+                public void handle(Book book) throws IOException {
+                    out.print(book.getBookId());
+                    out.print(',');
+                    out.print(csv(book.getIsbn()));
+                    out.print(',');
+                    out.print(csv(book.getTitle()));
+                    out.print(',');
+                    out.print(csv(book.getAuthor()));
+                    out.print(',');
+                    out.print(csv(book.getPublisher()));
+                    out.print(',');
+                    out.print(book.getQuantity());
+                    out.print(',');
+                    out.print(book.getAvailable());
+                    out.print(',');
+                    out.println(book.getQuantity() - book.getAvailable());
+                    if (out.checkError()) {
+                        throw new IOException("Client stopped reading the inventory export");
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            // Headers are already committed; the truncated file is the best we can do
+            System.err.println("Error exporting inventory: " + e.getMessage());
+            e.printStackTrace();
+        } catch (IOException e) {
+            System.err.println("Inventory export stopped: " + e.getMessage());
+            return null;
         }
+        out.flush();
+        return null;
+    }
 
-        request.setAttribute("totalQuantity", totalQuantity);
-        request.setAttribute("totalAvailable", totalAvailable);
-        request.setAttribute("totalIssued", totalIssued);
+    /**
+     * Quote a value for CSV output
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
 
-        request.getRequestDispatcher("/reports.jsp").forward(request, response);
+    private static int parseIntParameter(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
     }
 
     /**
-     * Show currently issued books report
+     * Currently issued books report
      */
-    private void showIssuedBooksReport(HttpServletRequest request, HttpServletResponse response)
-            throws ServletException, IOException {
+    private String prepareIssuedBooksReport(HttpServletRequest request) {
         List<Transaction> issuedTransactions = transactionDAO.findActiveWithDetails();
         request.setAttribute("issuedTransactions", issuedTransactions);
         request.setAttribute("reportType", "issued");
-
-        request.getRequestDispatcher("/reports.jsp").forward(request, response);
+        return VIEW;
     }
 }
@@ -0,0 +1,734 @@
+package com.library.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Simple bounded JDBC connection pool.
+ * Hands out proxied connections whose close() returns the physical
+ * connection to the pool instead of closing it. Each physical connection
+ * keeps an LRU cache of prepared statements keyed by SQL text, so DAOs
+ * that prepare the same static SQL on every call reuse the statement.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class ConnectionPool implements DataSource {
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private final int minIdle;
+    private final int maxActive;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMillis;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    // Pool metrics
+    private final AtomicLong totalBorrows = new AtomicLong();
+    private final AtomicLong totalCreated = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    /**
+     * Create a new pool and pre-fill it with {@code initialSize} connections
+     *
+     * @param url      JDBC URL
+     * @param username database user
+     * @param password database password
+     * @param config   pool settings
+     */
+    public ConnectionPool(String url, String username, String password, Config config) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minIdle = config.minIdle;
+        this.maxActive = config.maxActive;
+        this.maxWaitMillis = config.maxWaitMillis;
+        this.idleTimeoutMillis = config.idleTimeoutMillis;
+        this.validationTimeoutSeconds = config.validationTimeoutSeconds;
+        this.leakDetectionThresholdMillis = config.leakDetectionThresholdMillis;
+        this.statementCacheSize = config.statementCacheSize;
+        this.permits = new Semaphore(maxActive, true);
+
+        for (int i = 0; i < Math.min(config.initialSize, maxActive); i++) {
+            try {
+                idle.offerLast(createConnection());
+            } catch (SQLException e) {
+                System.err.println("Error pre-filling connection pool: " + e.getMessage());
+                break;
+            }
+        }
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, config.housekeepingPeriodMillis);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to maxWaitMillis for a free slot
+     *
+     * @return pooled connection; closing it returns it to the pool
+     * @throws SQLException if the pool is exhausted or a connection cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        updateMax(maxWaitNanos, waited);
+
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Timed out after " + maxWaitMillis + "ms waiting for a database connection ("
+                    + borrowed.size() + "/" + maxActive + " in use)");
+        }
+
+        try {
+            PooledConnection pc = takeValidConnection();
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrowSite = leakDetectionThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            borrowed.add(pc);
+            totalBorrows.incrementAndGet();
+            return pc.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool is bound to the credentials in db.properties");
+    }
+
+    /**
+     * Take an idle connection that passes validation, or open a new one
+     */
+    private PooledConnection takeValidConnection() throws SQLException {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (isValid(pc)) {
+                return pc;
+            }
+            validationFailures.incrementAndGet();
+            closeQuietly(pc);
+        }
+        return createConnection();
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try {
+            return !pc.physical.isClosed() && pc.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalCreated.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Return a connection to the pool after the borrower has closed it
+     */
+    private void release(PooledConnection pc) {
+        if (!borrowed.remove(pc)) {
+            return;
+        }
+        try {
+            boolean reusable = !shutdown && !pc.physical.isClosed();
+            if (reusable && !pc.physical.getAutoCommit()) {
+                // Never hand out a connection with an open transaction
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pc.lastUsed = System.currentTimeMillis();
+                pc.borrowSite = null;
+                idle.offerFirst(pc);
+            } else {
+                closeQuietly(pc);
+            }
+        } catch (SQLException e) {
+            System.err.println("Discarding broken pooled connection: " + e.getMessage());
+            closeQuietly(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Evict connections idle past idleTimeoutMillis (keeping minIdle) and report leaks.
+     * Runs on the housekeeper thread; package-private so tests can run a pass directly.
+     */
+    void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            if (idleTimeoutMillis > 0) {
+                Iterator<PooledConnection> it = idle.descendingIterator();
+                while (it.hasNext() && idle.size() > minIdle) {
+                    PooledConnection pc = it.next();
+                    if (now - pc.lastUsed > idleTimeoutMillis && idle.remove(pc)) {
+                        evictions.incrementAndGet();
+                        closeQuietly(pc);
+                    }
+                }
+            }
+
+            // Opens each connection under a permit, like a borrower, so refills cannot push past maxActive
+            while (!shutdown && idle.size() < minIdle && borrowed.size() + idle.size() < maxActive
+                    && permits.tryAcquire()) {
+                try {
+                    idle.offerLast(createConnection());
+                } finally {
+                    permits.release();
+                }
+            }
+
+            if (leakDetectionThresholdMillis > 0) {
+                for (PooledConnection pc : borrowed) {
+                    if (!pc.leakReported && now - pc.borrowedAt > leakDetectionThresholdMillis) {
+                        pc.leakReported = true;
+                        leaksDetected.incrementAndGet();
+                        System.err.println("Possible connection leak: connection held for "
+                                + (now - pc.borrowedAt) + "ms");
+                        if (pc.borrowSite != null) {
+                            pc.borrowSite.printStackTrace();
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error refilling connection pool: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close all idle connections and stop the housekeeper.
+     * Borrowed connections are closed as they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            closeQuietly(pc);
+        }
+    }
+
+    private static void closeQuietly(PooledConnection pc) {
+        try {
+            pc.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    // Metrics
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    public long getTotalBorrows() {
+        return totalBorrows.get();
+    }
+
+    public long getTotalCreated() {
+        return totalCreated.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected.get();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public double getStatementCacheHitRatio() {
+        long hits = statementCacheHits.get();
+        long total = hits + statementCacheMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    public long getMaxObservedWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = totalBorrows.get() + timeouts.get();
+        return borrows == 0 ? 0.0 : (totalWaitNanos.get() / 1_000_000.0) / borrows;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{" +
+                "active=" + getActiveCount() +
+                ", idle=" + getIdleCount() +
+                ", maxActive=" + maxActive +
+                ", waiting=" + getWaitingThreads() +
+                ", borrows=" + getTotalBorrows() +
+                ", created=" + getTotalCreated() +
+                ", timeouts=" + getTimeouts() +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + getMaxObservedWaitMillis() +
+                ", leaks=" + getLeaksDetected() +
+                ", stmtCacheHits=" + getStatementCacheHits() +
+                ", stmtCacheMisses=" + getStatementCacheMisses() +
+                '}';
+    }
+
+    // DataSource boilerplate
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection owned by the pool
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+
+        // Only touched by the thread that currently holds the connection
+        final Map<String, CachedStatement> statements =
+                new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                        if (size() <= statementCacheSize) {
+                            return false;
+                        }
+                        eldest.getValue().evict();
+                        return true;
+                    }
+                };
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Prepare a statement through the cache
+         *
+         * @param sql               SQL text
+         * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS etc., or -1 if not given
+         * @return a statement handle whose close() returns it to the cache
+         */
+        PreparedStatement prepareCached(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys < 0 ? sql : autoGeneratedKeys + "#" + sql;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.evicted && !cached.inUse) {
+                // Dropped after a failed reset
+                statements.remove(key);
+                cached = null;
+            }
+            if (cached != null && !cached.inUse) {
+                statementCacheHits.incrementAndGet();
+                return cached.checkout();
+            }
+            statementCacheMisses.incrementAndGet();
+            PreparedStatement ps = autoGeneratedKeys < 0
+                    ? physical.prepareStatement(sql)
+                    : physical.prepareStatement(sql, autoGeneratedKeys);
+            if (cached != null) {
+                // Same SQL is already open on this connection (nested use); don't cache the second copy
+                return ps;
+            }
+            cached = new CachedStatement(ps);
+            statements.put(key, cached);
+            return cached.checkout();
+        }
+
+        /**
+         * Create a fresh logical handle for one borrow, so that a late
+         * close() from a previous borrower cannot release it twice
+         */
+        Connection newHandle() {
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Invocation handler behind the connections handed to DAOs
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean closed;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (statementCacheSize > 0 && "prepareStatement".equals(name)) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return pc.prepareCached((String) args[0], -1);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return pc.prepareCached((String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A physical prepared statement owned by a pooled connection
+     */
+    private static final class CachedStatement implements InvocationHandler {
+        // Statement settings a borrower may change; put back on close so the next borrower starts clean
+        private static final Set<String> SETTINGS = new HashSet<>(Arrays.asList(
+                "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows",
+                "setMaxFieldSize", "setQueryTimeout", "setEscapeProcessing"));
+
+        final PreparedStatement physical;
+        boolean inUse;
+        boolean evicted;
+        private boolean handleClosed;
+        private boolean settingsChanged;
+        // Last result set handed out; the physical statement stays open, so it would otherwise leak
+        private ResultSet openResultSet;
+        private final int defaultFetchSize;
+        private final int defaultFetchDirection;
+        private final int defaultMaxRows;
+        private final int defaultMaxFieldSize;
+        private final int defaultQueryTimeout;
+
+        CachedStatement(PreparedStatement physical) throws SQLException {
+            this.physical = physical;
+            this.defaultFetchSize = physical.getFetchSize();
+            this.defaultFetchDirection = physical.getFetchDirection();
+            this.defaultMaxRows = physical.getMaxRows();
+            this.defaultMaxFieldSize = physical.getMaxFieldSize();
+            this.defaultQueryTimeout = physical.getQueryTimeout();
+        }
+
+        PreparedStatement checkout() {
+            inUse = true;
+            handleClosed = false;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closePhysical();
+            }
+        }
+
+        private void resetSettings() {
+            try {
+                physical.setFetchSize(defaultFetchSize);
+                physical.setFetchDirection(defaultFetchDirection);
+                physical.setMaxRows(defaultMaxRows);
+                physical.setMaxFieldSize(defaultMaxFieldSize);
+                physical.setQueryTimeout(defaultQueryTimeout);
+                physical.setEscapeProcessing(true);
+                settingsChanged = false;
+            } catch (SQLException e) {
+                // Can't vouch for the statement any more; the next prepare opens a fresh one
+                evicted = true;
+                closePhysical();
+            }
+        }
+
+        private void closeResultSet() {
+            if (openResultSet != null) {
+                try {
+                    openResultSet.close();
+                } catch (SQLException e) {
+                    System.err.println("Error closing cached statement result set: " + e.getMessage());
+                }
+                openResultSet = null;
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing cached statement: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        inUse = false;
+                        closeResultSet();
+                        if (evicted) {
+                            closePhysical();
+                        } else {
+                            physical.clearParameters();
+                            physical.clearBatch();
+                            if (settingsChanged) {
+                                resetSettings();
+                            }
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (handleClosed) {
+                throw new SQLException("Statement is closed");
+            }
+            if (SETTINGS.contains(method.getName())) {
+                settingsChanged = true;
+            }
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                openResultSet = (ResultSet) result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Pool settings read from db.properties
+     */
+    public static class Config {
+        int initialSize = 5;
+        int minIdle = 2;
+        int maxActive = 10;
+        long maxWaitMillis = 5000;
+        long idleTimeoutMillis = 600_000;
+        long housekeepingPeriodMillis = 30_000;
+        int validationTimeoutSeconds = 2;
+        long leakDetectionThresholdMillis = 0;
+        int statementCacheSize = 0;
+
+        public Config initialSize(int initialSize) {
+            this.initialSize = initialSize;
+            return this;
+        }
+
+        public Config minIdle(int minIdle) {
+            this.minIdle = minIdle;
+            return this;
+        }
+
+        public Config maxActive(int maxActive) {
+            this.maxActive = maxActive;
+            return this;
+        }
+
+        public Config maxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+            return this;
+        }
+
+        public Config idleTimeoutMillis(long idleTimeoutMillis) {
+            this.idleTimeoutMillis = idleTimeoutMillis;
+            return this;
+        }
+
+        public Config housekeepingPeriodMillis(long housekeepingPeriodMillis) {
+            this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+            return this;
+        }
+
+        public Config validationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            return this;
+        }
+
+        public Config leakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+            this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+            return this;
+        }
+
+        public Config statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+    }
+}
@@ -10,6 +10,10 @@ import java.util.Properties;
 /**
  * Database connection utility class.
  * Provides methods to establish and manage database connections.
+ * When db.pool.enabled is set, connections are borrowed from a
+ * {@link ConnectionPool}; otherwise a new connection is opened per call.
+ * Unless db.metrics.enabled is false, connections are wrapped so that
+ * {@link QueryMetrics} sees every statement.
  *
  * @author Library Management System
  * @version 1.0
@@ -21,6 +25,7 @@ public class DBConnection {
     private static String url;
     private static String username;
     private static String password;
+    private static ConnectionPool pool;
 
     // Static block to load database properties
     static {
@@ -43,6 +48,15 @@ public class DBConnection {
 
                 // Load the JDBC driver
                 Class.forName(driver);
+
+                QueryMetrics.configure(
+                        Boolean.parseBoolean(props.getProperty("db.metrics.enabled", "true")),
+                        intProperty(props, "db.metrics.slowQueryMillis", 200),
+                        intProperty(props, "db.metrics.slowQuerySamples", 50));
+
+                if (Boolean.parseBoolean(props.getProperty("db.pool.enabled", "false"))) {
+                    pool = new ConnectionPool(url, username, password, poolConfig(props));
+                }
             } else {
                 System.err.println("db.properties file not found in classpath!");
                 // Set default values for development
@@ -62,15 +76,80 @@ public class DBConnection {
     }
 
     /**
-     * Get a new database connection
+     * Build pool settings from db.pool.* properties
+     */
+    private static ConnectionPool.Config poolConfig(Properties props) {
+        return new ConnectionPool.Config()
+                .initialSize(intProperty(props, "db.pool.initialSize", 5))
+                .minIdle(intProperty(props, "db.pool.minIdle", 2))
+                .maxActive(intProperty(props, "db.pool.maxActive", 10))
+                .maxWaitMillis(intProperty(props, "db.pool.maxWaitMillis", 5000))
+                .idleTimeoutMillis(intProperty(props, "db.pool.idleTimeoutMillis", 600000))
+                .housekeepingPeriodMillis(intProperty(props, "db.pool.housekeepingPeriodMillis", 30000))
+                .validationTimeoutSeconds(intProperty(props, "db.pool.validationTimeoutSeconds", 2))
+                .leakDetectionThresholdMillis(intProperty(props, "db.pool.leakDetectionThresholdMillis", 0))
+                .statementCacheSize(intProperty(props, "db.pool.statementCacheSize", 0));
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get a database connection, from the pool if pooling is enabled
      *
      * @return Connection object
      * @throws SQLException if connection fails
      */
     public static Connection getConnection() throws SQLException {
+        if (!QueryMetrics.isEnabled()) {
+            return openConnection();
+        }
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            Connection conn = QueryMetrics.instrument(openConnection());
+            ok = true;
+            return conn;
+        } finally {
+            QueryMetrics.recordAcquisition(System.nanoTime() - start, ok);
+        }
+    }
+
+    private static Connection openConnection() throws SQLException {
+        if (pool != null) {
+            return pool.getConnection();
+        }
         return DriverManager.getConnection(url, username, password);
     }
 
+    /**
+     * Get the connection pool
+     *
+     * @return the pool, or null if pooling is disabled
+     */
+    public static ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Close all pooled connections (called on application shutdown)
+     */
+    public static void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
     /**
      * Close a database connection safely
      *
@@ -3,12 +3,10 @@ package com.library.util;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Date utility class for date manipulation and fine calculation.
+ * Delegates to {@link FineEngine}, so all methods are thread-safe.
  *
  * @author Library Management System
  * @version 1.0
@@ -17,7 +15,7 @@ import java.util.concurrent.TimeUnit;
 public class DateUtil {
 
     // Fine rate per day in dollars
-    public static final BigDecimal FINE_PER_DAY = new BigDecimal("0.50");
+    public static final BigDecimal FINE_PER_DAY = FineEngine.toAmount(FineEngine.FINE_CENTS_PER_DAY);
 
     // Default loan period for students (14 days)
     public static final int DEFAULT_LOAN_PERIOD_STUDENT = 14;
@@ -25,11 +23,6 @@ public class DateUtil {
     // Default loan period for faculty (30 days)
     public static final int DEFAULT_LOAN_PERIOD_FACULTY = 30;
 
-    // Date format pattern
-    private static final String DATE_FORMAT = "yyyy-MM-dd";
-
-    private static final SimpleDateFormat dateFormatter = new SimpleDateFormat(DATE_FORMAT);
-
     /**
      * Get current date as SQL Date
      *
@@ -47,10 +40,7 @@ public class DateUtil {
      * @return due date
      */
     public static Date calculateDueDate(Date issueDate, int loanPeriod) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(issueDate);
-        calendar.add(Calendar.DAY_OF_MONTH, loanPeriod);
-        return new Date(calendar.getTimeInMillis());
+        return addDays(issueDate, loanPeriod);
     }
 
     /**
@@ -81,8 +71,7 @@ public class DateUtil {
      * @return number of days between dates
      */
     public static long daysBetween(Date startDate, Date endDate) {
-        long diffInMillies = endDate.getTime() - startDate.getTime();
-        return TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
+        return FineEngine.toEpochDay(endDate) - FineEngine.toEpochDay(startDate);
     }
 
     /**
@@ -93,9 +82,7 @@ public class DateUtil {
      * @return number of overdue days (0 if not overdue)
      */
     public static long calculateOverdueDays(Date dueDate, Date returnDate) {
-        Date compareDate = returnDate != null ? returnDate : getCurrentDate();
-        long days = daysBetween(dueDate, compareDate);
-        return days > 0 ? days : 0;
+        return FineEngine.overdueDays(dueDate, returnDate);
     }
 
     /**
@@ -105,10 +92,7 @@ public class DateUtil {
      * @return fine amount
      */
     public static BigDecimal calculateFine(long overdueDays) {
-        if (overdueDays <= 0) {
-            return BigDecimal.ZERO;
-        }
-        return FINE_PER_DAY.multiply(new BigDecimal(overdueDays));
+        return FineEngine.toAmount(FineEngine.fineCents(overdueDays));
     }
 
     /**
@@ -119,18 +103,17 @@ public class DateUtil {
      * @return fine amount
      */
     public static BigDecimal calculateFine(Date dueDate, Date returnDate) {
-        long overdueDays = calculateOverdueDays(dueDate, returnDate);
-        return calculateFine(overdueDays);
+        return FineEngine.toAmount(FineEngine.fineCents(dueDate, returnDate));
     }
 
     /**
-     * Check if a date is overdue (past the due date)
+     * Check if a date is overdue (today is after the due date)
      *
      * @param dueDate the due date to check
      * @return true if overdue
      */
     public static boolean isOverdue(Date dueDate) {
-        return getCurrentDate().after(dueDate);
+        return FineEngine.today() > FineEngine.toEpochDay(dueDate);
     }
 
     /**
@@ -140,10 +123,7 @@ public class DateUtil {
      * @return formatted date string
      */
     public static String formatDate(Date date) {
-        if (date == null) {
-            return "";
-        }
-        return dateFormatter.format(date);
+        return FineEngine.format(date);
     }
 
     /**
@@ -154,11 +134,7 @@ public class DateUtil {
      * @throws ParseException if parsing fails
      */
     public static Date parseDate(String dateString) throws ParseException {
-        if (dateString == null || dateString.trim().isEmpty()) {
-            return null;
-        }
-        java.util.Date parsed = dateFormatter.parse(dateString);
-        return new Date(parsed.getTime());
+        return FineEngine.parse(dateString);
     }
 
     /**
@@ -169,10 +145,7 @@ public class DateUtil {
      * @return new date with added days
      */
     public static Date addDays(Date date, int days) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.add(Calendar.DAY_OF_MONTH, days);
-        return new Date(calendar.getTimeInMillis());
+        return FineEngine.toSqlDate(FineEngine.toEpochDay(date) + days);
     }
 
     /**
@@ -182,12 +155,6 @@ public class DateUtil {
      * @return date at start of day (00:00:00)
      */
     public static Date getStartOfDay(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return new Date(calendar.getTimeInMillis());
+        return FineEngine.toSqlDate(FineEngine.toEpochDay(date));
     }
 }
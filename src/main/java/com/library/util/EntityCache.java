@@ -0,0 +1,173 @@
+package com.library.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small thread-safe in-process cache with LRU size eviction and a TTL.
+ * Used by the DAOs to serve hot findById() lookups without a round trip.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class EntityCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<K, CachedValue<V>> entries;
+
+    // Bumped on every invalidation; see stamp() and putIfUnchanged()
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Create a cache
+     *
+     * @param name      name shown in statistics
+     * @param maxSize   maximum number of entries
+     * @param ttlMillis how long an entry stays valid after it is loaded
+     */
+    public EntityCache(String name, final int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, CachedValue<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                if (size() > maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Look up a value
+     *
+     * @param key the key
+     * @return cached value, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        CachedValue<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.currentTimeMillis() > entry.expiresAt) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Take a stamp before loading a value from the database.
+     * Pass it to putIfUnchanged() so that a load which raced with a write
+     * does not put the old value back into the cache.
+     *
+     * @return the current invalidation generation
+     */
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    /**
+     * Store a value loaded after stamp() was taken, unless something was
+     * invalidated in the meantime
+     *
+     * @param key   the key
+     * @param value the value
+     * @param stamp value returned by stamp() before the load
+     */
+    public synchronized void putIfUnchanged(K key, V value, long stamp) {
+        if (stamp == generation && value != null) {
+            entries.put(key, new CachedValue<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    /**
+     * Remove one entry
+     *
+     * @param key the key
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Remove all entries
+     */
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    // Statistics
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "EntityCache{" +
+                "name='" + name + '\'' +
+                ", size=" + entries.size() +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    private static final class CachedValue<V> {
+        final V value;
+        final long expiresAt;
+
+        CachedValue(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.library.util;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.TimeZone;
+
+/**
+ * Thread-safe date and fine arithmetic on java.time.
+ * Dates are reduced to epoch-day longs and fines are counted in integer
+ * cents; a BigDecimal is only created when an amount leaves the engine.
+ * Formatters are immutable and shared, so every method is safe to call
+ * from any servlet thread.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public final class FineEngine {
+
+    // Fine rate per overdue day, in cents
+    public static final long FINE_CENTS_PER_DAY = 50;
+
+    // yyyy-MM-dd, used for all output
+    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    // Also accepts single-digit month and day, as SimpleDateFormat did
+    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("uuuu-M-d");
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static volatile Clock clock = Clock.systemDefaultZone();
+
+    // Same zone as the clock; TimeZone.getOffset(long) is allocation-free
+    private static volatile TimeZone timeZone = TimeZone.getTimeZone(clock.getZone());
+
+    private FineEngine() {
+    }
+
+    // Day arithmetic
+
+    /**
+     * Convert a date to days since 1970-01-01 in the clock's time zone
+     *
+     * @param date the date (java.sql.Date or any java.util.Date)
+     * @return epoch day
+     */
+    public static long toEpochDay(java.util.Date date) {
+        return toEpochDay(date.getTime());
+    }
+
+    private static long toEpochDay(long epochMillis) {
+        return Math.floorDiv(epochMillis + timeZone.getOffset(epochMillis), MILLIS_PER_DAY);
+    }
+
+    /**
+     * Convert an epoch day back to a SQL date
+     *
+     * @param epochDay days since 1970-01-01
+     * @return SQL date at midnight
+     */
+    public static Date toSqlDate(long epochDay) {
+        return Date.valueOf(LocalDate.ofEpochDay(epochDay));
+    }
+
+    /**
+     * Get today's epoch day
+     *
+     * @return epoch day of the current date
+     */
+    public static long today() {
+        return toEpochDay(clock.millis());
+    }
+
+    /**
+     * Days from the due day to a later day; 0 if not overdue
+     *
+     * @param dueEpochDay     due date as epoch day
+     * @param compareEpochDay return date (or today) as epoch day
+     * @return overdue days
+     */
+    public static long overdueDays(long dueEpochDay, long compareEpochDay) {
+        long days = compareEpochDay - dueEpochDay;
+        return days > 0 ? days : 0;
+    }
+
+    /**
+     * Overdue days for a loan, counting to today if it has not been returned
+     *
+     * @param dueDate    the due date
+     * @param returnDate the return date, or null
+     * @return overdue days
+     */
+    public static long overdueDays(java.util.Date dueDate, java.util.Date returnDate) {
+        long compare = returnDate != null ? toEpochDay(returnDate) : today();
+        return overdueDays(toEpochDay(dueDate), compare);
+    }
+
+    // Fines
+
+    /**
+     * Fine for a number of overdue days
+     *
+     * @param overdueDays days overdue
+     * @return fine in cents
+     */
+    public static long fineCents(long overdueDays) {
+        return overdueDays > 0 ? Math.multiplyExact(overdueDays, FINE_CENTS_PER_DAY) : 0;
+    }
+
+    /**
+     * Fine for a loan, counting to today if it has not been returned
+     *
+     * @param dueDate    the due date
+     * @param returnDate the return date, or null
+     * @return fine in cents
+     */
+    public static long fineCents(java.util.Date dueDate, java.util.Date returnDate) {
+        return fineCents(overdueDays(dueDate, returnDate));
+    }
+
+    /**
+     * Convert cents to a currency amount
+     *
+     * @param cents amount in cents
+     * @return amount with two decimals, or BigDecimal.ZERO for no fine
+     */
+    public static BigDecimal toAmount(long cents) {
+        return cents == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(cents, 2);
+    }
+
+    // Formatting
+
+    /**
+     * Format a date as yyyy-MM-dd
+     *
+     * @param date the date
+     * @return formatted date, or "" for null
+     */
+    public static String format(java.util.Date date) {
+        if (date == null) {
+            return "";
+        }
+        return OUTPUT_FORMAT.format(LocalDate.ofEpochDay(toEpochDay(date)));
+    }
+
+    /**
+     * Parse a yyyy-MM-dd string
+     *
+     * @param text the date string
+     * @return SQL date, or null for a blank string
+     * @throws ParseException if the text is not a valid date
+     */
+    public static Date parse(String text) throws ParseException {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Date.valueOf(LocalDate.parse(text.trim(), INPUT_FORMAT));
+        } catch (DateTimeParseException e) {
+            ParseException pe = new ParseException("Unparseable date: \"" + text + "\"", e.getErrorIndex());
+            pe.initCause(e);
+            throw pe;
+        }
+    }
+
+    /**
+     * Replace the clock used for "today" (for tests)
+     *
+     * @param newClock the clock, or null to restore the system clock
+     */
+    static void setClock(Clock newClock) {
+        Clock c = newClock != null ? newClock : Clock.systemDefaultZone();
+        timeZone = TimeZone.getTimeZone(c.getZone());
+        clock = c;
+    }
+}
@@ -0,0 +1,164 @@
+package com.library.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Dynamic proxies that feed {@link QueryMetrics}.
+ * The connection proxy wraps every prepared statement; the statement proxy
+ * times execute calls and wraps result sets so that rows are counted as the
+ * DAO reads them.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+final class InstrumentedConnection implements InvocationHandler {
+
+    private static final ClassLoader LOADER = InstrumentedConnection.class.getClassLoader();
+
+    private final Connection target;
+
+    private InstrumentedConnection(Connection target) {
+        this.target = target;
+    }
+
+    static Connection wrap(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(LOADER,
+                new Class<?>[]{Connection.class}, new InstrumentedConnection(conn));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = invokeTarget(target, method, args);
+        if (result instanceof PreparedStatement && "prepareStatement".equals(method.getName())) {
+            String sql = (String) args[0];
+            return InstrumentedStatement.wrap((PreparedStatement) result, sql);
+        }
+        return result;
+    }
+
+    static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Times executeQuery / executeUpdate / execute / executeBatch
+     */
+    private static final class InstrumentedStatement implements InvocationHandler {
+        private final PreparedStatement target;
+        private final String sql;
+        private final QueryMetrics.StatementStats stats;
+        private RowCounter openResultSet;
+
+        private InstrumentedStatement(PreparedStatement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+            this.stats = QueryMetrics.statsFor(QueryMetrics.nameOf(sql));
+        }
+
+        static PreparedStatement wrap(PreparedStatement ps, String sql) {
+            return (PreparedStatement) Proxy.newProxyInstance(LOADER,
+                    new Class<?>[]{PreparedStatement.class}, new InstrumentedStatement(ps, sql));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                flushRows();
+                return invokeTarget(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+
+            flushRows();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable t) {
+                stats.recordError();
+                throw t;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                stats.getLatency().record(elapsed);
+                QueryMetrics.recordSlowQuery(stats.getName(), sql, elapsed);
+            }
+
+            if (result instanceof ResultSet) {
+                openResultSet = new RowCounter((ResultSet) result, stats);
+                return openResultSet.proxy();
+            }
+            if (result instanceof Integer) {
+                stats.recordUpdated((Integer) result);
+            } else if (result instanceof int[]) {
+                long total = 0;
+                for (int count : (int[]) result) {
+                    total += Math.max(count, 0);
+                }
+                stats.recordUpdated(total);
+            }
+            return result;
+        }
+
+        private void flushRows() {
+            if (openResultSet != null) {
+                openResultSet.flush();
+                openResultSet = null;
+            }
+        }
+    }
+
+    /**
+     * Counts rows read from a result set and reports them once on close
+     */
+    private static final class RowCounter implements InvocationHandler {
+        private final ResultSet target;
+        private final QueryMetrics.StatementStats stats;
+        private long rows;
+        private boolean flushed;
+
+        RowCounter(ResultSet target, QueryMetrics.StatementStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        ResultSet proxy() {
+            return (ResultSet) Proxy.newProxyInstance(LOADER, new Class<?>[]{ResultSet.class}, this);
+        }
+
+        void flush() {
+            if (!flushed) {
+                flushed = true;
+                stats.recordRows(rows);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("next".equals(name)) {
+                boolean hasRow = target.next();
+                if (hasRow) {
+                    rows++;
+                }
+                return hasRow;
+            }
+            if ("close".equals(name)) {
+                flush();
+            }
+            return invokeTarget(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.library.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two buckets.
+ * Bucket i counts samples below {@code 16us << i}; the last bucket counts
+ * everything slower. Recording is a few atomic adds, cheap enough to run
+ * on every statement.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class LatencyHistogram {
+
+    // Upper bound of the first bucket in microseconds
+    private static final long FIRST_BOUND_MICROS = 16;
+
+    // 20 bounded buckets (16us .. ~8.4s) plus one overflow bucket
+    public static final int BUCKETS = 21;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record one sample
+     *
+     * @param nanos elapsed time in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        long current;
+        while (nanos > (current = maxNanos.get())) {
+            if (maxNanos.compareAndSet(current, nanos)) {
+                break;
+            }
+        }
+    }
+
+    static int bucketIndex(long nanos) {
+        long scaled = (nanos / 1000) / FIRST_BOUND_MICROS;
+        if (scaled == 0) {
+            return 0;
+        }
+        int index = 64 - Long.numberOfLeadingZeros(scaled);
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    /**
+     * Upper bound of a bucket
+     *
+     * @param index bucket index
+     * @return bound in seconds, or positive infinity for the overflow bucket
+     */
+    public static double upperBoundSeconds(int index) {
+        if (index >= BUCKETS - 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (FIRST_BOUND_MICROS << index) / 1_000_000.0;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getBucketCount(int index) {
+        return buckets.get(index);
+    }
+
+    public double getTotalMillis() {
+        return totalNanos.sum() / 1_000_000.0;
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Estimate a percentile as the upper bound of the bucket it falls in
+     *
+     * @param quantile between 0 and 1
+     * @return estimated latency in milliseconds (the maximum for the overflow bucket)
+     */
+    public double getPercentileMillis(double quantile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0.0;
+        }
+        long target = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(upperBoundSeconds(i) * 1000.0, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+}
@@ -0,0 +1,310 @@
+package com.library.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * In-memory prefix index over sorted key arrays.
+ * Every entry is a (key, id, value) triple and the entries are kept in one
+ * array sorted by key, so all keys starting with a prefix sit next to each
+ * other: a lookup is a binary search followed by a short scan.
+ * The arrays are replaced, never modified, on a write, so readers need no
+ * lock and always see a complete snapshot. That makes writes O(n), which
+ * suits data that is read far more often than it changes.
+ *
+ * @param <V> the value returned for a match
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class PrefixIndex<V> {
+
+    /**
+     * Immutable sorted entries
+     */
+    private static final class Snapshot {
+        final String[] keys;
+        final int[] ids;
+        final Object[] values;
+        final int documents;
+
+        Snapshot(String[] keys, int[] ids, Object[] values, int documents) {
+            this.keys = keys;
+            this.ids = ids;
+            this.values = values;
+            this.documents = documents;
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(new String[0], new int[0], new Object[0], 0);
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    /**
+     * Create an empty index
+     */
+    public PrefixIndex() {
+    }
+
+    /**
+     * Add a document, replacing any entries it already has
+     *
+     * @param id    document ID
+     * @param value value returned by search()
+     * @param keys  keys to find the document by; normalized, null and empty keys skipped
+     */
+    public synchronized void put(int id, V value, String... keys) {
+        replace(id, value, keys);
+    }
+
+    /**
+     * Remove a document
+     *
+     * @param id document ID
+     */
+    public synchronized void remove(int id) {
+        replace(id, null, new String[0]);
+    }
+
+    private void replace(int id, V value, String[] keys) {
+        Snapshot old = snapshot;
+        String[] added = distinctKeys(keys);
+
+        int kept = 0;
+        for (int i = 0; i < old.ids.length; i++) {
+            if (old.ids[i] != id) {
+                kept++;
+            }
+        }
+        boolean existed = kept < old.ids.length;
+
+        int size = kept + added.length;
+        String[] newKeys = new String[size];
+        int[] newIds = new int[size];
+        Object[] newValues = new Object[size];
+
+        // Merge the surviving entries with the new ones, keeping key order
+        int i = 0;
+        int a = 0;
+        int n = 0;
+        while (i < old.ids.length || a < added.length) {
+            if (i < old.ids.length && old.ids[i] == id) {
+                i++;
+                continue;
+            }
+            boolean takeOld = a == added.length
+                    || (i < old.ids.length && compare(old.keys[i], old.ids[i], added[a], id) <= 0);
+            if (takeOld) {
+                newKeys[n] = old.keys[i];
+                newIds[n] = old.ids[i];
+                newValues[n] = old.values[i];
+                i++;
+            } else {
+                newKeys[n] = added[a];
+                newIds[n] = id;
+                newValues[n] = value;
+                a++;
+            }
+            n++;
+        }
+
+        int documents = old.documents - (existed ? 1 : 0) + (added.length > 0 ? 1 : 0);
+        snapshot = new Snapshot(newKeys, newIds, newValues, documents);
+    }
+
+    /**
+     * Find documents with a key starting with the prefix, in key order.
+     * A document matching on several keys is returned once.
+     *
+     * @param prefix the prefix; normalized before the lookup
+     * @param offset matching documents to skip
+     * @param limit  most documents to return
+     * @return matching values
+     */
+    public List<V> search(String prefix, int offset, int limit) {
+        return search(new String[]{prefix}, offset, limit);
+    }
+
+    /**
+     * Find documents with a key starting with any of the prefixes.
+     * Matches for the first prefix come before matches for the next.
+     *
+     * @param prefixes the prefixes (null and blank ones are skipped)
+     * @param offset   matching documents to skip
+     * @param limit    most documents to return
+     * @return matching values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> search(String[] prefixes, int offset, int limit) {
+        Snapshot s = snapshot;
+        List<V> results = new ArrayList<>(Math.min(limit, 64));
+        Set<Integer> seen = new HashSet<>();
+        int skipped = 0;
+        for (String raw : prefixes) {
+            String prefix = normalize(raw);
+            if (prefix.isEmpty()) {
+                continue;
+            }
+            for (int i = lowerBound(s.keys, prefix); i < s.keys.length && s.keys[i].startsWith(prefix); i++) {
+                if (!seen.add(s.ids[i])) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                results.add((V) s.values[i]);
+                if (results.size() >= limit) {
+                    return results;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Index of the first key not less than the prefix
+     */
+    private static int lowerBound(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(String keyA, int idA, String keyB, int idB) {
+        int c = keyA.compareTo(keyB);
+        return c != 0 ? c : Integer.compare(idA, idB);
+    }
+
+    private static String[] distinctKeys(String[] keys) {
+        Set<String> distinct = new HashSet<>();
+        for (String key : keys) {
+            String normalized = normalize(key);
+            if (!normalized.isEmpty()) {
+                distinct.add(normalized);
+            }
+        }
+        String[] sorted = distinct.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Lower-case, trim and collapse runs of whitespace
+     *
+     * @param text the text
+     * @return normalized text, "" for null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Number of documents in the index
+     *
+     * @return documents
+     */
+    public int getDocumentCount() {
+        return snapshot.documents;
+    }
+
+    /**
+     * Number of keys in the index
+     *
+     * @return entries
+     */
+    public int getEntryCount() {
+        return snapshot.keys.length;
+    }
+
+    @Override
+    public String toString() {
+        Snapshot s = snapshot;
+        return "PrefixIndex{documents=" + s.documents + ", entries=" + s.keys.length + '}';
+    }
+
+    /**
+     * Collects entries and sorts them once, for loading a whole table
+     *
+     * @param <V> the value type
+     */
+    public static class Builder<V> {
+
+        private static final class Entry {
+            final String key;
+            final int id;
+            final Object value;
+
+            Entry(String key, int id, Object value) {
+                this.key = key;
+                this.id = id;
+                this.value = value;
+            }
+        }
+
+        private final List<Entry> entries = new ArrayList<>();
+        private int documents;
+
+        /**
+         * Add a document; each ID must be added only once
+         *
+         * @param id    document ID
+         * @param value value returned by search()
+         * @param keys  keys to find the document by
+         * @return this builder
+         */
+        public Builder<V> add(int id, V value, String... keys) {
+            String[] distinct = distinctKeys(keys);
+            for (String key : distinct) {
+                entries.add(new Entry(key, id, value));
+            }
+            if (distinct.length > 0) {
+                documents++;
+            }
+            return this;
+        }
+
+        /**
+         * Build the index
+         *
+         * @return a new index holding the added documents
+         */
+        public PrefixIndex<V> build() {
+            Collections.sort(entries, new Comparator<Entry>() {
+                @Override
+                public int compare(Entry a, Entry b) {
+                    return PrefixIndex.compare(a.key, a.id, b.key, b.id);
+                }
+            });
+            String[] keys = new String[entries.size()];
+            int[] ids = new int[entries.size()];
+            Object[] values = new Object[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                keys[i] = entry.key;
+                ids[i] = entry.id;
+                values[i] = entry.value;
+            }
+            PrefixIndex<V> index = new PrefixIndex<>();
+            index.snapshot = new Snapshot(keys, ids, values, documents);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.library.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement JDBC metrics for the legacy DAOs.
+ * DAOs register their SQL constants with {@link #registerConstants(Class)},
+ * so statements are reported by constant name (for example
+ * {@code TransactionDAO.SELECT_OVERDUE_WITH_DETAILS}) instead of SQL text.
+ * {@link DBConnection} wraps each connection so that every prepared
+ * statement records its execution latency, rows returned and failures;
+ * connection acquisition time and the slowest recent statements are kept too.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public final class QueryMetrics {
+
+    // Name used for SQL that no DAO registered
+    public static final String UNREGISTERED = "unregistered";
+
+    // Upper limit on SQL strings remembered in the name lookup cache
+    private static final int MAX_RESOLVED_SQL = 4096;
+
+    // First words of the constants registerConstants() treats as SQL
+    private static final Set<String> SQL_KEYWORDS = new HashSet<>(Arrays.asList(
+            "SELECT", "INSERT", "UPDATE", "DELETE", "REPLACE", "WITH", "CALL"));
+
+    // Longest SQL text kept in a slow query sample
+    private static final int MAX_SAMPLE_SQL_LENGTH = 500;
+
+    private static volatile boolean enabled = true;
+    private static volatile long slowQueryNanos = 200L * 1_000_000;
+    private static volatile int slowQuerySampleSize = 50;
+
+    // SQL constant text -> "DaoClass.CONSTANT"
+    private static final Map<String, String> constants = new ConcurrentHashMap<>();
+    // Any SQL seen at runtime -> resolved name (covers SQL built from a prefix constant)
+    private static final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+    private static final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private static final LatencyHistogram acquisition = new LatencyHistogram();
+    private static final LongAdder acquisitionFailures = new LongAdder();
+    private static final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private static volatile long startedAt = System.currentTimeMillis();
+
+    private QueryMetrics() {
+    }
+
+    /**
+     * Apply settings from db.properties
+     *
+     * @param isEnabled           whether connections are instrumented
+     * @param slowQueryMillis     statements slower than this are sampled
+     * @param slowQuerySamples    number of slow statement samples kept
+     */
+    static void configure(boolean isEnabled, long slowQueryMillis, int slowQuerySamples) {
+        enabled = isEnabled;
+        slowQueryNanos = slowQueryMillis * 1_000_000;
+        slowQuerySampleSize = Math.max(0, slowQuerySamples);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Register every static final String field of a DAO that holds a SQL
+     * statement as a named statement. Other String constants (and SQL
+     * fragments such as a VALUES row or an ON DUPLICATE KEY clause) are
+     * skipped. When two constants hold the same SQL text the statement is
+     * reported under both names, sorted and joined with "|", whichever
+     * class registers first.
+     *
+     * @param daoClass the DAO class
+     */
+    public static void registerConstants(Class<?> daoClass) {
+        for (Field field : daoClass.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers) || field.getType() != String.class) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                String sql = (String) field.get(null);
+                if (isStatement(sql)) {
+                    constants.merge(sql, daoClass.getSimpleName() + "." + field.getName(), QueryMetrics::joinNames);
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                System.err.println("Cannot register SQL constant " + field.getName() + ": " + e.getMessage());
+            }
+        }
+        resolved.clear();
+    }
+
+    /**
+     * Check whether a constant is a SQL statement rather than other text
+     */
+    static boolean isStatement(String text) {
+        if (text == null) {
+            return false;
+        }
+        String head = text.trim();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        String keyword = head.substring(0, end).toUpperCase(Locale.ROOT);
+        return SQL_KEYWORDS.contains(keyword) && end < head.length() && Character.isWhitespace(head.charAt(end));
+    }
+
+    /**
+     * Merge two "A|B" name lists into one sorted list without duplicates
+     */
+    private static String joinNames(String a, String b) {
+        Set<String> names = new TreeSet<>(Arrays.asList(a.split("\\|")));
+        names.addAll(Arrays.asList(b.split("\\|")));
+        return String.join("|", names);
+    }
+
+    /**
+     * Wrap a connection so its statements are measured
+     *
+     * @param conn the connection
+     * @return instrumented connection, or the same connection if metrics are disabled
+     */
+    static Connection instrument(Connection conn) {
+        return enabled ? InstrumentedConnection.wrap(conn) : conn;
+    }
+
+    /**
+     * Find the name a statement is reported under
+     *
+     * @param sql SQL text as prepared
+     * @return constant name, or UNREGISTERED
+     */
+    static String nameOf(String sql) {
+        String name = resolved.get(sql);
+        if (name != null) {
+            return name;
+        }
+        name = constants.get(sql);
+        if (name == null) {
+            // SQL built from a constant prefix, such as an IN (...) list
+            int longest = 0;
+            for (Map.Entry<String, String> entry : constants.entrySet()) {
+                String constant = entry.getKey();
+                if (constant.length() > longest && sql.startsWith(constant)) {
+                    longest = constant.length();
+                    name = entry.getValue();
+                }
+            }
+            if (name == null) {
+                name = UNREGISTERED;
+            }
+        }
+        if (resolved.size() < MAX_RESOLVED_SQL) {
+            resolved.put(sql, name);
+        }
+        return name;
+    }
+
+    static StatementStats statsFor(String name) {
+        StatementStats stats = statements.get(name);
+        if (stats == null) {
+            stats = statements.computeIfAbsent(name, StatementStats::new);
+        }
+        return stats;
+    }
+
+    /**
+     * Record how long it took to obtain a connection
+     *
+     * @param nanos elapsed time
+     * @param ok    false if no connection was obtained
+     */
+    static void recordAcquisition(long nanos, boolean ok) {
+        acquisition.record(nanos);
+        if (!ok) {
+            acquisitionFailures.increment();
+        }
+    }
+
+    static void recordSlowQuery(String name, String sql, long nanos) {
+        if (nanos < slowQueryNanos || slowQuerySampleSize == 0) {
+            return;
+        }
+        String text = sql.length() > MAX_SAMPLE_SQL_LENGTH ? sql.substring(0, MAX_SAMPLE_SQL_LENGTH) + "..." : sql;
+        SlowQuery sample = new SlowQuery(name, text, nanos / 1_000_000.0,
+                Thread.currentThread().getName(), System.currentTimeMillis());
+        synchronized (slowQueries) {
+            slowQueries.addFirst(sample);
+            while (slowQueries.size() > slowQuerySampleSize) {
+                slowQueries.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Forget everything recorded so far (registrations are kept)
+     */
+    public static void reset() {
+        statements.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+        startedAt = System.currentTimeMillis();
+    }
+
+    // Snapshot accessors
+
+    /**
+     * Get statement statistics, most total time first
+     *
+     * @return list of statement statistics
+     */
+    public static List<StatementStats> getStatements() {
+        List<StatementStats> list = new ArrayList<>(statements.values());
+        Collections.sort(list, (a, b) -> Double.compare(b.getLatency().getTotalMillis(), a.getLatency().getTotalMillis()));
+        return list;
+    }
+
+    /**
+     * Get the most recent slow statements, newest first
+     *
+     * @return list of samples
+     */
+    public static List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    /**
+     * Get the number of statement executions recorded since the last reset
+     *
+     * @return execution count over all statements
+     */
+    public static long getExecutions() {
+        long total = 0;
+        for (StatementStats stats : statements.values()) {
+            total += stats.getLatency().getCount();
+        }
+        return total;
+    }
+
+    public static LatencyHistogram getAcquisition() {
+        return acquisition;
+    }
+
+    public static long getAcquisitionFailures() {
+        return acquisitionFailures.sum();
+    }
+
+    public static long getSlowQueryMillis() {
+        return slowQueryNanos / 1_000_000;
+    }
+
+    public static long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Counters for one named statement
+     */
+    public static final class StatementStats {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rowsReturned = new LongAdder();
+        private final LongAdder rowsUpdated = new LongAdder();
+        private final AtomicLong maxRowsReturned = new AtomicLong();
+
+        StatementStats(String name) {
+            this.name = name;
+        }
+
+        void recordRows(long rows) {
+            rowsReturned.add(rows);
+            long current;
+            while (rows > (current = maxRowsReturned.get())) {
+                if (maxRowsReturned.compareAndSet(current, rows)) {
+                    break;
+                }
+            }
+        }
+
+        void recordUpdated(long rows) {
+            rowsUpdated.add(rows);
+        }
+
+        void recordError() {
+            errors.increment();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getRowsReturned() {
+            return rowsReturned.sum();
+        }
+
+        public long getMaxRowsReturned() {
+            return maxRowsReturned.get();
+        }
+
+        public long getRowsUpdated() {
+            return rowsUpdated.sum();
+        }
+    }
+
+    /**
+     * One statement that took longer than the slow query threshold
+     */
+    public static final class SlowQuery {
+        private final String name;
+        private final String sql;
+        private final double millis;
+        private final String thread;
+        private final long timestamp;
+
+        SlowQuery(String name, String sql, double millis, String thread, long timestamp) {
+            this.name = name;
+            this.sql = sql;
+            this.millis = millis;
+            this.thread = thread;
+            this.timestamp = timestamp;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
@@ -0,0 +1,711 @@
+package com.library.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index for substring search over a fixed number
+ * of text fields per document.
+ * Each lower-cased three-character sequence of a field maps to a sorted list
+ * of document IDs, so a query for any substring of three or more characters
+ * is answered by intersecting a few posting lists. The first trigram of each
+ * field is also posted under a start marker, and each field's length is kept,
+ * so hits can be ranked as whole-field, prefix or substring matches without
+ * the text itself.
+ * Results are candidates: a document may contain every trigram of the
+ * query without containing the query itself, so callers re-check matches.
+ * <p>
+ * The index does not keep document text. Posting lists are delta-encoded
+ * varints in one open-addressing table keyed by field and trigram, and field
+ * lengths are a char per field indexed by document ID, so IDs should be dense
+ * non-negative keys such as AUTO_INCREMENT values. Removing or replacing a
+ * document takes the text it was indexed with; postings left behind by wrong
+ * old text only produce extra candidates.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class TrigramIndex {
+
+    // Shortest query the index can answer
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    // Match kinds within a field; see rank()
+    public static final int EXACT = 0;
+    public static final int PREFIX = 1;
+    public static final int CONTAINS = 2;
+
+    private static final int[] EMPTY = new int[0];
+
+    // Key flag for the trigram a field starts with
+    private static final long START = 1L << 62;
+
+    // Longest field length kept; longer fields never rank as EXACT
+    private static final int MAX_LENGTH = Character.MAX_VALUE - 1;
+
+    private final int fieldCount;
+
+    // Open-addressing table of posting lists; a key of 0 marks a free slot
+    private long[] keys = new long[1024];
+    private byte[][] lists = new byte[1024][];
+    private int[] listBytes = new int[1024];
+    private int[] listSizes = new int[1024];
+    private int[] lastIds = new int[1024];
+    private int trigramCount;
+    private long postingCount;
+
+    // Length + 1 of each field, at docId * fieldCount + field; 0 if not indexed
+    private char[] lengths = new char[0];
+    private int documentCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Create an empty index
+     *
+     * @param fieldCount text fields per document, in rank order
+     */
+    public TrigramIndex(int fieldCount) {
+        if (fieldCount < 1 || fieldCount > 255) {
+            throw new IllegalArgumentException("Field count must be between 1 and 255");
+        }
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * Add a document that is not indexed yet
+     *
+     * @param docId  document ID (not negative)
+     * @param fields text fields to index (null fields are empty)
+     */
+    public void add(int docId, String... fields) {
+        String[] normalized = normalizeFields(fields);
+        lock.writeLock().lock();
+        try {
+            if (contains(docId)) {
+                throw new IllegalArgumentException("Document " + docId + " is already indexed");
+            }
+            post(docId, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the text of an indexed document, or add it if it is not indexed
+     *
+     * @param docId     document ID
+     * @param oldFields the fields the document was indexed with
+     * @param fields    the new fields
+     */
+    public void replace(int docId, String[] oldFields, String... fields) {
+        String[] previous = normalizeFields(oldFields);
+        String[] normalized = normalizeFields(fields);
+        lock.writeLock().lock();
+        try {
+            if (contains(docId)) {
+                unpost(docId, previous);
+            }
+            post(docId, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document
+     *
+     * @param docId     document ID
+     * @param oldFields the fields the document was indexed with
+     */
+    public void remove(int docId, String... oldFields) {
+        String[] previous = normalizeFields(oldFields);
+        lock.writeLock().lock();
+        try {
+            if (contains(docId)) {
+                unpost(docId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Check whether a document is indexed
+     *
+     * @param docId document ID
+     * @return true if indexed
+     */
+    public boolean isIndexed(int docId) {
+        lock.readLock().lock();
+        try {
+            return contains(docId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove everything from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            keys = new long[1024];
+            lists = new byte[1024][];
+            listBytes = new int[1024];
+            listSizes = new int[1024];
+            lastIds = new int[1024];
+            trigramCount = 0;
+            postingCount = 0;
+            lengths = new char[0];
+            documentCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Release spare capacity in the posting lists (call after a bulk build)
+     */
+    public void trimToSize() {
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0 && lists[slot].length > listBytes[slot]) {
+                    lists[slot] = Arrays.copyOf(lists[slot], listBytes[slot]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find documents with a field containing every trigram of the query
+     *
+     * @param query the search text (at least MIN_QUERY_LENGTH characters)
+     * @return sorted candidate document IDs
+     */
+    public int[] search(String query) {
+        String text = checkedQuery(query);
+        long[] grams = trigrams(text);
+        lock.readLock().lock();
+        try {
+            int[] result = EMPTY;
+            for (int field = 0; field < fieldCount; field++) {
+                result = union(result, fieldCandidates(field, grams));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the best candidates for a query. A document's rank is
+     * field * 3 + kind for the first field that matches, where kind is EXACT
+     * when the field is as long as the query and starts with it, PREFIX when
+     * it starts with it and CONTAINS otherwise. Ties go to the lower ID.
+     *
+     * @param query the search text (at least MIN_QUERY_LENGTH characters)
+     * @param limit most documents to return
+     * @return candidate document IDs, best first
+     */
+    public int[] rank(String query, int limit) {
+        String text = checkedQuery(query);
+        long[] grams = trigrams(text);
+        long first = gram(text, 0);
+        lock.readLock().lock();
+        try {
+            int[] seen = EMPTY;
+            long[] ranked = new long[16];
+            int n = 0;
+            for (int field = 0; field < fieldCount; field++) {
+                int[] candidates = fieldCandidates(field, grams);
+                if (candidates.length == 0) {
+                    continue;
+                }
+                int[] starts = decode(find(START | key(field, first)));
+                int s = 0;
+                int k = 0;
+                for (int docId : candidates) {
+                    // An earlier field already ranked this document higher
+                    while (k < seen.length && seen[k] < docId) {
+                        k++;
+                    }
+                    if (k < seen.length && seen[k] == docId) {
+                        continue;
+                    }
+                    while (s < starts.length && starts[s] < docId) {
+                        s++;
+                    }
+                    int kind = CONTAINS;
+                    if (s < starts.length && starts[s] == docId) {
+                        kind = lengths[docId * fieldCount + field] - 1 == text.length() ? EXACT : PREFIX;
+                    }
+                    if (n == ranked.length) {
+                        ranked = Arrays.copyOf(ranked, n * 2);
+                    }
+                    ranked[n++] = ((long) (field * 3 + kind) << 32) | docId;
+                }
+                seen = union(seen, candidates);
+            }
+            Arrays.sort(ranked, 0, n);
+            int[] result = new int[Math.min(n, Math.max(limit, 0))];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = (int) ranked[i];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Statistics
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct (field, trigram) keys, start markers included
+     */
+    public int getTrigramCount() {
+        lock.readLock().lock();
+        try {
+            return trigramCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getPostingCount() {
+        lock.readLock().lock();
+        try {
+            return postingCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap used by the index, in bytes
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            // Five table arrays, then an array header per posting list
+            long bytes = (long) keys.length * (8 + 4 + 4 + 4 + 4) + 2L * lengths.length;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0) {
+                    bytes += 16 + lists[slot].length;
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-case text the same way for indexing and querying
+     *
+     * @param text the text
+     * @return normalized text
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Writes; callers hold the write lock
+
+    private void post(int docId, String[] fields) {
+        ensureDocument(docId);
+        for (int field = 0; field < fieldCount; field++) {
+            String text = fields[field];
+            lengths[docId * fieldCount + field] = (char) (Math.min(text.length(), MAX_LENGTH) + 1);
+            if (text.length() < MIN_QUERY_LENGTH) {
+                continue;
+            }
+            for (long gram : trigrams(text)) {
+                addPosting(key(field, gram), docId);
+            }
+            addPosting(START | key(field, gram(text, 0)), docId);
+        }
+        documentCount++;
+    }
+
+    private void unpost(int docId, String[] fields) {
+        for (int field = 0; field < fieldCount; field++) {
+            String text = fields[field];
+            lengths[docId * fieldCount + field] = 0;
+            if (text.length() < MIN_QUERY_LENGTH) {
+                continue;
+            }
+            for (long gram : trigrams(text)) {
+                removePosting(key(field, gram), docId);
+            }
+            removePosting(START | key(field, gram(text, 0)), docId);
+        }
+        documentCount--;
+    }
+
+    private void addPosting(long key, int docId) {
+        int slot = find(key);
+        if (slot < 0) {
+            slot = insertKey(key);
+        }
+        if (listSizes[slot] == 0 || lastIds[slot] < docId) {
+            // Fast path: IDs usually arrive in increasing order
+            int previous = listSizes[slot] == 0 ? -1 : lastIds[slot];
+            byte[] list = lists[slot];
+            if (listBytes[slot] + 5 > list.length) {
+                list = Arrays.copyOf(list, Math.max(listBytes[slot] + 5, list.length + (list.length >> 1)));
+                lists[slot] = list;
+            }
+            listBytes[slot] = writeVarint(list, listBytes[slot], docId - previous);
+            listSizes[slot]++;
+            lastIds[slot] = docId;
+            postingCount++;
+            return;
+        }
+        int[] ids = decode(slot);
+        int pos = Arrays.binarySearch(ids, docId);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        int[] grown = new int[ids.length + 1];
+        System.arraycopy(ids, 0, grown, 0, pos);
+        grown[pos] = docId;
+        System.arraycopy(ids, pos, grown, pos + 1, ids.length - pos);
+        store(slot, grown);
+        postingCount++;
+    }
+
+    private void removePosting(long key, int docId) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+        int[] ids = decode(slot);
+        int pos = Arrays.binarySearch(ids, docId);
+        if (pos < 0) {
+            return;
+        }
+        postingCount--;
+        if (ids.length == 1) {
+            deleteKey(slot);
+            return;
+        }
+        int[] shrunk = new int[ids.length - 1];
+        System.arraycopy(ids, 0, shrunk, 0, pos);
+        System.arraycopy(ids, pos + 1, shrunk, pos, ids.length - pos - 1);
+        store(slot, shrunk);
+    }
+
+    private void ensureDocument(int docId) {
+        if (docId < 0) {
+            throw new IllegalArgumentException("Document ID must not be negative: " + docId);
+        }
+        long needed = ((long) docId + 1) * fieldCount;
+        if (needed > lengths.length) {
+            long grown = Math.max(needed, lengths.length + (lengths.length >> 1));
+            lengths = Arrays.copyOf(lengths, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+        }
+    }
+
+    private boolean contains(int docId) {
+        long at = (long) docId * fieldCount;
+        return docId >= 0 && at < lengths.length && lengths[(int) at] != 0;
+    }
+
+    // Reads; callers hold a lock
+
+    /**
+     * Documents whose field holds every trigram, intersected shortest list first
+     */
+    private int[] fieldCandidates(int field, long[] grams) {
+        int[] slots = new int[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            slots[i] = find(key(field, grams[i]));
+            if (slots[i] < 0) {
+                return EMPTY;
+            }
+        }
+        int shortest = 0;
+        for (int i = 1; i < slots.length; i++) {
+            if (listSizes[slots[i]] < listSizes[slots[shortest]]) {
+                shortest = i;
+            }
+        }
+        int[] result = decode(slots[shortest]);
+        int size = result.length;
+        for (int i = 0; i < slots.length && size > 0; i++) {
+            if (i != shortest) {
+                size = intersect(result, size, slots[i]);
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Intersect result[0..size) with a posting list in place, decoding the
+     * list as it is walked
+     *
+     * @return new size of result
+     */
+    private int intersect(int[] result, int size, int slot) {
+        byte[] list = lists[slot];
+        int end = listBytes[slot];
+        int pos = 0;
+        int id = -1;
+        int out = 0;
+        for (int i = 0; i < size; i++) {
+            int want = result[i];
+            while (id < want && pos < end) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = list[pos++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += delta;
+            }
+            if (id == want) {
+                result[out++] = want;
+            } else if (id < want) {
+                // The list ran out
+                break;
+            }
+        }
+        return out;
+    }
+
+    private int[] decode(int slot) {
+        if (slot < 0) {
+            return EMPTY;
+        }
+        int[] ids = new int[listSizes[slot]];
+        byte[] list = lists[slot];
+        int pos = 0;
+        int id = -1;
+        for (int i = 0; i < ids.length; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = list[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    private void store(int slot, int[] ids) {
+        byte[] list = new byte[ids.length * 2 + 5];
+        int pos = 0;
+        int previous = -1;
+        for (int id : ids) {
+            if (pos + 5 > list.length) {
+                list = Arrays.copyOf(list, list.length + (list.length >> 1) + 5);
+            }
+            pos = writeVarint(list, pos, id - previous);
+            previous = id;
+        }
+        lists[slot] = list;
+        listBytes[slot] = pos;
+        listSizes[slot] = ids.length;
+        lastIds[slot] = previous;
+    }
+
+    private static int writeVarint(byte[] list, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            list[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        list[pos++] = (byte) value;
+        return pos;
+    }
+
+    // Open-addressing table with linear probing
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int insertKey(long key) {
+        if ((trigramCount + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        lists[slot] = new byte[4];
+        listBytes[slot] = 0;
+        listSizes[slot] = 0;
+        trigramCount++;
+        return slot;
+    }
+
+    /**
+     * Free a slot, shifting later entries of its probe run back so lookups
+     * never stop early at the gap
+     */
+    private void deleteKey(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry if the gap lies between its home slot and where it is
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                move(next, gap);
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        lists[gap] = null;
+        listBytes[gap] = 0;
+        listSizes[gap] = 0;
+        lastIds[gap] = 0;
+        trigramCount--;
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        lists[to] = lists[from];
+        listBytes[to] = listBytes[from];
+        listSizes[to] = listSizes[from];
+        lastIds[to] = lastIds[from];
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        byte[][] oldLists = lists;
+        int[] oldBytes = listBytes;
+        int[] oldSizes = listSizes;
+        int[] oldLast = lastIds;
+        keys = new long[capacity];
+        lists = new byte[capacity][];
+        listBytes = new int[capacity];
+        listSizes = new int[capacity];
+        lastIds = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                lists[slot] = oldLists[i];
+                listBytes[slot] = oldBytes[i];
+                listSizes[slot] = oldSizes[i];
+                lastIds[slot] = oldLast[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Text
+
+    private String[] normalizeFields(String[] fields) {
+        if (fields.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields, got " + fields.length);
+        }
+        String[] normalized = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+        return normalized;
+    }
+
+    private static String checkedQuery(String query) {
+        String text = normalize(query);
+        if (text.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Query must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        return text;
+    }
+
+    // Field number in bits 48-55 (plus one, so no key is 0), trigram below
+    private static long key(int field, long gram) {
+        return ((long) (field + 1) << 48) | gram;
+    }
+
+    private static long gram(String text, int i) {
+        return ((long) text.charAt(i) << 32)
+                | ((long) text.charAt(i + 1) << 16)
+                | text.charAt(i + 2);
+    }
+
+    /**
+     * Distinct trigrams of normalized text, sorted
+     */
+    private static long[] trigrams(String text) {
+        int count = Math.max(text.length() - MIN_QUERY_LENGTH + 1, 0);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = gram(text, i);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == count ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                merged[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                merged[n++] = b[j++];
+            } else {
+                merged[n++] = a[i++];
+                j++;
+            }
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+}
@@ -142,6 +142,53 @@
                         </form>
                     </div>
                 </div>
+
+                <!-- Bulk Import -->
+                <div class="panel panel-default">
+                    <div class="panel-heading">
+                        <h3 class="panel-title">Import Catalog (CSV)</h3>
+                    </div>
+                    <div class="panel-body">
+                        <form action="${pageContext.request.contextPath}/books" method="post"
+                              enctype="multipart/form-data">
+                            <input type="hidden" name="action" value="import">
+                            <div class="form-group">
+                                <label for="file">CSV File</label>
+                                <input type="file" id="file" name="file" accept=".csv,text/csv" required>
+                                <p class="help-block">
+                                    Header row with columns isbn, title, author, publisher, quantity.
+                                    Every row needs an ISBN; books with an existing ISBN are updated.
+                                    The import runs in the background. For very large catalogs use
+                                    the BookImporter command line instead.
+                                </p>
+                            </div>
+                            <button type="submit" class="btn btn-default btn-block">
+                                <span class="glyphicon glyphicon-import"></span> Import Books
+                            </button>
+                        </form>
+
+                        <c:if test="${not empty importJob}">
+                            <hr>
+                            <p><strong>Last import:</strong> <c:out value="${importJob.fileName}"/></p>
+                            <c:choose>
+                                <c:when test="${importJob.finished}">
+                                    <c:if test="${not empty importJob.message}">
+                                        <p class="text-success"><c:out value="${importJob.message}"/></p>
+                                    </c:if>
+                                    <c:if test="${not empty importJob.errorMessage}">
+                                        <p class="text-danger"><c:out value="${importJob.errorMessage}"/></p>
+                                    </c:if>
+                                </c:when>
+                                <c:otherwise>
+                                    <p class="text-info">
+                                        Running: <c:out value="${importJob.progress}"/>
+                                        <a href="${pageContext.request.contextPath}/books">Refresh</a>
+                                    </p>
+                                </c:otherwise>
+                            </c:choose>
+                        </c:if>
+                    </div>
+                </div>
             </div>
 
             <!-- Book List -->
@@ -85,16 +85,13 @@
                                 <p class="help-block">Only books with available copies are shown.</p>
                             </div>
 
-                            <div class="form-group">
-                                <label for="memberId">Select Member</label>
-                                <select class="form-control" id="memberId" name="memberId" required>
-                                    <option value="">-- Select a Member --</option>
-                                    <c:forEach var="member" items="${members}">
-                                        <option value="${member.memberId}">
-                                            ${member.name} (${member.memberType}) - ID: ${member.memberId}
-                                        </option>
-                                    </c:forEach>
-                                </select>
+                            <div class="form-group member-typeahead">
+                                <label for="memberSearch">Member</label>
+                                <input type="hidden" id="memberId" name="memberId">
+                                <input type="text" class="form-control" id="memberSearch" autocomplete="off"
+                                       required placeholder="Type a name, email or phone number">
+                                <div class="list-group member-suggestions" id="memberSuggestions"></div>
+                                <p class="help-block" id="memberSelected">Pick a member from the suggestions.</p>
                             </div>
 
                             <div class="alert alert-info">
@@ -161,35 +158,10 @@
                         <h3 class="panel-title">Members Summary</h3>
                     </div>
                     <div class="panel-body">
-                        <div class="table-responsive" style="max-height: 300px; overflow-y: auto;">
-                            <table class="table table-condensed table-striped">
-                                <thead>
-                                    <tr>
-                                        <th>ID</th>
-                                        <th>Name</th>
-                                        <th>Type</th>
-                                    </tr>
-                                </thead>
-                                <tbody>
-                                    <c:forEach var="member" items="${members}">
-                                        <tr>
-                                            <td>${member.memberId}</td>
-                                            <td>${member.name}</td>
-                                            <td>
-                                                <span class="label ${member.memberType == 'faculty' ? 'label-faculty' : 'label-student'}">
-                                                    ${member.memberType}
-                                                </span>
-                                            </td>
-                                        </tr>
-                                    </c:forEach>
-                                    <c:if test="${empty members}">
-                                        <tr>
-                                            <td colspan="3" class="text-center">No members registered.</td>
-                                        </tr>
-                                    </c:if>
-                                </tbody>
-                            </table>
-                        </div>
+                        <p>
+                            <strong>${memberCount}</strong> registered members.
+                            <a href="${pageContext.request.contextPath}/members">Manage members</a>
+                        </p>
                     </div>
                 </div>
             </div>
@@ -206,5 +178,70 @@
     <!-- jQuery and Bootstrap JS -->
     <script src="https://ajax.googleapis.com/ajax/libs/jquery/1.12.4/jquery.min.js"></script>
     <script src="https://maxcdn.bootstrapcdn.com/bootstrap/3.3.7/js/bootstrap.min.js"></script>
+    <script>
+        // Member typeahead: asks /members?action=suggest as the user types
+        $(function () {
+            var url = '${pageContext.request.contextPath}/members';
+            var $search = $('#memberSearch');
+            var $memberId = $('#memberId');
+            var $list = $('#memberSuggestions');
+            var $selected = $('#memberSelected');
+            var timer = null;
+            var lastQuery = null;
+
+            function choose(member) {
+                $memberId.val(member.memberId);
+                $search.val(member.name);
+                $selected.text(member.name + ' (' + member.memberType + ') - ID: ' + member.memberId
+                        + ', up to ' + member.maxBooks + ' books');
+                $list.empty().hide();
+            }
+
+            function show(members) {
+                $list.empty();
+                $.each(members, function (i, member) {
+                    $('<a href="#" class="list-group-item"></a>')
+                        .text(member.name + ' (' + member.memberType + ') - ' + (member.email || member.phone || ''))
+                        .on('mousedown', function (e) {
+                            e.preventDefault();
+                            choose(member);
+                        })
+                        .appendTo($list);
+                });
+                $list.toggle(members.length > 0);
+            }
+
+            $search.on('input', function () {
+                $memberId.val('');
+                $selected.text('Pick a member from the suggestions.');
+                var query = $.trim($search.val());
+                clearTimeout(timer);
+                if (query.length === 0) {
+                    $list.empty().hide();
+                    return;
+                }
+                timer = setTimeout(function () {
+                    lastQuery = query;
+                    $.getJSON(url, {action: 'suggest', q: query, limit: 10}, function (members) {
+                        if (query === lastQuery) {
+                            show(members);
+                        }
+                    });
+                }, 150);
+            });
+
+            $search.on('blur', function () {
+                $list.hide();
+            });
+
+            $search.closest('form').on('submit', function (e) {
+                if (!$memberId.val()) {
+                    e.preventDefault();
+                    $selected.text('Choose a member from the list before issuing.');
+                    $search.focus();
+                }
+            });
+        });
+    </script>
 </body>
 </html>
@@ -190,6 +190,44 @@
                     </div>
                 </div>
             </div>
+
+            <div class="row">
+                <div class="col-md-12">
+                    <div class="panel panel-default">
+                        <div class="panel-heading">
+                            <h3 class="panel-title">Lookup Cache</h3>
+                        </div>
+                        <div class="panel-body">
+                            <table class="table table-bordered">
+                                <tr>
+                                    <th>Cache</th>
+                                    <th>Entries</th>
+                                    <th>Hits</th>
+                                    <th>Misses</th>
+                                    <th>Evictions</th>
+                                    <th>Hit Ratio</th>
+                                </tr>
+                                <tr>
+                                    <td>${bookCache.name}</td>
+                                    <td>${bookCache.size} / ${bookCache.maxSize}</td>
+                                    <td>${bookCache.hits}</td>
+                                    <td>${bookCache.misses}</td>
+                                    <td>${bookCache.evictions}</td>
+                                    <td><fmt:formatNumber value="${bookCache.hitRatio}" type="percent" maxFractionDigits="1"/></td>
+                                </tr>
+                                <tr>
+                                    <td>${memberCache.name}</td>
+                                    <td>${memberCache.size} / ${memberCache.maxSize}</td>
+                                    <td>${memberCache.hits}</td>
+                                    <td>${memberCache.misses}</td>
+                                    <td>${memberCache.evictions}</td>
+                                    <td><fmt:formatNumber value="${memberCache.hitRatio}" type="percent" maxFractionDigits="1"/></td>
+                                </tr>
+                            </table>
+                        </div>
+                    </div>
+                </div>
+            </div>
         </c:if>
 
         <!-- Overdue Report -->
@@ -229,7 +267,7 @@
                                                 <td><fmt:formatDate value="${trans.dueDate}" pattern="yyyy-MM-dd"/></td>
                                                 <td><span class="label label-danger">${trans.overdueDays} days</span></td>
                                                 <td class="text-danger">
-                                                    <strong>$<fmt:formatNumber value="${trans.overdueDays * 0.50}" pattern="0.00"/></strong>
+                                                    <strong>$<fmt:formatNumber value="${trans.estimatedFine}" pattern="0.00"/></strong>
                                                 </td>
                                             </tr>
                                         </c:forEach>
@@ -281,6 +319,13 @@
                         </div>
                     </div>
                     <hr>
+                    <div class="clearfix">
+                        <a class="btn btn-default pull-right"
+                           href="${pageContext.request.contextPath}/reports?type=inventory&format=csv">
+                            <span class="glyphicon glyphicon-download-alt"></span> Export CSV
+                        </a>
+                    </div>
+                    <br>
                     <div class="table-responsive">
                         <table class="table table-striped table-bordered">
                             <thead>
@@ -335,6 +380,18 @@
                             </tbody>
                         </table>
                     </div>
+                    <ul class="pager">
+                        <c:if test="${not firstPage}">
+                            <li class="previous">
+                                <a href="${pageContext.request.contextPath}/reports?type=inventory&size=${pageSize}">&larr; First Page</a>
+                            </li>
+                        </c:if>
+                        <c:if test="${not empty nextAfter}">
+                            <li class="next">
+                                <a href="${pageContext.request.contextPath}/reports?type=inventory&size=${pageSize}&after=${nextAfter}">Next Page &rarr;</a>
+                            </li>
+                        </c:if>
+                    </ul>
                 </div>
             </div>
         </c:if>
@@ -125,7 +125,7 @@
                                                         <c:choose>
                                                             <c:when test="${trans.overdue}">
                                                                 <span class="text-danger">
-                                                                    $<fmt:formatNumber value="${trans.overdueDays * 0.50}" pattern="0.00"/>
+                                                                    $<fmt:formatNumber value="${trans.estimatedFine}" pattern="0.00"/>
                                                                 </span>
                                                             </c:when>
                                                             <c:otherwise>
@@ -138,7 +138,7 @@
                                                             <input type="hidden" name="action" value="return">
                                                             <input type="hidden" name="transactionId" value="${trans.transactionId}">
                                                             <button type="submit" class="btn btn-sm btn-danger"
-                                                                    onclick="return confirm('Return this book? ${trans.overdue ? 'Fine: $' : ''}${trans.overdue ? trans.overdueDays * 0.50 : ''}');">
+                                                                    onclick="return confirm('Return this book? ${trans.overdue ? 'Fine: $' : ''}${trans.overdue ? trans.estimatedFine : ''}');">
                                                                 <span class="glyphicon glyphicon-check"></span> Return
                                                             </button>
                                                         </form>
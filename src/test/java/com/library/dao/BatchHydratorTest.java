@@ -0,0 +1,151 @@
+package com.library.dao;
+
+import com.library.model.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for BatchHydrator round trips.
+ * These tests run against a stub connection that counts the statements
+ * it executes, so they do not need a database.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class BatchHydratorTest {
+
+    private BatchHydrator hydrator;
+    private CountingConnection counting;
+    private Connection conn;
+
+    @Before
+    public void setUp() {
+        hydrator = new BatchHydrator(new BookDAO(), new MemberDAO());
+        counting = new CountingConnection();
+        conn = counting.proxy();
+    }
+
+    @Test
+    public void testOneQueryPerEntityType() throws Exception {
+        hydrator.attachBooks(conn, loans(10, 10));
+        hydrator.attachMembers(conn, loans(10, 10));
+
+        assertEquals("One lookup per entity type", 2, counting.executions);
+    }
+
+    @Test
+    public void testQueriesDoNotGrowWithRows() throws Exception {
+        hydrator.attachBooks(conn, loans(5, 5));
+        int small = counting.executions;
+
+        counting.executions = 0;
+        hydrator.attachBooks(conn, loans(400, 5));
+
+        assertEquals("Repeated IDs should not add lookups", small, counting.executions);
+    }
+
+    @Test
+    public void testOneQueryPerChunk() throws Exception {
+        int ids = BatchHydrator.ID_CHUNK_SIZE * 2 + 1;
+        hydrator.attachMembers(conn, loans(ids, ids));
+
+        assertEquals("One lookup per chunk of IDs", 3, counting.executions);
+    }
+
+    @Test
+    public void testInListsPaddedToFixedSizes() throws Exception {
+        for (int ids = 1; ids <= BatchHydrator.ID_CHUNK_SIZE; ids += 7) {
+            hydrator.attachBooks(conn, loans(ids, ids));
+        }
+        assertTrue("List lengths should share a few SQL texts",
+                counting.sql.size() <= BatchHydrator.IN_LIST_SIZES.length);
+        assertEquals(1, BatchHydrator.paddedSize(1));
+        assertEquals(10, BatchHydrator.paddedSize(2));
+        assertEquals(100, BatchHydrator.paddedSize(51));
+        assertEquals(BatchHydrator.ID_CHUNK_SIZE, BatchHydrator.paddedSize(BatchHydrator.ID_CHUNK_SIZE));
+    }
+
+    @Test
+    public void testEmptyListRunsNoQuery() throws Exception {
+        hydrator.attachBooks(conn, new ArrayList<Transaction>());
+        hydrator.attachMembers(conn, new ArrayList<Transaction>());
+
+        assertEquals(0, counting.executions);
+    }
+
+    /**
+     * Build loans spread over the given number of distinct book/member IDs
+     */
+    private static List<Transaction> loans(int rows, int distinctIds) {
+        List<Transaction> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction t = new Transaction();
+            t.setBookId(1 + i % distinctIds);
+            t.setMemberId(1 + i % distinctIds);
+            transactions.add(t);
+        }
+        return transactions;
+    }
+
+    /**
+     * Connection stub whose statements count executions and return no rows
+     */
+    private static class CountingConnection implements InvocationHandler {
+        int executions;
+        final Set<String> sql = new HashSet<>();
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getName().startsWith("prepare")) {
+                sql.add((String) args[0]);
+                return Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class}, (p, m, a) -> statementCall(m));
+            }
+            return defaultValue(method);
+        }
+
+        private Object statementCall(Method method) {
+            if (method.getName().startsWith("execute")) {
+                executions++;
+                if (method.getName().equals("executeQuery")) {
+                    return Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[]{ResultSet.class}, (p, m, a) -> defaultValue(m));
+                }
+            }
+            return defaultValue(method);
+        }
+
+        private static Object defaultValue(Method method) {
+            Class<?> type = method.getReturnType();
+            if (type == boolean.class) {
+                return false;
+            }
+            if (type == int.class) {
+                return 0;
+            }
+            if (type == long.class) {
+                return 0L;
+            }
+            return null;
+        }
+    }
+}
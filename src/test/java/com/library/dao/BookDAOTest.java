@@ -5,6 +5,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -184,4 +185,109 @@ public class BookDAOTest {
         int total = bookDAO.getTotalBooks();
         assertTrue("Total books should be at least 1", total >= 1);
     }
+
+    @Test
+    public void testFindPageWalksWholeCatalog() {
+        bookDAO.insert(testBook);
+
+        int seen = 0;
+        int after = 0;
+        List<Book> page;
+        while (!(page = bookDAO.findPage(after, 3)).isEmpty()) {
+            assertTrue("Page should respect the limit", page.size() <= 3);
+            for (Book book : page) {
+                assertTrue("Pages should be in book_id order", book.getBookId() > after);
+                after = book.getBookId();
+                seen++;
+            }
+        }
+        assertEquals("Paging should visit every book", bookDAO.getTotalBooks(), seen);
+    }
+
+    @Test
+    public void testStreamAll() throws Exception {
+        bookDAO.insert(testBook);
+
+        final int[] count = {0};
+        bookDAO.streamAll(new RowHandler<Book>() {
+            @Override
+            public void handle(Book book) {
+                count[0]++;
+            }
+        });
+        assertEquals("Stream should visit every book", bookDAO.getTotalBooks(), count[0]);
+    }
+
+    @Test
+    public void testFindByIdSeesUpdateThroughCache() {
+        bookDAO.insert(testBook);
+
+        // Load into the cache, then change the row
+        bookDAO.findById(testBook.getBookId());
+        bookDAO.decrementAvailable(testBook.getBookId());
+
+        Book updated = bookDAO.findById(testBook.getBookId());
+        assertEquals("Cached book should be invalidated on write",
+                testBook.getAvailable() - 1, updated.getAvailable());
+    }
+
+    @Test
+    public void testFindByIdReturnsCopies() {
+        bookDAO.insert(testBook);
+
+        Book first = bookDAO.findById(testBook.getBookId());
+        first.setTitle("Changed by caller");
+
+        Book second = bookDAO.findById(testBook.getBookId());
+        assertEquals("Caller changes should not leak into the cache", testBook.getTitle(), second.getTitle());
+    }
+
+    @Test
+    public void testIndexedSearchMatchesDatabaseSearch() {
+        bookDAO.insert(testBook);
+
+        BookDAO.dropSearchIndex();
+        List<Book> fromDatabase = bookDAO.search("Test Book");
+
+        assertTrue("Index should build", bookDAO.buildSearchIndex());
+        List<Book> fromIndex = bookDAO.search("test book");
+
+        assertEquals("Index and database should find the same books",
+                new HashSet<>(fromDatabase), new HashSet<>(fromIndex));
+    }
+
+    @Test
+    public void testIndexedSearchFollowsWrites() {
+        assertTrue("Index should build", bookDAO.buildSearchIndex());
+        bookDAO.insert(testBook);
+        assertTrue("Inserted book should be found", bookDAO.search(testBook.getIsbn()).contains(testBook));
+
+        String oldIsbn = testBook.getIsbn();
+        testBook.setTitle("Zyxwv Renamed Title");
+        bookDAO.update(testBook);
+        assertTrue("Updated title should be found", bookDAO.search("zyxwv renamed").contains(testBook));
+        assertFalse("Old title should not match", bookDAO.search("Test Book Title").contains(testBook));
+        assertTrue("ISBN should still match", bookDAO.search(oldIsbn).contains(testBook));
+
+        bookDAO.delete(testBook.getBookId());
+        assertFalse("Deleted book should not be found", bookDAO.search("zyxwv renamed").contains(testBook));
+    }
+
+    @Test
+    public void testIndexedSearchRanksTitleMatchesFirst() {
+        assertTrue("Index should build", bookDAO.buildSearchIndex());
+        testBook.setTitle("Qwerty Ranked");
+        testBook.setAuthor("Someone");
+        bookDAO.insert(testBook);
+
+        Book byAuthor = new Book("RANK-" + System.currentTimeMillis(), "Another Title", "Qwerty Ranked", "Publisher", 1);
+        bookDAO.insert(byAuthor);
+        try {
+            List<Book> results = bookDAO.search("qwerty ranked");
+            assertEquals("Both books should match", 2, results.size());
+            assertEquals("Title match should rank first", testBook.getBookId(), results.get(0).getBookId());
+        } finally {
+            bookDAO.delete(byAuthor.getBookId());
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package com.library.dao;
+
+import com.library.model.Book;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for BookImporter.
+ * Note: These tests require a running MySQL database with the library_db schema.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class BookImporterTest {
+
+    private BookDAO bookDAO;
+    private String prefix;
+    private final List<String> isbns = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        bookDAO = new BookDAO();
+        prefix = "IMP-" + (System.currentTimeMillis() % 100000000L) + "-";
+    }
+
+    @After
+    public void tearDown() {
+        // Clean up imported books
+        for (String isbn : isbns) {
+            Book book = bookDAO.findByIsbn(isbn);
+            if (book != null) {
+                bookDAO.delete(book.getBookId());
+            }
+        }
+    }
+
+    @Test
+    public void testImportInsertsInBatches() throws Exception {
+        StringBuilder csv = new StringBuilder("isbn,title,author,publisher,quantity\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append(isbn(i)).append(",Imported Title ").append(i)
+                    .append(",\"Author, Number ").append(i).append("\",Import Press,").append(i % 3 + 1).append('\n');
+        }
+
+        final List<Integer> progress = new ArrayList<>();
+        BookImporter.ImportResult result = new BookImporter(10, 4).importCsv(stream(csv.toString()),
+                new BookImporter.ProgressListener() {
+                    @Override
+                    public void progress(BookImporter.ImportResult p) {
+                        progress.add(p.getRowsImported());
+                    }
+                });
+
+        assertEquals(25, result.getRowsRead());
+        assertEquals(25, result.getRowsImported());
+        assertEquals(0, result.getErrorCount());
+        assertEquals("One commit per batch of 10", 3, result.getBatches());
+        assertEquals("[10, 20, 25]", progress.toString());
+
+        Book book = bookDAO.findByIsbn(isbn(7));
+        assertNotNull("Imported book should be found", book);
+        assertEquals("Imported Title 7", book.getTitle());
+        assertEquals("Author, Number 7", book.getAuthor());
+        assertEquals(2, book.getQuantity());
+        assertEquals("New books start with every copy available", 2, book.getAvailable());
+    }
+
+    @Test
+    public void testImportUpsertsOnIsbn() throws Exception {
+        Book existing = new Book(isbn(0), "Old Title", "Old Author", "Old Press", 5);
+        assertTrue(bookDAO.insert(existing));
+        isbns.add(existing.getIsbn());
+        // Two copies are on loan
+        existing.setAvailable(3);
+        assertTrue(bookDAO.update(existing));
+        // Prime the cache so the import has to invalidate it
+        bookDAO.findById(existing.getBookId());
+
+        String csv = "title,isbn,quantity\r\n"
+                + "New Title," + isbn(0) + ",7\r\n";
+        BookImporter.ImportResult result = new BookImporter().importCsv(stream(csv), null);
+        assertEquals(1, result.getRowsImported());
+
+        Book updated = bookDAO.findById(existing.getBookId());
+        assertEquals("New Title", updated.getTitle());
+        assertEquals(7, updated.getQuantity());
+        assertEquals("Available copies should follow the quantity change", 5, updated.getAvailable());
+        assertEquals("Upsert should not add a second row", existing.getBookId(),
+                bookDAO.findByIsbn(isbn(0)).getBookId());
+    }
+
+    @Test
+    public void testImportSkipsInvalidRows() throws Exception {
+        String csv = "book_id,isbn,title,quantity\n"
+                + "1," + isbn(0) + ",Valid Book,2\n"
+                + "2," + isbn(1) + ",,2\n"
+                + "3," + isbn(2) + ",Bad Quantity,many\n"
+                + "4,123456789012345678901,ISBN Too Long,1\n"
+                + "5,,No ISBN,1\n";
+        BookImporter.ImportResult result = new BookImporter().importCsv(stream(csv), null);
+
+        assertEquals(5, result.getRowsRead());
+        assertEquals(1, result.getRowsImported());
+        assertEquals(4, result.getRowsSkipped());
+        assertEquals(4, result.getErrors().size());
+        assertTrue(result.getErrors().get(3).contains("ISBN is missing"));
+        assertTrue(result.getErrors().get(0).startsWith("Line 3"));
+        assertNotNull(bookDAO.findByIsbn(isbn(0)));
+        assertNull(bookDAO.findByIsbn(isbn(1)));
+    }
+
+    @Test
+    public void testImportedBooksAreSearchable() throws Exception {
+        bookDAO.buildSearchIndex();
+        String csv = "isbn,title\n" + isbn(0) + ",Quixotic Importable Volume\n";
+        new BookImporter().importCsv(stream(csv), null);
+
+        List<Book> results = bookDAO.search("Quixotic Importable");
+        assertEquals(1, results.size());
+        assertEquals(isbn(0), results.get(0).getIsbn());
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void testImportRequiresTitleColumn() throws Exception {
+        new BookImporter().importCsv(stream("isbn,author\n1,A\n"), null);
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void testImportRequiresIsbnColumn() throws Exception {
+        new BookImporter().importCsv(stream("title,author\nSome Title,A\n"), null);
+    }
+
+    private String isbn(int i) {
+        String isbn = prefix + i;
+        if (!isbns.contains(isbn)) {
+            isbns.add(isbn);
+        }
+        return isbn;
+    }
+
+    private static InputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -207,4 +207,59 @@ public class MemberDAOTest {
         testMember.setMemberType("faculty");
         assertEquals("Faculty loan period should be 30", 30, testMember.getLoanPeriodDays());
     }
+
+    @Test
+    public void testPrefixSearchWithoutIndex() {
+        MemberDAO.dropPrefixIndex();
+        testMember.setName("Quillon Prefixson");
+        memberDAO.insert(testMember);
+
+        List<Member> results = memberDAO.searchPrefix("Quillon Pre", 0, 10);
+        assertEquals("Name prefix should match", 1, results.size());
+        assertEquals(testMember.getMemberId(), results.get(0).getMemberId());
+
+        assertTrue("Prefix search should not match in the middle of a name",
+                memberDAO.searchPrefix("illon", 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testPrefixSearchWithIndex() {
+        assertTrue("Index should build", memberDAO.buildPrefixIndex());
+        testMember.setName("Quillon Prefixson");
+        testMember.setPhone("(555) 424-1234");
+        memberDAO.insert(testMember);
+
+        assertEquals("Full name prefix", testMember.getMemberId(),
+                memberDAO.searchPrefix("QUILLON  P", 0, 10).get(0).getMemberId());
+        assertEquals("Later word of the name", testMember.getMemberId(),
+                memberDAO.searchPrefix("prefixs", 0, 10).get(0).getMemberId());
+        assertEquals("Email prefix", testMember.getMemberId(),
+                memberDAO.searchPrefix(testMember.getEmail().substring(0, 12), 0, 10).get(0).getMemberId());
+        assertEquals("Phone digits ignore punctuation", testMember.getMemberId(),
+                memberDAO.searchPrefix("555-4241", 0, 10).get(0).getMemberId());
+
+        // The index follows updates and deletes
+        testMember.setName("Renamed Prefixson");
+        assertTrue(memberDAO.update(testMember));
+        assertTrue(memberDAO.searchPrefix("quillon", 0, 10).isEmpty());
+        assertEquals(1, memberDAO.searchPrefix("renamed prefixson", 0, 10).size());
+
+        assertTrue(memberDAO.delete(testMember.getMemberId()));
+        assertTrue(memberDAO.searchPrefix("renamed prefixson", 0, 10).isEmpty());
+        testMember.setMemberId(0);
+    }
+
+    @Test
+    public void testPrefixSearchPages() {
+        memberDAO.buildPrefixIndex();
+        List<Member> all = memberDAO.searchPrefix("a", 0, 1000);
+        if (all.size() < 2) {
+            return;
+        }
+        List<Member> first = memberDAO.searchPrefix("a", 0, 1);
+        List<Member> second = memberDAO.searchPrefix("a", 1, 1);
+        assertEquals(1, first.size());
+        assertEquals(all.get(0).getMemberId(), first.get(0).getMemberId());
+        assertEquals(all.get(1).getMemberId(), second.get(0).getMemberId());
+    }
 }
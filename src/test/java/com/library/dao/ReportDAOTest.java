@@ -0,0 +1,62 @@
+package com.library.dao;
+
+import com.library.model.OverviewStats;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReportDAO class.
+ * Note: These tests require a running MySQL database with the library_db schema.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class ReportDAOTest {
+
+    private ReportDAO reportDAO;
+    private BookDAO bookDAO;
+    private MemberDAO memberDAO;
+    private TransactionDAO transactionDAO;
+
+    @Before
+    public void setUp() {
+        reportDAO = new ReportDAO();
+        bookDAO = new BookDAO();
+        memberDAO = new MemberDAO();
+        transactionDAO = new TransactionDAO();
+    }
+
+    @Test
+    public void testLoadOverviewMatchesIndividualCounts() {
+        OverviewStats stats = reportDAO.loadOverview();
+        assertNotNull("Overview should not be null", stats);
+
+        assertEquals("Total books should match", bookDAO.getTotalBooks(), stats.getTotalBooks());
+        assertEquals("Total available should match", bookDAO.getTotalAvailable(), stats.getTotalAvailable());
+        assertEquals("Total issued should match", bookDAO.getTotalIssued(), stats.getTotalIssued());
+        assertEquals("Total members should match", memberDAO.getTotalMembers(), stats.getTotalMembers());
+        assertEquals("Students should match", memberDAO.getCountByType("student"), stats.getTotalStudents());
+        assertEquals("Faculty should match", memberDAO.getCountByType("faculty"), stats.getTotalFaculty());
+        assertEquals("Active issues should match", transactionDAO.countActive(), stats.getActiveIssues());
+        assertEquals("Overdue count should match", transactionDAO.countOverdue(), stats.getOverdueCount());
+    }
+
+    @Test
+    public void testGetOverviewServesSnapshotWithinTtl() {
+        ReportDAO cached = new ReportDAO(60000);
+        OverviewStats first = cached.getOverview();
+        OverviewStats second = cached.getOverview();
+        assertSame("Second call should reuse the snapshot", first, second);
+    }
+
+    @Test
+    public void testGetOverviewRefreshesWithZeroTtl() {
+        ReportDAO uncached = new ReportDAO(0);
+        OverviewStats first = uncached.getOverview();
+        OverviewStats second = uncached.getOverview();
+        assertNotSame("Zero TTL should recompute the snapshot", first, second);
+    }
+}
@@ -0,0 +1,193 @@
+package com.library.dao;
+
+import com.library.model.Book;
+import com.library.model.Member;
+import com.library.model.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Concurrency tests for TransactionDAO.issue() and returnBook().
+ * Note: These tests require a running MySQL database with the library_db schema.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class TransactionDAOConcurrencyTest {
+
+    private static final int BORROWERS = 64;
+    private static final int COPIES = 5;
+
+    private TransactionDAO transactionDAO;
+    private BookDAO bookDAO;
+    private MemberDAO memberDAO;
+
+    private final List<Book> books = new ArrayList<>();
+    private final List<Member> members = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        transactionDAO = new TransactionDAO();
+        bookDAO = new BookDAO();
+        memberDAO = new MemberDAO();
+    }
+
+    @After
+    public void tearDown() {
+        for (Member member : members) {
+            for (Transaction t : transactionDAO.findActiveByMember(member.getMemberId())) {
+                transactionDAO.returnBook(t.getTransactionId());
+            }
+        }
+        for (Book book : books) {
+            bookDAO.delete(book.getBookId());
+        }
+        for (Member member : members) {
+            memberDAO.delete(member.getMemberId());
+        }
+    }
+
+    @Test
+    public void testNoOversellUnderConcurrentIssue() throws Exception {
+        Book book = createBook(COPIES);
+        final List<Integer> memberIds = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            memberIds.add(createMember(i).getMemberId());
+        }
+
+        List<TransactionDAO.IssueResult> results = runConcurrently(BORROWERS, new IssueCall() {
+            @Override
+            public TransactionDAO.IssueResult issue(int index) {
+                return transactionDAO.issue(book.getBookId(), memberIds.get(index));
+            }
+        });
+
+        assertEquals("Exactly the available copies should be issued", COPIES,
+                count(results, TransactionDAO.IssueResult.SUCCESS));
+        assertEquals("Everyone else should be told no copy is available", BORROWERS - COPIES,
+                count(results, TransactionDAO.IssueResult.NOT_AVAILABLE));
+        assertEquals("Available count should not go negative", 0, bookDAO.findById(book.getBookId()).getAvailable());
+        assertEquals("One loan per issued copy", COPIES, transactionDAO.findByBook(book.getBookId()).size());
+    }
+
+    @Test
+    public void testMemberLimitUnderConcurrentIssue() throws Exception {
+        final Member member = createMember(0);
+        final List<Integer> bookIds = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            bookIds.add(createBook(1).getBookId());
+        }
+
+        List<TransactionDAO.IssueResult> results = runConcurrently(BORROWERS, new IssueCall() {
+            @Override
+            public TransactionDAO.IssueResult issue(int index) {
+                return transactionDAO.issue(bookIds.get(index), member.getMemberId());
+            }
+        });
+
+        assertEquals("Student should get exactly the limit", member.getMaxBooks(),
+                count(results, TransactionDAO.IssueResult.SUCCESS));
+        assertEquals("Active loans should equal the limit", member.getMaxBooks(),
+                transactionDAO.countActiveByMember(member.getMemberId()));
+    }
+
+    @Test
+    public void testSingleReturnUnderConcurrentReturns() throws Exception {
+        final Book book = createBook(1);
+        Member member = createMember(0);
+        assertEquals(TransactionDAO.IssueResult.SUCCESS, transactionDAO.issue(book.getBookId(), member.getMemberId()));
+        final int transactionId = transactionDAO.findActiveByMember(member.getMemberId()).get(0).getTransactionId();
+
+        // More callers than pooled connections, so a second borrow per return would starve the pool
+        ExecutorService executor = Executors.newFixedThreadPool(BORROWERS);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < BORROWERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return transactionDAO.returnBook(transactionId);
+                }));
+            }
+            start.countDown();
+
+            int returned = 0;
+            for (Future<BigDecimal> future : futures) {
+                if (future.get(60, TimeUnit.SECONDS).signum() >= 0) {
+                    returned++;
+                }
+            }
+            assertEquals("Exactly one return should succeed", 1, returned);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("The copy should be released once", 1, bookDAO.findById(book.getBookId()).getAvailable());
+    }
+
+    private interface IssueCall {
+        TransactionDAO.IssueResult issue(int index);
+    }
+
+    private List<TransactionDAO.IssueResult> runConcurrently(int threads, final IssueCall call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransactionDAO.IssueResult>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.issue(index);
+                }));
+            }
+            start.countDown();
+
+            List<TransactionDAO.IssueResult> results = new ArrayList<>();
+            for (Future<TransactionDAO.IssueResult> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int count(List<TransactionDAO.IssueResult> results, TransactionDAO.IssueResult expected) {
+        int n = 0;
+        for (TransactionDAO.IssueResult result : results) {
+            if (result == expected) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private Book createBook(int quantity) {
+        Book book = new Book("CC-" + (System.nanoTime() % 1000000000000L),
+                "Concurrency Test Book", "Author", "Publisher", quantity);
+        bookDAO.insert(book);
+        books.add(book);
+        return book;
+    }
+
+    private Member createMember(int index) {
+        Member member = new Member("Concurrency Member " + index,
+                "conc" + index + "." + System.nanoTime() + "@test.com", "555-7777", "student");
+        memberDAO.insert(member);
+        members.add(member);
+        return member;
+    }
+}
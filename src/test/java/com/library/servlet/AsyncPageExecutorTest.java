@@ -0,0 +1,328 @@
+package com.library.servlet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for AsyncPageExecutor.
+ * Requests, responses and async contexts are stubs; no container needed.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class AsyncPageExecutorTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    private AsyncPageExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new AsyncPageExecutor("test", 1, 1, 30000);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCompletedTaskDispatchesView() throws Exception {
+        Exchange exchange = new Exchange();
+
+        executor.render(exchange.request(), exchange.response(), (request, response) -> {
+            request.setAttribute("report", "ready");
+            return "/reports.jsp";
+        });
+
+        assertTrue(exchange.await());
+        assertEquals("/reports.jsp", exchange.dispatchedTo);
+        assertEquals("ready", exchange.attributes.get("report"));
+        assertEquals(0, exchange.status);
+        assertEquals(1, executor.getSubmitted());
+    }
+
+    @Test
+    public void testTaskWritingResponseCompletes() throws Exception {
+        Exchange exchange = new Exchange();
+
+        executor.render(exchange.request(), exchange.response(), (request, response) -> {
+            response.getWriter().print("id,title");
+            return null;
+        });
+
+        assertTrue(exchange.await());
+        assertTrue(exchange.completed);
+        assertNull(exchange.dispatchedTo);
+        assertEquals("id,title", exchange.body.toString());
+    }
+
+    @Test
+    public void testFailedTaskSends500() throws Exception {
+        Exchange exchange = new Exchange();
+
+        executor.render(exchange.request(), exchange.response(), (request, response) -> {
+            throw new IllegalStateException("database down");
+        });
+
+        assertTrue(exchange.await());
+        assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, exchange.status);
+        assertTrue(exchange.completed);
+        assertEquals(1, executor.getFailed());
+    }
+
+    @Test
+    public void testTimedOutTaskCannotTouchResponse() throws Exception {
+        Exchange exchange = new Exchange();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch resume = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicBoolean writeFailed = new AtomicBoolean();
+
+        executor.render(exchange.request(), exchange.response(), (request, response) -> {
+            PrintWriter out = response.getWriter();
+            out.print("before,");
+            started.countDown();
+            resume.await();
+            cancelled.set(AsyncPageExecutor.isCancelled(request));
+            out.print("after");
+            writeFailed.set(out.checkError());
+            response.setHeader("X-Late", "yes");
+            request.setAttribute("report", "late");
+            done.countDown();
+            return "/reports.jsp";
+        });
+
+        assertTrue(started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        exchange.fireTimeout();
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exchange.status);
+        assertTrue(exchange.completed);
+
+        resume.countDown();
+        assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        // Let the worker reach the end of run()
+        executor.shutdown();
+        assertTrue(waitForIdle());
+
+        assertTrue("Task should see the cancellation", cancelled.get());
+        assertTrue("Late write should fail", writeFailed.get());
+        assertEquals("before,", exchange.body.toString());
+        assertNull(exchange.headers.get("X-Late"));
+        assertNull(exchange.attributes.get("report"));
+        assertNull("Timed out page must not be dispatched", exchange.dispatchedTo);
+        assertEquals(1, exchange.completions);
+        assertEquals(1, executor.getTimedOut());
+        assertEquals(0, executor.getFailed());
+    }
+
+    @Test
+    public void testFullQueueRejectedWith503() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AsyncPageExecutor.PageTask blocking = (request, response) -> {
+            started.countDown();
+            release.await();
+            return null;
+        };
+
+        // One running, one queued
+        Exchange running = new Exchange();
+        executor.render(running.request(), running.response(), blocking);
+        assertTrue(started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        Exchange queued = new Exchange();
+        executor.render(queued.request(), queued.response(), blocking);
+
+        Exchange rejected = new Exchange();
+        executor.render(rejected.request(), rejected.response(), blocking);
+
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, rejected.status);
+        assertTrue(rejected.completed);
+        assertNotNull(rejected.headers.get("Retry-After"));
+        assertEquals(1, executor.getRejected());
+        assertEquals(2, executor.getSubmitted());
+
+        release.countDown();
+        assertTrue(running.await());
+        assertTrue(queued.await());
+    }
+
+    @Test
+    public void testStreamHasNoTimeoutAndSharesQueueLimit() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AsyncPageExecutor.PageTask export = (request, response) -> {
+            started.countDown();
+            release.await();
+            response.getWriter().print("id,title");
+            return null;
+        };
+
+        Exchange streaming = new Exchange();
+        executor.stream(streaming.request(), streaming.response(), export);
+        assertTrue(started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0L, streaming.timeout);
+
+        Exchange queued = new Exchange();
+        executor.render(queued.request(), queued.response(), (request, response) -> "/reports.jsp");
+        assertEquals(30000L, queued.timeout);
+
+        Exchange rejected = new Exchange();
+        executor.stream(rejected.request(), rejected.response(), export);
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, rejected.status);
+        assertEquals(1, executor.getRejected());
+
+        release.countDown();
+        assertTrue(streaming.await());
+        assertEquals("id,title", streaming.body.toString());
+        assertTrue(queued.await());
+    }
+
+    @Test
+    public void testIsCancelledFalseOutsideExecutor() {
+        assertFalse(AsyncPageExecutor.isCancelled(new Exchange().request()));
+    }
+
+    private boolean waitForIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (executor.getActiveCount() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * One request/response pair and its async context, recording what the
+     * executor did to them
+     */
+    private static final class Exchange {
+        final Map<String, Object> attributes = new HashMap<>();
+        final Map<String, String> headers = new HashMap<>();
+        final StringWriter body = new StringWriter();
+        final PrintWriter writer = new PrintWriter(body);
+        final List<AsyncListener> listeners = new ArrayList<>();
+        final CountDownLatch finished = new CountDownLatch(1);
+        volatile int status;
+        volatile boolean completed;
+        volatile int completions;
+        volatile String dispatchedTo;
+        volatile long timeout = -1;
+
+        private HttpServletRequest request;
+        private HttpServletResponse response;
+        private AsyncContext async;
+
+        HttpServletRequest request() {
+            if (request == null) {
+                request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                            switch (method.getName()) {
+                                case "isAsyncSupported":
+                                    return true;
+                                case "startAsync":
+                                    return asyncContext();
+                                case "getAttribute":
+                                    return attributes.get(args[0]);
+                                case "setAttribute":
+                                    attributes.put((String) args[0], args[1]);
+                                    return null;
+                                case "removeAttribute":
+                                    attributes.remove(args[0]);
+                                    return null;
+                                default:
+                                    return null;
+                            }
+                        });
+            }
+            return request;
+        }
+
+        HttpServletResponse response() {
+            if (response == null) {
+                response = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> {
+                            switch (method.getName()) {
+                                case "getWriter":
+                                    return writer;
+                                case "setHeader":
+                                    headers.put((String) args[0], (String) args[1]);
+                                    return null;
+                                case "sendError":
+                                    status = (Integer) args[0];
+                                    return null;
+                                case "isCommitted":
+                                    return status != 0;
+                                default:
+                                    return null;
+                            }
+                        });
+            }
+            return response;
+        }
+
+        private AsyncContext asyncContext() {
+            if (async == null) {
+                async = (AsyncContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{AsyncContext.class}, (proxy, method, args) -> {
+                            switch (method.getName()) {
+                                case "getRequest":
+                                    return request();
+                                case "getResponse":
+                                    return response();
+                                case "addListener":
+                                    listeners.add((AsyncListener) args[0]);
+                                    return null;
+                                case "complete":
+                                    completed = true;
+                                    completions++;
+                                    finished.countDown();
+                                    return null;
+                                case "dispatch":
+                                    dispatchedTo = (String) args[0];
+                                    finished.countDown();
+                                    return null;
+                                case "setTimeout":
+                                    timeout = (Long) args[0];
+                                    return null;
+                                default:
+                                    return null;
+                            }
+                        });
+            }
+            return async;
+        }
+
+        void fireTimeout() throws Exception {
+            for (AsyncListener listener : listeners) {
+                listener.onTimeout(new AsyncEvent(asyncContext()));
+            }
+        }
+
+        boolean await() throws InterruptedException {
+            return finished.await(WAIT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+}
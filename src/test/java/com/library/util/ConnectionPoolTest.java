@@ -0,0 +1,531 @@
+package com.library.util;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ConnectionPool.
+ * These tests run against a stub JDBC driver, so they do not need a database.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:stub:pool";
+    private static final StubDriver DRIVER = new StubDriver();
+
+    private ConnectionPool pool;
+
+    @BeforeClass
+    public static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(DRIVER);
+    }
+
+    @AfterClass
+    public static void deregisterDriver() throws SQLException {
+        DriverManager.deregisterDriver(DRIVER);
+    }
+
+    @Before
+    public void setUp() {
+        DRIVER.connections.clear();
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testReturnedConnectionIsReused() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(2));
+
+        Connection first = pool.getConnection();
+        assertEquals(1, pool.getActiveCount());
+        first.close();
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        try (Connection second = pool.getConnection()) {
+            assertFalse(second.isClosed());
+        }
+        assertEquals("No new physical connection should be opened", 1, pool.getTotalCreated());
+        assertEquals(2, pool.getTotalBorrows());
+        assertFalse(DRIVER.connections.get(0).closed);
+    }
+
+    @Test
+    public void testTimesOutWhenExhausted() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(0).maxActive(2).maxWaitMillis(100));
+
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        long start = System.nanoTime();
+        try {
+            pool.getConnection();
+            fail("Third borrow should time out");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().contains("Timed out"));
+        }
+        assertTrue("Should wait about maxWaitMillis",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90);
+        assertEquals(1, pool.getTimeouts());
+        assertEquals(2, DRIVER.connections.size());
+        a.close();
+        b.close();
+    }
+
+    @Test
+    public void testWaiterGetsReturnedConnection() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(0).maxActive(1).maxWaitMillis(5000));
+
+        Connection held = pool.getConnection();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter = executor.submit(() -> {
+                try (Connection conn = pool.getConnection()) {
+                    return !conn.isClosed();
+                }
+            });
+            while (pool.getWaitingThreads() == 0) {
+                Thread.sleep(5);
+            }
+            held.close();
+            assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, pool.getTotalCreated());
+    }
+
+    @Test
+    public void testInvalidIdleConnectionIsReplaced() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(2));
+
+        DRIVER.connections.get(0).valid = false;
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(1, pool.getValidationFailures());
+        assertEquals(2, pool.getTotalCreated());
+        assertTrue("Invalid connection should be closed", DRIVER.connections.get(0).closed);
+    }
+
+    @Test
+    public void testCloseIsIdempotent() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(0).maxActive(1).maxWaitMillis(50));
+
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close();
+        assertTrue(conn.isClosed());
+        try {
+            conn.createStatement();
+            fail("A returned handle should not be usable");
+        } catch (SQLException expected) {
+            // expected
+        }
+
+        // A second close must not have released a second permit
+        Connection next = pool.getConnection();
+        try {
+            pool.getConnection();
+            fail("Only one connection should be available");
+        } catch (SQLException expected) {
+            // expected
+        }
+        next.close();
+    }
+
+    @Test
+    public void testLateCloseDoesNotReleaseNextBorrower() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(1));
+
+        Connection first = pool.getConnection();
+        first.close();
+        Connection second = pool.getConnection();
+        first.close();
+        assertEquals("The second borrow should still be active", 1, pool.getActiveCount());
+        assertFalse(second.isClosed());
+        second.close();
+    }
+
+    @Test
+    public void testOpenTransactionRolledBackOnReturn() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(1));
+
+        Connection conn = pool.getConnection();
+        conn.setAutoCommit(false);
+        conn.close();
+
+        StubConnection physical = DRIVER.connections.get(0);
+        assertEquals(1, physical.rollbacks);
+        assertTrue(physical.autoCommit);
+    }
+
+    @Test
+    public void testRefillStaysWithinMaxActive() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(0).minIdle(2).maxActive(2));
+
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        pool.housekeep();
+        assertEquals("Nothing to refill while every slot is borrowed", 0, pool.getIdleCount());
+        assertEquals(2, pool.getTotalCreated());
+
+        a.close();
+        b.close();
+        pool.housekeep();
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(2, pool.getTotalCreated());
+    }
+
+    @Test
+    public void testRefillUpToMinIdle() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(0).minIdle(2).maxActive(5));
+
+        pool.housekeep();
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(2, pool.getTotalCreated());
+    }
+
+    @Test
+    public void testIdleConnectionsEvictedAboveMinIdle() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(3).minIdle(1).maxActive(3).idleTimeoutMillis(1));
+
+        Thread.sleep(10);
+        pool.housekeep();
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(2, pool.getEvictions());
+    }
+
+    @Test
+    public void testLeakReportedOnce() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(0).maxActive(1).leakDetectionThresholdMillis(1));
+
+        Connection conn = pool.getConnection();
+        Thread.sleep(10);
+        pool.housekeep();
+        pool.housekeep();
+        assertEquals(1, pool.getLeaksDetected());
+        conn.close();
+    }
+
+    @Test
+    public void testShutdownClosesConnections() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(2));
+
+        Connection conn = pool.getConnection();
+        pool.shutdown();
+        conn.close();
+        for (StubConnection physical : DRIVER.connections) {
+            assertTrue(physical.closed);
+        }
+        try {
+            pool.getConnection();
+            fail("Borrowing after shutdown should fail");
+        } catch (SQLException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testStatementCacheHitAndMiss() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(1).statementCacheSize(4));
+
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 2").close();
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT 1").close();
+        }
+
+        assertEquals(2, pool.getStatementCacheHits());
+        assertEquals(2, pool.getStatementCacheMisses());
+        assertEquals("Each SQL text prepared once", 2, DRIVER.connections.get(0).statements.size());
+        assertEquals(0.5, pool.getStatementCacheHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testNestedUseGetsUncachedStatement() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(1).statementCacheSize(4));
+
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement outer = conn.prepareStatement("SELECT 1");
+            PreparedStatement inner = conn.prepareStatement("SELECT 1");
+            inner.close();
+            outer.close();
+        }
+        List<StubStatement> statements = DRIVER.connections.get(0).statements;
+        assertEquals(2, statements.size());
+        assertFalse("Cached copy stays open", statements.get(0).closed);
+        assertTrue("Uncached copy is really closed", statements.get(1).closed);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementEvicted() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(1).statementCacheSize(2));
+
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 2").close();
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 3").close();
+        }
+        List<StubStatement> statements = DRIVER.connections.get(0).statements;
+        assertEquals(3, statements.size());
+        assertFalse("SELECT 1 was used most recently", statements.get(0).closed);
+        assertTrue("SELECT 2 should be evicted and closed", statements.get(1).closed);
+        assertFalse(statements.get(2).closed);
+    }
+
+    @Test
+    public void testStatementSettingsResetOnClose() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(1).statementCacheSize(4));
+
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement pstmt = conn.prepareStatement("SELECT 1");
+            pstmt.setFetchSize(500);
+            pstmt.setMaxRows(10);
+            pstmt.setQueryTimeout(30);
+            pstmt.close();
+
+            try (PreparedStatement again = conn.prepareStatement("SELECT 1")) {
+                assertEquals(0, again.getFetchSize());
+                assertEquals(0, again.getMaxRows());
+                assertEquals(0, again.getQueryTimeout());
+            }
+        }
+        assertEquals(1, DRIVER.connections.get(0).statements.size());
+    }
+
+    @Test
+    public void testOpenResultSetClosedWithStatement() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(1).statementCacheSize(4));
+
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement pstmt = conn.prepareStatement("SELECT 1");
+            pstmt.executeQuery();
+            pstmt.close();
+        }
+        StubStatement statement = DRIVER.connections.get(0).statements.get(0);
+        assertTrue("Result set should be closed with the logical statement", statement.resultSetClosed);
+        assertFalse("Physical statement stays cached", statement.closed);
+    }
+
+    @Test
+    public void testClosedStatementHandleRejectsUse() throws Exception {
+        pool = newPool(new ConnectionPool.Config().initialSize(1).maxActive(1).statementCacheSize(4));
+
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement pstmt = conn.prepareStatement("SELECT 1");
+            pstmt.close();
+            assertTrue(pstmt.isClosed());
+            try {
+                pstmt.executeQuery();
+                fail("A closed handle should not run");
+            } catch (SQLException expected) {
+                // expected
+            }
+        }
+    }
+
+    private static ConnectionPool newPool(ConnectionPool.Config config) {
+        return new ConnectionPool(URL, "user", "password", config.housekeepingPeriodMillis(3_600_000));
+    }
+
+    /**
+     * Driver for jdbc:stub: URLs that records every connection it opens
+     */
+    static class StubDriver implements Driver {
+        final List<StubConnection> connections = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            StubConnection conn = new StubConnection();
+            connections.add(conn);
+            return conn.proxy();
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith("jdbc:stub:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+
+    /**
+     * Physical connection stub; prepared statements are StubStatements
+     */
+    static class StubConnection implements InvocationHandler {
+        final List<StubStatement> statements = new CopyOnWriteArrayList<>();
+        volatile boolean closed;
+        volatile boolean valid = true;
+        volatile boolean autoCommit = true;
+        volatile int rollbacks;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            switch (method.getName()) {
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "isValid":
+                    return valid && !closed;
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setAutoCommit":
+                    autoCommit = (Boolean) args[0];
+                    return null;
+                case "rollback":
+                    rollbacks++;
+                    return null;
+                case "prepareStatement":
+                    StubStatement statement = new StubStatement((String) args[0]);
+                    statements.add(statement);
+                    return statement.proxy();
+                case "createStatement":
+                    throw new SQLFeatureNotSupportedException("Stub");
+                case "toString":
+                    return "StubConnection";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Prepared statement stub that records its settings and whether it was closed
+     */
+    static class StubStatement implements InvocationHandler {
+        final String sql;
+        volatile boolean closed;
+        volatile int fetchSize;
+        volatile int maxRows;
+        volatile int queryTimeout;
+        volatile boolean resultSetClosed;
+
+        StubStatement(String sql) {
+            this.sql = sql;
+        }
+
+        PreparedStatement proxy() {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "setFetchSize":
+                    fetchSize = (Integer) args[0];
+                    return null;
+                case "getFetchSize":
+                    return fetchSize;
+                case "setMaxRows":
+                    maxRows = (Integer) args[0];
+                    return null;
+                case "getMaxRows":
+                    return maxRows;
+                case "setQueryTimeout":
+                    queryTimeout = (Integer) args[0];
+                    return null;
+                case "getQueryTimeout":
+                    return queryTimeout;
+                case "executeQuery":
+                    resultSetClosed = false;
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                            (p, m, a) -> {
+                                if (m.getName().equals("close")) {
+                                    resultSetClosed = true;
+                                }
+                                return m.getReturnType() == boolean.class ? false : null;
+                            });
+                case "getFetchDirection":
+                    return ResultSet.FETCH_FORWARD;
+                case "getMaxFieldSize":
+                    return 0;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return null;
+            }
+        }
+    }
+}
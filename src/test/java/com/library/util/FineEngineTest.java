@@ -0,0 +1,154 @@
+package com.library.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for FineEngine and the DateUtil methods that delegate to it.
+ * These tests do not need a database.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class FineEngineTest {
+
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 20000;
+
+    @After
+    public void tearDown() {
+        FineEngine.setClock(null);
+    }
+
+    @Test
+    public void testFineCents() {
+        assertEquals(0, FineEngine.fineCents(-3));
+        assertEquals(0, FineEngine.fineCents(0));
+        assertEquals(50, FineEngine.fineCents(1));
+        assertEquals(1500, FineEngine.fineCents(30));
+    }
+
+    @Test
+    public void testToAmount() {
+        assertSame("No fine should be BigDecimal.ZERO", BigDecimal.ZERO, FineEngine.toAmount(0));
+        assertEquals(new BigDecimal("0.50"), FineEngine.toAmount(50));
+        assertEquals(new BigDecimal("12.00"), FineEngine.toAmount(1200));
+    }
+
+    @Test
+    public void testDateUtilFineMatchesRate() {
+        Date due = Date.valueOf("2017-03-01");
+        Date returned = Date.valueOf("2017-03-11");
+        assertEquals(new BigDecimal("5.00"), DateUtil.calculateFine(due, returned));
+        assertEquals(BigDecimal.ZERO, DateUtil.calculateFine(returned, due));
+        assertEquals(0, DateUtil.FINE_PER_DAY.compareTo(new BigDecimal("0.50")));
+    }
+
+    @Test
+    public void testOverdueDaysAcrossDaylightSavingChange() {
+        // US clocks went forward on 2017-03-12
+        Date due = Date.valueOf("2017-03-10");
+        Date returned = Date.valueOf("2017-03-14");
+        assertEquals(4, FineEngine.overdueDays(due, returned));
+        assertEquals(4, DateUtil.daysBetween(due, returned));
+    }
+
+    @Test
+    public void testOverdueDaysUsesClockForUnreturnedLoans() {
+        ZoneId zone = ZoneId.systemDefault();
+        FineEngine.setClock(Clock.fixed(LocalDate.of(2017, 6, 20).atStartOfDay(zone).toInstant(), zone));
+
+        Date due = Date.valueOf("2017-06-15");
+        assertEquals(5, FineEngine.overdueDays(due, null));
+        assertEquals(250, FineEngine.fineCents(due, null));
+        assertTrue(DateUtil.isOverdue(due));
+        assertFalse("Due today is not overdue", DateUtil.isOverdue(Date.valueOf("2017-06-20")));
+    }
+
+    @Test
+    public void testFormatAndParse() throws ParseException {
+        assertEquals("2017-01-05", FineEngine.format(Date.valueOf("2017-01-05")));
+        assertEquals("", FineEngine.format(null));
+        assertEquals(Date.valueOf("2017-01-05"), FineEngine.parse("2017-01-05"));
+        assertEquals(Date.valueOf("2017-01-05"), FineEngine.parse("2017-1-5"));
+        assertNull(FineEngine.parse("  "));
+    }
+
+    @Test(expected = ParseException.class)
+    public void testParseRejectsGarbage() throws ParseException {
+        FineEngine.parse("not a date");
+    }
+
+    @Test
+    public void testAddDaysAndDueDate() {
+        Date issued = Date.valueOf("2017-12-20");
+        assertEquals(Date.valueOf("2018-01-03"), DateUtil.calculateDueDateForStudent(issued));
+        assertEquals(Date.valueOf("2018-01-19"), DateUtil.calculateDueDateForFaculty(issued));
+        assertEquals(Date.valueOf("2017-12-19"), DateUtil.addDays(issued, -1));
+    }
+
+    @Test
+    public void testConcurrentFormatParseAndFine() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                final long offset = t * 1000L;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int mismatches = 0;
+                        long base = LocalDate.of(2017, 1, 1).toEpochDay() + offset;
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            long day = base + (i % 1000);
+                            LocalDate expected = LocalDate.ofEpochDay(day);
+                            Date date = Date.valueOf(expected);
+
+                            String text = DateUtil.formatDate(date);
+                            if (!expected.toString().equals(text)) {
+                                mismatches++;
+                            }
+                            if (!date.equals(DateUtil.parseDate(text))) {
+                                mismatches++;
+                            }
+                            long overdue = i % 40;
+                            BigDecimal fine = DateUtil.calculateFine(date, FineEngine.toSqlDate(day + overdue));
+                            if (fine.compareTo(BigDecimal.valueOf(overdue * 50, 2)) != 0) {
+                                mismatches++;
+                            }
+                        }
+                        return mismatches;
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> future : futures) {
+                assertEquals("Results should not be corrupted by other threads", 0,
+                        future.get(60, TimeUnit.SECONDS).intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.library.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for QueryMetrics statement naming.
+ * These tests do not need a database.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class QueryMetricsTest {
+
+    @SuppressWarnings("unused")
+    static class FirstDao {
+        private static final String SELECT_WIDGET = "SELECT * FROM qm_widgets WHERE widget_id=?";
+        private static final String CLAIM_WIDGET = "UPDATE qm_widgets SET stock = stock - 1 WHERE widget_id=?";
+        private static final String SELECT_BY_IDS_PREFIX = "SELECT * FROM qm_widgets WHERE widget_id IN ";
+        private static final String DATE_FORMAT = "yyyy-MM-dd";
+        private static final String VALUES_ROW = ",(?,?)";
+        private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE stock=VALUES(stock)";
+    }
+
+    @SuppressWarnings("unused")
+    static class SecondDao {
+        private static final String DECREMENT_STOCK = "UPDATE qm_widgets SET stock = stock - 1 WHERE widget_id=?";
+    }
+
+    @Test
+    public void testConstantsNamedByClassAndField() {
+        QueryMetrics.registerConstants(FirstDao.class);
+
+        assertEquals("FirstDao.SELECT_WIDGET", QueryMetrics.nameOf("SELECT * FROM qm_widgets WHERE widget_id=?"));
+    }
+
+    @Test
+    public void testSqlBuiltFromPrefixUsesPrefixName() {
+        QueryMetrics.registerConstants(FirstDao.class);
+
+        assertEquals("FirstDao.SELECT_BY_IDS_PREFIX",
+                QueryMetrics.nameOf("SELECT * FROM qm_widgets WHERE widget_id IN (?,?,?)"));
+    }
+
+    @Test
+    public void testDuplicateSqlGetsBothNamesInAnyOrder() {
+        QueryMetrics.registerConstants(SecondDao.class);
+        QueryMetrics.registerConstants(FirstDao.class);
+        QueryMetrics.registerConstants(SecondDao.class);
+
+        assertEquals("FirstDao.CLAIM_WIDGET|SecondDao.DECREMENT_STOCK",
+                QueryMetrics.nameOf("UPDATE qm_widgets SET stock = stock - 1 WHERE widget_id=?"));
+    }
+
+    @Test
+    public void testNonSqlConstantsNotRegistered() {
+        QueryMetrics.registerConstants(FirstDao.class);
+
+        assertEquals(QueryMetrics.UNREGISTERED, QueryMetrics.nameOf("yyyy-MM-dd"));
+        assertEquals(QueryMetrics.UNREGISTERED, QueryMetrics.nameOf(",(?,?)"));
+        assertEquals(QueryMetrics.UNREGISTERED, QueryMetrics.nameOf(" ON DUPLICATE KEY UPDATE stock=VALUES(stock)"));
+        assertEquals(QueryMetrics.UNREGISTERED, QueryMetrics.nameOf("SELECT 1 FROM qm_unknown"));
+    }
+
+    @Test
+    public void testIsStatement() {
+        assertTrue(QueryMetrics.isStatement("SELECT 1"));
+        assertTrue(QueryMetrics.isStatement("  insert into t VALUES (?)"));
+        assertTrue(QueryMetrics.isStatement("WITH x AS (SELECT 1) SELECT * FROM x"));
+        assertFalse(QueryMetrics.isStatement("SELECTED"));
+        assertFalse(QueryMetrics.isStatement("Selection"));
+        assertFalse(QueryMetrics.isStatement(""));
+        assertFalse(QueryMetrics.isStatement(null));
+    }
+}
@@ -0,0 +1,116 @@
+package com.library.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for TrigramIndex.
+ * These tests do not need a database.
+ *
+ * @author Library Management System
+ * @version 1.0
+ * @since 2017
+ */
+public class TrigramIndexTest {
+
+    private static final String[] EFFECTIVE_JAVA = {"Effective Java", "Joshua Bloch", "9780134685991"};
+    private static final String[] CONCURRENCY = {"Java Concurrency in Practice", "Brian Goetz", "9780321349606"};
+    private static final String[] CLEAN_CODE = {"Clean Code", "Robert Martin", null};
+
+    private TrigramIndex index;
+
+    @Before
+    public void setUp() {
+        index = new TrigramIndex(3);
+        index.add(1, EFFECTIVE_JAVA);
+        index.add(2, CONCURRENCY);
+        index.add(3, CLEAN_CODE);
+    }
+
+    @Test
+    public void testSearchFindsSubstrings() {
+        assertArrayEquals(new int[]{1, 2}, index.search("JAVA"));
+        assertArrayEquals(new int[]{3}, index.search("lean co"));
+        assertArrayEquals(new int[]{2}, index.search("349606"));
+        assertArrayEquals(new int[0], index.search("python"));
+    }
+
+    @Test
+    public void testRankOrdersByFieldAndMatchKind() {
+        index.add(4, "Java", "Someone", "111");
+        index.add(5, "Patterns", "Java Team", "222");
+
+        // Whole title, title prefix, title substring, then author
+        assertArrayEquals(new int[]{4, 2, 1, 5}, index.rank("java", 10));
+        assertArrayEquals(new int[]{4, 2}, index.rank("java", 2));
+        assertArrayEquals(new int[]{1}, index.rank("bloch", 10));
+    }
+
+    @Test
+    public void testReplaceSwapsIndexedText() {
+        index.replace(1, EFFECTIVE_JAVA, "Modern Java", "Someone Else", "111");
+
+        assertArrayEquals("Old title should be gone", new int[0], index.search("effective"));
+        assertArrayEquals(new int[0], index.search("bloch"));
+        assertArrayEquals(new int[]{1}, index.search("modern"));
+        assertEquals(3, index.getDocumentCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddingIndexedDocumentRejected() {
+        index.add(1, EFFECTIVE_JAVA);
+    }
+
+    @Test
+    public void testRemoveById() {
+        index.remove(2, CONCURRENCY);
+
+        assertArrayEquals(new int[]{1}, index.search("java"));
+        assertArrayEquals(new int[0], index.search("goetz"));
+        assertFalse(index.isIndexed(2));
+        assertEquals(2, index.getDocumentCount());
+
+        // Removing twice is harmless
+        index.remove(2, CONCURRENCY);
+        assertEquals(2, index.getDocumentCount());
+    }
+
+    @Test
+    public void testRemovingEveryDocumentEmptiesPostings() {
+        index.remove(1, EFFECTIVE_JAVA);
+        index.remove(2, CONCURRENCY);
+        index.remove(3, CLEAN_CODE);
+
+        assertEquals(0, index.getTrigramCount());
+        assertEquals(0, index.getPostingCount());
+    }
+
+    @Test
+    public void testPostingsSurviveGrowthAndRemovals() {
+        TrigramIndex large = new TrigramIndex(1);
+        for (int id = 0; id < 5000; id++) {
+            large.add(id, "title " + id);
+        }
+        // Far past the others, so its delta takes several varint bytes
+        large.add(1000000, "title 5");
+        for (int id = 0; id < 5000; id += 2) {
+            large.remove(id, "title " + id);
+        }
+        // Lands in the middle of its posting lists
+        large.add(2, "title 2");
+
+        assertArrayEquals(new int[]{4321}, large.search("title 4321"));
+        assertArrayEquals(new int[0], large.search("title 4320"));
+        assertArrayEquals(new int[]{5, 1000000}, large.rank("title 5", 2));
+        assertArrayEquals(new int[]{2}, large.rank("title 2", 1));
+        assertEquals(2502, large.getDocumentCount());
+        assertEquals(2502, large.search("title").length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortQueryRejected() {
+        index.search("ja");
+    }
+}